@@ -17,20 +17,28 @@ import org.eclipse.jifa.analysis.listener.ProgressListener;
 import org.eclipse.jifa.gclog.model.GCModel;
 import org.eclipse.jifa.gclog.parser.GCLogAnalyzer;
 import org.eclipse.jifa.gclog.parser.GCLogParserFactory;
+import org.eclipse.jifa.gclog.parser.GCLogSource;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
 
 public class GCLogAnalysisApiExecutor extends AbstractApiExecutor<GCModel> {
 
+    // "true" to keep primitive columns of events for faster statistics at the cost of more memory
+    public static final String OPTION_COLUMNAR_STORE = "columnar_store";
+
     @Override
     protected GCModel buildAnalyzer(Path target, Map<String, String> options, ProgressListener listener) throws Throwable {
-        return new GCLogAnalyzer(target.toFile(), listener).parse();
+        GCLogAnalyzer analyzer = new GCLogAnalyzer(target.toFile(), listener);
+        analyzer.setColumnarStoreEnabled(options != null && Boolean.parseBoolean(options.get(OPTION_COLUMNAR_STORE)));
+        return analyzer.parse();
     }
 
     @Override
@@ -42,12 +50,18 @@ public class GCLogAnalysisApiExecutor extends AbstractApiExecutor<GCModel> {
     public Predicate<byte[]> matcher() {
         return bytes -> {
             GCLogParserFactory factory = new GCLogParserFactory();
-            try (BufferedReader bufferedReader = new BufferedReader(
-                    new InputStreamReader(new ByteArrayInputStream(bytes)))) {
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(headerStream(bytes)))) {
                 return factory.getParser(bufferedReader) != null;
             } catch (IOException e) {
                 return false;
             }
         };
     }
+
+    // bytes are only the head of the file, a truncated gzip stream is fine since the factory
+    // stops at the first read error
+    private static InputStream headerStream(byte[] bytes) throws IOException {
+        InputStream is = new ByteArrayInputStream(bytes);
+        return GCLogSource.isGzip(bytes) ? new GZIPInputStream(is) : is;
+    }
 }
@@ -62,6 +62,26 @@ public class AnalysisConfig {
         return config;
     }
 
+    public AnalysisConfig copy() {
+        AnalysisConfig copy = new AnalysisConfig();
+        copy.setTimeRange(timeRange == null ? null : new TimeRange(timeRange.getStart(), timeRange.getEnd()));
+        copy.setLongPauseThreshold(longPauseThreshold);
+        copy.setLongConcurrentThreshold(longConcurrentThreshold);
+        copy.setYoungGCFrequentIntervalThreshold(youngGCFrequentIntervalThreshold);
+        copy.setOldGCFrequentIntervalThreshold(oldGCFrequentIntervalThreshold);
+        copy.setFullGCFrequentIntervalThreshold(fullGCFrequentIntervalThreshold);
+        copy.setHighOldUsageThreshold(highOldUsageThreshold);
+        copy.setHighHumongousUsageThreshold(highHumongousUsageThreshold);
+        copy.setHighHeapUsageThreshold(highHeapUsageThreshold);
+        copy.setHighMetaspaceUsageThreshold(highMetaspaceUsageThreshold);
+        copy.setSmallGenerationThreshold(smallGenerationThreshold);
+        copy.setHighPromotionThreshold(highPromotionThreshold);
+        copy.setBadThroughputThreshold(badThroughputThreshold);
+        copy.setTooManyOldGCThreshold(tooManyOldGCThreshold);
+        copy.setHighSysThreshold(highSysThreshold);
+        copy.setLowUsrThreshold(lowUsrThreshold);
+        return copy;
+    }
 
     // time range is ignored here
 
@@ -17,8 +17,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.eclipse.jifa.common.domain.exception.CommonException;
-import org.eclipse.jifa.common.domain.exception.ShouldNotReachHereException;
+import org.eclipse.jifa.gclog.event.GCEvent;
 import org.eclipse.jifa.gclog.event.TimedEvent;
 import org.eclipse.jifa.gclog.event.eventInfo.GCCause;
 import org.eclipse.jifa.gclog.model.GCEventType;
@@ -30,17 +29,12 @@ import org.eclipse.jifa.gclog.util.I18nStringView;
 import org.eclipse.jifa.gclog.util.Key2ValueListMap;
 import org.eclipse.jifa.gclog.vo.TimeRange;
 
-import java.lang.annotation.ElementType;
-import java.lang.annotation.Retention;
-import java.lang.annotation.RetentionPolicy;
-import java.lang.annotation.Target;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.ALLOCATION_STALL;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.FREQUENT_YOUNG_GC;
@@ -70,6 +64,7 @@ import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_DOUBLE;
 public class GlobalDiagnoser {
     private GCModel model;
     private AnalysisConfig config;
+    private boolean shouldAvoidFullGC;
 
     private Key2ValueListMap<String, Double> allProblems = new Key2ValueListMap<>();
     private List<AbnormalPoint> mostSeriousProblemList = new ArrayList<>();
@@ -79,6 +74,7 @@ public class GlobalDiagnoser {
     public GlobalDiagnoser(GCModel model, AnalysisConfig config) {
         this.model = model;
         this.config = config;
+        this.shouldAvoidFullGC = model.shouldAvoidFullGC();
     }
 
     public GlobalAbnormalInfo diagnose() {
@@ -88,13 +84,35 @@ public class GlobalDiagnoser {
     }
 
     private void findAllAbnormalPoints() {
-        for (Method rule : globalDiagnoseRules) {
-            try {
-                rule.invoke(this);
-            } catch (Exception e) {
-                throw new ShouldNotReachHereException();
+        List<GCEvent> events = new ArrayList<>();
+        model.iterateEventsWithinTimeRange(model.getAllEvents(), config.getTimeRange(), events::add);
+        int chunkCount = (events.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunks = IntStream.range(0, chunkCount);
+        if (chunkCount > 1) {
+            chunks = chunks.parallel();
+        }
+        // results are collected in order of chunks so that abnormal points are added in order of events
+        List<RuleResult> results = chunks.mapToObj(chunk -> {
+            RuleResult result = new RuleResult();
+            int to = Math.min(events.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                GCEvent event = events.get(i);
+                for (int rule = 0; rule < EVENT_RULES.size(); rule++) {
+                    EVENT_RULES.get(rule).visit(this, event, result.points.get(rule));
+                }
+            }
+            return result;
+        }).collect(Collectors.toList());
+
+        for (int rule = 0; rule < EVENT_RULES.size(); rule++) {
+            for (RuleResult result : results) {
+                result.points.get(rule).forEach(this::addAbnormalPoint);
             }
         }
+        fullGC();
+        frequentYoungGC();
+        allocationStall();
+        outOfMemory();
     }
 
     // Extend the start time forward by 2.5 min so that user can see what happened before the problem.
@@ -155,90 +173,57 @@ public class GlobalDiagnoser {
         return new GlobalAbnormalInfo(summary, allProblems.getInnerMap());
     }
 
-    private static List<Method> globalDiagnoseRules = new ArrayList<>();
+    // Rules that only look at events in allEvents are applied in a shared pass. The pass is split into chunks
+    // which are visited in parallel, so a rule must not keep state other than the points it reports. Rules on
+    // gcEvents keep their own pass, since phases in allEvents may be of the same types as gcEvents.
+    private static final List<EventRule> EVENT_RULES = List.of(
+            GlobalDiagnoser::longGCPause,
+            GlobalDiagnoser::longRemark
+    );
 
-    static {
-        initializeRules();
-    }
+    // number of events visited by a task in the shared pass
+    private static final int CHUNK_SIZE = 8192;
 
-    private static void initializeRules() {
-        Method[] methods = GlobalDiagnoser.class.getDeclaredMethods();
-        for (Method method : methods) {
-            if (method.getAnnotation(GlobalDiagnoseRule.class) != null) {
-                method.setAccessible(true);
-                int mod = method.getModifiers();
-                if (Modifier.isAbstract(mod) || Modifier.isFinal(mod) ||
-                        !(Modifier.isPublic(mod) || Modifier.isProtected(mod))) {
-                    throw new CommonException("Illegal method modifier: " + method);
-                }
-                globalDiagnoseRules.add(method);
-            }
-        }
+    @FunctionalInterface
+    private interface EventRule {
+        void visit(GlobalDiagnoser diagnoser, GCEvent event, List<AbnormalPoint> points);
     }
 
-    @GlobalDiagnoseRule
-    protected void longGCPause() {
-        model.iterateEventsWithinTimeRange(model.getAllEvents(), config.getTimeRange(), event -> {
-            event.pauseEventOrPhasesDo(pauseEvent -> {
-                if (pauseEvent.getPause() <= config.getLongPauseThreshold()) {
-                    return;
-                }
-                if (pauseEvent.isYoungGC()) {
-                    addAbnormalPoint(new AbnormalPoint(LONG_YOUNG_GC_PAUSE, pauseEvent));
-                }
-            });
-        });
-    }
+    // what rules find in a chunk of events
+    private static class RuleResult {
+        private final List<List<AbnormalPoint>> points = new ArrayList<>();
 
-    @GlobalDiagnoseRule
-    protected void allocationStall() {
-        if (model.getCollectorType() != GCCollectorType.ZGC) {
-            return;
+        RuleResult() {
+            for (int i = 0; i < EVENT_RULES.size(); i++) {
+                points.add(new ArrayList<>());
+            }
         }
-        ZGCModel zModel = (ZGCModel) model;
-        model.iterateEventsWithinTimeRange(zModel.getAllocationStalls(), config.getTimeRange(), stall -> {
-            addAbnormalPoint(new AbnormalPoint(ALLOCATION_STALL, stall));
-        });
-    }
-
-    @GlobalDiagnoseRule
-    protected void outOfMemory() {
-        model.iterateEventsWithinTimeRange(model.getOoms(), config.getTimeRange(), oom -> {
-            addAbnormalPoint(new AbnormalPoint(AbnormalType.OUT_OF_MEMORY, oom));
-        });
     }
 
-    @GlobalDiagnoseRule
-    protected void longRemark() {
-        model.iterateEventsWithinTimeRange(model.getAllEvents(), config.getTimeRange(), remark -> {
-            GCEventType type = remark.getEventType();
-            if (remark.getPause() < config.getLongPauseThreshold()) {
+    private void longGCPause(GCEvent event, List<AbnormalPoint> points) {
+        event.pauseEventOrPhasesDo(pauseEvent -> {
+            if (pauseEvent.getPause() <= config.getLongPauseThreshold()) {
                 return;
             }
-            if (type == CMS_FINAL_REMARK) {
-                addAbnormalPoint(new AbnormalPoint(LONG_CMS_REMARK, remark));
-            } else if (type == G1_REMARK) {
-                addAbnormalPoint(new AbnormalPoint(LONG_G1_REMARK, remark));
+            if (pauseEvent.isYoungGC()) {
+                points.add(new AbnormalPoint(LONG_YOUNG_GC_PAUSE, pauseEvent));
             }
         });
     }
 
-    @GlobalDiagnoseRule
-    protected void frequentYoungGC() {
-        DoubleData interval = new DoubleData();
-        model.iterateEventsWithinTimeRange(model.getGcEvents(), config.getTimeRange(), event -> {
-            if (event.isYoungGC() && event.getInterval() != UNKNOWN_DOUBLE) {
-                interval.add(event.getInterval());
-            }
-        });
-        if (interval.getN() > 0 && interval.average() < config.getYoungGCFrequentIntervalThreshold()) {
-            addAbnormalPoint(new AbnormalPoint(FREQUENT_YOUNG_GC, TimedEvent.fromTimeRange(config.getTimeRange())));
+    private void longRemark(GCEvent remark, List<AbnormalPoint> points) {
+        GCEventType type = remark.getEventType();
+        if (remark.getPause() < config.getLongPauseThreshold()) {
+            return;
+        }
+        if (type == CMS_FINAL_REMARK) {
+            points.add(new AbnormalPoint(LONG_CMS_REMARK, remark));
+        } else if (type == G1_REMARK) {
+            points.add(new AbnormalPoint(LONG_G1_REMARK, remark));
         }
     }
 
-    @GlobalDiagnoseRule
-    protected void fullGC() {
-        boolean shouldAvoidFullGC = model.shouldAvoidFullGC();
+    private void fullGC() {
         model.iterateEventsWithinTimeRange(model.getGcEvents(), config.getTimeRange(), event -> {
             if (event.getEventType() != FULL_GC) {
                 return;
@@ -256,6 +241,34 @@ public class GlobalDiagnoser {
         });
     }
 
+    private void frequentYoungGC() {
+        DoubleData interval = new DoubleData();
+        model.iterateEventsWithinTimeRange(model.getGcEvents(), config.getTimeRange(), event -> {
+            if (event.isYoungGC() && event.getInterval() != UNKNOWN_DOUBLE) {
+                interval.add(event.getInterval());
+            }
+        });
+        if (interval.getN() > 0 && interval.average() < config.getYoungGCFrequentIntervalThreshold()) {
+            addAbnormalPoint(new AbnormalPoint(FREQUENT_YOUNG_GC, TimedEvent.fromTimeRange(config.getTimeRange())));
+        }
+    }
+
+    private void allocationStall() {
+        if (model.getCollectorType() != GCCollectorType.ZGC && model.getCollectorType() != GCCollectorType.GENZ) {
+            return;
+        }
+        ZGCModel zModel = (ZGCModel) model;
+        model.iterateEventsWithinTimeRange(zModel.getAllocationStalls(), config.getTimeRange(), stall -> {
+            addAbnormalPoint(new AbnormalPoint(ALLOCATION_STALL, stall));
+        });
+    }
+
+    private void outOfMemory() {
+        model.iterateEventsWithinTimeRange(model.getOoms(), config.getTimeRange(), oom -> {
+            addAbnormalPoint(new AbnormalPoint(AbnormalType.OUT_OF_MEMORY, oom));
+        });
+    }
+
     private void addAbnormalPoint(AbnormalPoint point) {
         allProblems.put(point.getType().getName(), point.getSite().getStartTime());
         int compare = AbnormalPoint.compareByImportance.compare(point, mostSerious);
@@ -268,11 +281,6 @@ public class GlobalDiagnoser {
         }
     }
 
-    @Retention(RetentionPolicy.RUNTIME)
-    @Target(ElementType.METHOD)
-    private @interface GlobalDiagnoseRule {
-    }
-
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
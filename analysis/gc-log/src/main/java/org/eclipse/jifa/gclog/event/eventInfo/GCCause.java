@@ -59,6 +59,7 @@ public class GCCause {
     public static GCCause ALLOC_RATE = new GCCause("Allocation Rate");
     public static GCCause ALLOC_STALL = new GCCause("Allocation Stall");
     public static GCCause PROACTIVE = new GCCause("Proactive");
+    public static GCCause HIGH_USAGE = new GCCause("High Usage");
     public static GCCause PREVENTIVE = new GCCause("G1 Preventive Collection");
     public static GCCause G1_COMPACTION = new GCCause("G1 Compaction Pause");
     public static GCCause UNKNOWN_GCCAUSE = new GCCause("unknown GCCause");
@@ -18,15 +18,14 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+
+import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_DOUBLE;
 
 public class Context {
     private List<String> context;
-    private final ContextComparator contextComparator = new ContextComparator();
 
     /* to match the following timestamp pattern:
    [2023-08-25T14:28:44.980+0800][0.076s] GC(374) Pause Mark Start 4.459ms
@@ -34,17 +33,24 @@ public class Context {
    [7.006s] GC(374) Pause Mark Start 4.459ms
    675.461: [CMS-concurrent-mark-start]
     */
-    static Pattern[] timestampPatternToChoose = {
-            Pattern.compile("\\[[\\d-T:+.]+]\\[(\\d+\\.\\d+)s][\\s\\S]*"),
-            Pattern.compile("[\\d-T:+.]+ (\\d+\\.\\d+): \\[[\\s\\S]*"),
-            Pattern.compile("\\[(\\d+\\.\\d+)s][\\s\\S]*"),
-            Pattern.compile("(\\d+\\.\\d+): \\[[\\s\\S]*")
-    };
-    private Pattern timestampPattern;
+    private TimestampFormat timestampFormat;
+    // range of sort keys of lines with timestamp, see sortKey
+    private long minKey = NO_TIMESTAMP;
+    private long maxKey = NO_TIMESTAMP;
+
+    static Set<String> precedentPatternSet = new ImmutableSet.Builder<String>()
+            .add("Pause Young", "Pause Initial Mark", "CMS Initial Mark", "Concurrent Cycle", "Concurrent Mark").build();
+
+    // digits of fraction of timestamp kept in sort key
+    private static final int KEY_FRACTION_DIGITS = 9;
+    // lines without timestamp are placed at the tail
+    private static final long NO_TIMESTAMP = Long.MAX_VALUE;
+    // contexts up to this size are sorted by Arrays.sort on keys packed with their index
+    private static final int RADIX_SORT_THRESHOLD = 1 << 12;
 
     public Context(List<String> context) throws RuntimeException{
         this.context = context;
-        selectTimestampPattern();
+        selectTimestampFormat();
         sort();
     }
 
@@ -54,11 +60,11 @@ public class Context {
         return new BufferedReader(new InputStreamReader(inputStream));
     }
 
-    private void selectTimestampPattern() throws RuntimeException{
+    private void selectTimestampFormat() throws RuntimeException{
         for (String str : context) {
-            for (Pattern pattern : timestampPatternToChoose) {
-                if (pattern.matcher(str).matches()) {
-                    timestampPattern = pattern;
+            for (TimestampFormat format : TimestampFormat.values()) {
+                if (format.uptimeStart(str) >= 0) {
+                    timestampFormat = format;
                     return;
                 }
             }
@@ -66,70 +72,270 @@ public class Context {
         throw new RuntimeException("fail to parse timestamp");
     }
 
-    class ContextComparator implements Comparator<String> {
+    // uptime of the first line in seconds, or UNKNOWN_DOUBLE if no line has timestamp
+    public double getStartUptime() {
+        return keyToUptime(minKey);
+    }
 
-        static Set<String> precedentPatternSet = new ImmutableSet.Builder<String>()
-                .add("Pause Young", "Pause Initial Mark", "CMS Initial Mark", "Concurrent Cycle", "Concurrent Mark").build();
+    // uptime of the last line with timestamp in seconds, or UNKNOWN_DOUBLE if no line has timestamp
+    public double getEndUptime() {
+        return keyToUptime(maxKey);
+    }
 
-        boolean isPrecedent(String str) {
-            return precedentPatternSet.stream().anyMatch(str::contains);
+    private static double keyToUptime(long key) {
+        if (key == NO_TIMESTAMP) {
+            return UNKNOWN_DOUBLE;
         }
-        /*
-        return value:
-        1:  place string2 in prior to string1
-        -1: place string1 in prior to string2
-         */
-        @Override
-        public int compare(String o1, String o2) {
-            Matcher matcher;
-            String timestampString1 = null, timestampString2 = null;
-            if ((matcher = timestampPattern.matcher(o1)).matches()) {
-                timestampString1 = matcher.group(1);
+        return (key >>> 1) / Math.pow(10, KEY_FRACTION_DIGITS);
+    }
+
+    static boolean isPrecedent(String str) {
+        for (String pattern : precedentPatternSet) {
+            if (str.contains(pattern)) {
+                return true;
             }
-            if ((matcher = timestampPattern.matcher(o2)).matches()) {
-                timestampString2 = matcher.group(1);
+        }
+        return false;
+    }
+
+    /*
+     * Lines are ordered by timestamp, and if timestamps are equal, precedent lines go first. Lines without
+     * timestamp are placed at the tail. Otherwise, original order is kept.
+     * The timestamp is parsed once for each line into a fixed point key whose lowest bit tells whether the line
+     * is not precedent, and keys are sorted by a stable radix sort.
+     */
+    private void sort() {
+        int n = context.size();
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = sortKey(context.get(i));
+            order[i] = i;
+        }
+        sortKeys(keys, order);
+        if (n > 0 && keys[0] != NO_TIMESTAMP) {
+            minKey = keys[0];
+            for (int i = n - 1; i >= 0; i--) {
+                if (keys[i] != NO_TIMESTAMP) {
+                    maxKey = keys[i];
+                    break;
+                }
             }
-            if (timestampString1 == null && timestampString2 == null) {
-                return 0;
-            } else if (timestampString1 == null) {
-                // string2 in prior to string1:
-                // string1 doesn't match, thus place it at the tail of the list.
-                return 1;
-            } else if (timestampString2 == null) {
-                // place string1 in prior to string2:
-                // string2 doesn't match, thus place string1 before it.
-                return -1;
+        }
+        String[] sorted = new String[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = context.get(order[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            context.set(i, sorted[i]);
+        }
+    }
+
+    private long sortKey(String str) {
+        int start = timestampFormat.uptimeStart(str);
+        if (start < 0) {
+            return NO_TIMESTAMP;
+        }
+        long uptime = parseUptime(str, start);
+        return (uptime << 1) | (isPrecedent(str) ? 0 : 1);
+    }
+
+    // parse \d+\.\d+ at start into a fixed point number, which is guaranteed by TimestampFormat.uptimeStart
+    private static long parseUptime(String str, int start) {
+        long value = 0;
+        int i = start;
+        for (; str.charAt(i) != '.'; i++) {
+            value = value * 10 + (str.charAt(i) - '0');
+        }
+        i++;
+        for (int digits = 0; digits < KEY_FRACTION_DIGITS; digits++) {
+            char c = i < str.length() ? str.charAt(i) : ' ';
+            value *= 10;
+            if (isDigit(c)) {
+                value += c - '0';
+                i++;
             }
+        }
+        // keep room for the precedent bit and NO_TIMESTAMP
+        return Math.min(Math.max(value, 0), (NO_TIMESTAMP >>> 1) - 1);
+    }
 
-            if (timestampString1.equals(timestampString2)) {
-                boolean string1IsPrecedent = isPrecedent(o1), string2IsPrecedent = isPrecedent(o2);
-                if (string1IsPrecedent == string2IsPrecedent) {
-                    // both string1 and string2 are precedent or
-                    // neither one is precedent
-                    return 0;
-                } else {
-                    if (string1IsPrecedent) {
-                        // place string1 in prior to string2:
-                        return -1;
-                    } else {
-                        // place string2 in prior to string1:
-                        return 1;
-                    }
-                }
-            } else {
-                return Double.parseDouble(timestampString1) > Double.parseDouble(timestampString2) ? 1 : -1;
+    // stable sort of keys, order is permuted along with keys
+    static void sortKeys(long[] keys, int[] order) {
+        int n = keys.length;
+        if (n < 2) {
+            return;
+        }
+        if (n <= RADIX_SORT_THRESHOLD && packedSort(keys, order)) {
+            return;
+        }
+        radixSort(keys, order);
+    }
+
+    // sort (key - min) << indexBits | index, which is stable since ties are broken by position.
+    // returns false if keys span too wide a range to be packed along with the index
+    private static boolean packedSort(long[] keys, int[] order) {
+        int n = keys.length;
+        int indexBits = Integer.SIZE - Integer.numberOfLeadingZeros(n - 1);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long key : keys) {
+            if (key != NO_TIMESTAMP) {
+                min = Math.min(min, key);
+                max = Math.max(max, key);
+            }
+        }
+        // lines without timestamp still go last
+        long noTimestamp = min > max ? 0 : max - min + 1;
+        if (noTimestamp >>> (Long.SIZE - 1 - indexBits) != 0) {
+            return false;
+        }
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            long key = keys[i] == NO_TIMESTAMP ? noTimestamp : keys[i] - min;
+            packed[i] = key << indexBits | i;
+        }
+        Arrays.sort(packed);
+        long[] keyCopy = keys.clone();
+        int[] orderCopy = order.clone();
+        long mask = (1L << indexBits) - 1;
+        for (int i = 0; i < n; i++) {
+            int from = (int) (packed[i] & mask);
+            keys[i] = keyCopy[from];
+            order[i] = orderCopy[from];
+        }
+        return true;
+    }
+
+    // LSD radix sort on 8 bit digits, which is stable. Digits where all keys agree are skipped.
+    private static void radixSort(long[] keys, int[] order) {
+        int n = keys.length;
+        long diff = 0;
+        for (long key : keys) {
+            diff |= key ^ keys[0];
+        }
+        long[] keyBuffer = new long[n];
+        int[] orderBuffer = new int[n];
+        int[] count = new int[1 << 8];
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            if ((diff >>> shift & 0xFF) == 0) {
+                continue;
+            }
+            Arrays.fill(count, 0);
+            for (long key : keys) {
+                count[(int) (key >>> shift) & 0xFF]++;
+            }
+            for (int i = 0, sum = 0; i < count.length; i++) {
+                int c = count[i];
+                count[i] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int to = count[(int) (keys[i] >>> shift) & 0xFF]++;
+                keyBuffer[to] = keys[i];
+                orderBuffer[to] = order[i];
             }
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(orderBuffer, 0, order, 0, n);
         }
     }
 
-    private void sort() {
-        context.sort(contextComparator);
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // the set of characters in date stamp, [\d-T:+.]
+    private static boolean isDateStampChar(char c) {
+        return isDigit(c) || c == '-' || c == 'T' || c == ':' || c == '+' || c == '.';
+    }
+
+    // end of \d+\.\d+ from start, or -1 if not matched
+    private static int skipUptime(String str, int start) {
+        int i = start;
+        while (i < str.length() && isDigit(str.charAt(i))) {
+            i++;
+        }
+        if (i == start || i >= str.length() || str.charAt(i) != '.') {
+            return -1;
+        }
+        int fractionStart = ++i;
+        while (i < str.length() && isDigit(str.charAt(i))) {
+            i++;
+        }
+        return i == fractionStart ? -1 : i;
+    }
+
+    private static boolean matchesAt(String str, int start, String expected) {
+        return start >= 0 && str.startsWith(expected, start);
+    }
+
+    // end of [\d-T:+.]+ from start, or -1 if not matched
+    private static int skipDateStamp(String str, int start) {
+        int i = start;
+        while (i < str.length() && isDateStampChar(str.charAt(i))) {
+            i++;
+        }
+        return i == start ? -1 : i;
+    }
+
+    /*
+     * Formats of timestamp in the order they are tried. Each of them is matched by hand, which is equivalent to
+     * the regex in the comment.
+     */
+    enum TimestampFormat {
+        // \[[\d-T:+.]+]\[(\d+\.\d+)s][\s\S]*
+        DATE_AND_UPTIME_DECORATION {
+            @Override
+            int uptimeStart(String str) {
+                if (!str.startsWith("[")) {
+                    return -1;
+                }
+                int i = skipDateStamp(str, 1);
+                if (!matchesAt(str, i, "][")) {
+                    return -1;
+                }
+                int start = i + 2;
+                return matchesAt(str, skipUptime(str, start), "s]") ? start : -1;
+            }
+        },
+        // [\d-T:+.]+ (\d+\.\d+): \[[\s\S]*
+        DATE_AND_UPTIME {
+            @Override
+            int uptimeStart(String str) {
+                int i = skipDateStamp(str, 0);
+                if (!matchesAt(str, i, " ")) {
+                    return -1;
+                }
+                int start = i + 1;
+                return matchesAt(str, skipUptime(str, start), ": [") ? start : -1;
+            }
+        },
+        // \[(\d+\.\d+)s][\s\S]*
+        UPTIME_DECORATION {
+            @Override
+            int uptimeStart(String str) {
+                if (!str.startsWith("[")) {
+                    return -1;
+                }
+                return matchesAt(str, skipUptime(str, 1), "s]") ? 1 : -1;
+            }
+        },
+        // (\d+\.\d+): \[[\s\S]*
+        UPTIME {
+            @Override
+            int uptimeStart(String str) {
+                return matchesAt(str, skipUptime(str, 0), ": [") ? 0 : -1;
+            }
+        };
+
+        // index of uptime in str, or -1 if str doesn't start with a timestamp of this format
+        abstract int uptimeStart(String str);
     }
 
     // for debug
     private void checkStartWithTimeStamp() {
         for (String str : context) {
-            if (!timestampPattern.matcher(str).matches()) {
+            if (timestampFormat.uptimeStart(str) < 0) {
                 throw new RuntimeException("found invalid string which doesn't start with a required timestamp: " + str);
             }
         }
@@ -137,6 +343,6 @@ public class Context {
 
     // for debug
     private void filterInvalidFragment() {
-        context.removeIf(str -> !timestampPattern.matcher(str).matches());
+        context.removeIf(str -> timestampFormat.uptimeStart(str) < 0);
     }
 }
@@ -12,20 +12,53 @@
  ********************************************************************************/
 package org.eclipse.jifa.gclog.fragment;
 
-import lombok.NoArgsConstructor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.gclog.event.GCEvent;
 import org.eclipse.jifa.gclog.model.GCModel;
+import org.eclipse.jifa.gclog.parser.AbstractGCLogParser;
 import org.eclipse.jifa.gclog.parser.GCLogParser;
 import org.eclipse.jifa.gclog.parser.GCLogParserFactory;
 
 import java.io.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
-@NoArgsConstructor
+import static org.eclipse.jifa.analysis.listener.ProgressListener.NoOpProgressListener;
+import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_DOUBLE;
+
+/**
+ * Analyze fragments of gc logs of many jvm instances. State of each instance, the parser and the model being
+ * resumed by resumeToMetrics, is kept in a store bounded by estimated memory and idle time, so that a long-running
+ * pipeline seeing many instances doesn't grow without limit. An evicted instance simply starts over.
+ */
 @Slf4j
 public class GCLogAnalyzer {
-    private final Map<Map<String, String>, GCLogParser> parserMap = new ConcurrentHashMap<>();
+    public static final long DEFAULT_MAX_STATE_BYTES = 256L * 1024 * 1024;
+    public static final Duration DEFAULT_STATE_TTL = Duration.ofMinutes(30);
+
+    // rough memory usage of an event with its phases and memory items, and of a state without model
+    private static final long ESTIMATED_BYTES_PER_EVENT = 1024;
+    private static final long ESTIMATED_BYTES_PER_STATE = 4096;
+    // a resumed model is rebuilt from scratch once it holds so many events, so that a single instance can not
+    // take the whole store and updating its derived info stays cheap
+    private static final int MAX_RESUMED_EVENTS = 20000;
+
+    private final Cache<Map<String, String>, InstanceState> states;
+
+    public GCLogAnalyzer() {
+        this(DEFAULT_MAX_STATE_BYTES, DEFAULT_STATE_TTL);
+    }
+
+    public GCLogAnalyzer(long maxStateBytes, Duration stateTtl) {
+        states = CacheBuilder.newBuilder()
+                .maximumWeight(maxStateBytes)
+                .<Map<String, String>, InstanceState>weigher((instanceId, state) -> state.getEstimatedBytes())
+                .expireAfterAccess(stateTtl)
+                .build();
+    }
 
     public List<Metric> parseToMetrics(List<String> rawContext, Map<String, String> instanceId, long startTime, long endTime) throws Exception {
         Context context = new Context(rawContext);
@@ -40,6 +73,56 @@ public class GCLogAnalyzer {
         return null;
     }
 
+    /**
+     * Like parseToMetrics, but the fragment continues the model built from previous fragments of the instance
+     * instead of a new model. Only metrics of events completed by this fragment are returned, and events that
+     * may still be changed by later lines are returned by later calls. If the fragment is older than what has been
+     * parsed, or the state of the instance has been evicted, the instance starts over.
+     */
+    public List<Metric> resumeToMetrics(List<String> rawContext, Map<String, String> instanceId, long startTime, long endTime) throws Exception {
+        Context context = new Context(rawContext);
+        List<GCEvent> completed;
+        GCModel model;
+        while (true) {
+            InstanceState state = getState(instanceId);
+            synchronized (state) {
+                // the state may be evicted between looking up and locking it, and a new state may be in use
+                if (states.asMap().get(instanceId) != state) {
+                    continue;
+                }
+                if (state.model != null &&
+                        (context.getStartUptime() < state.endUptime || state.getEventCount() >= MAX_RESUMED_EVENTS)) {
+                    state.resetResuming();
+                }
+                try (BufferedReader br = context.toBufferedReader()) {
+                    if (state.resumingParser == null) {
+                        GCLogParser parser = detectParser(br);
+                        if (!(parser instanceof AbstractGCLogParser)) {
+                            return null;
+                        }
+                        state.resumingParser = (AbstractGCLogParser) parser;
+                    }
+                    model = state.resumingParser.parseIncrementally(br);
+                }
+                state.model = model;
+                state.endUptime = Math.max(state.endUptime, context.getEndUptime());
+                // only events settled by this fragment are processed
+                model.updateDerivedInfo(NoOpProgressListener);
+                // settled events are only appended to gcEvents
+                List<GCEvent> gcEvents = model.getGcEvents();
+                completed = new ArrayList<>(gcEvents.subList(state.reportedEvents, gcEvents.size()));
+                state.reportedEvents = gcEvents.size();
+                // update weight of the state, but never put back a state evicted meanwhile
+                states.asMap().replace(instanceId, state, state);
+            }
+            break;
+        }
+        if (completed.isEmpty()) {
+            return null;
+        }
+        return new GCModelConverter().toMetrics(model, completed, instanceId, startTime, endTime);
+    }
+
     public GCModel parseToGCModel(List<String> rawContext, Map<String, String> instanceId) {
         Context context = new Context(rawContext);
         BufferedReader br = context.toBufferedReader();
@@ -62,18 +145,74 @@ public class GCLogAnalyzer {
         }
     }
 
+    /**
+     * @return estimated memory used by state of all instances
+     */
+    public long getEstimatedStateBytes() {
+        return states.asMap().values().stream().mapToLong(InstanceState::getEstimatedBytes).sum();
+    }
+
+    public long getInstanceCount() {
+        return states.size();
+    }
+
+    private InstanceState getState(Map<String, String> instanceId) throws ExecutionException {
+        return states.get(instanceId, InstanceState::new);
+    }
+
     private GCLogParser selectParser(Map<String, String> instanceId, BufferedReader br) throws IOException {
-        GCLogParser parser = parserMap.get(instanceId);
-        if (parser == null) {
-            GCLogParserFactory logParserFactory = new GCLogParserFactory();
-            // max length in hotspot
-            int MAX_SINGLE_LINE_LENGTH = 2048;
-            br.mark(GCLogParserFactory.MAX_ATTEMPT_LINE * MAX_SINGLE_LINE_LENGTH);
-            parser = logParserFactory.getParser(br);
-            br.reset();
-            parserMap.put(instanceId, parser);
+        InstanceState state;
+        try {
+            state = getState(instanceId);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
         }
+        synchronized (state) {
+            if (state.parser == null) {
+                state.parser = detectParser(br);
+            }
+            return state.parser;
+        }
+    }
+
+    private GCLogParser detectParser(BufferedReader br) throws IOException {
+        GCLogParserFactory logParserFactory = new GCLogParserFactory();
+        // max length in hotspot
+        int MAX_SINGLE_LINE_LENGTH = 2048;
+        br.mark(GCLogParserFactory.MAX_ATTEMPT_LINE * MAX_SINGLE_LINE_LENGTH);
+        GCLogParser parser = logParserFactory.getParser(br);
+        br.reset();
         return parser;
     }
-}
 
+    private static class InstanceState {
+        // used by parseToMetrics and parseToGCModel, which parse a fragment into a new model
+        private GCLogParser parser;
+        // used by resumeToMetrics, which keeps parsing into the same model
+        private AbstractGCLogParser resumingParser;
+        private GCModel model;
+        // uptime of the last line resumed in seconds
+        private double endUptime = UNKNOWN_DOUBLE;
+        // number of events in gcEvents of model whose metrics have been returned
+        private int reportedEvents;
+
+        private void resetResuming() {
+            resumingParser = null;
+            model = null;
+            endUptime = UNKNOWN_DOUBLE;
+            reportedEvents = 0;
+        }
+
+        private int getEventCount() {
+            if (model == null) {
+                return 0;
+            }
+            return model.getAllEvents().size() + model.getPendingEventCount();
+        }
+
+        private int getEstimatedBytes() {
+            long bytes = ESTIMATED_BYTES_PER_STATE + getEventCount() * ESTIMATED_BYTES_PER_EVENT;
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -26,10 +26,15 @@ import java.util.*;
 @Slf4j
 public class GCModelConverter {
     public List<Metric> toMetrics(GCModel gcModel, Map<String, String> instanceId, long startTime, long endTime) {
+        return toMetrics(gcModel, gcModel.getGcEvents(), instanceId, startTime, endTime);
+    }
+
+    // convert only the given events of gcModel
+    public List<Metric> toMetrics(GCModel gcModel, List<GCEvent> gcEvents, Map<String, String> instanceId, long startTime, long endTime) {
         List<Metric> result = new ArrayList<>();
         Map<String, String> sharedLabels = new HashMap<>(instanceId);
         sharedLabels.put("gc_type", gcModel.getCollectorType().getName());
-        for (GCEvent gcEvent : gcModel.getGcEvents()) {
+        for (GCEvent gcEvent : gcEvents) {
             long timestamp = (long)(gcModel.getReferenceTimestamp() + gcEvent.getStartTime());
             if (timestamp >= startTime && timestamp < endTime) {
                 result.addAll(new GCEventConverter().toMetrics(gcEvent, timestamp, sharedLabels));
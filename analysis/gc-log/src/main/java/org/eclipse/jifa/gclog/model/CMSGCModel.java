@@ -75,15 +75,17 @@ public class CMSGCModel extends GenerationalGCModel {
         return parentEventTypes;
     }
 
+    // state of decideGCsAfterOldGC carried to events derived later
+    private double lastCMSEndTime = Double.MAX_VALUE;
+    private double lastRemarkEndTime = Double.MAX_VALUE;
+
     @Override
     protected void doAfterCalculatingDerivedInfo() {
         decideGCsAfterOldGC();
     }
 
     private void decideGCsAfterOldGC() {
-        double lastCMSEndTime = Double.MAX_VALUE;
-        double lastRemarkEndTime = Double.MAX_VALUE;
-        for (GCEvent event : getGcEvents()) {
+        for (GCEvent event : getDerivingEvents()) {
             if (event.getEventType() == CMS_CONCURRENT_MARK_SWEPT) {
                 if (!event.containPhase(CMS_CONCURRENT_FAILURE) &&
                         !event.containPhase(CMS_CONCURRENT_INTERRUPTED)) {
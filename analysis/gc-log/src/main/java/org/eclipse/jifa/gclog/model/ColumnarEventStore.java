@@ -0,0 +1,493 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.event.GCEvent;
+import org.eclipse.jifa.gclog.event.eventInfo.GCCause;
+import org.eclipse.jifa.gclog.event.eventInfo.GCMemoryItem;
+import org.eclipse.jifa.gclog.event.eventInfo.MemoryArea;
+import org.eclipse.jifa.gclog.util.Constant;
+import org.eclipse.jifa.gclog.vo.TimeRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A columnar copy of the events of a GCModel whose derived info has been calculated.
+ * <p>
+ * A row is an event and its row number is its id, i.e. its index in GCModel.allEvents. Fields frequently
+ * scanned by statistics and graphs are kept in parallel primitive arrays, and event types and causes are
+ * interned into int ids. gcEvents and gcCollectionEvents are kept as views, which are arrays of rows
+ * ordered by start time. The GCEvent objects remain the object view of the same rows.
+ * <p>
+ * When a followed log gets new events, they are merged into the event lists of the model near their ends, so
+ * the store is updated by rewriting what follows the first changed index of each list instead of being built
+ * again.
+ */
+public class ColumnarEventStore {
+    private static final int NO_CAUSE = -1;
+
+    private final List<GCEventType> eventTypes = new ArrayList<>();
+    private final Map<GCEventType, Integer> eventTypeIds = new HashMap<>();
+    private final List<GCCause> causes = new ArrayList<>();
+    private final Map<GCCause, Integer> causeIds = new HashMap<>();
+
+    // arrays below may be longer than rowCount
+    private int rowCount;
+    private double[] startTime = new double[0];
+    private double[] duration = new double[0];
+    private double[] pause = new double[0];
+    private double[] interval = new double[0];
+    private double[] causeInterval = new double[0];
+    private int[] eventTypeId = new int[0];
+    private int[] causeId = new int[0];
+    private long[] promotion = new long[0];
+    private long[] allocation = new long[0];
+    private long[] reclamation = new long[0];
+
+    private final View allEvents;
+    private final View gcEvents;
+    private final View gcCollectionEvents;
+
+    // memory of gcCollectionEvents, indexed by [area][index in gcCollectionEvents]. null if the area never shows up
+    private final long[][] preUsed = new long[MemoryArea.values().length][];
+    private final long[][] postUsed = new long[MemoryArea.values().length][];
+    private final long[][] postCapacity = new long[MemoryArea.values().length][];
+    private int memoryCapacity;
+
+    // phases of gcEvents, in CSR form: phases of gcEvents[i] are phaseRows[phaseOffset[i], phaseOffset[i + 1])
+    private int[] phaseOffset = new int[1];
+    private final IntList phaseRows = new IntList();
+
+    // rows whose pause is counted in pause statistics (see GCEvent.pauseEventOrPhasesDo), in the same
+    // CSR form as phases
+    private int[] pauseOffset = new int[1];
+    private final IntList pauseRows = new IntList();
+
+    // the largest row of gcEvents[0, i] and their phases, to find gcEvents whose phases are moved by an update
+    private int[] maxRow = new int[0];
+
+    private ColumnarEventStore(GCModel model) {
+        allEvents = new View(model);
+        gcEvents = new View(model);
+        gcCollectionEvents = new View(model);
+        update(model, 0, 0, 0);
+    }
+
+    /**
+     * Rows are the ids of events, so this must be called after event lists are rebuilt.
+     */
+    public static ColumnarEventStore build(GCModel model) {
+        return new ColumnarEventStore(model);
+    }
+
+    /**
+     * Catch up with event lists of the model, which are only changed from the given indices since the last
+     * update. Ids of events before allEventsFrom must not have changed.
+     */
+    public void update(GCModel model, int allEventsFrom, int gcEventsFrom, int gcCollectionEventsFrom) {
+        List<GCEvent> events = model.getAllEvents();
+        updateRows(events, allEventsFrom);
+        allEvents.update(events, allEventsFrom);
+        gcEvents.update(model.getGcEvents(), gcEventsFrom);
+        gcCollectionEvents.update(model.getGcCollectionEvents(), gcCollectionEventsFrom);
+        updateMemory(model.getGcCollectionEvents(), gcCollectionEventsFrom);
+        updatePhasesAndPauses(model.getGcEvents(), events, allEventsFrom, gcEventsFrom);
+    }
+
+    private void updateRows(List<GCEvent> events, int from) {
+        rowCount = events.size();
+        if (rowCount > startTime.length) {
+            int capacity = Math.max(rowCount, startTime.length * 2);
+            startTime = Arrays.copyOf(startTime, capacity);
+            duration = Arrays.copyOf(duration, capacity);
+            pause = Arrays.copyOf(pause, capacity);
+            interval = Arrays.copyOf(interval, capacity);
+            causeInterval = Arrays.copyOf(causeInterval, capacity);
+            eventTypeId = Arrays.copyOf(eventTypeId, capacity);
+            causeId = Arrays.copyOf(causeId, capacity);
+            promotion = Arrays.copyOf(promotion, capacity);
+            allocation = Arrays.copyOf(allocation, capacity);
+            reclamation = Arrays.copyOf(reclamation, capacity);
+        }
+        for (int row = from; row < rowCount; row++) {
+            GCEvent event = events.get(row);
+            startTime[row] = event.getStartTime();
+            duration[row] = event.getDuration();
+            // pause is calculated lazily by events, only the ones that are used are asked for later
+            pause[row] = Constant.UNKNOWN_DOUBLE;
+            interval[row] = event.getInterval();
+            causeInterval[row] = event.getCauseInterval();
+            eventTypeId[row] = eventTypeIds.computeIfAbsent(event.getEventType(), type -> {
+                eventTypes.add(type);
+                return eventTypes.size() - 1;
+            });
+            causeId[row] = event.getCause() == null ? NO_CAUSE : causeIds.computeIfAbsent(event.getCause(), cause -> {
+                causes.add(cause);
+                return causes.size() - 1;
+            });
+            promotion[row] = event.getPromotion();
+            allocation[row] = event.getAllocation();
+            reclamation[row] = event.getReclamation();
+        }
+    }
+
+    private void updateMemory(List<GCEvent> collections, int from) {
+        int n = collections.size();
+        if (n > memoryCapacity) {
+            int capacity = Math.max(n, memoryCapacity * 2);
+            for (int area = 0; area < preUsed.length; area++) {
+                if (preUsed[area] != null) {
+                    preUsed[area] = unknownLongs(preUsed[area], capacity);
+                    postUsed[area] = unknownLongs(postUsed[area], capacity);
+                    postCapacity[area] = unknownLongs(postCapacity[area], capacity);
+                }
+            }
+            memoryCapacity = capacity;
+        }
+        for (int area = 0; area < preUsed.length; area++) {
+            if (preUsed[area] != null) {
+                Arrays.fill(preUsed[area], from, n, Constant.UNKNOWN_INT);
+                Arrays.fill(postUsed[area], from, n, Constant.UNKNOWN_INT);
+                Arrays.fill(postCapacity[area], from, n, Constant.UNKNOWN_INT);
+            }
+        }
+        for (int i = from; i < n; i++) {
+            GCMemoryItem[] items = collections.get(i).getMemoryItems();
+            if (items == null) {
+                continue;
+            }
+            for (GCMemoryItem item : items) {
+                if (item == null) {
+                    continue;
+                }
+                int area = item.getArea().ordinal();
+                if (preUsed[area] == null) {
+                    preUsed[area] = unknownLongs(new long[0], memoryCapacity);
+                    postUsed[area] = unknownLongs(new long[0], memoryCapacity);
+                    postCapacity[area] = unknownLongs(new long[0], memoryCapacity);
+                }
+                preUsed[area][i] = item.getPreUsed();
+                postUsed[area][i] = item.getPostUsed();
+                postCapacity[area][i] = item.getPostCapacity();
+            }
+        }
+    }
+
+    private void updatePhasesAndPauses(List<GCEvent> parents, List<GCEvent> events, int allEventsFrom,
+                                       int gcEventsFrom) {
+        // a parent before gcEventsFrom is kept unless some of its phases are moved to new rows
+        int from = firstMaxRowAtLeast(allEventsFrom, gcEventsFrom);
+        int n = parents.size();
+        if (n + 1 > phaseOffset.length) {
+            int capacity = Math.max(n + 1, phaseOffset.length * 2);
+            phaseOffset = Arrays.copyOf(phaseOffset, capacity);
+            pauseOffset = Arrays.copyOf(pauseOffset, capacity);
+            maxRow = Arrays.copyOf(maxRow, capacity);
+        }
+        phaseRows.truncate(phaseOffset[from]);
+        pauseRows.truncate(pauseOffset[from]);
+        for (int i = from; i < n; i++) {
+            GCEvent parent = parents.get(i);
+            int max = Math.max(i > 0 ? maxRow[i - 1] : -1, parent.getId());
+            parent.phasesDoDFS(phase -> phaseRows.add(phase.getId()));
+            for (int j = phaseOffset[i]; j < phaseRows.size(); j++) {
+                max = Math.max(max, phaseRows.get(j));
+            }
+            parent.pauseEventOrPhasesDo(event -> pauseRows.add(event.getId()));
+            for (int j = pauseOffset[i]; j < pauseRows.size(); j++) {
+                int row = pauseRows.get(j);
+                pause[row] = events.get(row).getPause();
+            }
+            maxRow[i] = max;
+            phaseOffset[i + 1] = phaseRows.size();
+            pauseOffset[i + 1] = pauseRows.size();
+        }
+    }
+
+    // the first index in [0, limit) whose maxRow is not less than row, or limit
+    private int firstMaxRowAtLeast(int row, int limit) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxRow[mid] < row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] unknownLongs(long[] array, int capacity) {
+        int length = array.length;
+        long[] result = Arrays.copyOf(array, capacity);
+        Arrays.fill(result, length, capacity, Constant.UNKNOWN_INT);
+        return result;
+    }
+
+    public View getAllEvents() {
+        return allEvents;
+    }
+
+    public View getGcEvents() {
+        return gcEvents;
+    }
+
+    public View getGcCollectionEvents() {
+        return gcCollectionEvents;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public double getStartTime(int row) {
+        return startTime[row];
+    }
+
+    public double getDuration(int row) {
+        return duration[row];
+    }
+
+    public double getEndTime(int row) {
+        if (startTime[row] != Constant.UNKNOWN_DOUBLE && duration[row] != Constant.UNKNOWN_DOUBLE) {
+            return startTime[row] + duration[row];
+        } else {
+            return Constant.UNKNOWN_DOUBLE;
+        }
+    }
+
+    // only available for rows that are visited by pauseRowsDo
+    public double getPause(int row) {
+        return pause[row];
+    }
+
+    public double getInterval(int row) {
+        return interval[row];
+    }
+
+    public double getCauseInterval(int row) {
+        return causeInterval[row];
+    }
+
+    public int getEventTypeId(int row) {
+        return eventTypeId[row];
+    }
+
+    public GCEventType getEventType(int row) {
+        return eventTypes.get(eventTypeId[row]);
+    }
+
+    /**
+     * @return interned id of the event type, or -1 if the type never shows up
+     */
+    public int eventTypeIdOf(GCEventType type) {
+        return eventTypeIds.getOrDefault(type, -1);
+    }
+
+    public int getEventTypeCount() {
+        return eventTypes.size();
+    }
+
+    public GCEventType eventTypeOfId(int id) {
+        return eventTypes.get(id);
+    }
+
+    public int getCauseId(int row) {
+        return causeId[row];
+    }
+
+    public GCCause getCause(int row) {
+        return causeId[row] == NO_CAUSE ? null : causes.get(causeId[row]);
+    }
+
+    /**
+     * @return interned id of the cause, or -1 if the cause never shows up
+     */
+    public int causeIdOf(GCCause cause) {
+        return cause == null ? NO_CAUSE : causeIds.getOrDefault(cause, NO_CAUSE);
+    }
+
+    public int getCauseCount() {
+        return causes.size();
+    }
+
+    public long getPromotion(int row) {
+        return promotion[row];
+    }
+
+    public long getAllocation(int row) {
+        return allocation[row];
+    }
+
+    public long getReclamation(int row) {
+        return reclamation[row];
+    }
+
+    public boolean hasMemoryArea(MemoryArea area) {
+        return preUsed[area.ordinal()] != null;
+    }
+
+    // memory accessors take index in gcCollectionEvents rather than row
+    public long getPreUsed(MemoryArea area, int collectionIndex) {
+        long[] column = preUsed[area.ordinal()];
+        return column == null ? Constant.UNKNOWN_INT : column[collectionIndex];
+    }
+
+    public long getPostUsed(MemoryArea area, int collectionIndex) {
+        long[] column = postUsed[area.ordinal()];
+        return column == null ? Constant.UNKNOWN_INT : column[collectionIndex];
+    }
+
+    public long getPostCapacity(MemoryArea area, int collectionIndex) {
+        long[] column = postCapacity[area.ordinal()];
+        return column == null ? Constant.UNKNOWN_INT : column[collectionIndex];
+    }
+
+    // index is index in gcEvents
+    public void phaseRowsDo(int gcEventIndex, IntConsumer consumer) {
+        for (int i = phaseOffset[gcEventIndex]; i < phaseOffset[gcEventIndex + 1]; i++) {
+            consumer.accept(phaseRows.get(i));
+        }
+    }
+
+    // index is index in gcEvents
+    public void pauseRowsDo(int gcEventIndex, IntConsumer consumer) {
+        for (int i = pauseOffset[gcEventIndex]; i < pauseOffset[gcEventIndex + 1]; i++) {
+            consumer.accept(pauseRows.get(i));
+        }
+    }
+
+    // number of pause rows of gcEvents[fromIndex, toIndex)
+    public int pauseRowCount(int fromIndex, int toIndex) {
+        return pauseOffset[toIndex] - pauseOffset[fromIndex];
+    }
+
+
+    /**
+     * Rows of an event list ordered by start time, with start times copied so that time range lookups
+     * are binary searches over a primitive array.
+     */
+    public static class View {
+        private final GCModel model;
+        private int size;
+        private int[] rows = new int[0];
+        private double[] startTime = new double[0];
+
+        private View(GCModel model) {
+            this.model = model;
+        }
+
+        private void update(List<GCEvent> events, int from) {
+            size = events.size();
+            if (size > rows.length) {
+                int capacity = Math.max(size, rows.length * 2);
+                rows = Arrays.copyOf(rows, capacity);
+                startTime = Arrays.copyOf(startTime, capacity);
+            }
+            for (int i = from; i < size; i++) {
+                rows[i] = events.get(i).getId();
+                startTime[i] = events.get(i).getStartTime();
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int row(int index) {
+            return rows[index];
+        }
+
+        public double getStartTime(int index) {
+            return startTime[index];
+        }
+
+        // index of the first event whose start time >= time
+        public int lowerBound(double time) {
+            if (time <= model.getStartTime()) {
+                return 0;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startTime[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // index of the first event whose start time > time
+        public int upperBound(double time) {
+            if (time >= model.getEndTime()) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startTime[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * consumer accepts index in this view, not row. Use row(index) to get row.
+         */
+        public void indicesWithinTimeRange(TimeRange range, IntConsumer consumer) {
+            int high = upperBound(range.getEnd());
+            for (int i = lowerBound(range.getStart()); i < high; i++) {
+                consumer.accept(i);
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void truncate(int size) {
+            this.size = size;
+        }
+    }
+}
@@ -138,7 +138,7 @@ public class G1GCModel extends GCModel {
         if (heapRegionSize == UNKNOWN_INT) {
             return;
         }
-        for (GCEvent event : getGcEvents()) {
+        for (GCEvent event : getDerivingEvents()) {
             if (!collectionResultUsingRegion(event)) {
                 continue;
             }
@@ -158,22 +158,29 @@ public class G1GCModel extends GCModel {
         }
     }
 
+    // state of decideGCsAfterOldGC carried to events derived later
+    private GCEvent lastGCInCycle = null;
+    private double lastRemarkEndTime = Double.MAX_VALUE;
+    private double lastConcCycleEndTime = Double.MAX_VALUE;
+    private boolean markAborted = false;
+
     @Override
     protected void doAfterCalculatingDerivedInfo() {
         decideGCsAfterOldGC();
     }
 
     private void decideGCsAfterOldGC() {
-        GCEvent lastGCInCycle = null;
-        double lastRemarkEndTime = Double.MAX_VALUE;
-        double lastConcCycleEndTime = Double.MAX_VALUE;
-        for (GCEvent event : getGcEvents()) {
+        if (markAborted) {
+            return;
+        }
+        for (GCEvent event : getDerivingEvents()) {
             GCEventType type = event.getEventType();
             if (type == G1_CONCURRENT_UNDO_CYCLE) {
                 continue;
             }
             if (type == G1_CONCURRENT_CYCLE) {
                 if (event.containPhase(G1_CONCURRENT_MARK_ABORT)) {
+                    markAborted = true;
                     return;
                 }
                 lastConcCycleEndTime = event.getEndTime();
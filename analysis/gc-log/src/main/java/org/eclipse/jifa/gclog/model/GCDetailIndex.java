@@ -0,0 +1,303 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jifa.gclog.event.GCEvent;
+import org.eclipse.jifa.gclog.event.eventInfo.GCCause;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import static org.eclipse.jifa.gclog.model.GCEventType.SAFEPOINT;
+
+/**
+ * Secondary indexes of gcEvents for GCModel.getGCDetails. Events are identified by their index in gcEvents.
+ * Event type and cause are kept as bitmaps, end time and pause as sorted permutations, and a filter is
+ * answered by intersecting bitmaps. The bitmap of recent filters is cached with prefix sums of its popcount so
+ * that turning pages neither evaluates the filter again nor walks the events before the page.
+ * <p>
+ * When a followed log gets new events, the index is updated from the first changed index of gcEvents.
+ */
+public class GCDetailIndex {
+    private final List<GCEvent> events;
+    // events that may appear in details at all
+    private final BitSet candidates = new BitSet();
+    private final Map<String, BitSet> byEventType = new HashMap<>();
+    private final Map<GCCause, BitSet> byCause = new HashMap<>();
+    private final SortedIndex byEndTime = new SortedIndex(GCEvent::getEndTime);
+    private final SortedIndex byPause = new SortedIndex(GCEvent::getPause);
+
+    private final Cache<GCModel.GCDetailFilter, Matched> filterCache = CacheBuilder.newBuilder().maximumSize(16).build();
+
+    private GCDetailIndex(List<GCEvent> events) {
+        this.events = events;
+        update(0);
+    }
+
+    public static GCDetailIndex build(List<GCEvent> events) {
+        return new GCDetailIndex(events);
+    }
+
+    /**
+     * Catch up with the event list, which is only changed from fromIndex since the last update.
+     */
+    public void update(int fromIndex) {
+        int n = events.size();
+        candidates.clear(fromIndex, Math.max(fromIndex, candidates.length()));
+        byEventType.values().forEach(bits -> bits.clear(fromIndex, Math.max(fromIndex, bits.length())));
+        byCause.values().forEach(bits -> bits.clear(fromIndex, Math.max(fromIndex, bits.length())));
+        for (int i = fromIndex; i < n; i++) {
+            GCEvent event = events.get(i);
+            if (event.getEventType() == SAFEPOINT) {
+                continue;
+            }
+            candidates.set(i);
+            byEventType.computeIfAbsent(event.getEventType().getName(), k -> new BitSet(n)).set(i);
+            if (event.getCause() != null) {
+                byCause.computeIfAbsent(event.getCause(), k -> new BitSet(n)).set(i);
+            }
+        }
+        byEndTime.update(events, fromIndex);
+        byPause.update(events, fromIndex);
+        filterCache.invalidateAll();
+    }
+
+    /**
+     * Put events of the page into result.
+     *
+     * @return number of all events matching the filter
+     */
+    public int select(GCModel.GCDetailFilter filter, int firstIndex, int pageSize, List<GCEvent> result) {
+        Matched matched = match(filter);
+        for (int index = matched.nth(firstIndex); index >= 0 && result.size() < pageSize;
+             index = matched.bits.nextSetBit(index + 1)) {
+            result.add(events.get(index));
+        }
+        return matched.cardinality;
+    }
+
+    private Matched match(GCModel.GCDetailFilter filter) {
+        Matched matched = filterCache.getIfPresent(filter);
+        if (matched == null) {
+            matched = new Matched(evaluate(filter));
+            // filter is used as key, keep a copy in case the caller changes it
+            filterCache.put(copyOf(filter), matched);
+        }
+        return matched;
+    }
+
+    private BitSet evaluate(GCModel.GCDetailFilter filter) {
+        BitSet matched = (BitSet) candidates.clone();
+        if (StringUtils.isNotBlank(filter.getEventType())) {
+            matched.and(byEventType.getOrDefault(filter.getEventType(), new BitSet()));
+        }
+        if (filter.getGcCause() != null) {
+            matched.and(byCause.getOrDefault(filter.getGcCause(), new BitSet()));
+        }
+        if (filter.getLogTimeLow() > -Double.MAX_VALUE || filter.getLogTimeHigh() < Double.MAX_VALUE) {
+            matched.and(byEndTime.within(filter.getLogTimeLow(), filter.getLogTimeHigh()));
+        }
+        if (filter.getPauseTimeLow() > -Double.MAX_VALUE) {
+            matched.and(byPause.within(filter.getPauseTimeLow(), Double.MAX_VALUE));
+        }
+        return matched;
+    }
+
+    private static GCModel.GCDetailFilter copyOf(GCModel.GCDetailFilter filter) {
+        GCModel.GCDetailFilter copy = new GCModel.GCDetailFilter();
+        copy.setEventType(filter.getEventType());
+        copy.setGcCause(filter.getGcCause());
+        copy.setLogTimeLow(filter.getLogTimeLow());
+        copy.setLogTimeHigh(filter.getLogTimeHigh());
+        copy.setPauseTimeLow(filter.getPauseTimeLow());
+        return copy;
+    }
+
+    // events matching a filter, with the number of matched events before each word of the bitmap
+    private static class Matched {
+        private final BitSet bits;
+        private final long[] words;
+        private final int[] rank;
+        private final int cardinality;
+
+        Matched(BitSet bits) {
+            this.bits = bits;
+            words = bits.toLongArray();
+            rank = new int[words.length + 1];
+            for (int i = 0; i < words.length; i++) {
+                rank[i + 1] = rank[i] + Long.bitCount(words[i]);
+            }
+            cardinality = rank[words.length];
+        }
+
+        // index of the nth (from 0) matched event, -1 if there are not so many
+        int nth(int n) {
+            if (n < 0 || n >= cardinality) {
+                return -1;
+            }
+            // the last word whose rank is not greater than n
+            int low = 0;
+            int high = words.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (rank[mid] <= n) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            long word = words[low];
+            for (int remaining = n - rank[low]; remaining > 0; remaining--) {
+                word &= word - 1;
+            }
+            return low * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+    }
+
+    /**
+     * Event indices sorted by a key. Events are kept in a few runs, each of which covers a contiguous range of
+     * indices and is sorted by itself. Runs are ordered by their ranges and a run is merged into the one before
+     * it when the one before it is not more than twice as large, so there are O(log n) runs and appending events
+     * costs amortized O(log n) per event.
+     */
+    private static class SortedIndex {
+        private final ToDoubleFunction<GCEvent> key;
+        private final List<Run> runs = new ArrayList<>();
+
+        SortedIndex(ToDoubleFunction<GCEvent> key) {
+            this.key = key;
+        }
+
+        void update(List<GCEvent> events, int fromIndex) {
+            while (!runs.isEmpty() && runs.get(runs.size() - 1).from >= fromIndex) {
+                runs.remove(runs.size() - 1);
+            }
+            if (!runs.isEmpty() && runs.get(runs.size() - 1).to > fromIndex) {
+                runs.set(runs.size() - 1, runs.get(runs.size() - 1).truncate(fromIndex));
+            }
+            if (fromIndex < events.size()) {
+                runs.add(new Run(events, fromIndex, events.size(), key));
+            }
+            while (runs.size() >= 2 && runs.get(runs.size() - 2).size() <= 2 * runs.get(runs.size() - 1).size()) {
+                Run last = runs.remove(runs.size() - 1);
+                runs.set(runs.size() - 1, Run.merge(runs.get(runs.size() - 1), last));
+            }
+        }
+
+        // events whose key is in [low, high]
+        BitSet within(double low, double high) {
+            BitSet result = new BitSet();
+            for (Run run : runs) {
+                for (int i = run.lowerBound(low); i < run.order.length && run.keys[i] <= high; i++) {
+                    result.set(run.order[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    // events in [from, to) sorted by key
+    private static class Run {
+        private final int from;
+        private final int to;
+        private final int[] order;
+        private final double[] keys;
+
+        private Run(int from, int to, int[] order, double[] keys) {
+            this.from = from;
+            this.to = to;
+            this.order = order;
+            this.keys = keys;
+        }
+
+        Run(List<GCEvent> events, int from, int to, ToDoubleFunction<GCEvent> key) {
+            this.from = from;
+            this.to = to;
+            int n = to - from;
+            Integer[] boxed = new Integer[n];
+            double[] eventKeys = new double[n];
+            for (int i = 0; i < n; i++) {
+                boxed[i] = from + i;
+                eventKeys[i] = key.applyAsDouble(events.get(from + i));
+            }
+            Arrays.sort(boxed, Comparator.comparingDouble(i -> eventKeys[i - from]));
+            order = new int[n];
+            keys = new double[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = boxed[i];
+                keys[i] = eventKeys[order[i] - from];
+            }
+        }
+
+        int size() {
+            return order.length;
+        }
+
+        // keep events before newTo
+        Run truncate(int newTo) {
+            int[] newOrder = new int[newTo - from];
+            double[] newKeys = new double[newTo - from];
+            int size = 0;
+            for (int i = 0; i < order.length; i++) {
+                if (order[i] < newTo) {
+                    newOrder[size] = order[i];
+                    newKeys[size++] = keys[i];
+                }
+            }
+            return new Run(from, newTo, newOrder, newKeys);
+        }
+
+        // merge two adjacent runs
+        static Run merge(Run a, Run b) {
+            int n = a.size() + b.size();
+            int[] order = new int[n];
+            double[] keys = new double[n];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < n; k++) {
+                if (j >= b.size() || (i < a.size() && a.keys[i] <= b.keys[j])) {
+                    order[k] = a.order[i];
+                    keys[k] = a.keys[i++];
+                } else {
+                    order[k] = b.order[j];
+                    keys[k] = b.keys[j++];
+                }
+            }
+            return new Run(a.from, b.to, order, keys);
+        }
+
+        int lowerBound(double key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -48,23 +48,37 @@ public class GCEventType {
     private static GCCollectorType[] G1 = new GCCollectorType[]{GCCollectorType.G1};
     private static GCCollectorType[] SHENANDOAH = new GCCollectorType[]{GCCollectorType.SHENANDOAH};
     private static GCCollectorType[] ZGC = new GCCollectorType[]{GCCollectorType.ZGC};
+    private static GCCollectorType[] GENZ = new GCCollectorType[]{GCCollectorType.GENZ};
+    private static GCCollectorType[] ZGC_AND_GENZ = new GCCollectorType[]{GCCollectorType.ZGC, GCCollectorType.GENZ};
+    private static GCCollectorType[] GENSHEN = new GCCollectorType[]{GCCollectorType.GENSHEN};
+    private static GCCollectorType[] SHENANDOAH_AND_GENSHEN = new GCCollectorType[]{GCCollectorType.SHENANDOAH, GCCollectorType.GENSHEN};
     private static GCCollectorType[] SERIAL_AND_CMS = new GCCollectorType[]{GCCollectorType.SERIAL, GCCollectorType.CMS};
-    private static GCCollectorType[] ALL_GCS = new GCCollectorType[]{GCCollectorType.SERIAL, GCCollectorType.PARALLEL, GCCollectorType.G1, GCCollectorType.SHENANDOAH, GCCollectorType.ZGC, GCCollectorType.CMS, GCCollectorType.UNKNOWN};
+    private static GCCollectorType[] ALL_GCS = new GCCollectorType[]{GCCollectorType.SERIAL, GCCollectorType.PARALLEL, GCCollectorType.G1, GCCollectorType.SHENANDOAH, GCCollectorType.GENSHEN, GCCollectorType.ZGC, GCCollectorType.GENZ, GCCollectorType.CMS, GCCollectorType.UNKNOWN};
     private static GCCollectorType[] GENERATIONAL_GCS = new GCCollectorType[]{GCCollectorType.SERIAL, GCCollectorType.PARALLEL, GCCollectorType.G1, GCCollectorType.CMS, GCCollectorType.UNKNOWN};
+    private static GCCollectorType[] FULL_GC_GCS = new GCCollectorType[]{GCCollectorType.SERIAL, GCCollectorType.PARALLEL, GCCollectorType.G1, GCCollectorType.CMS, GCCollectorType.SHENANDOAH, GCCollectorType.GENSHEN, GCCollectorType.UNKNOWN};
 
     // external event types
     public static final GCEventType YOUNG_GC = new GCEventType("Young GC", PAUSE, GENERATIONAL_GCS);
     public static final GCEventType G1_MIXED_GC = new GCEventType("Mixed GC", PAUSE, G1);
-    public static final GCEventType FULL_GC = new GCEventType("Full GC", PAUSE, GENERATIONAL_GCS);
+    public static final GCEventType FULL_GC = new GCEventType("Full GC", PAUSE, FULL_GC_GCS);
     public static final GCEventType G1_CONCURRENT_CYCLE = new GCEventType("Concurrent Mark Cycle", GCPause.PARTIAL, G1);
     public static final GCEventType G1_CONCURRENT_UNDO_CYCLE = new GCEventType("Concurrent Undo Cycle", GCPause.PARTIAL, G1);
     public static final GCEventType CMS_CONCURRENT_MARK_SWEPT = new GCEventType("CMS", GCPause.PARTIAL, CMS);
     public static final GCEventType ZGC_GARBAGE_COLLECTION = new GCEventType("Garbage Collection", PARTIAL, ZGC);
+    public static final GCEventType GENZ_MINOR_COLLECTION = new GCEventType("Minor Collection", PARTIAL, GENZ);
+    public static final GCEventType GENZ_MAJOR_COLLECTION = new GCEventType("Major Collection", PARTIAL, GENZ);
+    public static final GCEventType SHENANDOAH_CONCURRENT_CYCLE = new GCEventType("Concurrent Cycle", PARTIAL, SHENANDOAH);
+    public static final GCEventType GENSHEN_YOUNG_CYCLE = new GCEventType("Young Cycle", PARTIAL, GENSHEN);
+    public static final GCEventType GENSHEN_OLD_CYCLE = new GCEventType("Old Cycle", PARTIAL, GENSHEN);
+    public static final GCEventType GENSHEN_GLOBAL_CYCLE = new GCEventType("Global Cycle", PARTIAL, GENSHEN);
+    public static final GCEventType SHENANDOAH_DEGENERATED_GC = new GCEventType("Degenerated GC", PAUSE, SHENANDOAH_AND_GENSHEN);
 
     // shared parent
     private static final GCEventType[] PARENT_CONCURRENT_MARK_CYCLE = {G1_CONCURRENT_CYCLE, CMS_CONCURRENT_MARK_SWEPT, ZGC_GARBAGE_COLLECTION};
     private static final GCEventType[] PARENT_YOUNG_OLD_FULL_GC = {YOUNG_GC, FULL_GC, G1_MIXED_GC};
     private static final GCEventType[] PARENT_ZGC = {ZGC_GARBAGE_COLLECTION};
+    private static final GCEventType[] PARENT_GENZ = {GENZ_MINOR_COLLECTION, GENZ_MAJOR_COLLECTION};
+    private static final GCEventType[] PARENT_SHENANDOAH = {SHENANDOAH_CONCURRENT_CYCLE, GENSHEN_YOUNG_CYCLE, GENSHEN_OLD_CYCLE, GENSHEN_GLOBAL_CYCLE};
 
     // internal phase types
     // shared by serial and cms
@@ -153,7 +167,47 @@ public class GCEventType {
     public static final GCEventType ZGC_CONCURRENT_PREPARE_RELOC_SET = new GCEventType("Concurrent Prepare Relocation Set", CONCURRENT, PARENT_ZGC, ZGC);
     public static final GCEventType ZGC_PAUSE_RELOCATE_START = new GCEventType("Pause Relocate Start", PAUSE, PARENT_ZGC, ZGC);
     public static final GCEventType ZGC_CONCURRENT_RELOCATE = new GCEventType("Concurrent Relocate", CONCURRENT, PARENT_ZGC, ZGC);
-    public static final GCEventType ZGC_ALLOCATION_STALL = new GCEventType("Allocation Stall", PAUSE, ZGC);
+    public static final GCEventType ZGC_ALLOCATION_STALL = new GCEventType("Allocation Stall", PAUSE, ZGC_AND_GENZ);
+
+    // Generational ZGC, phases of young generation are prefixed by "Y: " and old generation by "O: " in log
+    public static final GCEventType GENZ_YOUNG_PAUSE_MARK_START = new GCEventType("Young Pause Mark Start", PAUSE, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_CONCURRENT_MARK = new GCEventType("Young Concurrent Mark", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_PAUSE_MARK_END = new GCEventType("Young Pause Mark End", PAUSE, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_CONCURRENT_MARK_FREE = new GCEventType("Young Concurrent Mark Free", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_CONCURRENT_RESET_RELOC_SET = new GCEventType("Young Concurrent Reset Relocation Set", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_CONCURRENT_SELECT_RELOC_SET = new GCEventType("Young Concurrent Select Relocation Set", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_PAUSE_RELOCATE_START = new GCEventType("Young Pause Relocate Start", PAUSE, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_YOUNG_CONCURRENT_RELOCATE = new GCEventType("Young Concurrent Relocate", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_MARK = new GCEventType("Old Concurrent Mark", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_PAUSE_MARK_END = new GCEventType("Old Pause Mark End", PAUSE, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_MARK_FREE = new GCEventType("Old Concurrent Mark Free", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_NONREF = new GCEventType("Old Concurrent Process Non-Strong", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_RESET_RELOC_SET = new GCEventType("Old Concurrent Reset Relocation Set", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_SELECT_RELOC_SET = new GCEventType("Old Concurrent Select Relocation Set", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_REMAP_ROOTS = new GCEventType("Old Concurrent Remap Roots", CONCURRENT, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_PAUSE_RELOCATE_START = new GCEventType("Old Pause Relocate Start", PAUSE, PARENT_GENZ, GENZ);
+    public static final GCEventType GENZ_OLD_CONCURRENT_RELOCATE = new GCEventType("Old Concurrent Relocate", CONCURRENT, PARENT_GENZ, GENZ);
+
+    // Shenandoah and generational Shenandoah
+    public static final GCEventType SHENANDOAH_CONCURRENT_RESET = new GCEventType("Concurrent reset", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_PAUSE_INIT_MARK = new GCEventType("Pause Init Mark", PAUSE, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_REMEMBERED_SET_SCANNING = new GCEventType("Concurrent remembered set scanning", CONCURRENT, PARENT_SHENANDOAH, GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_MARKING_ROOTS = new GCEventType("Concurrent marking roots", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_MARKING = new GCEventType("Concurrent marking", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_PAUSE_FINAL_MARK = new GCEventType("Pause Final Mark", PAUSE, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_THREAD_ROOTS = new GCEventType("Concurrent thread roots", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_WEAK_REFERENCES = new GCEventType("Concurrent weak references", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_WEAK_ROOTS = new GCEventType("Concurrent weak roots", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_CLEANUP = new GCEventType("Concurrent cleanup", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_CLASS_UNLOADING = new GCEventType("Concurrent class unloading", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_STRONG_ROOTS = new GCEventType("Concurrent strong roots", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_EVACUATION = new GCEventType("Concurrent evacuation", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_PAUSE_INIT_UPDATE_REFS = new GCEventType("Pause Init Update Refs", PAUSE, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_UPDATE_REFS = new GCEventType("Concurrent update references", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_UPDATE_THREAD_ROOTS = new GCEventType("Concurrent update thread roots", CONCURRENT, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_PAUSE_FINAL_UPDATE_REFS = new GCEventType("Pause Final Update Refs", PAUSE, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_PAUSE_FINAL_ROOTS = new GCEventType("Pause Final Roots", PAUSE, PARENT_SHENANDOAH, SHENANDOAH_AND_GENSHEN);
+    public static final GCEventType SHENANDOAH_CONCURRENT_COALESCING_AND_FILLING = new GCEventType("Concurrent coalescing and filling", CONCURRENT, PARENT_SHENANDOAH, GENSHEN);
 
     // other
     public static final GCEventType SAFEPOINT = new GCEventType("Safepoint", PAUSE, ALL_GCS);
@@ -220,19 +274,24 @@ public class GCEventType {
         if (level == EVENT) {
             return true;
         }
-        return level == PHASE && (phaseParentEventType == PARENT_ZGC || phaseParentEventType == PARENT_CONCURRENT_MARK_CYCLE);
+        return level == PHASE && (phaseParentEventType == PARENT_ZGC || phaseParentEventType == PARENT_CONCURRENT_MARK_CYCLE
+                || phaseParentEventType == PARENT_GENZ || phaseParentEventType == PARENT_SHENANDOAH);
     }
 
     public boolean isYoungGC() {
-        return this == GCEventType.YOUNG_GC || this == GCEventType.G1_MIXED_GC;
+        return this == GCEventType.YOUNG_GC || this == GCEventType.G1_MIXED_GC
+                || this == GENZ_MINOR_COLLECTION || this == GENSHEN_YOUNG_CYCLE;
     }
 
     public boolean isOldGC() {
-        return this == GCEventType.G1_CONCURRENT_CYCLE || this == GCEventType.CMS_CONCURRENT_MARK_SWEPT;
+        return this == GCEventType.G1_CONCURRENT_CYCLE || this == GCEventType.CMS_CONCURRENT_MARK_SWEPT
+                || this == GENSHEN_OLD_CYCLE;
     }
 
+    // collections of the whole heap are regarded as full gc
     public boolean isFullGC() {
-        return this == GCEventType.FULL_GC || this == ZGC_GARBAGE_COLLECTION;
+        return this == GCEventType.FULL_GC || this == ZGC_GARBAGE_COLLECTION || this == GENZ_MAJOR_COLLECTION
+                || this == SHENANDOAH_CONCURRENT_CYCLE || this == GENSHEN_GLOBAL_CYCLE;
     }
 
     public static List<GCEventType> badEventTypes = List.of(
@@ -243,6 +302,7 @@ public class GCEventType {
             CMS_CONCURRENT_INTERRUPTED,
             OUT_OF_MEMORY,
             ZGC_ALLOCATION_STALL,
+            SHENANDOAH_DEGENERATED_GC,
             G1_CONCURRENT_MARK_RESET_FOR_OVERFLOW);
 
     public boolean isBad() {
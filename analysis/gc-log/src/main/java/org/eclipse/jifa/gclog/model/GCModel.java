@@ -20,12 +20,15 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.google.gson.annotations.JsonAdapter;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jifa.analysis.annotation.ApiMeta;
+import org.eclipse.jifa.analysis.annotation.ApiParameterMeta;
+import org.eclipse.jifa.analysis.annotation.Exclude;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
 import org.eclipse.jifa.common.domain.request.PagingRequest;
 import org.eclipse.jifa.common.domain.vo.PageView;
@@ -49,6 +52,7 @@ import org.eclipse.jifa.gclog.model.modeInfo.VmOptions;
 import org.eclipse.jifa.gclog.util.Constant;
 import org.eclipse.jifa.gclog.util.DoubleData;
 import org.eclipse.jifa.gclog.util.LongData;
+import org.eclipse.jifa.gclog.util.QuantileSketch;
 import org.eclipse.jifa.gclog.vo.GCEventVO;
 import org.eclipse.jifa.gclog.vo.MemoryStatistics;
 import org.eclipse.jifa.gclog.vo.MemoryStatistics.MemoryStatisticsItem;
@@ -65,10 +69,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -90,14 +95,24 @@ import static org.eclipse.jifa.gclog.model.GCEventType.G1_CONCURRENT_REBUILD_REM
 import static org.eclipse.jifa.gclog.model.GCEventType.G1_CONCURRENT_UNDO_CYCLE;
 import static org.eclipse.jifa.gclog.model.GCEventType.G1_MERGE_HEAP_ROOTS;
 import static org.eclipse.jifa.gclog.model.GCEventType.G1_MIXED_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_GLOBAL_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_OLD_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_YOUNG_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MAJOR_COLLECTION;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MINOR_COLLECTION;
 import static org.eclipse.jifa.gclog.model.GCEventType.SAFEPOINT;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_DEGENERATED_GC;
 import static org.eclipse.jifa.gclog.model.GCEventType.YOUNG_GC;
 import static org.eclipse.jifa.gclog.model.GCEventType.ZGC_CONCURRENT_DETATCHED_PAGES;
 import static org.eclipse.jifa.gclog.model.GCEventType.ZGC_GARBAGE_COLLECTION;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.CMS;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.G1;
+import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.GENSHEN;
+import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.GENZ;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.PARALLEL;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.SERIAL;
+import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.SHENANDOAH;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.UNKNOWN;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.ZGC;
 
@@ -133,7 +148,41 @@ public abstract class GCModel {
     private GCLogStyle logStyle;
     private GCLogMetadata metadata;
 
-    private final Cache<AnalysisConfig, GlobalDiagnoseInfo> globalDiagnoseInfoCache = CacheBuilder.newBuilder().maximumSize(3).build();
+    // primitive columns of events that statistics and graphs are calculated from if enabled, built after derived
+    // info is calculated. The columns are kept in addition to the events, so they cost memory for faster scans.
+    // Without them, statistics and graphs are calculated from the events.
+    private ColumnarEventStore columnarStore;
+    private boolean columnarStoreEnabled = false;
+    // pause percentiles of ranges with more pauses than the limit are answered by sketches
+    private PauseSketchIndex pauseSketchIndex;
+    private double pauseSketchRelativeError = 0.01;
+    private int exactPauseStatisticsLimit = 100000;
+    // bitmaps of gcEvents by type, cause, end time and pause for gc details, built on first request
+    private GCDetailIndex gcDetailIndex;
+
+    // gcEvents whose derived info is being calculated, sorted by start time
+    private List<GCEvent> derivingEvents;
+    // state carried between derived info calculations so that only new events need to be visited
+    private final Map<GCEventType, Double> lastEndTimeOfType = new HashMap<>();
+    private final Map<GCEventType, Map<GCCause, Double>> lastEndTimeOfCause = new HashMap<>();
+    private long lastTotalMemory = 0;
+    private final Set<String> causesShowUp = new LinkedHashSet<>();
+    private final Set<GCEventType> eventTypesShowUp = new HashSet<>();
+    // not null if the log is being followed, see updateDerivedInfo
+    private FollowingState following;
+
+    // diagnose results are bounded by the number of events and problems they hold rather than by count
+    private static final long DIAGNOSE_CACHE_MAX_WEIGHT = 1 << 20;
+    private final Cache<AnalysisConfig, GlobalDiagnoseInfo> globalDiagnoseInfoCache = CacheBuilder.newBuilder()
+            .maximumWeight(DIAGNOSE_CACHE_MAX_WEIGHT)
+            .<AnalysisConfig, GlobalDiagnoseInfo>weigher((config, info) -> 1 + info.getEventDiagnoseInfos().length)
+            .build();
+    private final Cache<GlobalAbnormalInfoKey, GlobalDiagnoser.GlobalAbnormalInfo> globalAbnormalInfoCache = CacheBuilder.newBuilder()
+            .maximumWeight(DIAGNOSE_CACHE_MAX_WEIGHT)
+            .<GlobalAbnormalInfoKey, GlobalDiagnoser.GlobalAbnormalInfo>weigher((key, info) -> weightOf(info))
+            .build();
+    // time graph series with their rollups, built on first request
+    private final Cache<String, TimeGraphSeries> timeGraphSeriesCache = CacheBuilder.newBuilder().maximumSize(64).build();
     private boolean metaspaceCapacityReliable = false;
 
     public GCModel() {
@@ -181,11 +230,11 @@ public abstract class GCModel {
     }
 
     public boolean isGenerational() {
-        return collectorType != ZGC;
+        return collectorType != ZGC && collectorType != SHENANDOAH;
     }
 
     public boolean isPauseless() {
-        return collectorType == ZGC;
+        return collectorType == ZGC || collectorType == GENZ || collectorType == SHENANDOAH || collectorType == GENSHEN;
     }
 
     public List<GCEvent> getAllEvents() {
@@ -223,12 +272,67 @@ public abstract class GCModel {
     }
 
     public boolean hasOldGC() {
-        return collectorType == G1 || collectorType == CMS;
+        return collectorType == G1 || collectorType == CMS || collectorType == GENSHEN;
+    }
+
+    public ColumnarEventStore getColumnarStore() {
+        return columnarStore;
+    }
+
+    public boolean isColumnarStoreEnabled() {
+        return columnarStoreEnabled;
+    }
+
+    /**
+     * Must be set before derived info is calculated. Pause percentiles of large ranges are only answered by
+     * sketches when the store is enabled.
+     */
+    public void setColumnarStoreEnabled(boolean columnarStoreEnabled) {
+        this.columnarStoreEnabled = columnarStoreEnabled;
+    }
+
+    public double getPauseSketchRelativeError() {
+        return pauseSketchRelativeError;
+    }
+
+    public void setPauseSketchRelativeError(double pauseSketchRelativeError) {
+        this.pauseSketchRelativeError = pauseSketchRelativeError;
+    }
+
+    public int getExactPauseStatisticsLimit() {
+        return exactPauseStatisticsLimit;
+    }
+
+    public void setExactPauseStatisticsLimit(int exactPauseStatisticsLimit) {
+        this.exactPauseStatisticsLimit = exactPauseStatisticsLimit;
+    }
+
+    // return the columnar view of the list if there is one
+    private ColumnarEventStore.View columnarViewOf(List<?> eventList) {
+        if (columnarStore == null) {
+            return null;
+        }
+        if (eventList == gcEvents) {
+            return columnarStore.getGcEvents();
+        } else if (eventList == allEvents) {
+            return columnarStore.getAllEvents();
+        } else if (eventList == gcCollectionEvents) {
+            return columnarStore.getGcCollectionEvents();
+        }
+        return null;
     }
 
     public <T extends TimedEvent> void iterateEventsWithinTimeRange(List<T> eventList, TimeRange range, Consumer<T> consumer) {
-        int indexLow = binarySearchEventIndex(eventList, range.getStart(), true);
-        int indexHigh = binarySearchEventIndex(eventList, range.getEnd(), false);
+        int indexLow;
+        int indexHigh;
+        ColumnarEventStore.View view = columnarViewOf(eventList);
+        if (view != null) {
+            indexLow = view.lowerBound(range.getStart());
+            indexHigh = view.upperBound(range.getEnd());
+        } else {
+            indexLow = binarySearchEventIndex(eventList, range.getStart(), true);
+            indexHigh = binarySearchEventIndex(eventList, range.getEnd(), false);
+        }
 
         for (int i = indexLow; i < indexHigh; i++) {
             consumer.accept(eventList.get(i));
@@ -300,6 +404,19 @@ public abstract class GCModel {
         data[1].add(event.getDuration());
     }
 
+    private void putPhaseStatisticData(ColumnarEventStore store, int row, String name, Map<String, DoubleData[]> map,
+                                       boolean phase) {
+        DoubleData[] data = map.getOrDefault(name, null);
+        if (data == null) {
+            data = new DoubleData[2];
+            data[0] = new DoubleData();
+            data[1] = new DoubleData();
+            map.put(name, data);
+        }
+        data[0].add(phase ? store.getInterval(row) : store.getCauseInterval(row));
+        data[1].add(store.getDuration(row));
+    }
+
     private PhaseStatisticItem makePhaseStatisticItem(String name, DoubleData[] data) {
         return new PhaseStatisticItem(name, data[1].getN(), data[0].average(), data[0].getMin()
                 , data[1].average(), data[1].getMax(), data[1].getSum());
@@ -317,18 +434,36 @@ public abstract class GCModel {
             phaseData.add(new HashMap<>());
             causeData.add(new HashMap<>());
         }
-        iterateEventsWithinTimeRange(gcEvents, range, event -> {
-            int index = parents.indexOf(event.getEventType());
-            if (index < 0) {
-                return;
-            }
-            putPhaseStatisticData(event, event.getEventType().getName(), parentData, true);
-            if (event.getCause() != null) {
-                putPhaseStatisticData(event, event.getCause().getName(), causeData.get(index), false);
-            }
-            event.phasesDoDFS(phase -> putPhaseStatisticData(phase, phase.getEventType().getName(),
-                                                             phaseData.get(index), true));
-        });
+        ColumnarEventStore store = columnarStore;
+        if (store != null) {
+            ColumnarEventStore.View view = store.getGcEvents();
+            view.indicesWithinTimeRange(range, i -> {
+                int row = view.row(i);
+                int index = parents.indexOf(store.getEventType(row));
+                if (index < 0) {
+                    return;
+                }
+                putPhaseStatisticData(store, row, store.getEventType(row).getName(), parentData, true);
+                if (store.getCause(row) != null) {
+                    putPhaseStatisticData(store, row, store.getCause(row).getName(), causeData.get(index), false);
+                }
+                store.phaseRowsDo(i, phase -> putPhaseStatisticData(store, phase, store.getEventType(phase).getName(),
+                                                                    phaseData.get(index), true));
+            });
+        } else {
+            iterateEventsWithinTimeRange(gcEvents, range, event -> {
+                int index = parents.indexOf(event.getEventType());
+                if (index < 0) {
+                    return;
+                }
+                putPhaseStatisticData(event, event.getEventType().getName(), parentData, true);
+                if (event.getCause() != null) {
+                    putPhaseStatisticData(event, event.getCause().getName(), causeData.get(index), false);
+                }
+                event.phasesDoDFS(phase -> putPhaseStatisticData(phase, phase.getEventType().getName(),
+                                                                 phaseData.get(index), true));
+            });
+        }
         List<ParentStatisticsInfo> result = new ArrayList<>();
         for (int i = 0; i < parents.size(); i++) {
             String name = parents.get(i).getName();
@@ -346,10 +481,29 @@ public abstract class GCModel {
     @ApiMeta("pauseStatistics")
     public PauseStatistics getPauseStatistics(TimeRange range) {
         range = makeValidTimeRange(range);
+        ColumnarEventStore store = columnarStore;
+        PauseSketchIndex sketchIndex = pauseSketchIndex;
+        if (store != null && sketchIndex != null) {
+            ColumnarEventStore.View view = store.getGcEvents();
+            int low = view.lowerBound(range.getStart());
+            int high = view.upperBound(range.getEnd());
+            if (low < high && store.pauseRowCount(low, high) > exactPauseStatisticsLimit) {
+                QuantileSketch pause = sketchIndex.query(range, null);
+                return new PauseStatistics(
+                        pause.getN() == 0 ? Constant.UNKNOWN_DOUBLE : 1 - pause.getSum() / range.length(),
+                        pause.average(),
+                        pause.getMedian(),
+                        pause.getQuantile(0.99),
+                        pause.getQuantile(0.999),
+                        pause.getMax());
+            }
+        }
         DoubleData pause = new DoubleData(true);
-        iterateEventsWithinTimeRange(gcEvents, range, e -> {
-            e.pauseEventOrPhasesDo(event -> pause.add(event.getPause()));
-        });
+        if (store != null) {
+            store.getGcEvents().indicesWithinTimeRange(range, i -> store.pauseRowsDo(i, row -> pause.add(store.getPause(row))));
+        } else {
+            iterateEventsWithinTimeRange(gcEvents, range, e -> e.pauseEventOrPhasesDo(event -> pause.add(event.getPause())));
+        }
         return new PauseStatistics(
                 pause.getN() == 0 ? Constant.UNKNOWN_DOUBLE : 1 - pause.getSum() / range.length(),
                 pause.average(),
@@ -364,30 +518,37 @@ public abstract class GCModel {
         range = makeValidTimeRange(range);
 
         Map<String, int[]> distribution = new HashMap<>();
-        iterateEventsWithinTimeRange(gcEvents, range, e -> {
-            e.pauseEventOrPhasesDo(event -> {
-                if (event.getPause() >= 0) {
-                    String eventType = event.getEventType().getName();
-                    int pause = (int) event.getPause();
-                    int index = Arrays.binarySearch(partitions, pause);
-                    if (index < 0) {
-                        index = -index - 2;
-                    }
-                    if (index < 0) {
-                        return;
-                    }
-                    int[] nums = distribution.getOrDefault(eventType, null);
-                    if (nums == null) {
-                        nums = new int[partitions.length];
-                        distribution.put(eventType, nums);
-                    }
-                    nums[index]++;
-                }
-            });
-        });
+        ColumnarEventStore store = columnarStore;
+        if (store != null) {
+            store.getGcEvents().indicesWithinTimeRange(range, i -> store.pauseRowsDo(i, row ->
+                    putPauseDistribution(distribution, partitions, store.getEventType(row), store.getPause(row))));
+        } else {
+            iterateEventsWithinTimeRange(gcEvents, range, e -> e.pauseEventOrPhasesDo(event ->
+                    putPauseDistribution(distribution, partitions, event.getEventType(), event.getPause())));
+        }
         return distribution;
     }
 
+    private void putPauseDistribution(Map<String, int[]> distribution, int[] partitions, GCEventType type, double pauseTime) {
+        if (pauseTime >= 0) {
+            String eventType = type.getName();
+            int pause = (int) pauseTime;
+            int index = Arrays.binarySearch(partitions, pause);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0) {
+                return;
+            }
+            int[] nums = distribution.getOrDefault(eventType, null);
+            if (nums == null) {
+                nums = new int[partitions.length];
+                distribution.put(eventType, nums);
+            }
+            nums[index]++;
+        }
+    }
+
     @ApiMeta("memoryStatistics")
     public MemoryStatistics getMemoryStatistics(TimeRange range) {
         range = makeValidTimeRange(range);
@@ -402,19 +563,36 @@ public abstract class GCModel {
                 data[i][j] = new LongData();
             }
         }
-        iterateEventsWithinTimeRange(gcCollectionEvents, range, event -> {
-            for (int genIndex = 0; genIndex < generations.length; genIndex++) {
-                MemoryArea generation = generations[genIndex];
-                GCMemoryItem memory = event.getMemoryItem(generation);
-                if (memory != null) {
-                    data[genIndex][0].add(memory.getPostCapacity());
-                    data[genIndex][1].add(Math.max(memory.getPreUsed(), memory.getPostUsed()));
-                    if (event.isFullGC() && generation != YOUNG) {
-                        data[genIndex][2].add(memory.getPostUsed());
+        ColumnarEventStore store = columnarStore;
+        if (store != null) {
+            ColumnarEventStore.View view = store.getGcCollectionEvents();
+            view.indicesWithinTimeRange(range, i -> {
+                boolean fullGC = store.getEventType(view.row(i)).isFullGC();
+                for (int genIndex = 0; genIndex < generations.length; genIndex++) {
+                    MemoryArea generation = generations[genIndex];
+                    // unknown values are ignored by LongData, so a missing item is the same as an empty one
+                    data[genIndex][0].add(store.getPostCapacity(generation, i));
+                    data[genIndex][1].add(Math.max(store.getPreUsed(generation, i), store.getPostUsed(generation, i)));
+                    if (fullGC && generation != YOUNG) {
+                        data[genIndex][2].add(store.getPostUsed(generation, i));
                     }
                 }
-            }
-        });
+            });
+        } else {
+            iterateEventsWithinTimeRange(gcCollectionEvents, range, event -> {
+                for (int genIndex = 0; genIndex < generations.length; genIndex++) {
+                    MemoryArea generation = generations[genIndex];
+                    GCMemoryItem memory = event.getMemoryItem(generation);
+                    if (memory != null) {
+                        data[genIndex][0].add(memory.getPostCapacity());
+                        data[genIndex][1].add(Math.max(memory.getPreUsed(), memory.getPostUsed()));
+                        if (event.isFullGC() && generation != YOUNG) {
+                            data[genIndex][2].add(memory.getPostUsed());
+                        }
+                    }
+                }
+            });
+        }
         calculateUsedAvgAfterOldGC(range, data);
 
         // generate result
@@ -443,10 +621,19 @@ public abstract class GCModel {
         range = makeValidTimeRange(range);
         LongData allocation = new LongData();
         LongData promotion = new LongData();
-        iterateEventsWithinTimeRange(gcCollectionEvents, range, event -> {
-            allocation.add(event.getAllocation());
-            promotion.add(event.getPromotion());
-        });
+        ColumnarEventStore store = columnarStore;
+        if (store != null) {
+            ColumnarEventStore.View view = store.getGcCollectionEvents();
+            view.indicesWithinTimeRange(range, i -> {
+                allocation.add(store.getAllocation(view.row(i)));
+                promotion.add(store.getPromotion(view.row(i)));
+            });
+        } else {
+            iterateEventsWithinTimeRange(gcCollectionEvents, range, event -> {
+                allocation.add(event.getAllocation());
+                promotion.add(event.getPromotion());
+            });
+        }
         return new ObjectStatistics(
                 allocation.getSum() != Constant.UNKNOWN_DOUBLE ? allocation.getSum() / range.length() : Constant.UNKNOWN_DOUBLE,
                 promotion.getSum() != Constant.UNKNOWN_DOUBLE ? promotion.getSum() / range.length() : Constant.UNKNOWN_DOUBLE,
@@ -456,18 +643,19 @@ public abstract class GCModel {
 
     // decide start and end time using events
     public void autoDecideStartEndTime() {
-        gcEvents.sort(Comparator.comparingDouble(GCEvent::getStartTime));
-        if (gcEvents.size() == 0) {
+        List<GCEvent> events = getDerivingEvents();
+        events.sort(Comparator.comparingDouble(GCEvent::getStartTime));
+        if (events.size() == 0) {
             return;
         }
-        GCEvent event = gcEvents.get(gcEvents.size() - 1);
+        GCEvent event = events.get(events.size() - 1);
         double endTime = event.getEndTime();
         if (event.hasPhases()) {
             endTime = Math.max(endTime, event.getPhases().get(event.getPhases().size() - 1).getEndTime());
         }
         setEndTime(Math.max(this.endTime, endTime));
         // update start time.
-        event = gcEvents.get(0);
+        event = events.get(0);
         double startTime = event.getStartTime();
         if (event.hasPhases()) {
             startTime = Math.min(startTime, event.getPhases().get(0).getStartTime());
@@ -475,21 +663,47 @@ public abstract class GCModel {
         setStartTime(Math.min(this.startTime, startTime));
     }
 
-    @ApiMeta("timeGraphData")
+    @Exclude
     public Map<String, List<Object[]>> getTimeGraphData(String[] dataTypes) {
+        return getTimeGraphData(dataTypes, null, 0);
+    }
+
+    /**
+     * @param range     only return points within the range, all points if null or invalid
+     * @param maxPoints downsample each series to at most this many points, no limit if null or not positive
+     */
+    @ApiMeta("timeGraphData")
+    public Map<String, List<Object[]>> getTimeGraphData(String[] dataTypes,
+                                                        @ApiParameterMeta(required = false) TimeRange range,
+                                                        @ApiParameterMeta(required = false) Integer maxPoints) {
+        int limit = maxPoints == null ? 0 : maxPoints;
         Map<String, List<Object[]>> result = new LinkedHashMap<>();
         for (String dataType : dataTypes) {
+            TimeGraphSeries series = getTimeGraphSeries(dataType);
+            if ((range == null || !range.isValid()) && limit <= 0) {
+                result.put(dataType, new ArrayList<>(series.getPoints()));
+            } else {
+                result.put(dataType, series.query(range != null && range.isValid() ? range : null, limit));
+            }
+        }
+        return result;
+    }
+
+    private TimeGraphSeries getTimeGraphSeries(String dataType) {
+        TimeGraphSeries series = timeGraphSeriesCache.getIfPresent(dataType);
+        if (series == null) {
             if (dataType.endsWith("Used") || dataType.endsWith("Capacity")) {
-                result.put(dataType, getTimeGraphMemoryData(dataType));
+                series = TimeGraphSeries.of(getTimeGraphMemoryData(dataType), true);
             } else if (dataType.equals("promotion")) {
-                result.put(dataType, getTimeGraphPromotionData());
+                series = TimeGraphSeries.of(getTimeGraphPromotionData(), false);
             } else if (dataType.equals("reclamation")) {
-                result.put(dataType, getTimeGraphReclamationData());
+                series = TimeGraphSeries.of(getTimeGraphReclamationData(), false);
             } else {
-                result.put(dataType, getTimeGraphDurationData(dataType));
+                series = TimeGraphSeries.of(getTimeGraphDurationData(dataType), true);
             }
+            timeGraphSeriesCache.put(dataType, series);
         }
-        return result;
+        return series;
     }
 
     private List<Object[]> getTimeGraphMemoryData(String dataType) {
@@ -497,21 +711,50 @@ public abstract class GCModel {
         String areString = dataType.substring(0, dataType.length() - (used ? "Used" : "Capacity").length());
         MemoryArea area = MemoryArea.getMemoryArea(areString);
         List<Object[]> result = new ArrayList<>();
-        for (GCEvent event : this.gcCollectionEvents) {
-            GCMemoryItem memory = event.getMemoryItem(area);
-            if (memory == null) {
-                continue;
+        if (area == null) {
+            return result;
+        }
+        ColumnarEventStore store = columnarStore;
+        if (store != null) {
+            if (!store.hasMemoryArea(area)) {
+                return result;
             }
-            if (used) {
-                if (memory.getPreUsed() != Constant.UNKNOWN_LONG) {
-                    result.add(new Object[]{(long) event.getStartTime(), memory.getPreUsed()});
+            ColumnarEventStore.View view = store.getGcCollectionEvents();
+            for (int i = 0; i < view.size(); i++) {
+                int row = view.row(i);
+                if (used) {
+                    long preUsed = store.getPreUsed(area, i);
+                    long postUsed = store.getPostUsed(area, i);
+                    if (preUsed != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) store.getStartTime(row), preUsed});
+                    }
+                    if (postUsed != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) store.getEndTime(row), postUsed});
+                    }
+                } else {
+                    long postCapacity = store.getPostCapacity(area, i);
+                    if (postCapacity != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) store.getEndTime(row), postCapacity});
+                    }
                 }
-                if (memory.getPostUsed() != Constant.UNKNOWN_LONG) {
-                    result.add(new Object[]{(long) event.getEndTime(), memory.getPostUsed()});
+            }
+        } else {
+            for (GCEvent event : gcCollectionEvents) {
+                GCMemoryItem memory = event.getMemoryItem(area);
+                if (memory == null) {
+                    continue;
                 }
-            } else {
-                if (memory.getPostCapacity() != Constant.UNKNOWN_LONG) {
-                    result.add(new Object[]{(long) event.getEndTime(), memory.getPostCapacity()});
+                if (used) {
+                    if (memory.getPreUsed() != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) event.getStartTime(), memory.getPreUsed()});
+                    }
+                    if (memory.getPostUsed() != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) event.getEndTime(), memory.getPostUsed()});
+                    }
+                } else {
+                    if (memory.getPostCapacity() != Constant.UNKNOWN_LONG) {
+                        result.add(new Object[]{(long) event.getEndTime(), memory.getPostCapacity()});
+                    }
                 }
             }
         }
@@ -520,31 +763,96 @@ public abstract class GCModel {
     }
 
     private List<Object[]> getTimeGraphPromotionData() {
-        return allEvents.stream()
-                        .filter(event -> event.getPromotion() >= 0)
-                        .map(event -> new Object[]{(long) event.getStartTime(), event.getPromotion()})
-                        .collect(Collectors.toList());
+        ColumnarEventStore store = columnarStore;
+        if (store == null) {
+            return allEvents.stream()
+                            .filter(event -> event.getPromotion() >= 0)
+                            .map(event -> new Object[]{(long) event.getStartTime(), event.getPromotion()})
+                            .collect(Collectors.toList());
+        }
+        List<Object[]> result = new ArrayList<>();
+        for (int row = 0; row < store.getRowCount(); row++) {
+            if (store.getPromotion(row) >= 0) {
+                result.add(new Object[]{(long) store.getStartTime(row), store.getPromotion(row)});
+            }
+        }
+        return result;
     }
 
     private List<Object[]> getTimeGraphReclamationData() {
-        return gcCollectionEvents.stream()
-                                 .filter(event -> event.getReclamation() != Constant.UNKNOWN_LONG)
-                                 .map(event -> new Object[]{(long) event.getStartTime(), event.getReclamation()})
-                                 .collect(Collectors.toList());
+        ColumnarEventStore store = columnarStore;
+        if (store == null) {
+            return gcCollectionEvents.stream()
+                                     .filter(event -> event.getReclamation() != Constant.UNKNOWN_LONG)
+                                     .map(event -> new Object[]{(long) event.getStartTime(), event.getReclamation()})
+                                     .collect(Collectors.toList());
+        }
+        ColumnarEventStore.View view = store.getGcCollectionEvents();
+        List<Object[]> result = new ArrayList<>();
+        for (int i = 0; i < view.size(); i++) {
+            int row = view.row(i);
+            if (store.getReclamation(row) != Constant.UNKNOWN_LONG) {
+                result.add(new Object[]{(long) store.getStartTime(row), store.getReclamation(row)});
+            }
+        }
+        return result;
     }
 
     private List<Object[]> getTimeGraphDurationData(String phaseName) {
-        return allEvents.stream()
-                        .filter(event -> event.getEventType().getName().equals(phaseName)
-                                         && event.getDuration() != Constant.UNKNOWN_DOUBLE)
-                        .map(event -> new Object[]{(long) event.getStartTime(), event.getDuration()})
-                        .collect(Collectors.toList());
+        ColumnarEventStore store = columnarStore;
+        if (store == null) {
+            return allEvents.stream()
+                            .filter(event -> event.getEventType().getName().equals(phaseName)
+                                             && event.getDuration() != Constant.UNKNOWN_DOUBLE)
+                            .map(event -> new Object[]{(long) event.getStartTime(), event.getDuration()})
+                            .collect(Collectors.toList());
+        }
+        List<Object[]> result = new ArrayList<>();
+        // compare interned type ids instead of names for every event
+        boolean[] matched = new boolean[store.getEventTypeCount()];
+        for (int id = 0; id < matched.length; id++) {
+            matched[id] = store.eventTypeOfId(id).getName().equals(phaseName);
+        }
+        for (int row = 0; row < store.getRowCount(); row++) {
+            if (matched[store.getEventTypeId(row)] && store.getDuration(row) != Constant.UNKNOWN_DOUBLE) {
+                result.add(new Object[]{(long) store.getStartTime(row), store.getDuration(row)});
+            }
+        }
+        return result;
     }
 
     @ApiMeta("diagnoseInfo")
     public GlobalDiagnoser.GlobalAbnormalInfo getGlobalAbnormalInfo(AnalysisConfig config) {
         config.setTimeRange(makeValidTimeRange(config.getTimeRange()));
-        return new GlobalDiagnoser(this, config).diagnose();
+        // time range is ignored by AnalysisConfig.equals, and config may be changed by caller, so keep copies
+        TimeRange range = config.getTimeRange();
+        GlobalAbnormalInfoKey key = new GlobalAbnormalInfoKey(config.copy(), new TimeRange(range.getStart(), range.getEnd()));
+        GlobalDiagnoser.GlobalAbnormalInfo result = globalAbnormalInfoCache.getIfPresent(key);
+        if (result == null) {
+            result = new GlobalDiagnoser(this, config).diagnose();
+            globalAbnormalInfoCache.put(key, result);
+        }
+        return result;
+    }
+
+    private static int weightOf(GlobalDiagnoser.GlobalAbnormalInfo info) {
+        int weight = 1;
+        if (info.getMostSeriousProblem() != null && info.getMostSeriousProblem().getSites() != null) {
+            weight += info.getMostSeriousProblem().getSites().size();
+        }
+        if (info.getSeriousProblems() != null) {
+            for (List<Double> timestamps : info.getSeriousProblems().values()) {
+                weight += timestamps.size();
+            }
+        }
+        return weight;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class GlobalAbnormalInfoKey {
+        private AnalysisConfig config;
+        private TimeRange timeRange;
     }
 
     public long getRecommendMaxHeapSize() {
@@ -553,17 +861,42 @@ public abstract class GCModel {
     }
 
     public void putEvent(GCEvent event) {
+        if (following != null) {
+            following.pendingEvents.add(event);
+            following.parsedEvents.add(event);
+            return;
+        }
         gcEvents.add(event);
         allEvents.add(event);
     }
 
     public void addPhase(GCEvent parent, GCEvent phase) {
-        allEvents.add(phase);
+        if (following != null) {
+            following.parsedEvents.add(phase);
+        } else {
+            allEvents.add(phase);
+        }
         parent.addPhase(phase);
     }
 
+    /**
+     * Number of parsed events whose derived info is not calculated because they may still be changed by lines
+     * not written yet. Always 0 unless the log is being followed.
+     */
+    public int getPendingEventCount() {
+        return following == null ? 0 : following.pendingEvents.size();
+    }
+
     public void calculateDerivedInfo(ProgressListener progressListener) {
         allEvents = null;
+        clearDataForApis();
+        derivingEvents = gcEvents;
+        gcCollectionEvents = new ArrayList<>();
+        lastEndTimeOfType.clear();
+        lastEndTimeOfCause.clear();
+        lastTotalMemory = 0;
+        causesShowUp.clear();
+        eventTypesShowUp.clear();
         // must be done before other steps
         filterInvalidEvents();
         autoDecideStartEndTime();
@@ -576,15 +909,135 @@ public abstract class GCModel {
         // the structure of gcEvents and allEvents should not change after this line
 
         // calculate derived data for events themselves
-        calculateEventsInterval();
+        calculateEventsInterval(allEvents);
         calculateEventsMemoryInfo();
 
         // let subclass do something
         doAfterCalculatingDerivedInfo();
 
         // data in events should not change after this line
-        // calculate specific data prepared for route api, order of these calls doesn't matter
+        calculateDataForApis(0, 0, 0);
+    }
+
+    /**
+     * Calculate derived info of events parsed since last call, used when following a log that is still being
+     * written. Instead of calculateDerivedInfo, which must only be called once after the whole log is parsed,
+     * this method can be called after each batch of new lines.
+     * <p>
+     * The newest events may still get phases or their end from lines not written yet, so they are kept pending:
+     * invisible to queries until they are settled. Derived info of events is calculated only for the newly
+     * settled ones. They are merged into event lists, which only changes the lists near their ends, and data
+     * prepared for apis is updated from where the lists are changed.
+     */
+    public void updateDerivedInfo(ProgressListener progressListener) {
+        if (following == null) {
+            // the first call, everything parsed so far is pending
+            following = new FollowingState(gcEvents, allEvents);
+            gcEvents = new ArrayList<>();
+            allEvents = new ArrayList<>();
+            gcCollectionEvents = new ArrayList<>();
+        }
+        List<GCEvent> settled = following.settle();
+        if (!settled.isEmpty() && mayBeMergedWithNextEvent(settled.get(settled.size() - 1), following.firstPending())) {
+            following.keepPending(settled.remove(settled.size() - 1));
+        }
+        if (settled.isEmpty()) {
+            return;
+        }
+        invalidateCachesForApis();
+        derivingEvents = settled;
+        autoDecideStartEndTime();
+        decideAndFixEventInfo();
+        doBeforeCalculatingDerivedInfo();
+
+        int gcEventsFrom = mergeByStartTime(gcEvents, derivingEvents);
+        List<GCEvent> newEvents = new ArrayList<>();
+        for (GCEvent event : derivingEvents) {
+            newEvents.add(event);
+            if (event.hasPhases()) {
+                newEvents.addAll(event.getPhases());
+            }
+        }
+        newEvents.sort(Comparator.comparingDouble(GCEvent::getStartTime));
+        int allEventsFrom = mergeByStartTime(allEvents, newEvents);
+        for (int i = allEventsFrom; i < allEvents.size(); i++) {
+            allEvents.get(i).setId(i);
+        }
+
+        calculateEventsInterval(newEvents);
+        int gcCollectionEventsFrom = calculateEventsMemoryInfo();
+        doAfterCalculatingDerivedInfo();
+        calculateDataForApis(allEventsFrom, gcEventsFrom, gcCollectionEventsFrom);
+    }
+
+    // whether the last settled event may still be merged with the next event, which is not settled yet
+    protected boolean mayBeMergedWithNextEvent(GCEvent event, GCEvent next) {
+        return false;
+    }
+
+    // gcEvents whose derived info is being calculated
+    protected List<GCEvent> getDerivingEvents() {
+        return derivingEvents;
+    }
+
+    /**
+     * Merge events sorted by start time into list sorted by start time. Events of the same start time keep
+     * the order as if they were appended and then sorted.
+     *
+     * @return the first index of the list that is changed
+     */
+    private static int mergeByStartTime(List<GCEvent> list, List<GCEvent> events) {
+        int from = list.size();
+        if (events.isEmpty()) {
+            return from;
+        }
+        double startTime = events.get(0).getStartTime();
+        while (from > 0 && list.get(from - 1).getStartTime() > startTime) {
+            from--;
+        }
+        boolean interleaved = from < list.size();
+        list.addAll(events);
+        if (interleaved) {
+            // two sorted runs, merged in linear time by the stable sort
+            list.subList(from, list.size()).sort(Comparator.comparingDouble(GCEvent::getStartTime));
+        }
+        return from;
+    }
+
+    private void clearDataForApis() {
+        columnarStore = null;
+        pauseSketchIndex = null;
+        gcDetailIndex = null;
+        invalidateCachesForApis();
+    }
+
+    // data built lazily on request from all events
+    private void invalidateCachesForApis() {
+        timeGraphSeriesCache.invalidateAll();
+        globalDiagnoseInfoCache.invalidateAll();
+        globalAbnormalInfoCache.invalidateAll();
+    }
+
+    /**
+     * calculate specific data prepared for route api, order of these calls doesn't matter. Event lists are only
+     * changed from the given indices since the last call.
+     */
+    private void calculateDataForApis(int allEventsFrom, int gcEventsFrom, int gcCollectionEventsFrom) {
         calculateGcModelMetadata();
+        if (gcDetailIndex != null) {
+            gcDetailIndex.update(gcEventsFrom);
+        }
+        if (!columnarStoreEnabled) {
+            return;
+        }
+        if (columnarStore == null) {
+            columnarStore = ColumnarEventStore.build(this);
+            pauseSketchIndex = PauseSketchIndex.build(columnarStore, pauseSketchRelativeError);
+            return;
+        }
+        columnarStore.update(this, allEventsFrom, gcEventsFrom, gcCollectionEventsFrom);
+        pauseSketchIndex = pauseSketchIndex == null ?
+                PauseSketchIndex.build(columnarStore, pauseSketchRelativeError) : pauseSketchIndex.update(gcEventsFrom);
     }
 
     // for implementation
@@ -610,7 +1063,7 @@ public abstract class GCModel {
     }
 
     private void decideAndFixEventInfo() {
-        for (GCEvent event : gcEvents) {
+        for (GCEvent event : getDerivingEvents()) {
             List<GCEvent> phases = event.getPhases();
             if (phases == null) {
                 continue;
@@ -632,14 +1085,14 @@ public abstract class GCModel {
      * calculate heap size(young, humongous, old, metaspace,total),
      * object allocation, reclamation and promotion
      */
-    private void calculateEventsMemoryInfo() {
-        for (GCEvent event : gcEvents) {
-            calculateEventMemoryItems(event);
+    private int calculateEventsMemoryInfo() {
+        List<GCEvent> collections = new ArrayList<>();
+        for (GCEvent event : getDerivingEvents()) {
+            calculateEventMemoryItems(event, collections);
         }
-        gcCollectionEvents.sort(Comparator.comparingDouble(GCEvent::getStartTime));
+        collections.sort(Comparator.comparingDouble(GCEvent::getStartTime));
 
-        long lastTotalMemory = 0;
-        for (GCEvent event : gcCollectionEvents) {
+        for (GCEvent event : collections) {
             GCMemoryItem young = event.getMemoryItem(YOUNG);
             GCMemoryItem total = event.getMemoryItem(HEAP);
             GCMemoryItem humongous = event.getMemoryItem(HUMONGOUS);
@@ -674,6 +1127,7 @@ public abstract class GCModel {
                 lastTotalMemory = total.getPostUsed();
             }
         }
+        return mergeByStartTime(gcCollectionEvents, collections);
     }
 
     private long zeroIfUnknownInt(long x) {
@@ -684,12 +1138,12 @@ public abstract class GCModel {
         return x < 0 ? 0 : x;
     }
 
-    private void calculateEventMemoryItems(GCEvent event) {
-        event.phasesDoDFS(this::calculateEventMemoryItems);
+    private void calculateEventMemoryItems(GCEvent event, List<GCEvent> collections) {
+        event.phasesDoDFS(phase -> calculateEventMemoryItems(phase, collections));
         if (event.getMemoryItems() == null) {
             return;
         }
-        gcCollectionEvents.add(event);
+        collections.add(event);
 
         // hack: Survivor capacity of g1 is not printed in jdk8. Make it equal to pre used so that
         // we can calculate young and old capacity
@@ -764,7 +1218,9 @@ public abstract class GCModel {
     }
 
     protected static List<GCEventType> calcParentEventTypes(GCCollectorType collector) {
-        return Stream.of(YOUNG_GC, G1_MIXED_GC, CMS_CONCURRENT_MARK_SWEPT, G1_CONCURRENT_CYCLE, FULL_GC, ZGC_GARBAGE_COLLECTION)
+        return Stream.of(YOUNG_GC, G1_MIXED_GC, CMS_CONCURRENT_MARK_SWEPT, G1_CONCURRENT_CYCLE, FULL_GC, ZGC_GARBAGE_COLLECTION,
+                         GENZ_MINOR_COLLECTION, GENZ_MAJOR_COLLECTION, SHENANDOAH_CONCURRENT_CYCLE, GENSHEN_YOUNG_CYCLE,
+                         GENSHEN_OLD_CYCLE, GENSHEN_GLOBAL_CYCLE, SHENANDOAH_DEGENERATED_GC)
                      .filter(e -> e.getGcs().contains(collector))
                      .collect(Collectors.toList());
     }
@@ -780,8 +1236,9 @@ public abstract class GCModel {
     protected abstract List<GCEventType> getImportantEventTypes();
 
     public GCEvent getLastEventWithCondition(Predicate<GCEvent> condition) {
-        for (int i = allEvents.size() - 1; i >= 0; i--) {
-            GCEvent event = allEvents.get(i);
+        List<GCEvent> events = following != null ? following.parsedEvents : allEvents;
+        for (int i = events.size() - 1; i >= 0; i--) {
+            GCEvent event = events.get(i);
             if (condition.test(event)) {
                 return event;
             }
@@ -821,10 +1278,11 @@ public abstract class GCModel {
         return vmOptions == null ? null : vmOptions.getVmOptionResult();
     }
 
-    private void calculateEventsInterval() {
-        Map<GCEventType, Double> lastEndTime = new HashMap<>();
-        Map<GCEventType, Map<GCCause, Double>> lastCauseEndTime = new HashMap<>();
-        for (GCEvent event : allEvents) {
+    // events must be sorted by start time and later than events visited before
+    private void calculateEventsInterval(List<GCEvent> events) {
+        Map<GCEventType, Double> lastEndTime = lastEndTimeOfType;
+        Map<GCEventType, Map<GCCause, Double>> lastCauseEndTime = lastEndTimeOfCause;
+        for (GCEvent event : events) {
             GCEventType eventType = event.getEventType();
             // regard mixed gc as young gc
             if (event.isYoungGC()) {
@@ -877,19 +1335,14 @@ public abstract class GCModel {
     @ApiMeta("gcDetails")
     public PageView<GCEventVO> getGCDetails(PagingRequest pagingRequest, GCDetailFilter filter, AnalysisConfig config) {
         int firstIndex = (pagingRequest.getPage() - 1) * pagingRequest.getPageSize();
-        int total = 0;
         List<GCEvent> resultEvents = new ArrayList<>();
-
-        for (GCEvent event : gcEvents) {
-            if (!filter.isFiltered(event)) {
-                if (total >= firstIndex && resultEvents.size() < pagingRequest.getPageSize()) {
-                    resultEvents.add(event);
-                }
-                total++;
-            }
+        GCDetailIndex index = gcDetailIndex;
+        if (index == null) {
+            index = GCDetailIndex.build(gcEvents);
+            gcDetailIndex = index;
         }
-        List<GCEventVO> result = getEventsVO(resultEvents, config);
-        return new PageView<>(pagingRequest, total, result);
+        int total = index.select(filter, firstIndex, pagingRequest.getPageSize(), resultEvents);
+        return new PageView<>(pagingRequest, total, getEventsVO(resultEvents, config));
     }
 
     public boolean shouldTryToAvoidMemoryFullGC() {
@@ -916,13 +1369,18 @@ public abstract class GCModel {
     }
 
     private void calculateGcModelMetadata() {
+        // only deriving events are new to what has been seen
+        for (GCEvent event : getDerivingEvents()) {
+            if (event.getCause() != null) {
+                causesShowUp.add(event.getCause().getName());
+            }
+            eventTypesShowUp.add(event.getEventType());
+            if (event.hasPhases()) {
+                event.getPhases().forEach(phase -> eventTypesShowUp.add(phase.getEventType()));
+            }
+        }
         metadata = new GCLogMetadata();
-        metadata.setCauses(gcEvents.stream()
-                                   .map(GCEvent::getCause)
-                                   .filter(Objects::nonNull)
-                                   .map(GCCause::getName)
-                                   .distinct()
-                                   .collect(Collectors.toList()));
+        metadata.setCauses(new ArrayList<>(causesShowUp));
         metadata.setCollector(getCollectorType().toString());
         metadata.setLogStyle(getLogStyle().toString());
         metadata.setPauseless(isPauseless());
@@ -932,9 +1390,7 @@ public abstract class GCModel {
         metadata.setStartTime(getStartTime());
         metadata.setEndTime(getEndTime());
 
-        Set<GCEventType> eventTypesActuallyShowUp = this.allEvents.stream()
-                                                                  .map(GCEvent::getEventType)
-                                                                  .collect(Collectors.toSet());
+        Set<GCEventType> eventTypesActuallyShowUp = eventTypesShowUp;
         metadata.setParentEventTypes(dealEventTypeForMetadata(getParentEventTypes(), eventTypesActuallyShowUp));
         metadata.setImportantEventTypes(dealEventTypeForMetadata(getImportantEventTypes(), eventTypesActuallyShowUp));
         metadata.setPauseEventTypes(dealEventTypeForMetadata(getPauseEventTypes(), eventTypesActuallyShowUp));
@@ -992,6 +1448,54 @@ public abstract class GCModel {
         return info;
     }
 
+    private static class FollowingState {
+        // pending events older than this are settled even if they are incomplete, like what calculateDerivedInfo
+        // does to incomplete events except the last one
+        private static final int MAX_PENDING_EVENTS = 1000;
+
+        // events and phases in the order they are parsed, used by parser to find events
+        private final List<GCEvent> parsedEvents;
+        // gcEvents not settled yet
+        private final List<GCEvent> pendingEvents;
+
+        FollowingState(List<GCEvent> gcEvents, List<GCEvent> allEvents) {
+            pendingEvents = new ArrayList<>(gcEvents);
+            parsedEvents = new ArrayList<>(allEvents);
+        }
+
+        GCEvent firstPending() {
+            return pendingEvents.isEmpty() ? null : pendingEvents.get(0);
+        }
+
+        // put back a settled event that is earlier than all pending ones
+        void keepPending(GCEvent event) {
+            pendingEvents.add(0, event);
+        }
+
+        // remove and return pending events whose derived info can be calculated
+        List<GCEvent> settle() {
+            pendingEvents.sort(Comparator.comparingDouble(GCEvent::getStartTime));
+            // the newest one is always kept because its following lines may not be written yet
+            int end = pendingEvents.size() - 1;
+            Set<GCEventType> typesStartedLater = new HashSet<>();
+            for (int i = end; i >= 0; i--) {
+                GCEvent event = pendingEvents.get(i);
+                // an event without end may still be in progress, unless another one of its type has begun
+                if (event.getEndTime() == Constant.UNKNOWN_DOUBLE && !typesStartedLater.contains(event.getEventType())
+                    && pendingEvents.size() - i <= MAX_PENDING_EVENTS) {
+                    end = i;
+                }
+                typesStartedLater.add(event.getEventType());
+            }
+            if (end <= 0) {
+                return Collections.emptyList();
+            }
+            List<GCEvent> settled = new ArrayList<>(pendingEvents.subList(0, end));
+            pendingEvents.subList(0, end).clear();
+            return settled;
+        }
+    }
+
     @Data
     @NoArgsConstructor
     @ToString
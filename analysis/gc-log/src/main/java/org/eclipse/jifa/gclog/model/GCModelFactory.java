@@ -29,6 +29,12 @@ public class GCModelFactory {
                 return new ParallelGCModel();
             case ZGC:
                 return new ZGCModel();
+            case GENZ:
+                return new GenerationalZGCModel();
+            case SHENANDOAH:
+                return new ShenandoahGCModel();
+            case GENSHEN:
+                return new GenerationalShenandoahGCModel();
             case UNKNOWN:
                 return new UnknownGCModel();
             default:
@@ -33,7 +33,10 @@ public abstract class GenerationalGCModel extends GCModel {
 
     private void dealYoungGCThatBecomeFullGCUnified() {
         List<GCEvent> newEvents = new ArrayList<>();
-        List<GCEvent> oldEvents = getGcEvents();
+        List<GCEvent> oldEvents = getDerivingEvents();
+        if (oldEvents.isEmpty()) {
+            return;
+        }
         boolean remove = false;
         for (int i = 0; i < oldEvents.size() - 1; i++) {
             GCEvent event = oldEvents.get(i);
@@ -54,11 +57,12 @@ public abstract class GenerationalGCModel extends GCModel {
         if (!remove) {
             newEvents.add(oldEvents.get(oldEvents.size() - 1));
         }
-        setGcEvents(newEvents);
+        oldEvents.clear();
+        oldEvents.addAll(newEvents);
     }
 
     private void dealYoungGCThatBecomeFullGCPreUnified() {
-        for (GCEvent event : getGcEvents()) {
+        for (GCEvent event : getDerivingEvents()) {
             // if metaspace is printed, it must be a full gc
             if (event.getEventType() == YOUNG_GC && event.getMemoryItem(MemoryArea.METASPACE) != null) {
                 event.setEventType(FULL_GC);
@@ -74,13 +78,21 @@ public abstract class GenerationalGCModel extends GCModel {
         if (getLogStyle() != GCLogStyle.PRE_UNIFIED) {
             return;
         }
-        for (GCEvent event : getGcEvents()) {
+        for (GCEvent event : getDerivingEvents()) {
             if (event.getEventType() == FULL_GC && event.getMemoryItem(MemoryArea.YOUNG) != null) {
                 event.getMemoryItem(MemoryArea.YOUNG).setPostUsed(0);
             }
         }
     }
 
+    // a young gc that becomes a full gc is logged as a young gc containing a full gc, see
+    // dealYoungGCThatBecomeFullGCUnified. The full gc may still be changed when the young gc is settled.
+    @Override
+    protected boolean mayBeMergedWithNextEvent(GCEvent event, GCEvent next) {
+        return getLogStyle() == GCLogStyle.UNIFIED && event.getEventType() == YOUNG_GC && next != null
+               && next.getEventType() == FULL_GC && next.getStartTime() <= event.getEndTime();
+    }
+
     @Override
     protected void doBeforeCalculatingDerivedInfo() {
         if (getLogStyle() == GCLogStyle.UNIFIED) {
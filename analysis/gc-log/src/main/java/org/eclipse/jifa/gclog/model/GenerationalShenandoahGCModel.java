@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
+
+import java.util.List;
+
+import static org.eclipse.jifa.gclog.model.GCEventType.FULL_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_GLOBAL_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_OLD_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_YOUNG_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_EVACUATION;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_MARKING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_DEGENERATED_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_UPDATE_REFS;
+
+/**
+ * Generational Shenandoah runs young, old and global cycles. Phases are the same as Shenandoah, and the
+ * generation a cycle works on is printed after the phase name, e.g. "Pause Init Mark (Young)".
+ */
+public class GenerationalShenandoahGCModel extends ShenandoahGCModel {
+    private static GCCollectorType collector = GCCollectorType.GENSHEN;
+
+    public GenerationalShenandoahGCModel() {
+        super(collector);
+    }
+
+    private static List<GCEventType> allEventTypes = GCModel.calcAllEventTypes(collector);
+    private static List<GCEventType> pauseEventTypes = GCModel.calcPauseEventTypes(collector);
+    private static List<GCEventType> mainPauseEventTypes = GCModel.calcMainPauseEventTypes(collector);
+    private static List<GCEventType> parentEventTypes = GCModel.calcParentEventTypes(collector);
+    private static List<GCEventType> importantEventTypes = List.of(GENSHEN_YOUNG_CYCLE, GENSHEN_OLD_CYCLE,
+            GENSHEN_GLOBAL_CYCLE, SHENANDOAH_DEGENERATED_GC, FULL_GC, SHENANDOAH_PAUSE_INIT_MARK,
+            SHENANDOAH_CONCURRENT_MARKING, SHENANDOAH_PAUSE_FINAL_MARK, SHENANDOAH_CONCURRENT_EVACUATION,
+            SHENANDOAH_PAUSE_INIT_UPDATE_REFS, SHENANDOAH_CONCURRENT_UPDATE_REFS, SHENANDOAH_PAUSE_FINAL_UPDATE_REFS);
+
+    @Override
+    protected List<GCEventType> getAllEventTypes() {
+        return allEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getPauseEventTypes() {
+        return pauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getMainPauseEventTypes() {
+        return mainPauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getImportantEventTypes() {
+        return importantEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getParentEventTypes() {
+        return parentEventTypes;
+    }
+}
@@ -0,0 +1,77 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
+
+import java.util.List;
+
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MAJOR_COLLECTION;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MINOR_COLLECTION;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_RELOCATE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_PAUSE_MARK_END;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_PAUSE_RELOCATE_START;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_RELOCATE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_MARK_END;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_MARK_START;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_RELOCATE_START;
+
+/**
+ * Generational ZGC collects young generation in minor collections, and both generations in major collections.
+ * Allocation stalls and out of memory are the same as non-generational ZGC.
+ */
+public class GenerationalZGCModel extends ZGCModel {
+    private static GCCollectorType collector = GCCollectorType.GENZ;
+
+    public GenerationalZGCModel() {
+        super(collector);
+    }
+
+    private static List<GCEventType> allEventTypes = GCModel.calcAllEventTypes(collector);
+    private static List<GCEventType> pauseEventTypes = GCModel.calcPauseEventTypes(collector);
+    private static List<GCEventType> mainPauseEventTypes = GCModel.calcMainPauseEventTypes(collector);
+    private static List<GCEventType> parentEventTypes = GCModel.calcParentEventTypes(collector);
+    private static List<GCEventType> importantEventTypes = List.of(GENZ_MINOR_COLLECTION, GENZ_MAJOR_COLLECTION,
+            GENZ_YOUNG_PAUSE_MARK_START, GENZ_YOUNG_PAUSE_MARK_END, GENZ_YOUNG_PAUSE_RELOCATE_START,
+            GENZ_YOUNG_CONCURRENT_MARK, GENZ_YOUNG_CONCURRENT_RELOCATE, GENZ_OLD_PAUSE_MARK_END,
+            GENZ_OLD_PAUSE_RELOCATE_START, GENZ_OLD_CONCURRENT_MARK, GENZ_OLD_CONCURRENT_RELOCATE);
+
+    @Override
+    protected List<GCEventType> getAllEventTypes() {
+        return allEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getPauseEventTypes() {
+        return pauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getMainPauseEventTypes() {
+        return mainPauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getImportantEventTypes() {
+        return importantEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getParentEventTypes() {
+        return parentEventTypes;
+    }
+}
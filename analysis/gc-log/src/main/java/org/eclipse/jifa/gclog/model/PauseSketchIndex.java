@@ -0,0 +1,224 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.util.QuantileSketch;
+import org.eclipse.jifa.gclog.vo.TimeRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pause time sketches of gcEvents, kept per time bucket and per event type, so that pause percentiles of a
+ * time range can be answered by merging bucket sketches rather than collecting and sorting all pauses.
+ * <p>
+ * A gc event belongs to the bucket of its start time, and all its pauses are counted there, which is
+ * consistent with how GCModel.iterateEventsWithinTimeRange selects events. New events of a followed log are
+ * added to the last buckets, and buckets are merged in pairs when there are too many of them.
+ */
+public class PauseSketchIndex {
+    // keep the index small compared with the events
+    private static final int MAX_BUCKET_COUNT = 1024;
+    private static final double MIN_BUCKET_WIDTH = 1000; // ms
+
+    private final ColumnarEventStore store;
+    private final double relativeError;
+    private final double origin;
+    private double bucketWidth;
+    private int bucketCount;
+    // bucketOffset[b] is the index in gcEvents of the first event of bucket b, bucketOffset[bucketCount] is the
+    // number of indexed events
+    private int[] bucketOffset = new int[1];
+    // [bucket][event type id], null if no pause of the type in the bucket
+    private final List<QuantileSketch[]> sketches = new ArrayList<>();
+
+    private PauseSketchIndex(ColumnarEventStore store, double relativeError) {
+        this.store = store;
+        this.relativeError = relativeError;
+        ColumnarEventStore.View view = store.getGcEvents();
+        this.origin = view.getStartTime(0);
+        double span = view.getStartTime(view.size() - 1) - origin;
+        this.bucketWidth = Math.max(MIN_BUCKET_WIDTH, span / MAX_BUCKET_COUNT);
+        addFrom(0);
+    }
+
+    public static PauseSketchIndex build(ColumnarEventStore store, double relativeError) {
+        if (store == null || store.getGcEvents().size() == 0) {
+            return null;
+        }
+        return new PauseSketchIndex(store, relativeError);
+    }
+
+    /**
+     * Catch up with gcEvents of the store, which are only changed from fromIndex since the last update.
+     *
+     * @return the updated index, or a new one if the events can not be added to this one
+     */
+    public PauseSketchIndex update(int fromIndex) {
+        ColumnarEventStore.View view = store.getGcEvents();
+        if (view.size() == 0 || view.getStartTime(0) < origin) {
+            return build(store, relativeError);
+        }
+        // the event now at fromIndex is the earliest changed one, buckets before its bucket are not changed
+        int bucket = fromIndex < view.size() ? Math.min(bucketCount, bucketOf(view.getStartTime(fromIndex))) : bucketCount;
+        int index = bucketOffset[bucket];
+        sketches.subList(bucket, bucketCount).clear();
+        bucketCount = bucket;
+        addFrom(index);
+        return this;
+    }
+
+    private int bucketOf(double startTime) {
+        return (int) ((startTime - origin) / bucketWidth);
+    }
+
+    // add gcEvents[fromIndex, ...) to buckets, fromIndex must be the first event of a new bucket
+    private void addFrom(int fromIndex) {
+        ColumnarEventStore.View view = store.getGcEvents();
+        while (bucketOf(view.getStartTime(view.size() - 1)) >= 2 * MAX_BUCKET_COUNT) {
+            coarsen();
+        }
+        for (int index = fromIndex; index < view.size(); index++) {
+            int bucket = bucketOf(view.getStartTime(index));
+            while (bucketCount <= bucket) {
+                ensureOffsetCapacity(bucketCount + 2);
+                bucketOffset[bucketCount] = index;
+                sketches.add(new QuantileSketch[store.getEventTypeCount()]);
+                bucketCount++;
+            }
+            store.pauseRowsDo(index, row -> sketchOf(bucket, store.getEventTypeId(row)).add(store.getPause(row)));
+        }
+        ensureOffsetCapacity(bucketCount + 1);
+        bucketOffset[bucketCount] = view.size();
+    }
+
+    private QuantileSketch sketchOf(int bucket, int type) {
+        QuantileSketch[] typeSketches = sketches.get(bucket);
+        if (type >= typeSketches.length) {
+            // event types are interned as they show up
+            typeSketches = Arrays.copyOf(typeSketches, store.getEventTypeCount());
+            sketches.set(bucket, typeSketches);
+        }
+        if (typeSketches[type] == null) {
+            typeSketches[type] = new QuantileSketch(relativeError);
+        }
+        return typeSketches[type];
+    }
+
+    // double the bucket width by merging buckets in pairs
+    private void coarsen() {
+        int count = (bucketCount + 1) / 2;
+        for (int bucket = 0; bucket < count; bucket++) {
+            QuantileSketch[] merged = sketches.get(2 * bucket);
+            if (2 * bucket + 1 < bucketCount) {
+                QuantileSketch[] other = sketches.get(2 * bucket + 1);
+                if (merged.length < other.length) {
+                    merged = Arrays.copyOf(merged, other.length);
+                }
+                for (int type = 0; type < other.length; type++) {
+                    if (other[type] == null) {
+                        continue;
+                    }
+                    if (merged[type] == null) {
+                        merged[type] = other[type];
+                    } else {
+                        merged[type].merge(other[type]);
+                    }
+                }
+            }
+            sketches.set(bucket, merged);
+            bucketOffset[bucket] = bucketOffset[2 * bucket];
+        }
+        bucketOffset[count] = bucketOffset[bucketCount];
+        sketches.subList(count, bucketCount).clear();
+        bucketCount = count;
+        bucketWidth *= 2;
+    }
+
+    private void ensureOffsetCapacity(int capacity) {
+        if (bucketOffset.length < capacity) {
+            bucketOffset = Arrays.copyOf(bucketOffset, Math.max(capacity, bucketOffset.length * 2));
+        }
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    private double bucketStart(int bucket) {
+        return origin + bucket * bucketWidth;
+    }
+
+    /**
+     * Merge pauses of gcEvents started within range. Buckets entirely covered by range are merged from
+     * their sketches, and events in partially covered buckets are added one by one.
+     *
+     * @param eventType only count pauses of this type, null for all
+     */
+    public QuantileSketch query(TimeRange range, GCEventType eventType) {
+        QuantileSketch result = new QuantileSketch(relativeError);
+        int typeId = -1;
+        if (eventType != null) {
+            typeId = store.eventTypeIdOf(eventType);
+            if (typeId < 0) {
+                return result;
+            }
+        }
+        ColumnarEventStore.View view = store.getGcEvents();
+        int low = view.lowerBound(range.getStart());
+        int high = view.upperBound(range.getEnd());
+        if (low >= high) {
+            return result;
+        }
+
+        // buckets in [firstFull, lastFull) are entirely covered by range
+        int firstFull = Math.max(0, (int) Math.ceil((range.getStart() - origin) / bucketWidth));
+        int lastFull = Math.min(bucketCount, (int) Math.floor((range.getEnd() - origin) / bucketWidth));
+        if (range.getEnd() >= view.getStartTime(view.size() - 1)) {
+            lastFull = bucketCount;
+        }
+        if (firstFull >= lastFull) {
+            addExactly(result, low, high, typeId);
+            return result;
+        }
+        addExactly(result, low, Math.max(low, bucketOffset[firstFull]), typeId);
+        for (int bucket = firstFull; bucket < lastFull; bucket++) {
+            QuantileSketch[] typeSketches = sketches.get(bucket);
+            if (typeId >= 0) {
+                if (typeId < typeSketches.length && typeSketches[typeId] != null) {
+                    result.merge(typeSketches[typeId]);
+                }
+            } else {
+                for (QuantileSketch sketch : typeSketches) {
+                    if (sketch != null) {
+                        result.merge(sketch);
+                    }
+                }
+            }
+        }
+        addExactly(result, Math.min(high, bucketOffset[lastFull]), high, typeId);
+        return result;
+    }
+
+    private void addExactly(QuantileSketch sketch, int fromIndex, int toIndex, int typeId) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            store.pauseRowsDo(i, row -> {
+                if (typeId < 0 || store.getEventTypeId(row) == typeId) {
+                    sketch.add(store.getPause(row));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
+
+import java.util.List;
+
+import static org.eclipse.jifa.gclog.model.GCEventType.FULL_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_EVACUATION;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_MARKING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_DEGENERATED_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_UPDATE_REFS;
+
+/**
+ * Shenandoah collects the whole heap in concurrent cycles. When a cycle is cancelled because allocation fails,
+ * it is finished by a degenerated gc or a full gc.
+ */
+public class ShenandoahGCModel extends GCModel {
+    private static GCCollectorType collector = GCCollectorType.SHENANDOAH;
+
+    public ShenandoahGCModel() {
+        this(collector);
+    }
+
+    protected ShenandoahGCModel(GCCollectorType collector) {
+        super(collector);
+    }
+
+    private static List<GCEventType> allEventTypes = GCModel.calcAllEventTypes(collector);
+    private static List<GCEventType> pauseEventTypes = GCModel.calcPauseEventTypes(collector);
+    private static List<GCEventType> mainPauseEventTypes = GCModel.calcMainPauseEventTypes(collector);
+    private static List<GCEventType> parentEventTypes = GCModel.calcParentEventTypes(collector);
+    private static List<GCEventType> importantEventTypes = List.of(SHENANDOAH_CONCURRENT_CYCLE, SHENANDOAH_DEGENERATED_GC,
+            FULL_GC, SHENANDOAH_PAUSE_INIT_MARK, SHENANDOAH_CONCURRENT_MARKING, SHENANDOAH_PAUSE_FINAL_MARK,
+            SHENANDOAH_CONCURRENT_EVACUATION, SHENANDOAH_PAUSE_INIT_UPDATE_REFS, SHENANDOAH_CONCURRENT_UPDATE_REFS,
+            SHENANDOAH_PAUSE_FINAL_UPDATE_REFS);
+
+    @Override
+    protected List<GCEventType> getAllEventTypes() {
+        return allEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getPauseEventTypes() {
+        return pauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getMainPauseEventTypes() {
+        return mainPauseEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getImportantEventTypes() {
+        return importantEventTypes;
+    }
+
+    @Override
+    protected List<GCEventType> getParentEventTypes() {
+        return parentEventTypes;
+    }
+}
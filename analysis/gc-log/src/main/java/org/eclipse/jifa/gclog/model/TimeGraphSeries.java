@@ -0,0 +1,370 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.model;
+
+import org.eclipse.jifa.gclog.vo.TimeRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One series of time graph data, i.e. points of [time, value] sorted by time, together with multi-resolution
+ * rollups (min/max/sum/count per time bucket) so that a window of the series can be answered within a point
+ * budget without visiting every point.
+ * <p>
+ * Shape preserving series (pause and memory) are downsampled with Largest-Triangle-Three-Buckets, so spikes
+ * survive and returned points are real ones. Other series are downsampled to the average of each bucket.
+ */
+public class TimeGraphSeries {
+    // series smaller than this are downsampled from raw points directly
+    private static final int ROLLUP_THRESHOLD = 4096;
+    private static final int FINEST_BUCKET_COUNT = 16384;
+    private static final int COARSEST_BUCKET_COUNT = 16;
+    // when reading from rollups, number of candidate points handed to LTTB per requested point
+    private static final int CANDIDATES_PER_POINT = 4;
+
+    private final List<Object[]> points;
+    private final double[] times;
+    private final double[] values;
+    // whether values are long, averages are rounded then
+    private final boolean integral;
+    private final boolean shapePreserving;
+    // finest first, each level has buckets twice as wide as the previous one
+    private final List<Level> levels = new ArrayList<>();
+
+    private TimeGraphSeries(List<Object[]> points, boolean shapePreserving) {
+        this.points = points;
+        this.shapePreserving = shapePreserving;
+        int n = points.size();
+        times = new double[n];
+        values = new double[n];
+        boolean integral = true;
+        for (int i = 0; i < n; i++) {
+            Object[] point = points.get(i);
+            times[i] = ((Number) point[0]).doubleValue();
+            values[i] = ((Number) point[1]).doubleValue();
+            integral &= point[1] instanceof Long || point[1] instanceof Integer;
+        }
+        this.integral = integral;
+        if (n >= ROLLUP_THRESHOLD) {
+            buildLevels();
+        }
+    }
+
+    /**
+     * @param points [time, value] of the series, will be sorted by time
+     */
+    public static TimeGraphSeries of(List<Object[]> points, boolean shapePreserving) {
+        List<Object[]> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble(p -> ((Number) p[0]).doubleValue()));
+        return new TimeGraphSeries(Collections.unmodifiableList(sorted), shapePreserving);
+    }
+
+    public List<Object[]> getPoints() {
+        return points;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public boolean isShapePreserving() {
+        return shapePreserving;
+    }
+
+    int getLevelCount() {
+        return levels.size();
+    }
+
+    private void buildLevels() {
+        double origin = times[0];
+        double span = times[times.length - 1] - origin;
+        double width = Math.max(1, span / FINEST_BUCKET_COUNT);
+        Level level = Level.fromPoints(this, origin, width);
+        levels.add(level);
+        while (level.bucketCount > COARSEST_BUCKET_COUNT) {
+            level = level.coarser();
+            levels.add(level);
+        }
+    }
+
+    /**
+     * @param range     null for the whole series
+     * @param maxPoints at most how many points to return, non-positive for no limit
+     */
+    public List<Object[]> query(TimeRange range, int maxPoints) {
+        int from = 0;
+        int to = size();
+        if (range != null) {
+            from = lowerBound(range.getStart());
+            to = upperBound(range.getEnd());
+        }
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        int n = to - from;
+        if (maxPoints <= 0 || n <= maxPoints) {
+            return new ArrayList<>(points.subList(from, to));
+        }
+        if (levels.isEmpty() || shapePreserving && n <= maxPoints * CANDIDATES_PER_POINT) {
+            int[] indices = new int[n];
+            for (int i = 0; i < n; i++) {
+                indices[i] = from + i;
+            }
+            return pointsOf(lttb(indices, n, maxPoints));
+        }
+        double start = times[from];
+        double end = times[to - 1];
+        if (shapePreserving) {
+            // each bucket contributes its min and max
+            Level level = chooseLevel(start, end, maxPoints * CANDIDATES_PER_POINT / 2);
+            int[] candidates = new int[2 * (level.bucketIndex(end) - level.bucketIndex(start) + 1)];
+            int[] count = {0};
+            level.aggregate(this, from, to, (first, last, min, max, minIndex, maxIndex, sum) -> {
+                int a = Math.min(minIndex, maxIndex);
+                int b = Math.max(minIndex, maxIndex);
+                candidates[count[0]++] = a;
+                if (b != a) {
+                    candidates[count[0]++] = b;
+                }
+            });
+            return pointsOf(lttb(candidates, count[0], maxPoints));
+        }
+        Level level = chooseLevel(start, end, maxPoints);
+        List<Object[]> result = new ArrayList<>();
+        level.aggregate(this, from, to, (first, last, min, max, minIndex, maxIndex, sum) -> {
+            double avg = sum / (last - first);
+            result.add(new Object[]{(long) times[first], integral ? (Object) Math.round(avg) : (Object) avg});
+        });
+        return result;
+    }
+
+    // the finest level that covers [start, end] with no more than budget buckets
+    private Level chooseLevel(double start, double end, int budget) {
+        for (Level level : levels) {
+            if (level.bucketIndex(end) - level.bucketIndex(start) + 1 <= budget) {
+                return level;
+            }
+        }
+        return levels.get(levels.size() - 1);
+    }
+
+    private List<Object[]> pointsOf(int[] indices) {
+        List<Object[]> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(points.get(index));
+        }
+        return result;
+    }
+
+    // Largest-Triangle-Three-Buckets over points[indices[0..count)]
+    private int[] lttb(int[] indices, int count, int threshold) {
+        if (threshold >= count) {
+            int[] result = new int[count];
+            System.arraycopy(indices, 0, result, 0, count);
+            return result;
+        }
+        if (threshold < 3) {
+            return threshold == 1 ? new int[]{indices[0]} : new int[]{indices[0], indices[count - 1]};
+        }
+        int[] sampled = new int[threshold];
+        int sampledCount = 0;
+        sampled[sampledCount++] = indices[0];
+        double every = (double) (count - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // average point of the next bucket
+            int avgStart = (int) (Math.floor((i + 1) * every) + 1);
+            int avgEnd = Math.min((int) (Math.floor((i + 2) * every) + 1), count);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += times[indices[j]];
+                avgY += values[indices[j]];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // the point in this bucket making the largest triangle with a and the average point
+            int rangeStart = (int) (Math.floor(i * every) + 1);
+            int rangeEnd = (int) (Math.floor((i + 1) * every) + 1);
+            double aX = times[indices[a]];
+            double aY = values[indices[a]];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((aX - avgX) * (values[indices[j]] - aY)
+                                       - (aX - times[indices[j]]) * (avgY - aY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[sampledCount++] = indices[next];
+            a = next;
+        }
+        sampled[sampledCount] = indices[count - 1];
+        return sampled;
+    }
+
+    // first index whose time >= time
+    private int lowerBound(double time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first index whose time > time
+    private int upperBound(double time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private interface BucketConsumer {
+        // points in [first, last) of the series
+        void accept(int first, int last, double min, double max, int minIndex, int maxIndex, double sum);
+    }
+
+    private static class Level {
+        private final double origin;
+        private final double width;
+        private final int bucketCount;
+        // bucketOffset[b] is the index of the first point of bucket b
+        private final int[] bucketOffset;
+        private final double[] min;
+        private final double[] max;
+        private final int[] minIndex;
+        private final int[] maxIndex;
+        private final double[] sum;
+
+        private Level(double origin, double width, int bucketCount) {
+            this.origin = origin;
+            this.width = width;
+            this.bucketCount = bucketCount;
+            bucketOffset = new int[bucketCount + 1];
+            min = new double[bucketCount];
+            max = new double[bucketCount];
+            minIndex = new int[bucketCount];
+            maxIndex = new int[bucketCount];
+            sum = new double[bucketCount];
+        }
+
+        static Level fromPoints(TimeGraphSeries series, double origin, double width) {
+            double[] times = series.times;
+            double[] values = series.values;
+            int bucketCount = (int) ((times[times.length - 1] - origin) / width) + 1;
+            Level level = new Level(origin, width, bucketCount);
+            int index = 0;
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                level.bucketOffset[bucket] = index;
+                level.min[bucket] = Double.MAX_VALUE;
+                level.max[bucket] = -Double.MAX_VALUE;
+                for (; index < times.length && (level.bucketIndex(times[index]) <= bucket || bucket == bucketCount - 1); index++) {
+                    level.add(bucket, index, values[index]);
+                }
+            }
+            level.bucketOffset[bucketCount] = times.length;
+            return level;
+        }
+
+        Level coarser() {
+            Level level = new Level(origin, width * 2, (bucketCount + 1) / 2);
+            for (int bucket = 0; bucket < level.bucketCount; bucket++) {
+                int left = bucket * 2;
+                int right = Math.min(left + 1, bucketCount - 1);
+                level.bucketOffset[bucket] = bucketOffset[left];
+                boolean leftMin = min[left] <= min[right];
+                level.min[bucket] = leftMin ? min[left] : min[right];
+                level.minIndex[bucket] = leftMin ? minIndex[left] : minIndex[right];
+                boolean leftMax = max[left] >= max[right];
+                level.max[bucket] = leftMax ? max[left] : max[right];
+                level.maxIndex[bucket] = leftMax ? maxIndex[left] : maxIndex[right];
+                level.sum[bucket] = sum[left] + (right != left ? sum[right] : 0);
+            }
+            level.bucketOffset[level.bucketCount] = bucketOffset[bucketCount];
+            return level;
+        }
+
+        private void add(int bucket, int index, double value) {
+            if (value < min[bucket]) {
+                min[bucket] = value;
+                minIndex[bucket] = index;
+            }
+            if (value > max[bucket]) {
+                max[bucket] = value;
+                maxIndex[bucket] = index;
+            }
+            sum[bucket] += value;
+        }
+
+        int bucketIndex(double time) {
+            return Math.max(0, Math.min(bucketCount - 1, (int) ((time - origin) / width)));
+        }
+
+        // visit non-empty buckets overlapping [from, to) of the series, edge buckets are cut at from and to
+        void aggregate(TimeGraphSeries series, int from, int to, BucketConsumer consumer) {
+            int firstBucket = bucketIndex(series.times[from]);
+            int lastBucket = bucketIndex(series.times[to - 1]);
+            for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+                int first = Math.max(from, bucketOffset[bucket]);
+                int last = Math.min(to, bucketOffset[bucket + 1]);
+                if (first >= last) {
+                    continue;
+                }
+                if (first == bucketOffset[bucket] && last == bucketOffset[bucket + 1]) {
+                    consumer.accept(first, last, min[bucket], max[bucket], minIndex[bucket], maxIndex[bucket], sum[bucket]);
+                    continue;
+                }
+                double bucketMin = Double.MAX_VALUE;
+                double bucketMax = -Double.MAX_VALUE;
+                int bucketMinIndex = first;
+                int bucketMaxIndex = first;
+                double bucketSum = 0;
+                for (int i = first; i < last; i++) {
+                    double value = series.values[i];
+                    if (value < bucketMin) {
+                        bucketMin = value;
+                        bucketMinIndex = i;
+                    }
+                    if (value > bucketMax) {
+                        bucketMax = value;
+                        bucketMaxIndex = i;
+                    }
+                    bucketSum += value;
+                }
+                consumer.accept(first, last, bucketMin, bucketMax, bucketMinIndex, bucketMaxIndex, bucketSum);
+            }
+        }
+    }
+}
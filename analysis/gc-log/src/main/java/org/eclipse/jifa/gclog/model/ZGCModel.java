@@ -50,6 +50,10 @@ public class ZGCModel extends GCModel {
     private static GCCollectorType collector = GCCollectorType.ZGC;
 
     public ZGCModel() {
+        this(collector);
+    }
+
+    protected ZGCModel(GCCollectorType collector) {
         super(collector);
         this.setMetaspaceCapacityReliable(true);
     }
@@ -45,6 +45,30 @@ public abstract class AbstractGCLogParser implements GCLogParser {
     public final GCModel parse(BufferedReader br) throws Exception {
         model = GCModelFactory.getModel(metadata.getCollector());
         model.setLogStyle(metadata.getStyle());
+        parseLines(br);
+        try {
+            endParsing();
+        } catch (Exception e) {
+            log.debug("fail to end parsing, {}", e.getMessage());
+        }
+
+        return model;
+    }
+
+    /**
+     * Parse lines appended to the log since last call into the same model. Parsing is never ended, so that
+     * events still in progress at the end of the lines can be completed by lines read in the next call.
+     */
+    public final GCModel parseIncrementally(BufferedReader br) throws Exception {
+        if (model == null) {
+            model = GCModelFactory.getModel(metadata.getCollector());
+            model.setLogStyle(metadata.getStyle());
+        }
+        parseLines(br);
+        return model;
+    }
+
+    private void parseLines(BufferedReader br) throws Exception {
         String line;
         while ((line = br.readLine()) != null) {
             try {
@@ -55,13 +79,6 @@ public abstract class AbstractGCLogParser implements GCLogParser {
                 log.debug("fail to parse \"{}\", {}", line, e.getMessage());
             }
         }
-        try {
-            endParsing();
-        } catch (Exception e) {
-            log.debug("fail to parse \"{}\", {}", line, e.getMessage());
-        }
-
-        return model;
     }
 
     protected abstract void doParseLine(String line);
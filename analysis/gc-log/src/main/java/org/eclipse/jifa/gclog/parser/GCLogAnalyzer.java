@@ -14,54 +14,62 @@
 package org.eclipse.jifa.gclog.parser;
 
 import lombok.extern.slf4j.Slf4j;
-import org.eclipse.jifa.analysis.listener.DefaultProgressListener;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
 import org.eclipse.jifa.common.domain.exception.CommonException;
 import org.eclipse.jifa.gclog.model.GCModel;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 public class GCLogAnalyzer {
-    private final File file;
+    private final GCLogSource source;
     private final ProgressListener listener;
+    private boolean columnarStoreEnabled;
 
-    private final int MAX_SINGLE_LINE_LENGTH = 2048; // max length in hotspot
+    // state of follow mode
+    private AbstractGCLogParser followingParser;
+    private GCModel followingModel;
+    private File followingFile;
+    // lines before this position of followingFile have been parsed
+    private long followingOffset;
 
     public GCLogAnalyzer(File file, ProgressListener listener) {
-        this.file = file;
+        this(GCLogSource.of(file), listener);
+    }
+
+    public GCLogAnalyzer(GCLogSource source, ProgressListener listener) {
+        this.source = source;
         this.listener = listener;
     }
 
+    /**
+     * Whether models are built with the columnar event store, see GCModel.setColumnarStoreEnabled
+     */
+    public void setColumnarStoreEnabled(boolean columnarStoreEnabled) {
+        this.columnarStoreEnabled = columnarStoreEnabled;
+    }
+
     public GCModel parse() throws Exception {
-        BufferedReader br = null;
         try {
-            br = new BufferedReader(new FileReader(file));
-            listener.beginTask("Paring " + file.getName(), 1000);
+            listener.beginTask("Paring " + source.getName(), 1000);
             listener.sendUserMessage(ProgressListener.Level.INFO, "Deciding gc log format.", null);
+            if (source.getSegments().size() > 1) {
+                listener.sendUserMessage(ProgressListener.Level.INFO,
+                                         "Found " + source.getSegments().size() + " rotated gc log files.", null);
+            }
 
-            // decide log format
-
-            GCLogParserFactory logParserFactory = new GCLogParserFactory();
-            br.mark(GCLogParserFactory.MAX_ATTEMPT_LINE * MAX_SINGLE_LINE_LENGTH);
-            GCLogParser parser = logParserFactory.getParser(br);
+            GCLogParser parser = decideParser();
             listener.worked(100);
 
-            try {
-                br.reset();
-            } catch (IOException e) {
-                // Recreate stream in case mark invalid. This is unlikely but possible when the log
-                // contains undesired characters
-                br.close();
-                br = new BufferedReader(new FileReader(file));
-            }
-
-            // read original info from log file
+            // read original info from log file. Opening the source again is cheap since plain files are
+            // memory mapped, and it saves us from buffering the attempted lines for mark/reset
             listener.sendUserMessage(ProgressListener.Level.INFO, "Parsing gc log file.", null);
-            GCModel model = parser.parse(br);
+            GCModel model;
+            try (BufferedReader br = source.openReader()) {
+                model = parser.parse(br);
+            }
             if (model.isEmpty()) {
                 throw new CommonException("Fail to find any gc event in this log.");
             }
@@ -69,16 +77,90 @@ public class GCLogAnalyzer {
 
             // calculate derived info for query from original info
             listener.sendUserMessage(ProgressListener.Level.INFO, "Calculating information from original data.", null);
+            model.setColumnarStoreEnabled(columnarStoreEnabled);
             model.calculateDerivedInfo(listener);
 
             return model;
         } catch (Exception e) {
-            log.info("fail to parse gclog {}: {}", file.getName(), e.getMessage());
+            log.info("fail to parse gclog {}: {}", source.getName(), e.getMessage());
             throw e;
-        } finally {
-            if (br != null) {
-                br.close();
+        }
+    }
+
+    /**
+     * Parse the log in follow mode. The first call parses what has been written so far, and later calls only
+     * parse lines appended since the previous call. The same model is returned each time, with derived info of
+     * new events calculated. Only the last segment of the log is followed, and it must not be gzipped.
+     * <p>
+     * The model is updated in place, so it should not be queried while this method is running.
+     */
+    public synchronized GCModel follow() throws Exception {
+        try {
+            if (followingModel == null) {
+                return startFollowing();
+            }
+            if (followingFile.length() < followingOffset) {
+                throw new CommonException("GC log has been truncated or rotated, please analyze it again.");
+            }
+            long end = GCLogSource.completeLinesEnd(followingFile, followingOffset);
+            if (end > followingOffset) {
+                try (BufferedReader br = GCLogSource.openReader(followingFile, followingOffset, end)) {
+                    followingParser.parseIncrementally(br);
+                }
+                followingOffset = end;
+                followingModel.updateDerivedInfo(listener);
             }
+            return followingModel;
+        } catch (Exception e) {
+            log.info("fail to follow gclog {}: {}", source.getName(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private GCModel startFollowing() throws Exception {
+        listener.beginTask("Following " + source.getName(), 1000);
+        List<File> segments = source.getSegments();
+        if (segments.isEmpty()) {
+            throw new CommonException("Fail to find any gc log file.");
+        }
+        File file = segments.get(segments.size() - 1);
+        if (GCLogSource.isGzip(file)) {
+            throw new CommonException("Gzipped gc log can not be followed.");
+        }
+        listener.sendUserMessage(ProgressListener.Level.INFO, "Deciding gc log format.", null);
+        GCLogParser parser = decideParser();
+        if (!(parser instanceof AbstractGCLogParser)) {
+            throw new CommonException("This gc log can not be followed.");
+        }
+        listener.worked(100);
+
+        // the last line may be incomplete, leave it to the next call
+        listener.sendUserMessage(ProgressListener.Level.INFO, "Parsing gc log file.", null);
+        long end = GCLogSource.completeLinesEnd(file, 0);
+        AbstractGCLogParser incrementalParser = (AbstractGCLogParser) parser;
+        GCModel model;
+        try (BufferedReader br = source.openReader(end)) {
+            model = incrementalParser.parseIncrementally(br);
+        }
+        listener.worked(500);
+
+        listener.sendUserMessage(ProgressListener.Level.INFO, "Calculating information from original data.", null);
+        // unlike parse(), a log without events is fine since the jvm may have done no gc yet
+        model.setColumnarStoreEnabled(columnarStoreEnabled);
+        model.updateDerivedInfo(listener);
+
+        followingParser = incrementalParser;
+        followingModel = model;
+        followingFile = file;
+        followingOffset = end;
+        return model;
+    }
+
+    // decide log format
+    private GCLogParser decideParser() throws Exception {
+        try (BufferedReader br = source.openReader()) {
+            GCLogParserFactory logParserFactory = new GCLogParserFactory();
+            return logParserFactory.getParser(br);
         }
     }
 }
@@ -24,6 +24,7 @@ import java.io.BufferedReader;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.CMS;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.EPSILON;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.G1;
+import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.GENSHEN;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.GENZ;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.PARALLEL;
 import static org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType.SERIAL;
@@ -36,6 +37,9 @@ public class GCLogParserFactory {
     // When -Xlog:gc*=trace is used, a single gc produces at most about 5000 lines of log.
     // 20000 lines should be enough to cover at least one gc.
     public static final int MAX_ATTEMPT_LINE = 20000;
+    // A collector may be refined by lines printed shortly after it is recognized, e.g. mode of Shenandoah
+    // is printed in the initialization log right after "Using Shenandoah".
+    private static final int MAX_REFINEMENT_ATTEMPT_LINE = 1000;
 
     private static final ParserMetadataRule[] rules = {
             // style
@@ -62,8 +66,12 @@ public class GCLogParserFactory {
             new ParserMetadataRule("Collector: Garbage Collection Cycle", UNIFIED, ZGC),
             new ParserMetadataRule(") Minor Garbage Collection", UNIFIED, GENZ),
             new ParserMetadataRule("Young Pause: Pause Mark End", UNIFIED, GENZ),
+            new ParserMetadataRule(") Minor Collection", UNIFIED, GENZ),
+            new ParserMetadataRule(") Major Collection", UNIFIED, GENZ),
 
             new ParserMetadataRule("Pause Init Update Refs", UNIFIED, SHENANDOAH),
+            new ParserMetadataRule("Mode: Generational", UNIFIED, GENSHEN),
+            new ParserMetadataRule("Concurrent remembered set scanning", UNIFIED, GENSHEN),
 
             new ParserMetadataRule("Using Epsilon", UNIFIED, EPSILON),
             new ParserMetadataRule("Using Concurrent Mark Sweep", UNIFIED, CMS),
@@ -80,9 +88,13 @@ public class GCLogParserFactory {
 
     private GCLogParsingMetadata getMetadata(BufferedReader br) {
         GCLogParsingMetadata result = new GCLogParsingMetadata(GCCollectorType.UNKNOWN, GCLogStyle.UNKNOWN);
+        int recognizedLine = -1;
         try {
             complete:
             for (int i = 0; i < MAX_ATTEMPT_LINE; i++) {
+                if (recognizedLine >= 0 && i - recognizedLine > MAX_REFINEMENT_ATTEMPT_LINE) {
+                    break;
+                }
                 String line = br.readLine();
                 if (line == null) {
                     break;
@@ -98,11 +110,17 @@ public class GCLogParserFactory {
                     if (result.getStyle() == GCLogStyle.UNKNOWN) {
                         result.setStyle(rule.getStyle());
                     }
-                    if (result.getCollector() == GCCollectorType.UNKNOWN) {
+                    if (result.getCollector() == GCCollectorType.UNKNOWN
+                            || isRefinement(result.getCollector(), rule.getCollector())) {
                         result.setCollector(rule.getCollector());
                     }
                     if (result.getCollector() != GCCollectorType.UNKNOWN && result.getStyle() != GCLogStyle.UNKNOWN) {
-                        break complete;
+                        if (!mayBeRefined(result.getCollector())) {
+                            break complete;
+                        }
+                        if (recognizedLine < 0) {
+                            recognizedLine = i;
+                        }
                     }
                 }
             }
@@ -112,6 +130,14 @@ public class GCLogParserFactory {
         return result;
     }
 
+    private static boolean mayBeRefined(GCCollectorType collector) {
+        return collector == SHENANDOAH;
+    }
+
+    private static boolean isRefinement(GCCollectorType collector, GCCollectorType refined) {
+        return collector == SHENANDOAH && refined == GENSHEN;
+    }
+
     private GCLogParser createParser(GCLogParsingMetadata metadata) {
         AbstractGCLogParser parser = null;
         if (metadata.getStyle() == PRE_UNIFIED) {
@@ -140,9 +166,13 @@ public class GCLogParserFactory {
                 case ZGC:
                     parser = new UnifiedZGCLogParser();
                     break;
+                case GENZ:
+                    parser = new UnifiedGenerationalZGCLogParser();
+                    break;
                 case SHENANDOAH:
                 case GENSHEN:
-                case GENZ:
+                    parser = new UnifiedShenandoahGCLogParser();
+                    break;
                 case EPSILON:
                     throw new CommonException("GC type not supported: " + metadata.getCollector().getName());
             }
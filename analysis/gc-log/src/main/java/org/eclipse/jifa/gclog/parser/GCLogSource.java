@@ -0,0 +1,301 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.parser;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.gclog.util.Constant;
+import org.eclipse.jifa.gclog.util.GCLogUtil;
+import org.eclipse.jifa.gclog.util.MappedFileInputStream;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A gc log that may consist of several segments: a single plain or gzipped file, a set of
+ * rotated files (gc.log.0 ... gc.log.N, gc.log.N.current, optionally gzipped) or a directory
+ * containing such files. Segments are ordered by the first timestamp found in them and are
+ * exposed as one logical stream, without decompressing or concatenating them to disk.
+ */
+@Slf4j
+public class GCLogSource {
+    // gc.log.3, gc.log.3.current, gc.log.3.gz, gc.log.gz
+    private static final Pattern ROTATED_FILE_PATTERN = Pattern.compile("^(.+?)(?:\\.(\\d+))?(\\.current)?(\\.gz)?$");
+
+    // lines read from each segment to find its first timestamp
+    private static final int MAX_PEEK_LINE = 1000;
+
+    private static final byte[] SEGMENT_SEPARATOR = {'\n'};
+
+    private final String name;
+    private final List<File> segments;
+
+    private GCLogSource(String name, List<File> segments) {
+        this.name = name;
+        this.segments = segments;
+    }
+
+    public static GCLogSource of(File file) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles(f -> f.isFile() && !f.isHidden());
+            return of(file.getName(), children == null ? Collections.emptyList() : Arrays.asList(children));
+        }
+        Matcher matcher = ROTATED_FILE_PATTERN.matcher(file.getName());
+        File parent = file.getAbsoluteFile().getParentFile();
+        // only look for siblings if the file itself looks like a rotated one
+        if (!matcher.matches() || matcher.group(2) == null || parent == null) {
+            return of(file.getName(), Collections.singletonList(file));
+        }
+        String base = matcher.group(1);
+        File[] siblings = parent.listFiles(f -> {
+            if (!f.isFile()) {
+                return false;
+            }
+            Matcher m = ROTATED_FILE_PATTERN.matcher(f.getName());
+            return m.matches() && base.equals(m.group(1));
+        });
+        return of(base, siblings == null ? Collections.singletonList(file) : Arrays.asList(siblings));
+    }
+
+    public static GCLogSource of(String name, List<File> files) {
+        List<SegmentKey> keys = new ArrayList<>(files.size());
+        for (File file : files) {
+            keys.add(segmentKey(file));
+        }
+        // datestamps survive jvm restarts, uptime does not. only use them when every segment has one
+        boolean byDatestamp = keys.stream().allMatch(key -> key.getDatestamp() != Constant.UNKNOWN_LONG);
+        Comparator<SegmentKey> comparator = byDatestamp ?
+                Comparator.comparingLong(SegmentKey::getDatestamp) :
+                Comparator.comparingDouble(SegmentKey::getUptime);
+        keys.sort(comparator.thenComparingInt(SegmentKey::getIndex));
+        List<File> segments = new ArrayList<>(keys.size());
+        for (SegmentKey key : keys) {
+            segments.add(key.getFile());
+        }
+        return new GCLogSource(name, Collections.unmodifiableList(segments));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<File> getSegments() {
+        return segments;
+    }
+
+    public long length() {
+        long length = 0;
+        for (File segment : segments) {
+            length += segment.length();
+        }
+        return length;
+    }
+
+    /**
+     * Open a reader over all segments in order. Each call returns a new reader positioned at the beginning.
+     */
+    public BufferedReader openReader() {
+        return openReader(Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as openReader(), but bytes of the last segment at or after lastSegmentEnd are not read.
+     */
+    public BufferedReader openReader(long lastSegmentEnd) {
+        Iterator<File> iterator = segments.iterator();
+        Enumeration<InputStream> streams = new Enumeration<>() {
+            private boolean separatorNext = false;
+
+            @Override
+            public boolean hasMoreElements() {
+                return separatorNext || iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                // make sure the last line of a segment never joins the first line of the next one
+                if (separatorNext) {
+                    separatorNext = false;
+                    return new ByteArrayInputStream(SEGMENT_SEPARATOR);
+                }
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                separatorNext = true;
+                File segment = iterator.next();
+                try {
+                    if (!iterator.hasNext() && lastSegmentEnd != Long.MAX_VALUE) {
+                        return new MappedFileInputStream(segment, 0, lastSegmentEnd);
+                    }
+                    return openSegment(segment);
+                } catch (IOException e) {
+                    log.info("fail to open gc log segment {}: {}", segment.getName(), e.getMessage());
+                    return InputStream.nullInputStream();
+                }
+            }
+        };
+        return new BufferedReader(new InputStreamReader(new SequenceInputStream(streams), Charset.defaultCharset()));
+    }
+
+    /**
+     * Open a reader over bytes in [from, to) of a plain file
+     */
+    public static BufferedReader openReader(File file, long from, long to) throws IOException {
+        return new BufferedReader(new InputStreamReader(new MappedFileInputStream(file, from, to), Charset.defaultCharset()));
+    }
+
+    /**
+     * @return position right after the last line break of the file, or from if there is none after from. Bytes
+     * after it belong to a line that is still being written.
+     */
+    public static long completeLinesEnd(File file, long from) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long end = raf.length();
+            while (end > from) {
+                int length = (int) Math.min(buffer.length, end - from);
+                raf.seek(end - length);
+                raf.readFully(buffer, 0, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        return end - length + i + 1;
+                    }
+                }
+                end -= length;
+            }
+        }
+        return from;
+    }
+
+    public static boolean isGzip(File file) throws IOException {
+        byte[] magic = new byte[2];
+        int n;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            n = raf.read(magic);
+        }
+        return n == magic.length && isGzip(magic);
+    }
+
+    public static boolean isGzip(byte[] bytes) {
+        return bytes.length >= 2 && (bytes[0] & 0xFF) == 0x1f && (bytes[1] & 0xFF) == 0x8b;
+    }
+
+    private static InputStream openSegment(File segment) throws IOException {
+        boolean gzip = isGzip(segment);
+        InputStream is = new MappedFileInputStream(segment);
+        if (gzip) {
+            return new GZIPInputStream(is, 64 * 1024);
+        }
+        return is;
+    }
+
+    private static SegmentKey segmentKey(File file) {
+        SegmentKey key = new SegmentKey(file, Constant.UNKNOWN_LONG, Constant.UNKNOWN_DOUBLE, rotationIndex(file));
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(openSegment(file), Charset.defaultCharset()))) {
+            for (int i = 0; i < MAX_PEEK_LINE; i++) {
+                String line = br.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (parseTimestamps(line, key)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // do nothing, fall back to rotation index
+        }
+        return key;
+    }
+
+    private static int rotationIndex(File file) {
+        Matcher matcher = ROTATED_FILE_PATTERN.matcher(file.getName());
+        if (matcher.matches() && matcher.group(2) != null) {
+            return Integer.parseInt(matcher.group(2));
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static final double TEN_YEAR_MILLISECOND = 10 * 365.25 * 24 * 60 * 60 * 1000;
+
+    // return true if uptime of this line is found
+    private static boolean parseTimestamps(String line, SegmentKey key) {
+        if (line.startsWith("[")) {
+            // unified: [2021-05-06T11:25:16.508+0800][0.202s][info][gc] ...
+            int left = 0;
+            while (left < line.length() && line.charAt(left) == '[') {
+                int right = line.indexOf(']', left);
+                if (right < 0) {
+                    break;
+                }
+                String decoration = line.substring(left + 1, right).trim();
+                if (GCLogUtil.isDatestamp(decoration)) {
+                    key.setDatestamp(GCLogUtil.parseDateStamp(decoration));
+                } else if (!decoration.isEmpty() && Character.isDigit(decoration.charAt(0)) && decoration.endsWith("s")) {
+                    double period = GCLogUtil.toMillisecond(decoration);
+                    // same heuristic as AbstractUnifiedGCLogParser
+                    if (period > TEN_YEAR_MILLISECOND) {
+                        key.setDatestamp((long) period);
+                    } else {
+                        key.setUptime(period);
+                    }
+                }
+                left = right + 1;
+            }
+        } else {
+            // preunified: 2021-05-06T11:25:16.508+0800: 0.202: [GC ...
+            int index = 0;
+            if (GCLogUtil.isDatestamp(line)) {
+                key.setDatestamp(GCLogUtil.parseDateStamp(line.substring(0, GCLogUtil.DATESTAMP_LENGTH)));
+                index = GCLogUtil.DATESTAMP_LENGTH + 2;
+            }
+            int end = line.indexOf(": ", index);
+            if (end > index) {
+                try {
+                    key.setUptime(Double.parseDouble(line.substring(index, end)) * Constant.MS2S);
+                } catch (NumberFormatException e) {
+                    // not an uptime
+                }
+            }
+        }
+        return key.getUptime() != Constant.UNKNOWN_DOUBLE;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class SegmentKey {
+        private File file;
+        private long datestamp;
+        private double uptime;
+        private int index;
+    }
+}
@@ -0,0 +1,347 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.parser;
+
+import org.eclipse.jifa.gclog.event.GCEvent;
+import org.eclipse.jifa.gclog.event.eventInfo.GCMemoryItem;
+import org.eclipse.jifa.gclog.event.eventInfo.MemoryArea;
+import org.eclipse.jifa.gclog.model.GCEventType;
+import org.eclipse.jifa.gclog.model.GCModel;
+import org.eclipse.jifa.gclog.util.GCLogUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.HEAP;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.METASPACE;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.OLD;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.YOUNG;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MAJOR_COLLECTION;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_MINOR_COLLECTION;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_MARK_FREE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_NONREF;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_RELOCATE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_REMAP_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_RESET_RELOC_SET;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_CONCURRENT_SELECT_RELOC_SET;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_PAUSE_MARK_END;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_OLD_PAUSE_RELOCATE_START;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_MARK_FREE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_RELOCATE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_RESET_RELOC_SET;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_CONCURRENT_SELECT_RELOC_SET;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_MARK_END;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_MARK_START;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENZ_YOUNG_PAUSE_RELOCATE_START;
+import static org.eclipse.jifa.gclog.parser.ParseRule.ParseRuleContext.GCID;
+import static org.eclipse.jifa.gclog.parser.ParseRule.ParseRuleContext.UPTIME;
+import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_INT;
+
+public class UnifiedGenerationalZGCLogParser extends AbstractUnifiedGCLogParser {
+    /*
+     * [0.246s][info][gc,start    ] GC(0) Major Collection (Warmup)
+     * [0.246s][info][gc,phases   ] GC(0) Y: Young Generation
+     * [0.246s][info][gc,phases   ] GC(0) Y: Pause Mark Start (Major) 0.011ms
+     * [0.250s][info][gc,phases   ] GC(0) Y: Concurrent Mark 3.817ms
+     * [0.250s][info][gc,phases   ] GC(0) Y: Pause Mark End 0.013ms
+     * [0.250s][info][gc,phases   ] GC(0) Y: Concurrent Mark Free 0.001ms
+     * [0.250s][info][gc,phases   ] GC(0) Y: Concurrent Reset Relocation Set 0.000ms
+     * [0.252s][info][gc,phases   ] GC(0) Y: Concurrent Select Relocation Set 1.058ms
+     * [0.252s][info][gc,phases   ] GC(0) Y: Pause Relocate Start 0.007ms
+     * [0.254s][info][gc,phases   ] GC(0) Y: Concurrent Relocate 1.787ms
+     * [0.254s][info][gc,metaspace] GC(0) Y: Metaspace: 1M used, 1M committed, 1088M reserved
+     * [0.254s][info][gc,heap     ] GC(0) Y: Heap Statistics:
+     * [0.254s][info][gc,heap     ] GC(0) Y:                Mark Start          Mark End        Relocate Start      Relocate End           High               Low
+     * [0.254s][info][gc,heap     ] GC(0) Y:  Capacity:      256M (6%)          256M (6%)          256M (6%)          256M (6%)          256M (6%)          256M (6%)
+     * [0.254s][info][gc,heap     ] GC(0) Y:      Used:       42M (1%)           44M (1%)           20M (0%)           16M (0%)           44M (1%)           16M (0%)
+     * [0.254s][info][gc,heap     ] GC(0) Y: Young Generation Statistics:
+     * [0.254s][info][gc,heap     ] GC(0) Y:                Mark Start          Mark End        Relocate Start      Relocate End
+     * [0.254s][info][gc,heap     ] GC(0) Y:      Used:       42M (1%)           44M (1%)           20M (0%)           14M (0%)
+     * [0.254s][info][gc,heap     ] GC(0) Y: Reclaimed:         -                  -                24M (1%)           38M (1%)
+     * [0.254s][info][gc,heap     ] GC(0) Y:  Promoted:         -                  -                 0M (0%)            2M (0%)
+     * [0.254s][info][gc,phases   ] GC(0) Y: Young Generation 42M(1%)->16M(0%) 0.008s
+     * [0.254s][info][gc,phases   ] GC(0) O: Old Generation
+     * [0.257s][info][gc,phases   ] GC(0) O: Concurrent Mark 2.650ms
+     * [0.257s][info][gc,phases   ] GC(0) O: Pause Mark End 0.009ms
+     * [0.257s][info][gc,phases   ] GC(0) O: Concurrent Mark Free 0.001ms
+     * [0.258s][info][gc,phases   ] GC(0) O: Concurrent Process Non-Strong 0.733ms
+     * [0.258s][info][gc,phases   ] GC(0) O: Concurrent Reset Relocation Set 0.000ms
+     * [0.259s][info][gc,phases   ] GC(0) O: Concurrent Select Relocation Set 0.830ms
+     * [0.260s][info][gc,phases   ] GC(0) O: Concurrent Remap Roots 0.540ms
+     * [0.260s][info][gc,phases   ] GC(0) O: Pause Relocate Start 0.006ms
+     * [0.261s][info][gc,phases   ] GC(0) O: Concurrent Relocate 0.611ms
+     * [0.261s][info][gc,heap     ] GC(0) O: Old Generation Statistics:
+     * [0.261s][info][gc,heap     ] GC(0) O:                Mark Start          Mark End        Relocate Start      Relocate End
+     * [0.261s][info][gc,heap     ] GC(0) O:      Used:        0M (0%)            2M (0%)            2M (0%)            2M (0%)
+     * [0.261s][info][gc,phases   ] GC(0) O: Old Generation 16M(0%)->14M(0%) 0.007s
+     * [0.261s][info][gc          ] GC(0) Major Collection (Warmup) 42M(1%)->14M(0%) 0.015s
+     * [1.520s][info][gc,start    ] GC(1) Minor Collection (Allocation Rate)
+     * [1.528s][info][gc          ] GC(1) Minor Collection (Allocation Rate) 226M(6%)->56M(1%) 0.008s
+     * [2.010s][info][gc          ] Allocation Stall (main) 12.345ms
+     * [2.050s][info][gc          ] Out Of Memory (thread 9)
+     */
+    private static List<ParseRule> withGCIDRules;
+
+    // rules for lines of a generation, whose "Y: " or "O: " prefix has been removed
+    private static List<ParseRule> withGenerationRules;
+
+    private static List<ParseRule> withoutGCIDRules;
+
+    private static final String GENERATION = "generation";
+    private static final String YOUNG_PREFIX = "Y: ";
+    private static final String OLD_PREFIX = "O: ";
+
+    // heap, young or old statistics table the following lines belong to
+    private MemoryArea statisticsArea = HEAP;
+
+    static {
+        initializeParseRules();
+    }
+
+    private static void initializeParseRules() {
+        withoutGCIDRules = new ArrayList<>(AbstractUnifiedGCLogParser.getSharedWithoutGCIDRules());
+        withoutGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Allocation Stall", UnifiedZGCLogParser::parseAllocationStall));
+        withoutGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Out Of Memory", UnifiedZGCLogParser::pauseOutOfMemory));
+
+        withGCIDRules = new ArrayList<>(AbstractUnifiedGCLogParser.getSharedWithGCIDRules());
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Minor Collection", UnifiedGenerationalZGCLogParser::parseCollection));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Major Collection", UnifiedGenerationalZGCLogParser::parseCollection));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Metaspace", UnifiedGenerationalZGCLogParser::parseMetaspace));
+
+        withGenerationRules = new ArrayList<>();
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Pause Mark Start", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Mark Free", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Mark", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Pause Mark End", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Process Non-Strong", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Reset Relocation Set", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Select Relocation Set", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Remap Roots", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Pause Relocate Start", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Concurrent Relocate", UnifiedGenerationalZGCLogParser::parsePhase));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Metaspace", UnifiedGenerationalZGCLogParser::parseMetaspace));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Heap Statistics", UnifiedGenerationalZGCLogParser::parseStatisticsTitle));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Young Generation Statistics", UnifiedGenerationalZGCLogParser::parseStatisticsTitle));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Old Generation Statistics", UnifiedGenerationalZGCLogParser::parseStatisticsTitle));
+        // some heap items are not listed because we do not use them
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Capacity:", UnifiedGenerationalZGCLogParser::parseHeap));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Used:", UnifiedGenerationalZGCLogParser::parseHeap));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Reclaimed:", UnifiedGenerationalZGCLogParser::parseHeap));
+        withGenerationRules.add(new ParseRule.PrefixAndValueParseRule("Promoted:", UnifiedGenerationalZGCLogParser::parseHeap));
+    }
+
+    @Override
+    protected void doParseLineWithGCID(String detail, int gcid, double uptime) {
+        ParseRule.ParseRuleContext context = new ParseRule.ParseRuleContext();
+        context.put(UPTIME, uptime);
+        context.put(GCID, gcid);
+        if (detail.startsWith(YOUNG_PREFIX)) {
+            context.put(GENERATION, YOUNG);
+            doParseUsingRules(this, context, detail.substring(YOUNG_PREFIX.length()).trim(), withGenerationRules);
+        } else if (detail.startsWith(OLD_PREFIX)) {
+            context.put(GENERATION, OLD);
+            doParseUsingRules(this, context, detail.substring(OLD_PREFIX.length()).trim(), withGenerationRules);
+        } else {
+            doParseUsingRules(this, context, detail, withGCIDRules);
+        }
+    }
+
+    @Override
+    protected void doParseLineWithoutGCID(String detail, double uptime) {
+        ParseRule.ParseRuleContext context = new ParseRule.ParseRuleContext();
+        context.put(UPTIME, uptime);
+        doParseUsingRules(this, context, detail, withoutGCIDRules);
+    }
+
+    /*
+     * [0.246s][info][gc,start    ] GC(0) Major Collection (Warmup)
+     * [0.261s][info][gc          ] GC(0) Major Collection (Warmup) 42M(1%)->14M(0%) 0.015s
+     * [1.520s][info][gc,start    ] GC(1) Minor Collection (Allocation Rate)
+     * [1.528s][info][gc          ] GC(1) Minor Collection (Allocation Rate) 226M(6%)->56M(1%) 0.008s
+     */
+    private static void parseCollection(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCModel model = parser.getModel();
+        int index = value.indexOf(')');
+        GCEvent event;
+        if (index == value.length() - 1) {
+            ((UnifiedGenerationalZGCLogParser) parser).statisticsArea = HEAP;
+            event = new GCEvent();
+            model.putEvent(event);
+            event.setStartTime(context.get(UPTIME));
+            event.setEventType(prefix.startsWith("Minor") ? GENZ_MINOR_COLLECTION : GENZ_MAJOR_COLLECTION);
+            event.setCause(value.substring(1, index));
+            event.setGcid(context.get(GCID));
+        } else if (value.endsWith("s")) {
+            event = model.getLastEventOfGCID(context.get(GCID));
+            if (event == null) {
+                return;
+            }
+            event.setDuration(context.<Double>get(UPTIME) - event.getStartTime());
+            // heap is usually known from heap statistics, this is in case they are not printed
+            if (event.getMemoryItem(HEAP) == null) {
+                String[] parts = GCLogUtil.splitBySpace(value.substring(index + 1));
+                int arrow = parts[0].indexOf("->");
+                if (arrow > 0) {
+                    GCMemoryItem item = new GCMemoryItem(HEAP);
+                    item.setPreUsed(toByteIgnoringPercentage(parts[0].substring(0, arrow)));
+                    item.setPostUsed(toByteIgnoringPercentage(parts[0].substring(arrow + 2)));
+                    event.setMemoryItem(item);
+                }
+            }
+        }
+    }
+
+    // 42M(1%) -> 42M
+    private static long toByteIgnoringPercentage(String s) {
+        int index = s.indexOf('(');
+        return GCLogUtil.toByte(index >= 0 ? s.substring(0, index) : s);
+    }
+
+    // [0.261s][info][gc,metaspace] GC(0) O: Metaspace: 1M used, 1M committed, 1088M reserved
+    private static void parseMetaspace(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCModel model = parser.getModel();
+        GCEvent event = model.getLastEventOfGCID(context.get(GCID));
+        if (event == null) {
+            return;
+        }
+        String[] parts = GCLogUtil.splitBySpace(value);
+        String capacityString = parts.length == 6 ? parts[2] : parts[4];
+        GCMemoryItem item = new GCMemoryItem(METASPACE, UNKNOWN_INT, UNKNOWN_INT,
+                GCLogUtil.toByte(parts[0]), GCLogUtil.toByte(capacityString));
+        event.setMemoryItem(item);
+    }
+
+    /*
+     * [0.254s][info][gc,heap     ] GC(0) Y: Heap Statistics:
+     * [0.254s][info][gc,heap     ] GC(0) Y: Young Generation Statistics:
+     * [0.261s][info][gc,heap     ] GC(0) O: Old Generation Statistics:
+     */
+    private static void parseStatisticsTitle(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        MemoryArea area = HEAP;
+        if (prefix.startsWith("Young")) {
+            area = YOUNG;
+        } else if (prefix.startsWith("Old")) {
+            area = OLD;
+        }
+        ((UnifiedGenerationalZGCLogParser) parser).statisticsArea = area;
+    }
+
+    /*
+     * Heap statistics are printed by both generations of a major collection. Used at mark start of the first
+     * one and used at relocate end of the last one are taken.
+     * [0.254s][info][gc,heap     ] GC(0) Y:  Capacity:      256M (6%)          256M (6%)          256M (6%)          256M (6%)          256M (6%)          256M (6%)
+     * [0.254s][info][gc,heap     ] GC(0) Y:      Used:       42M (1%)           44M (1%)           20M (0%)           16M (0%)           44M (1%)           16M (0%)
+     * Generation statistics:
+     * [0.254s][info][gc,heap     ] GC(0) Y:      Used:       42M (1%)           44M (1%)           20M (0%)           14M (0%)
+     * [0.254s][info][gc,heap     ] GC(0) Y: Reclaimed:         -                  -                24M (1%)           38M (1%)
+     * [0.254s][info][gc,heap     ] GC(0) Y:  Promoted:         -                  -                 0M (0%)            2M (0%)
+     */
+    private static void parseHeap(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCModel model = parser.getModel();
+        MemoryArea area = ((UnifiedGenerationalZGCLogParser) parser).statisticsArea;
+        String[] parts = GCLogUtil.splitBySpace(value);
+        GCEvent event = model.getLastEventOfGCID(context.get(GCID));
+        if (event == null) {
+            return;
+        }
+        GCMemoryItem item = event.getMemoryItemOrEmptyObject(area);
+        switch (prefix) {
+            case "Capacity:":
+                if (parts.length < 8) {
+                    break;
+                }
+                if (item.getPreCapacity() == UNKNOWN_INT) {
+                    item.setPreCapacity(GCLogUtil.toByte(parts[0]));
+                }
+                item.setPostCapacity(GCLogUtil.toByte(parts[6]));
+                event.setMemoryItem(item, true);
+                break;
+            case "Used:":
+                if (parts.length < 8) {
+                    break;
+                }
+                if (item.getPreUsed() == UNKNOWN_INT) {
+                    item.setPreUsed(GCLogUtil.toByte(parts[0]));
+                }
+                item.setPostUsed(GCLogUtil.toByte(parts[6]));
+                event.setMemoryItem(item, true);
+                break;
+            case "Reclaimed:":
+                if (area != HEAP && parts.length >= 6) {
+                    long reclaimed = GCLogUtil.toByte(parts[4]);
+                    event.setReclamation(event.getReclamation() == UNKNOWN_INT ? reclaimed : event.getReclamation() + reclaimed);
+                }
+                break;
+            case "Promoted:":
+                if (area == YOUNG && parts.length >= 6) {
+                    event.setPromotion(GCLogUtil.toByte(parts[4]));
+                }
+                break;
+        }
+    }
+
+    /*
+     * [0.246s][info][gc,phases   ] GC(0) Y: Pause Mark Start (Major) 0.011ms
+     * [0.250s][info][gc,phases   ] GC(0) Y: Concurrent Mark 3.817ms
+     * [0.257s][info][gc,phases   ] GC(0) O: Pause Mark End 0.009ms
+     */
+    private static void parsePhase(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String phaseName, String value) {
+        GCModel model = parser.getModel();
+        GCEventType eventType = getGCEventType(context.get(GENERATION), phaseName);
+        GCEvent event = model.getLastEventOfGCID(context.get(GCID));
+        if (eventType == null || event == null) {
+            // log may be incomplete
+            return;
+        }
+        int index = value.lastIndexOf(' ');
+        GCEvent phase = new GCEvent();
+        double endTime = context.get(UPTIME);
+        double duration = GCLogUtil.toMillisecond(index >= 0 ? value.substring(index + 1) : value);
+        phase.setGcid(event.getGcid());
+        phase.setStartTime(endTime - duration);
+        phase.setDuration(duration);
+        phase.setEventType(eventType);
+        model.addPhase(event, phase);
+    }
+
+    private static GCEventType getGCEventType(MemoryArea generation, String phaseName) {
+        boolean young = generation == YOUNG;
+        switch (phaseName) {
+            case "Pause Mark Start":
+                return young ? GENZ_YOUNG_PAUSE_MARK_START : null;
+            case "Concurrent Mark":
+                return young ? GENZ_YOUNG_CONCURRENT_MARK : GENZ_OLD_CONCURRENT_MARK;
+            case "Pause Mark End":
+                return young ? GENZ_YOUNG_PAUSE_MARK_END : GENZ_OLD_PAUSE_MARK_END;
+            case "Concurrent Mark Free":
+                return young ? GENZ_YOUNG_CONCURRENT_MARK_FREE : GENZ_OLD_CONCURRENT_MARK_FREE;
+            case "Concurrent Process Non-Strong":
+                return young ? null : GENZ_OLD_CONCURRENT_NONREF;
+            case "Concurrent Reset Relocation Set":
+                return young ? GENZ_YOUNG_CONCURRENT_RESET_RELOC_SET : GENZ_OLD_CONCURRENT_RESET_RELOC_SET;
+            case "Concurrent Select Relocation Set":
+                return young ? GENZ_YOUNG_CONCURRENT_SELECT_RELOC_SET : GENZ_OLD_CONCURRENT_SELECT_RELOC_SET;
+            case "Concurrent Remap Roots":
+                return young ? null : GENZ_OLD_CONCURRENT_REMAP_ROOTS;
+            case "Pause Relocate Start":
+                return young ? GENZ_YOUNG_PAUSE_RELOCATE_START : GENZ_OLD_PAUSE_RELOCATE_START;
+            case "Concurrent Relocate":
+                return young ? GENZ_YOUNG_CONCURRENT_RELOCATE : GENZ_OLD_CONCURRENT_RELOCATE;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.parser;
+
+import org.eclipse.jifa.gclog.event.GCEvent;
+import org.eclipse.jifa.gclog.event.eventInfo.GCCause;
+import org.eclipse.jifa.gclog.event.eventInfo.GCMemoryItem;
+import org.eclipse.jifa.gclog.event.eventInfo.MemoryArea;
+import org.eclipse.jifa.gclog.model.GCEventType;
+import org.eclipse.jifa.gclog.model.GCModel;
+import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
+import org.eclipse.jifa.gclog.util.GCLogUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.HEAP;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.METASPACE;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.OLD;
+import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.YOUNG;
+import static org.eclipse.jifa.gclog.model.GCEventType.FULL_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_GLOBAL_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_OLD_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.GENSHEN_YOUNG_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_CLASS_UNLOADING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_CLEANUP;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_COALESCING_AND_FILLING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_CYCLE;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_EVACUATION;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_MARKING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_MARKING_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_REMEMBERED_SET_SCANNING;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_RESET;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_STRONG_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_THREAD_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_UPDATE_THREAD_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_WEAK_REFERENCES;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_CONCURRENT_WEAK_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_DEGENERATED_GC;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_ROOTS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_FINAL_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_MARK;
+import static org.eclipse.jifa.gclog.model.GCEventType.SHENANDOAH_PAUSE_INIT_UPDATE_REFS;
+import static org.eclipse.jifa.gclog.parser.ParseRule.ParseRuleContext.GCID;
+import static org.eclipse.jifa.gclog.parser.ParseRule.ParseRuleContext.UPTIME;
+import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_INT;
+
+/*
+ * Parser of both Shenandoah and generational Shenandoah. Phases of a concurrent cycle are logged with the same
+ * gcid and the cycle itself is not logged, so a cycle is created when its first phase is met.
+ */
+public class UnifiedShenandoahGCLogParser extends AbstractUnifiedGCLogParser {
+    /*
+     * [1.200s][info][gc          ] Trigger: Free (25M) is below minimum threshold (25M)
+     * [1.201s][info][gc,start    ] GC(0) Concurrent reset
+     * [1.202s][info][gc          ] GC(0) Concurrent reset 0.512ms
+     * [1.202s][info][gc,start    ] GC(0) Pause Init Mark (unload classes)
+     * [1.202s][info][gc          ] GC(0) Pause Init Mark (unload classes) 0.152ms
+     * [1.203s][info][gc          ] GC(0) Concurrent marking roots 0.334ms
+     * [1.210s][info][gc          ] GC(0) Concurrent marking (unload classes) 7.012ms
+     * [1.211s][info][gc          ] GC(0) Pause Final Mark (unload classes) 0.421ms
+     * [1.213s][info][gc          ] GC(0) Concurrent cleanup 52M->40M(256M) 0.050ms
+     * [1.218s][info][gc          ] GC(0) Concurrent evacuation 3.512ms
+     * [1.218s][info][gc          ] GC(0) Pause Init Update Refs 0.021ms
+     * [1.222s][info][gc          ] GC(0) Concurrent update references 3.801ms
+     * [1.223s][info][gc          ] GC(0) Pause Final Update Refs 0.101ms
+     * [1.223s][info][gc          ] GC(0) Concurrent cleanup 60M->22M(256M) 0.061ms
+     * [1.223s][info][gc,metaspace] GC(0) Metaspace: 5M(5M)->5M(5M) NonClass: 4M(4M)->4M(4M) Class: 0M(0M)->0M(0M)
+     * [3.000s][info][gc          ] Cancelling GC: Allocation Failure
+     * [3.010s][info][gc          ] GC(3) Pause Degenerated GC (Mark) 240M->120M(256M) 9.123ms
+     * [4.030s][info][gc          ] GC(4) Pause Full 200M->30M(256M) 30.123ms
+     * Generational mode:
+     * [1.001s][info][gc          ] GC(0) Concurrent reset (Young) 0.300ms
+     * [1.010s][info][gc,ergo     ] GC(0) At end of Concurrent Young GC: Young generation used: 39M, used regions: 40M, humongous waste: 0B, soft capacity: 100M, max capacity: 100M, available: 61M
+     */
+    private static List<ParseRule> withGCIDRules;
+    private static List<ParseRule> withoutGCIDRules;
+
+    private static final List<GCEventType> PHASE_TYPES = List.of(SHENANDOAH_CONCURRENT_RESET, SHENANDOAH_PAUSE_INIT_MARK,
+            SHENANDOAH_CONCURRENT_REMEMBERED_SET_SCANNING, SHENANDOAH_CONCURRENT_MARKING_ROOTS, SHENANDOAH_CONCURRENT_MARKING,
+            SHENANDOAH_PAUSE_FINAL_MARK, SHENANDOAH_CONCURRENT_THREAD_ROOTS, SHENANDOAH_CONCURRENT_WEAK_REFERENCES,
+            SHENANDOAH_CONCURRENT_WEAK_ROOTS, SHENANDOAH_CONCURRENT_CLEANUP, SHENANDOAH_CONCURRENT_CLASS_UNLOADING,
+            SHENANDOAH_CONCURRENT_STRONG_ROOTS, SHENANDOAH_CONCURRENT_EVACUATION, SHENANDOAH_PAUSE_INIT_UPDATE_REFS,
+            SHENANDOAH_CONCURRENT_UPDATE_REFS, SHENANDOAH_CONCURRENT_UPDATE_THREAD_ROOTS, SHENANDOAH_PAUSE_FINAL_UPDATE_REFS,
+            SHENANDOAH_PAUSE_FINAL_ROOTS, SHENANDOAH_CONCURRENT_COALESCING_AND_FILLING);
+
+    // cycle types of generational mode, in the order that a cycle may be upgraded to a later one
+    private static final List<GCEventType> GENSHEN_CYCLE_TYPES = List.of(GENSHEN_YOUNG_CYCLE, GENSHEN_OLD_CYCLE, GENSHEN_GLOBAL_CYCLE);
+
+    private static final String GENERATION_USED = " generation used: ";
+
+    // cause of the next concurrent cycle, degenerated gc or full gc
+    private GCCause pendingCause;
+
+    static {
+        initializeParseRules();
+    }
+
+    private static void initializeParseRules() {
+        withoutGCIDRules = new ArrayList<>(AbstractUnifiedGCLogParser.getSharedWithoutGCIDRules());
+        withoutGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Trigger", UnifiedShenandoahGCLogParser::parseTrigger));
+        withoutGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Cancelling GC", UnifiedShenandoahGCLogParser::parseCancellation));
+
+        withGCIDRules = new ArrayList<>(AbstractUnifiedGCLogParser.getSharedWithGCIDRules());
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Pause Degenerated", UnifiedShenandoahGCLogParser::parseStopTheWorldGC));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Pause Full", UnifiedShenandoahGCLogParser::parseStopTheWorldGC));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Metaspace:", UnifiedShenandoahGCLogParser::parseMetaspace));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Trigger", UnifiedShenandoahGCLogParser::parseTrigger));
+        withGCIDRules.add(new ParseRule.PrefixAndValueParseRule("Cancelling GC", UnifiedShenandoahGCLogParser::parseCancellation));
+        withGCIDRules.add(UnifiedShenandoahGCLogParser::parseGenerationStatus);
+        // a phase name may be the prefix of another one, e.g. "Concurrent marking" and "Concurrent marking roots"
+        PHASE_TYPES.stream()
+                .sorted(Comparator.comparingInt((GCEventType type) -> type.getName().length()).reversed())
+                .forEach(type -> withGCIDRules.add(new ParseRule.PrefixAndValueParseRule(type.getName(),
+                        (parser, context, prefix, value) -> parsePhase(parser, context, type, value))));
+    }
+
+    @Override
+    protected void doParseLineWithGCID(String detail, int gcid, double uptime) {
+        ParseRule.ParseRuleContext context = new ParseRule.ParseRuleContext();
+        context.put(UPTIME, uptime);
+        context.put(GCID, gcid);
+        doParseUsingRules(this, context, detail, withGCIDRules);
+    }
+
+    @Override
+    protected void doParseLineWithoutGCID(String detail, double uptime) {
+        ParseRule.ParseRuleContext context = new ParseRule.ParseRuleContext();
+        context.put(UPTIME, uptime);
+        doParseUsingRules(this, context, detail, withoutGCIDRules);
+    }
+
+    /*
+     * [1.200s][info][gc          ] Trigger: Free (25M) is below minimum threshold (25M)
+     * [1.200s][info][gc          ] Trigger: Time since last GC (300004 ms) is larger than guaranteed interval (300000 ms)
+     * [0.800s][info][gc          ] Trigger (Young): Learning 1 of 5. Free (12M) is below initial threshold (25M)
+     */
+    private static void parseTrigger(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCCause cause = null;
+        if (value.contains("Learning")) {
+            cause = GCCause.WARMUP;
+        } else if (value.contains("Time since last GC")) {
+            cause = GCCause.TIMER;
+        } else if (value.contains("allocation rate") || value.contains("Average GC time")) {
+            cause = GCCause.ALLOC_RATE;
+        } else if (value.contains("Free")) {
+            cause = GCCause.HIGH_USAGE;
+        }
+        ((UnifiedShenandoahGCLogParser) parser).pendingCause = cause;
+    }
+
+    // [3.000s][info][gc          ] Cancelling GC: Allocation Failure
+    private static void parseCancellation(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCCause cause = GCCause.getCause(value);
+        if (cause != null) {
+            ((UnifiedShenandoahGCLogParser) parser).pendingCause = cause;
+        }
+    }
+
+    /*
+     * [3.001s][info][gc,start    ] GC(3) Pause Degenerated GC (Mark)
+     * [3.010s][info][gc          ] GC(3) Pause Degenerated GC (Mark) 240M->120M(256M) 9.123ms
+     * [4.030s][info][gc          ] GC(4) Pause Full 200M->30M(256M) 30.123ms
+     */
+    private static void parseStopTheWorldGC(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCModel model = parser.getModel();
+        int gcid = context.get(GCID);
+        GCEventType eventType = prefix.equals("Pause Full") ? FULL_GC : SHENANDOAH_DEGENERATED_GC;
+        GCEvent event = model.getLastEventOfGCID(gcid);
+        if (event == null || event.getEventType() != eventType) {
+            event = new GCEvent();
+            event.setGcid(gcid);
+            event.setEventType(eventType);
+            event.setStartTime(context.get(UPTIME));
+            UnifiedShenandoahGCLogParser shenandoahParser = (UnifiedShenandoahGCLogParser) parser;
+            if (shenandoahParser.pendingCause != null) {
+                event.setCause(shenandoahParser.pendingCause);
+                shenandoahParser.pendingCause = null;
+            }
+            model.putEvent(event);
+        }
+        String[] parts = GCLogUtil.splitBySpace(value);
+        String last = parts.length > 0 ? parts[parts.length - 1] : "";
+        if (!last.endsWith("ms")) {
+            // start of the gc
+            return;
+        }
+        double duration = GCLogUtil.toMillisecond(last);
+        event.setStartTime(context.<Double>get(UPTIME) - duration);
+        event.setDuration(duration);
+        for (String part : parts) {
+            if (part.contains("->")) {
+                event.setMemoryItem(new GCMemoryItem(HEAP, GCLogUtil.parseMemorySizeFromTo(part)));
+            }
+        }
+    }
+
+    /*
+     * [1.202s][info][gc,start    ] GC(0) Pause Init Mark (unload classes)
+     * [1.202s][info][gc          ] GC(0) Pause Init Mark (unload classes) 0.152ms
+     * [1.213s][info][gc          ] GC(0) Concurrent cleanup 52M->40M(256M) 0.050ms
+     * [1.002s][info][gc          ] GC(0) Concurrent marking (Young) 1.100ms
+     */
+    private static void parsePhase(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, GCEventType phaseType, String value) {
+        GCModel model = parser.getModel();
+        if (!phaseType.getGcs().contains(model.getCollectorType())) {
+            return;
+        }
+        String[] parts = GCLogUtil.splitBySpace(value);
+        String last = parts.length > 0 ? parts[parts.length - 1] : "";
+        boolean end = last.endsWith("ms");
+        double endTime = context.get(UPTIME);
+        double duration = end ? GCLogUtil.toMillisecond(last) : 0;
+        GCEvent cycle = ((UnifiedShenandoahGCLogParser) parser).getOrCreateCycle(context, endTime - duration);
+        if (model.getCollectorType() == GCCollectorType.GENSHEN) {
+            upgradeCycleType(cycle, value);
+        }
+        if (!end) {
+            // start of the phase
+            return;
+        }
+        GCEvent phase = new GCEvent();
+        phase.setGcid(cycle.getGcid());
+        phase.setStartTime(endTime - duration);
+        phase.setDuration(duration);
+        phase.setEventType(phaseType);
+        model.addPhase(cycle, phase);
+        if (phaseType == SHENANDOAH_CONCURRENT_CLEANUP) {
+            for (String part : parts) {
+                if (part.contains("->")) {
+                    updateCycleHeap(cycle, GCLogUtil.parseMemorySizeFromTo(part));
+                }
+            }
+        }
+    }
+
+    private GCEvent getOrCreateCycle(ParseRule.ParseRuleContext context, double startTime) {
+        GCModel model = getModel();
+        int gcid = context.get(GCID);
+        GCEvent cycle = model.getLastEventOfGCID(gcid);
+        if (cycle == null) {
+            cycle = new GCEvent();
+            cycle.setGcid(gcid);
+            cycle.setEventType(model.getCollectorType() == GCCollectorType.GENSHEN ? GENSHEN_YOUNG_CYCLE : SHENANDOAH_CONCURRENT_CYCLE);
+            cycle.setStartTime(startTime);
+            if (pendingCause != null) {
+                cycle.setCause(pendingCause);
+                pendingCause = null;
+            }
+            model.putEvent(cycle);
+        }
+        return cycle;
+    }
+
+    // A cycle of generational mode is regarded as young unless any of its phases says it is old or global.
+    private static void upgradeCycleType(GCEvent cycle, String value) {
+        GCEventType type = null;
+        if (value.contains("(Old)")) {
+            type = GENSHEN_OLD_CYCLE;
+        } else if (value.contains("(Global)") || value.contains("(GLOBAL)")) {
+            type = GENSHEN_GLOBAL_CYCLE;
+        }
+        int rank = GENSHEN_CYCLE_TYPES.indexOf(cycle.getEventType());
+        if (type != null && rank >= 0 && GENSHEN_CYCLE_TYPES.indexOf(type) > rank) {
+            cycle.setEventType(type);
+        }
+    }
+
+    // used before the first cleanup and used after the last cleanup of a cycle
+    private static void updateCycleHeap(GCEvent cycle, long[] memories) {
+        GCMemoryItem item = cycle.getMemoryItem(HEAP);
+        if (item == null) {
+            cycle.setMemoryItem(new GCMemoryItem(HEAP, memories));
+        } else {
+            item.setPostUsed(memories[2]);
+            item.setPostCapacity(memories[3]);
+        }
+    }
+
+    // [1.223s][info][gc,metaspace] GC(0) Metaspace: 5M(5M)->5M(5M) NonClass: 4M(4M)->4M(4M) Class: 0M(0M)->0M(0M)
+    private static void parseMetaspace(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+        GCModel model = parser.getModel();
+        GCEvent event = model.getLastEventOfGCID(context.get(GCID));
+        if (event == null) {
+            // log may be incomplete
+            return;
+        }
+        String[] parts = GCLogUtil.splitBySpace(value);
+        event.setMemoryItem(new GCMemoryItem(METASPACE, GCLogUtil.parseMemorySizeFromTo(parts[0])));
+    }
+
+    /*
+     * [1.001s][info][gc,ergo     ] GC(0) At start of Concurrent Young GC: Young generation used: 90M, used regions: 90M, humongous waste: 0B, soft capacity: 100M, max capacity: 100M, available: 10M
+     * [1.010s][info][gc,ergo     ] GC(0) At end of Concurrent Young GC: Young generation used: 39M, used regions: 40M, humongous waste: 0B, soft capacity: 100M, max capacity: 100M, available: 61M
+     */
+    private static boolean parseGenerationStatus(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String text) {
+        int index = text.indexOf(GENERATION_USED);
+        if (index < 0) {
+            return false;
+        }
+        int separator = text.lastIndexOf(": ", index);
+        if (separator < 0) {
+            return false;
+        }
+        String generation = text.substring(separator + 2, index);
+        MemoryArea area;
+        if (generation.equals("Young")) {
+            area = YOUNG;
+        } else if (generation.equals("Old")) {
+            area = OLD;
+        } else {
+            // global generation is the whole heap, which is known from cleanup
+            return true;
+        }
+        GCModel model = parser.getModel();
+        GCEvent event = model.getLastEventOfGCID(context.get(GCID));
+        if (event == null) {
+            return true;
+        }
+        String message = text.substring(0, separator);
+        boolean after = message.startsWith("At end") || message.startsWith("After");
+        long used = GCLogUtil.toByte(valueOfField(text, GENERATION_USED));
+        String capacityString = valueOfField(text, "soft capacity: ");
+        long capacity = capacityString == null ? UNKNOWN_INT : GCLogUtil.toByte(capacityString);
+        GCMemoryItem item = event.getMemoryItemOrEmptyObject(area);
+        if (after) {
+            item.setPostUsed(used);
+            item.setPostCapacity(capacity);
+        } else {
+            item.setPreUsed(used);
+            item.setPreCapacity(capacity);
+        }
+        event.setMemoryItem(item, true);
+        return true;
+    }
+
+    // "used regions: 40M, humongous waste: 0B" -> "40M" for name "used regions: "
+    private static String valueOfField(String text, String name) {
+        int begin = text.indexOf(name);
+        if (begin < 0) {
+            return null;
+        }
+        begin += name.length();
+        int end = text.indexOf(',', begin);
+        return text.substring(begin, end < 0 ? text.length() : end).trim();
+    }
+}
@@ -225,7 +225,7 @@ public class UnifiedZGCLogParser extends AbstractUnifiedGCLogParser {
     }
 
     // [2021-08-31T11:29:12.825+0800] Out Of Memory (thread 8)
-    private static void pauseOutOfMemory(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+    static void pauseOutOfMemory(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
         GCModel model = parser.getModel();
         ThreadEvent event = new ThreadEvent();
         event.setThreadName(value.substring(1, value.length() - 1));
@@ -304,7 +304,7 @@ public class UnifiedZGCLogParser extends AbstractUnifiedGCLogParser {
      * [2021-08-31T11:29:12.823+0800] Allocation Stall (http-nio-8080-exec-85) 0.155ms
      * [2021-08-31T11:29:12.823+0800] Allocation Stall (http-nio-8080-exec-49) 277.588ms
      */
-    private static void parseAllocationStall(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
+    static void parseAllocationStall(AbstractGCLogParser parser, ParseRule.ParseRuleContext context, String prefix, String value) {
         GCModel model = parser.getModel();
         String[] parts = GCLogUtil.splitByBracket(value);
         ThreadEvent event = new ThreadEvent();
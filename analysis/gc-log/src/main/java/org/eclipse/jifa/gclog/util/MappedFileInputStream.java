@@ -0,0 +1,101 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input stream that reads a file through a sliding memory mapped window, so that
+ * the bytes are served from the page cache without being copied into a heap buffer first.
+ */
+public class MappedFileInputStream extends InputStream {
+    // a single mapping can not exceed Integer.MAX_VALUE, use a smaller window to keep address space small
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    // exclusive end of bytes to read
+    private final long end;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    public MappedFileInputStream(File file) throws IOException {
+        this(file, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Read bytes in [from, to) of the file, to is cut at the current size of the file
+     */
+    public MappedFileInputStream(File file, long from, long to) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.end = Math.min(to, channel.size());
+        this.windowStart = Math.min(from, end);
+        mapWindow();
+    }
+
+    private void mapWindow() throws IOException {
+        long length = Math.min(WINDOW_SIZE, end - windowStart);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+    }
+
+    // return false if there is nothing left
+    private boolean ensureRemaining() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+        long next = windowStart + window.capacity();
+        if (next >= end) {
+            return false;
+        }
+        windowStart = next;
+        mapWindow();
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        int n = Math.min(len, window.remaining());
+        window.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return window == null ? 0 : window.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,179 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog.util;
+
+import static org.eclipse.jifa.gclog.util.Constant.UNKNOWN_DOUBLE;
+
+/**
+ * A mergeable quantile sketch for non-negative values with bounded relative error.
+ * <p>
+ * Values are counted in logarithmic buckets (gamma^(i-1), gamma^i] where gamma = (1 + e) / (1 - e), so any
+ * quantile returned is within relative error e of a value whose rank is the requested one. Count, sum, min
+ * and max are exact. Two sketches can be merged if they are created with the same relative error.
+ */
+public class QuantileSketch {
+    // values no larger than this are counted as zero, pause is in ms so this is far below precision of logs
+    private static final double MIN_INDEXABLE_VALUE = 1e-6;
+
+    private final double relativeError;
+    private final double gamma;
+    private final double logGamma;
+
+    private long[] counts = new long[0];
+    private int offset; // bucket index of counts[0]
+    private long zeroCount;
+
+    private long n;
+    private double sum;
+    private double min = Double.MAX_VALUE;
+    private double max = -Double.MAX_VALUE;
+
+    public QuantileSketch(double relativeError) {
+        if (relativeError <= 0 || relativeError >= 1) {
+            throw new IllegalArgumentException("relative error should be in (0, 1): " + relativeError);
+        }
+        this.relativeError = relativeError;
+        this.gamma = (1 + relativeError) / (1 - relativeError);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    public void add(double x) {
+        if (x == UNKNOWN_DOUBLE || x < 0) {
+            return;
+        }
+        if (x <= MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(x) / logGamma);
+            ensureCapacity(index, index);
+            counts[index - offset]++;
+        }
+        n++;
+        sum += x;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeError != relativeError) {
+            throw new IllegalArgumentException("can not merge sketches with different relative error");
+        }
+        if (other.n == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        n += other.n;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private void ensureCapacity(int lowIndex, int highIndex) {
+        if (counts.length == 0) {
+            counts = new long[highIndex - lowIndex + 1];
+            offset = lowIndex;
+            return;
+        }
+        int newLow = Math.min(offset, lowIndex);
+        int newHigh = Math.max(offset + counts.length - 1, highIndex);
+        if (newLow == offset && newHigh == offset + counts.length - 1) {
+            return;
+        }
+        long[] newCounts = new long[newHigh - newLow + 1];
+        System.arraycopy(counts, 0, newCounts, offset - newLow, counts.length);
+        counts = newCounts;
+        offset = newLow;
+    }
+
+    /**
+     * @param quantile in [0, 1]
+     */
+    public double getQuantile(double quantile) {
+        if (n == 0) {
+            return UNKNOWN_DOUBLE;
+        }
+        if (quantile <= 0) {
+            return min;
+        }
+        if (quantile >= 1) {
+            return max;
+        }
+        // same rank definition as DoubleData
+        long rank = (long) Math.floor((n - 1) * quantile);
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // middle of the bucket in the sense of relative error
+                double value = 2 * Math.pow(gamma, i + offset) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public double getSum() {
+        if (n == 0) {
+            return UNKNOWN_DOUBLE;
+        }
+        return sum;
+    }
+
+    public double getMin() {
+        if (n == 0) {
+            return UNKNOWN_DOUBLE;
+        }
+        return min;
+    }
+
+    public double getMax() {
+        if (n == 0) {
+            return UNKNOWN_DOUBLE;
+        }
+        return max;
+    }
+
+    public double average() {
+        if (n == 0) {
+            return UNKNOWN_DOUBLE;
+        }
+        return sum / n;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{n=" + n + ", relativeError=" + relativeError + ", buckets=" + counts.length + "}";
+    }
+}
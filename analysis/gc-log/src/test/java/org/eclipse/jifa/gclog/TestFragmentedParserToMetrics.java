@@ -15,12 +15,16 @@ package org.eclipse.jifa.gclog;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.gclog.fragment.Context;
 import org.eclipse.jifa.gclog.fragment.GCLogAnalyzer;
 import org.eclipse.jifa.gclog.fragment.Metric;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.time.Duration;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -137,4 +141,146 @@ public class TestFragmentedParserToMetrics {
             Assertions.assertEquals(actualMetrics.get(0).getValue(), value, DELTA);
         });
     }
+
+    @Test
+    public void testContextOrder() throws Exception {
+        List<String> lines = new ArrayList<>(List.of(
+                "[10.200s] GC(1) Pause Remark 10M->10M(20M) 1.000ms",
+                "no timestamp 1",
+                "[2.050s] GC(0) Concurrent Cycle",
+                "[10.200s] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 12M->5M(20M) 2.000ms",
+                "[2.05s] GC(0) Using 2 workers",
+                "no timestamp 2",
+                "[2.100s] GC(0) Concurrent Mark 3.000ms",
+                "[1.999s] GC(0) Concurrent Clear Claimed Marks"
+        ));
+        Context context = new Context(lines);
+        List<String> sorted = context.toBufferedReader().lines().collect(Collectors.toList());
+        Assertions.assertEquals(sorted, List.of(
+                "[1.999s] GC(0) Concurrent Clear Claimed Marks",
+                "[2.050s] GC(0) Concurrent Cycle",
+                "[2.05s] GC(0) Using 2 workers",
+                "[2.100s] GC(0) Concurrent Mark 3.000ms",
+                "[10.200s] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 12M->5M(20M) 2.000ms",
+                "[10.200s] GC(1) Pause Remark 10M->10M(20M) 1.000ms",
+                "no timestamp 1",
+                "no timestamp 2"
+        ));
+
+        lines = new ArrayList<>(List.of(
+                "2022-11-28T14:57:05.341+0800: 6.340: [CMS-concurrent-mark-start]",
+                "2022-11-28T14:57:05.001+0800: 6.000: [GC (CMS Initial Mark) [1 CMS-initial-mark: 0K(1024K)]",
+                "2022-11-28T14:57:05.341+0800: 6.340: [GC (CMS Initial Mark)"
+        ));
+        sorted = new Context(lines).toBufferedReader().lines().collect(Collectors.toList());
+        Assertions.assertEquals(sorted.get(0), "2022-11-28T14:57:05.001+0800: 6.000: [GC (CMS Initial Mark) [1 CMS-initial-mark: 0K(1024K)]");
+        Assertions.assertEquals(sorted.get(1), "2022-11-28T14:57:05.341+0800: 6.340: [GC (CMS Initial Mark)");
+
+        // large enough to be radix sorted, lines with equal keys keep their order
+        List<Integer> gcIds = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            gcIds.add(i);
+            expected.add(String.format("[%d.%03ds] GC(%d) Concurrent Mark 1.000ms", i / 2, i % 2 * 500, i));
+            expected.add(String.format("[%d.%03ds] GC(%d) Using 2 workers", i / 2, i % 2 * 500, i));
+            expected.add(String.format("[%d.%03ds] GC(%d) Using 3 workers", i / 2, i % 2 * 500, i));
+        }
+        expected.add("no timestamp");
+        Collections.shuffle(gcIds, new Random(0));
+        lines = new ArrayList<>();
+        for (int offset : new int[]{1, 2, 0}) {
+            for (int i : gcIds) {
+                lines.add(expected.get(i * 3 + offset));
+            }
+        }
+        lines.add(5000, "no timestamp");
+        sorted = new Context(lines).toBufferedReader().lines().collect(Collectors.toList());
+        Assertions.assertEquals(sorted, expected);
+
+        Assertions.assertThrows(RuntimeException.class, () -> new Context(new ArrayList<>(List.of("no timestamp"))));
+    }
+
+    @Test
+    public void testFragmentToMetricsThroughput() {
+        int copies = 100;
+        List<String> original = TestUtil.generateShuffledGCLog("11G1Parser.log");
+        int originalSize = parse(new ArrayList<>(original), 0, Long.MAX_VALUE).size();
+        // replicate the log with shifted uptime and gc id, so that copies are different gcs
+        Pattern uptime = Pattern.compile("^(\\s*)\\[(\\d+\\.\\d+)s]");
+        Pattern gcid = Pattern.compile("GC\\((\\d+)\\)");
+        List<String> gclog = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            double uptimeOffset = i * 1000;
+            int gcidOffset = i * 10000;
+            for (String fragment : original) {
+                String shifted = uptime.matcher(fragment).replaceFirst(m ->
+                        m.group(1) + String.format("[%.3fs]", Double.parseDouble(m.group(2)) + uptimeOffset));
+                gclog.add(gcid.matcher(shifted).replaceAll(m -> "GC(" + (Integer.parseInt(m.group(1)) + gcidOffset) + ")"));
+            }
+        }
+        Collections.shuffle(gclog, new Random(0));
+
+        long beginTime = System.currentTimeMillis();
+        List<Metric> result = parse(gclog, 0, Long.MAX_VALUE);
+        double spendTime = Math.max(System.currentTimeMillis() - beginTime, 1) / 1000.;
+        Assertions.assertEquals(result.size(), originalSize * copies);
+        System.out.printf("%d fragments analysed, %d metrics produced, duration %fs, %f fragments processed per second\n",
+                gclog.size(), result.size(), spendTime, gclog.size() / spendTime);
+    }
+
+    @Test
+    public void testResumeToMetrics() throws Exception {
+        List<String> lines = new ArrayList<>();
+        BufferedReader br = TestUtil.getGCLog("11G1Parser.log");
+        String line;
+        while ((line = br.readLine()) != null) {
+            lines.add(line);
+        }
+        Map<String, String> instanceId = new ImmutableMap.Builder<String, String>().put(INSTANCEIDKEY, INSTANCEIDVALUE).build();
+        List<Metric> expected = parse(new ArrayList<>(lines), 0, Long.MAX_VALUE);
+
+        // lines are shipped in fragments of consecutive lines, and lines in a fragment may be out of order
+        GCLogAnalyzer gcLogAnalyzer = new GCLogAnalyzer();
+        List<Metric> resumed = new ArrayList<>();
+        int fragmentSize = 7;
+        for (int from = 0; from < lines.size(); from += fragmentSize) {
+            List<String> fragment = new ArrayList<>(lines.subList(from, Math.min(lines.size(), from + fragmentSize)));
+            Collections.shuffle(fragment, new Random(from));
+            List<Metric> metrics = gcLogAnalyzer.resumeToMetrics(fragment, instanceId, 0, Long.MAX_VALUE);
+            if (metrics != null) {
+                resumed.addAll(metrics);
+            }
+        }
+        Assertions.assertEquals(gcLogAnalyzer.getInstanceCount(), 1);
+        // the last gc may still be completed by lines not shipped, so it is not reported yet
+        long lastTimestamp = expected.stream().mapToLong(Metric::getTimestamp).max().getAsLong();
+        List<Metric> expectedCompleted = expected.stream().filter(metric -> metric.getTimestamp() < lastTimestamp).collect(Collectors.toList());
+        Assertions.assertEquals(resumed.size(), expectedCompleted.size());
+        Assertions.assertEquals(resumed.stream().map(this::metricKey).collect(Collectors.toSet()),
+                expectedCompleted.stream().map(this::metricKey).collect(Collectors.toSet()));
+
+        // an older fragment makes the instance start over
+        List<Metric> metrics = gcLogAnalyzer.resumeToMetrics(new ArrayList<>(lines), instanceId, 0, Long.MAX_VALUE);
+        Assertions.assertEquals(metrics.size(), expectedCompleted.size());
+    }
+
+    private String metricKey(Metric metric) {
+        return metric.getTimestamp() + " " + metric.getName() + " " + new TreeMap<>(metric.getLabel()) + " " + metric.getValue();
+    }
+
+    @Test
+    public void testInstanceStateBound() throws Exception {
+        long maxStateBytes = 1024 * 1024;
+        GCLogAnalyzer gcLogAnalyzer = new GCLogAnalyzer(maxStateBytes, Duration.ofMinutes(1));
+        List<String> gclog = TestUtil.generateShuffledGCLog("11G1Parser.log");
+        int instances = 100;
+        for (int i = 0; i < instances; i++) {
+            Map<String, String> instanceId = new ImmutableMap.Builder<String, String>().put(INSTANCEIDKEY, "instance-" + i).build();
+            Assertions.assertNotNull(gcLogAnalyzer.resumeToMetrics(new ArrayList<>(gclog), instanceId, 0, Long.MAX_VALUE));
+            Assertions.assertNotNull(gcLogAnalyzer.parseToMetrics(new ArrayList<>(gclog), instanceId, 0, Long.MAX_VALUE));
+        }
+        Assertions.assertTrue(gcLogAnalyzer.getEstimatedStateBytes() <= maxStateBytes);
+        Assertions.assertTrue(gcLogAnalyzer.getInstanceCount() > 0);
+        Assertions.assertTrue(gcLogAnalyzer.getInstanceCount() < instances);
+    }
 }
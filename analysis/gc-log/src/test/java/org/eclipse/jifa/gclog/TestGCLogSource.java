@@ -0,0 +1,237 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.gclog;
+
+import org.eclipse.jifa.analysis.listener.DefaultProgressListener;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.gclog.diagnoser.AnalysisConfig;
+import org.eclipse.jifa.gclog.event.GCEvent;
+import org.eclipse.jifa.gclog.event.eventInfo.GCEventBooleanType;
+import org.eclipse.jifa.gclog.event.eventInfo.MemoryArea;
+import org.eclipse.jifa.gclog.model.ColumnarEventStore;
+import org.eclipse.jifa.gclog.model.GCEventType;
+import org.eclipse.jifa.gclog.model.GCModel;
+import org.eclipse.jifa.gclog.parser.GCLogAnalyzer;
+import org.eclipse.jifa.gclog.parser.GCLogSource;
+import org.eclipse.jifa.gclog.util.DoubleData;
+import org.eclipse.jifa.gclog.vo.GCEventVO;
+import org.eclipse.jifa.gclog.vo.TimeRange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.eclipse.jifa.gclog.TestParser.DELTA;
+
+public class TestGCLogSource {
+
+    private static List<String> readLines(String name) throws IOException {
+        try (BufferedReader br = TestUtil.getGCLog(name)) {
+            return br.lines().collect(Collectors.toList());
+        }
+    }
+
+    private static void write(File file, List<String> lines, boolean gzip) throws IOException {
+        byte[] bytes = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream os = gzip ? new GZIPOutputStream(Files.newOutputStream(file.toPath()))
+                : Files.newOutputStream(file.toPath())) {
+            os.write(bytes);
+        }
+    }
+
+    @Test
+    public void testRotatedAndGzippedSegments(@TempDir Path dir) throws Exception {
+        List<String> lines = readLines("17G1Parser.log");
+        // split right before GC(1), the latter part gets a smaller rotation index to check ordering by uptime
+        int split = 34;
+        File whole = dir.resolve("whole.log").toFile();
+        write(whole, lines, false);
+        File rotated = Files.createDirectory(dir.resolve("rotated")).toFile();
+        write(new File(rotated, "gc.log.1"), lines.subList(0, split), false);
+        write(new File(rotated, "gc.log.0.gz"), lines.subList(split, lines.size()), true);
+
+        GCLogSource source = GCLogSource.of(new File(rotated, "gc.log.1"));
+        Assertions.assertEquals(2, source.getSegments().size());
+        Assertions.assertEquals("gc.log.1", source.getSegments().get(0).getName());
+        Assertions.assertEquals("gc.log.0.gz", source.getSegments().get(1).getName());
+
+        GCModel expected = new GCLogAnalyzer(whole, new DefaultProgressListener()).parse();
+        GCModel actual = new GCLogAnalyzer(source, new DefaultProgressListener()).parse();
+        Assertions.assertEquals(expected.getGcEvents().size(), actual.getGcEvents().size());
+        Assertions.assertEquals(expected.getAllEvents().size(), actual.getAllEvents().size());
+        Assertions.assertEquals(expected.getStartTime(), actual.getStartTime(), DELTA);
+        Assertions.assertEquals(expected.getEndTime(), actual.getEndTime(), DELTA);
+
+        // a directory is treated as a rotated set as well
+        GCModel fromDirectory = new GCLogAnalyzer(rotated, new DefaultProgressListener()).parse();
+        Assertions.assertEquals(expected.getGcEvents().size(), fromDirectory.getGcEvents().size());
+    }
+
+    @Test
+    public void testSingleGzippedFile(@TempDir Path dir) throws Exception {
+        File file = dir.resolve("gc.log.gz").toFile();
+        write(file, readLines("11G1Parser.log"), true);
+        GCModel model = new GCLogAnalyzer(file, new DefaultProgressListener()).parse();
+        Assertions.assertEquals(3, model.getGcEvents().size());
+    }
+
+    @Test
+    public void testFollowAppendedLines(@TempDir Path dir) throws Exception {
+        String[] logs = {"17G1Parser.log", "8CMSParser.log", "11CMSGCParser.log", "8G1GCParser.log", "17SerialGCParser.log"};
+        for (String log : logs) {
+            byte[] bytes = (String.join("\n", readLines(log)) + "\n").getBytes(StandardCharsets.UTF_8);
+            File file = dir.resolve(log).toFile();
+            Files.write(file.toPath(), bytes);
+            GCModel expected = new GCLogAnalyzer(file, new DefaultProgressListener()).parse();
+            Files.delete(file.toPath());
+
+            // append the log in chunks which end in the middle of a line
+            GCLogAnalyzer analyzer = new GCLogAnalyzer(file, new DefaultProgressListener());
+            analyzer.setColumnarStoreEnabled(true);
+            GCModel followed = null;
+            int chunks = 4;
+            for (int i = 1; i <= chunks; i++) {
+                int from = bytes.length * (i - 1) / chunks;
+                int to = bytes.length * i / chunks;
+                try (OutputStream os = Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    os.write(bytes, from, to - from);
+                }
+                GCModel model = analyzer.follow();
+                Assertions.assertTrue(followed == null || followed == model, log);
+                followed = model;
+            }
+
+            List<GCEvent> expectedEvents = expected.getGcEvents();
+            List<GCEvent> actualEvents = followed.getGcEvents();
+            // the newest events are kept pending since they might be changed by lines to come
+            Assertions.assertEquals(expectedEvents.size(), actualEvents.size() + followed.getPendingEventCount(), log);
+            Assertions.assertFalse(actualEvents.isEmpty(), log);
+            for (int i = 0; i < actualEvents.size(); i++) {
+                GCEvent e = expectedEvents.get(i);
+                GCEvent a = actualEvents.get(i);
+                Assertions.assertEquals(e.getEventType(), a.getEventType(), log);
+                Assertions.assertEquals(e.getStartTime(), a.getStartTime(), DELTA, log);
+                Assertions.assertEquals(e.getDuration(), a.getDuration(), DELTA, log);
+                Assertions.assertEquals(e.getPause(), a.getPause(), DELTA, log);
+                Assertions.assertEquals(e.getInterval(), a.getInterval(), DELTA, log);
+                Assertions.assertEquals(e.getAllocation(), a.getAllocation(), log);
+                Assertions.assertEquals(e.getPromotion(), a.getPromotion(), log);
+                Assertions.assertEquals(e.getReclamation(), a.getReclamation(), log);
+                Assertions.assertEquals(e.getId(), a.getId(), log);
+            }
+
+            // data for apis is updated from where event lists are changed, it should be the same as built again
+            assertSameStore(ColumnarEventStore.build(followed), followed.getColumnarStore(), log);
+
+            TimeRange range = new TimeRange(followed.getStartTime(), followed.getEndTime());
+            DoubleData pause = new DoubleData(true);
+            followed.iterateEventsWithinTimeRange(followed.getGcEvents(), range,
+                    e -> e.pauseEventOrPhasesDo(event -> pause.add(event.getPause())));
+            followed.setExactPauseStatisticsLimit(0);
+            Assertions.assertEquals(pause.getMax(), followed.getPauseStatistics(range).getPauseMax(), DELTA, log);
+            Assertions.assertEquals(pause.average(), followed.getPauseStatistics(range).getPauseAvg(), DELTA, log);
+
+            List<GCEvent> details = actualEvents.stream()
+                                                .filter(event -> event.getEventType() != GCEventType.SAFEPOINT)
+                                                .collect(Collectors.toList());
+            AnalysisConfig config = AnalysisConfig.defaultConfig(followed);
+            PageView<GCEventVO> page = followed.getGCDetails(new PagingRequest(2, 3), new GCModel.GCDetailFilter(), config);
+            Assertions.assertEquals(details.size(), page.getTotalSize(), log);
+            for (int i = 0; i < page.getData().size(); i++) {
+                Assertions.assertEquals(followed.getEventVO(details.get(3 + i), config).toString(),
+                                        page.getData().get(i).toString(), log);
+            }
+        }
+    }
+
+    static void assertSameStore(ColumnarEventStore expected, ColumnarEventStore actual, String message) {
+        Assertions.assertEquals(expected.getRowCount(), actual.getRowCount(), message);
+        for (int row = 0; row < actual.getRowCount(); row++) {
+            Assertions.assertEquals(expected.getStartTime(row), actual.getStartTime(row), message);
+            Assertions.assertEquals(expected.getDuration(row), actual.getDuration(row), message);
+            Assertions.assertEquals(expected.getInterval(row), actual.getInterval(row), message);
+            Assertions.assertSame(expected.getEventType(row), actual.getEventType(row), message);
+            Assertions.assertEquals(expected.getPromotion(row), actual.getPromotion(row), message);
+        }
+        assertSameView(expected.getAllEvents(), actual.getAllEvents());
+        assertSameView(expected.getGcEvents(), actual.getGcEvents());
+        assertSameView(expected.getGcCollectionEvents(), actual.getGcCollectionEvents());
+        for (int i = 0; i < actual.getGcEvents().size(); i++) {
+            List<Double> expectedPauses = new ArrayList<>();
+            expected.pauseRowsDo(i, row -> expectedPauses.add(expected.getPause(row)));
+            List<Double> actualPauses = new ArrayList<>();
+            actual.pauseRowsDo(i, row -> actualPauses.add(actual.getPause(row)));
+            Assertions.assertEquals(expectedPauses, actualPauses, message);
+            List<Integer> expectedPhases = new ArrayList<>();
+            expected.phaseRowsDo(i, expectedPhases::add);
+            List<Integer> actualPhases = new ArrayList<>();
+            actual.phaseRowsDo(i, actualPhases::add);
+            Assertions.assertEquals(expectedPhases, actualPhases, message);
+        }
+        for (MemoryArea area : MemoryArea.values()) {
+            for (int i = 0; i < actual.getGcCollectionEvents().size(); i++) {
+                Assertions.assertEquals(expected.getPreUsed(area, i), actual.getPreUsed(area, i), message);
+                Assertions.assertEquals(expected.getPostCapacity(area, i), actual.getPostCapacity(area, i), message);
+            }
+        }
+    }
+
+    private static void assertSameView(ColumnarEventStore.View expected, ColumnarEventStore.View actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.row(i), actual.row(i));
+            Assertions.assertEquals(expected.getStartTime(i), actual.getStartTime(i));
+        }
+    }
+
+    @Test
+    public void testFollowYoungGCThatBecomesFullGC(@TempDir Path dir) throws Exception {
+        File file = dir.resolve("gc.log").toFile();
+        write(file, readLines("11GenerationalGCInterleave.log"), false);
+        GCLogAnalyzer analyzer = new GCLogAnalyzer(file, new DefaultProgressListener());
+        // the full gc is the newest event, the young gc containing it is kept pending with it
+        GCModel model = analyzer.follow();
+        Assertions.assertEquals(0, model.getGcEvents().size());
+        Assertions.assertEquals(2, model.getPendingEventCount());
+
+        List<String> next = List.of(
+                "",
+                "[7.000s][info][gc,start     ] GC(5) Pause Young (Allocation Failure)",
+                "[7.010s][info][gc,heap        ] GC(5) DefNew: 78655K->0K(78656K)",
+                "[7.010s][info][gc,heap        ] GC(5) Tenured: 135957K->145957K(174784K)",
+                "[7.010s][info][gc             ] GC(5) Pause Young (Allocation Failure) 209M->142M(247M) 10.000ms",
+                "");
+        Files.write(file.toPath(), String.join("\n", next).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        model = analyzer.follow();
+        Assertions.assertEquals(1, model.getGcEvents().size());
+        GCEvent fullGC = model.getGcEvents().get(0);
+        Assertions.assertEquals(GCEventType.FULL_GC, fullGC.getEventType());
+        Assertions.assertTrue(fullGC.isTrue(GCEventBooleanType.YOUNG_GC_BECOME_FULL_GC));
+        Assertions.assertEquals(4, fullGC.getPhases().size());
+        Assertions.assertEquals(1, model.getPendingEventCount());
+    }
+}
@@ -12,10 +12,15 @@
  ********************************************************************************/
 package org.eclipse.jifa.gclog;
 
+import org.eclipse.jifa.gclog.util.Constant;
 import org.eclipse.jifa.gclog.util.DoubleData;
+import org.eclipse.jifa.gclog.util.QuantileSketch;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static org.eclipse.jifa.gclog.util.Constant.EPS;
 
 public class TestGCLogUtil {
@@ -35,4 +40,33 @@ public class TestGCLogUtil {
         Assertions.assertEquals(doubleData.getMin(), 0, EPS);
         Assertions.assertEquals(doubleData.getN(), 5, EPS);
     }
+
+    @Test
+    public void testQuantileSketch() {
+        double relativeError = 0.01;
+        Random random = new Random(0);
+        double[] values = new double[20000];
+        QuantileSketch left = new QuantileSketch(relativeError);
+        QuantileSketch right = new QuantileSketch(relativeError);
+        for (int i = 0; i < values.length; i++) {
+            // long-tailed like pauses
+            values[i] = i % 100 == 0 ? 0 : Math.exp(random.nextGaussian() * 2);
+            (i % 2 == 0 ? left : right).add(values[i]);
+        }
+        left.add(Constant.UNKNOWN_DOUBLE);
+        left.merge(right);
+        Arrays.sort(values);
+
+        Assertions.assertEquals(values.length, left.getN());
+        Assertions.assertEquals(values[0], left.getMin(), EPS);
+        Assertions.assertEquals(values[values.length - 1], left.getMax(), EPS);
+        Assertions.assertEquals(Arrays.stream(values).sum(), left.getSum(), 1e-6);
+        for (double q : new double[]{0.001, 0.1, 0.5, 0.9, 0.99, 0.999}) {
+            double expected = values[(int) Math.floor((values.length - 1) * q)];
+            Assertions.assertEquals(expected, left.getQuantile(q), expected * relativeError + EPS);
+        }
+
+        Assertions.assertEquals(Constant.UNKNOWN_DOUBLE, new QuantileSketch(relativeError).getMedian(), EPS);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> left.merge(new QuantileSketch(0.02)));
+    }
 }
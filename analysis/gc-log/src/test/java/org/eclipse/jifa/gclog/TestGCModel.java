@@ -14,14 +14,20 @@
 package org.eclipse.jifa.gclog;
 
 import org.eclipse.jifa.analysis.listener.DefaultProgressListener;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.gclog.diagnoser.AnalysisConfig;
 import org.eclipse.jifa.gclog.event.GCEvent;
 import org.eclipse.jifa.gclog.event.Safepoint;
 import org.eclipse.jifa.gclog.event.eventInfo.GCCause;
 import org.eclipse.jifa.gclog.event.eventInfo.GCEventBooleanType;
 import org.eclipse.jifa.gclog.event.eventInfo.GCMemoryItem;
+import org.eclipse.jifa.gclog.event.eventInfo.MemoryArea;
+import org.eclipse.jifa.gclog.model.ColumnarEventStore;
 import org.eclipse.jifa.gclog.model.G1GCModel;
 import org.eclipse.jifa.gclog.model.GCEventType;
 import org.eclipse.jifa.gclog.model.GCModel;
+import org.eclipse.jifa.gclog.model.TimeGraphSeries;
 import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
 import org.eclipse.jifa.gclog.model.modeInfo.GCLogStyle;
 import org.eclipse.jifa.gclog.model.modeInfo.VmOptions;
@@ -29,6 +35,8 @@ import org.eclipse.jifa.gclog.parser.GCLogParser;
 import org.eclipse.jifa.gclog.parser.GCLogParserFactory;
 import org.eclipse.jifa.gclog.parser.PreUnifiedG1GCLogParser;
 import org.eclipse.jifa.gclog.util.Constant;
+import org.eclipse.jifa.gclog.util.DoubleData;
+import org.eclipse.jifa.gclog.vo.GCEventVO;
 import org.eclipse.jifa.gclog.vo.ObjectStatistics;
 import org.eclipse.jifa.gclog.vo.PauseStatistics;
 import org.eclipse.jifa.gclog.vo.PhaseStatistics;
@@ -37,8 +45,21 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.eclipse.jifa.gclog.TestUtil.stringToBufferedReader;
 import static org.eclipse.jifa.gclog.event.eventInfo.MemoryArea.EDEN;
@@ -315,4 +336,394 @@ public class TestGCModel {
         }
         Assertions.fail("should find full gc with Allocation Failure");
     }
+
+    @Test
+    public void testColumnarStoreConsistency() throws Exception {
+        String[] logs = {"17G1Parser.log", "8CMSParser.log", "11ZGCParser.log"};
+        for (String log : logs) {
+            GCModel model = parse(log, true);
+            ColumnarEventStore store = model.getColumnarStore();
+            Assertions.assertNotNull(store);
+
+            List<GCEvent> events = model.getAllEvents();
+            Assertions.assertEquals(events.size(), store.getRowCount());
+            for (GCEvent event : events) {
+                int row = event.getId();
+                Assertions.assertEquals(event.getStartTime(), store.getStartTime(row), DELTA);
+                Assertions.assertEquals(event.getDuration(), store.getDuration(row), DELTA);
+                Assertions.assertEquals(event.getInterval(), store.getInterval(row), DELTA);
+                Assertions.assertEquals(event.getCauseInterval(), store.getCauseInterval(row), DELTA);
+                Assertions.assertSame(event.getEventType(), store.getEventType(row));
+                Assertions.assertSame(event.getCause(), store.getCause(row));
+                Assertions.assertEquals(event.getPromotion(), store.getPromotion(row));
+                Assertions.assertEquals(event.getAllocation(), store.getAllocation(row));
+                Assertions.assertEquals(event.getReclamation(), store.getReclamation(row));
+            }
+
+            ColumnarEventStore.View parents = store.getGcEvents();
+            Assertions.assertEquals(model.getGcEvents().size(), parents.size());
+            for (int i = 0; i < parents.size(); i++) {
+                GCEvent parent = model.getGcEvents().get(i);
+                Assertions.assertEquals(parent.getId(), parents.row(i));
+                List<Integer> expectedPhases = new ArrayList<>();
+                parent.phasesDoDFS(phase -> expectedPhases.add(phase.getId()));
+                List<Integer> actualPhases = new ArrayList<>();
+                store.phaseRowsDo(i, actualPhases::add);
+                Assertions.assertEquals(expectedPhases, actualPhases);
+                List<Double> expectedPauses = new ArrayList<>();
+                parent.pauseEventOrPhasesDo(event -> expectedPauses.add(event.getPause()));
+                List<Double> actualPauses = new ArrayList<>();
+                store.pauseRowsDo(i, row -> actualPauses.add(store.getPause(row)));
+                Assertions.assertEquals(expectedPauses, actualPauses);
+            }
+
+            ColumnarEventStore.View collections = store.getGcCollectionEvents();
+            Assertions.assertEquals(model.getGcCollectionEvents().size(), collections.size());
+            for (int i = 0; i < collections.size(); i++) {
+                GCEvent event = model.getGcCollectionEvents().get(i);
+                Assertions.assertEquals(event.getId(), collections.row(i));
+                for (MemoryArea area : MemoryArea.values()) {
+                    GCMemoryItem item = event.getMemoryItem(area);
+                    if (item == null || !store.hasMemoryArea(area)) {
+                        continue;
+                    }
+                    Assertions.assertEquals(item.getPreUsed(), store.getPreUsed(area, i));
+                    Assertions.assertEquals(item.getPostUsed(), store.getPostUsed(area, i));
+                    Assertions.assertEquals(item.getPostCapacity(), store.getPostCapacity(area, i));
+                }
+            }
+
+            // statistics scanned from columns agree with the ones calculated from the events
+            GCModel objects = parse(log);
+            Assertions.assertNull(objects.getColumnarStore());
+            TimeRange range = new TimeRange(model.getStartTime(), model.getEndTime());
+            Assertions.assertEquals(objects.getPauseStatistics(range), model.getPauseStatistics(range));
+            Assertions.assertEquals(objects.getPhaseStatistics(range), model.getPhaseStatistics(range));
+            Assertions.assertEquals(objects.getMemoryStatistics(range), model.getMemoryStatistics(range));
+            Assertions.assertEquals(objects.getObjectStatistics(range), model.getObjectStatistics(range));
+            int[] partitions = {0, 10, 100, 1000};
+            Map<String, int[]> expectedDistribution = objects.getPauseDistribution(range, partitions);
+            Map<String, int[]> actualDistribution = model.getPauseDistribution(range, partitions);
+            Assertions.assertEquals(expectedDistribution.keySet(), actualDistribution.keySet());
+            expectedDistribution.forEach((type, counts) -> Assertions.assertArrayEquals(counts, actualDistribution.get(type)));
+            String[] dataTypes = {"heapUsed", "oldCapacity", "promotion", "reclamation", YOUNG_GC.getName()};
+            Map<String, List<Object[]>> expectedGraph = objects.getTimeGraphData(dataTypes);
+            Map<String, List<Object[]>> actualGraph = model.getTimeGraphData(dataTypes);
+            for (String dataType : dataTypes) {
+                Assertions.assertEquals(expectedGraph.get(dataType).size(), actualGraph.get(dataType).size(), dataType);
+                for (int i = 0; i < expectedGraph.get(dataType).size(); i++) {
+                    Assertions.assertArrayEquals(expectedGraph.get(dataType).get(i), actualGraph.get(dataType).get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarStoreFootprint() throws Exception {
+        GCModel[] models = new GCModel[2];
+        for (int m = 0; m < models.length; m++) {
+            G1GCModel g1 = new G1GCModel();
+            g1.setHeapRegionSize(1024 * 1024);
+            g1.setCollectorType(GCCollectorType.G1);
+            g1.setLogStyle(GCLogStyle.UNIFIED);
+            g1.setColumnarStoreEnabled(m == 1);
+            for (int i = 0; i < 20000; i++) {
+                GCEvent event = makeEvent(YOUNG_GC, 100000 + i * 1000, 10);
+                event.setCause(GCCause.G1_EVACUATION_PAUSE);
+                event.setMemoryItem(new GCMemoryItem(EDEN, 20 * 1024 * 1024, 0, 100 * 1024 * 1024));
+                event.setMemoryItem(new GCMemoryItem(SURVIVOR, 0, 10 * 1024 * 1024, 100 * 1024 * 1024));
+                event.setMemoryItem(new GCMemoryItem(OLD, 10 * 1024 * 1024, 12 * 1024 * 1024, 100 * 1024 * 1024));
+                event.setMemoryItem(new GCMemoryItem(HUMONGOUS, 0, 0, 0));
+                event.setMemoryItem(new GCMemoryItem(METASPACE, 15 * 1024 * 1024, 15 * 1024 * 1024, 20 * 1024 * 1024));
+                g1.putEvent(event);
+            }
+            g1.calculateDerivedInfo(new DefaultProgressListener());
+            models[m] = g1;
+        }
+        Assertions.assertNull(models[0].getColumnarStore());
+        ColumnarEventStore store = models[1].getColumnarStore();
+        Assertions.assertNotNull(store);
+
+        // the columns are smaller than the events they copy, but they are kept in addition to the events
+        long events = estimateHeapSize(models[1].getAllEvents());
+        long columns = estimateHeapSize(store);
+        Assertions.assertEquals(events, estimateHeapSize(models[0].getAllEvents()));
+        Assertions.assertTrue(columns * 3 < events * 2, columns + " bytes of columns, " + events + " bytes of events");
+        TimeRange range = new TimeRange(models[0].getStartTime(), models[0].getEndTime());
+        Assertions.assertEquals(models[0].getMemoryStatistics(range), models[1].getMemoryStatistics(range));
+    }
+
+    @Test
+    public void testFollowMergesEarlierEvents() {
+        G1GCModel followed = new G1GCModel();
+        followed.setCollectorType(GCCollectorType.G1);
+        followed.setLogStyle(GCLogStyle.PRE_UNIFIED);
+        followed.setColumnarStoreEnabled(true);
+        followed.updateDerivedInfo(new DefaultProgressListener());
+
+        followed.putEvent(makeEvent(YOUNG_GC, 1000, 10));
+        GCEvent cycle = makeEvent(G1_CONCURRENT_CYCLE, 1100, 500);
+        followed.putEvent(cycle);
+        followed.addPhase(cycle, makeEvent(G1_REMARK, 1500, 5));
+        followed.putEvent(makeEvent(YOUNG_GC, 1200, 20));
+        followed.putEvent(makeEvent(YOUNG_GC, 2000, 30));
+        followed.updateDerivedInfo(new DefaultProgressListener());
+        Assertions.assertEquals(3, followed.getGcEvents().size());
+        Assertions.assertEquals(1, followed.getPendingEventCount());
+
+        // settled later but starts before the last young gc and the remark
+        followed.putEvent(makeEvent(YOUNG_GC, 1150, 40));
+        followed.putEvent(makeEvent(YOUNG_GC, 3000, 50));
+        followed.updateDerivedInfo(new DefaultProgressListener());
+        Assertions.assertEquals(List.of(1000.0, 1100.0, 1150.0, 1200.0, 2000.0),
+                                followed.getGcEvents().stream().map(GCEvent::getStartTime).collect(Collectors.toList()));
+        List<GCEvent> events = followed.getAllEvents();
+        for (int i = 0; i < events.size(); i++) {
+            Assertions.assertEquals(i, events.get(i).getId());
+            Assertions.assertTrue(i == 0 || events.get(i - 1).getStartTime() <= events.get(i).getStartTime());
+        }
+        TestGCLogSource.assertSameStore(ColumnarEventStore.build(followed), followed.getColumnarStore(), "follow");
+
+        TimeRange range = new TimeRange(1000, 3000);
+        followed.setExactPauseStatisticsLimit(0);
+        PauseStatistics pause = followed.getPauseStatistics(range);
+        Assertions.assertEquals(40, pause.getPauseMax(), DELTA);
+        Assertions.assertEquals((10 + 5 + 40 + 20 + 30) / 5.0, pause.getPauseAvg(), DELTA);
+        AnalysisConfig config = AnalysisConfig.defaultConfig(followed);
+        PageView<GCEventVO> page = followed.getGCDetails(new PagingRequest(1, 10),
+                new GCModel.GCDetailFilter(YOUNG_GC.getName(), null, 1100.0, 1500.0, null), config);
+        Assertions.assertEquals(2, page.getTotalSize());
+    }
+
+    private static GCEvent makeEvent(GCEventType type, double startTime, double duration) {
+        GCEvent event = new GCEvent();
+        event.setEventType(type);
+        event.setStartTime(startTime);
+        event.setDuration(duration);
+        return event;
+    }
+
+    @Test
+    public void testPauseStatisticsFromSketches() throws Exception {
+        for (String log : new String[]{"17G1Parser.log", "8CMSParser.log", "11ZGCParser.log"}) {
+            GCModel exact = parse(log);
+            GCModel sketched = parse(log, true);
+            // always answer from sketches
+            sketched.setExactPauseStatisticsLimit(0);
+            TimeRange range = new TimeRange(exact.getStartTime(), exact.getEndTime());
+            PauseStatistics expected = exact.getPauseStatistics(range);
+            PauseStatistics actual = sketched.getPauseStatistics(range);
+            double error = sketched.getPauseSketchRelativeError();
+            Assertions.assertEquals(expected.getThroughput(), actual.getThroughput(), DELTA);
+            Assertions.assertEquals(expected.getPauseAvg(), actual.getPauseAvg(), DELTA);
+            Assertions.assertEquals(expected.getPauseMax(), actual.getPauseMax(), DELTA);
+
+            List<Double> pauses = new ArrayList<>();
+            exact.iterateEventsWithinTimeRange(exact.getGcEvents(), range,
+                    e -> e.pauseEventOrPhasesDo(event -> pauses.add(event.getPause())));
+            pauses.sort(Double::compare);
+            double median = pauses.get((pauses.size() - 1) / 2);
+            Assertions.assertEquals(median, actual.getPauseMedian(), median * error + DELTA);
+
+            // a partial range mixes bucket sketches and exact edges
+            TimeRange half = new TimeRange(range.getStart() + range.length() / 4, range.getEnd() - range.length() / 4);
+            DoubleData expectedHalf = new DoubleData(true);
+            exact.iterateEventsWithinTimeRange(exact.getGcEvents(), half,
+                    e -> e.pauseEventOrPhasesDo(event -> expectedHalf.add(event.getPause())));
+            if (expectedHalf.getN() > 0) {
+                Assertions.assertEquals(expectedHalf.getMax(), sketched.getPauseStatistics(half).getPauseMax(), DELTA);
+                Assertions.assertEquals(expectedHalf.average(), sketched.getPauseStatistics(half).getPauseAvg(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testTimeGraphSeriesDownsampling() {
+        List<Object[]> points = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            // a sawtooth with one spike
+            long value = i == 54321 ? 1000000L : (i % 100) * 10L;
+            points.add(new Object[]{(long) i * 10, value});
+        }
+        TimeGraphSeries heap = TimeGraphSeries.of(points, true);
+        List<Object[]> sampled = heap.query(null, 500);
+        Assertions.assertTrue(sampled.size() <= 500);
+        Assertions.assertSame(points.get(0), sampled.get(0));
+        Assertions.assertSame(points.get(points.size() - 1), sampled.get(sampled.size() - 1));
+        Assertions.assertTrue(sampled.stream().anyMatch(p -> (long) p[1] == 1000000L));
+        for (int i = 1; i < sampled.size(); i++) {
+            Assertions.assertTrue((long) sampled.get(i - 1)[0] < (long) sampled.get(i)[0]);
+        }
+
+        TimeRange window = new TimeRange(200000, 300000);
+        List<Object[]> windowed = heap.query(window, 100);
+        Assertions.assertTrue(windowed.size() <= 100);
+        Assertions.assertTrue(windowed.stream().allMatch(p -> (long) p[0] >= 200000 && (long) p[0] <= 300000));
+        Assertions.assertEquals(200000L, windowed.get(0)[0]);
+        Assertions.assertEquals(300000L, windowed.get(windowed.size() - 1)[0]);
+        // a small window is returned as is
+        Assertions.assertEquals(11, heap.query(new TimeRange(1000, 1100), 100).size());
+
+        TimeGraphSeries promotion = TimeGraphSeries.of(points, false);
+        List<Object[]> averaged = promotion.query(null, 1000);
+        Assertions.assertTrue(averaged.size() <= 1000);
+        double sum = points.stream().mapToLong(p -> (long) p[1]).sum();
+        double average = averaged.stream().mapToLong(p -> (long) p[1]).average().orElse(0);
+        Assertions.assertEquals(sum / points.size(), average, sum / points.size() * 0.05);
+    }
+
+    @Test
+    public void testTimeGraphDataWithinBudget() throws Exception {
+        GCModel model = parse("17G1Parser.log");
+        String[] types = {"heapUsed", YOUNG_GC.getName()};
+        Map<String, List<Object[]>> all = model.getTimeGraphData(types);
+        // invalid range and no budget means everything, as requested by old clients
+        Map<String, List<Object[]>> same = model.getTimeGraphData(types, new TimeRange(), 0);
+        Map<String, List<Object[]>> absent = model.getTimeGraphData(types, null, null);
+        for (String type : types) {
+            Assertions.assertEquals(all.get(type).size(), same.get(type).size());
+            Assertions.assertEquals(all.get(type).size(), absent.get(type).size());
+        }
+
+        Map<String, List<Object[]>> sampled = model.getTimeGraphData(types, null, 3);
+        for (String type : types) {
+            List<Object[]> expected = all.get(type);
+            List<Object[]> actual = sampled.get(type);
+            Assertions.assertEquals(Math.min(3, expected.size()), actual.size());
+            Assertions.assertArrayEquals(expected.get(0), actual.get(0));
+            Assertions.assertArrayEquals(expected.get(expected.size() - 1), actual.get(actual.size() - 1));
+        }
+
+        double middle = (model.getStartTime() + model.getEndTime()) / 2;
+        TimeRange range = new TimeRange(middle, model.getEndTime());
+        List<Object[]> windowed = model.getTimeGraphData(types, range, 0).get("heapUsed");
+        Assertions.assertEquals(all.get("heapUsed").stream().filter(p -> (long) p[0] >= middle).count(), windowed.size());
+    }
+
+    @Test
+    public void testGCDetailsFromIndex() throws Exception {
+        GCModel model = parse("17G1Parser.log");
+        AnalysisConfig config = AnalysisConfig.defaultConfig(model);
+        double middle = (model.getStartTime() + model.getEndTime()) / 2;
+        GCModel.GCDetailFilter[] filters = {
+                new GCModel.GCDetailFilter(null, null, null, null, null),
+                new GCModel.GCDetailFilter(YOUNG_GC.getName(), null, null, null, null),
+                new GCModel.GCDetailFilter(null, "G1 Evacuation Pause", null, null, 10.0),
+                new GCModel.GCDetailFilter(null, null, middle, null, null),
+                new GCModel.GCDetailFilter(YOUNG_GC.getName(), null, null, middle, 1.0),
+                new GCModel.GCDetailFilter("NotAType", null, null, null, null),
+        };
+        for (GCModel.GCDetailFilter filter : filters) {
+            List<GCEvent> expected = model.getGcEvents().stream()
+                                          .filter(event -> !filter.isFiltered(event))
+                                          .collect(Collectors.toList());
+            int pageSize = 2;
+            for (int page = 1; page <= expected.size() / pageSize + 1; page++) {
+                PageView<GCEventVO> view = model.getGCDetails(new PagingRequest(page, pageSize), filter, config);
+                Assertions.assertEquals(expected.size(), view.getTotalSize(), filter.toString());
+                int first = (page - 1) * pageSize;
+                List<GCEvent> expectedPage = expected.subList(Math.min(first, expected.size()),
+                                                              Math.min(first + pageSize, expected.size()));
+                Assertions.assertEquals(expectedPage.size(), view.getData().size());
+                for (int i = 0; i < expectedPage.size(); i++) {
+                    Assertions.assertEquals(model.getEventVO(expectedPage.get(i), config).toString(),
+                                            view.getData().get(i).toString());
+                }
+            }
+        }
+    }
+
+    private GCModel parse(String log) throws Exception {
+        return parse(log, false);
+    }
+
+    private GCModel parse(String log, boolean columnarStoreEnabled) throws Exception {
+        GCLogParser parser = new GCLogParserFactory().getParser(TestUtil.getGCLog(log));
+        GCModel model = parser.parse(TestUtil.getGCLog(log));
+        model.setColumnarStoreEnabled(columnarStoreEnabled);
+        model.calculateDerivedInfo(new DefaultProgressListener());
+        return model;
+    }
+
+    // rough heap size of the objects reachable from root with compressed oops, shared constants and the model
+    // are not counted
+    private static long estimateHeapSize(Object root) throws IllegalAccessException {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long size = 0;
+        while (!pending.isEmpty()) {
+            Object o = pending.pop();
+            if (!visited.add(o) || o instanceof GCModel || o instanceof GCEventType || o instanceof GCCause ||
+                o instanceof String || o instanceof Enum || o instanceof Class) {
+                continue;
+            }
+            Class<?> clazz = o.getClass();
+            if (clazz.isArray()) {
+                Class<?> component = clazz.getComponentType();
+                int length = Array.getLength(o);
+                size += alignObjectSize(16 + (long) length * (component.isPrimitive() ? primitiveSize(component) : 4));
+                if (!component.isPrimitive()) {
+                    for (Object element : (Object[]) o) {
+                        if (element != null) {
+                            pending.push(element);
+                        }
+                    }
+                }
+            } else if (o instanceof Collection<?> collection) {
+                // the collection and its backing array
+                size += 24 + alignObjectSize(16 + 4L * collection.size());
+                collection.stream().filter(Objects::nonNull).forEach(pending::push);
+            } else if (o instanceof Map<?, ?> map) {
+                // the map, its table and its nodes
+                size += 48 + alignObjectSize(16 + 8L * map.size()) + 32L * map.size();
+                map.forEach((key, value) -> {
+                    pending.push(key);
+                    if (value != null) {
+                        pending.push(value);
+                    }
+                });
+            } else if (o instanceof BitSet bits) {
+                size += 24 + alignObjectSize(16 + bits.size() / 8);
+            } else if (clazz.getName().startsWith("java.")) {
+                size += 16;
+            } else {
+                long shallow = 12;
+                for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        if (field.getType().isPrimitive()) {
+                            shallow += primitiveSize(field.getType());
+                            continue;
+                        }
+                        shallow += 4;
+                        field.setAccessible(true);
+                        Object value = field.get(o);
+                        if (value != null) {
+                            pending.push(value);
+                        }
+                    }
+                }
+                size += alignObjectSize(shallow);
+            }
+        }
+        return size;
+    }
+
+    private static long alignObjectSize(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
 }
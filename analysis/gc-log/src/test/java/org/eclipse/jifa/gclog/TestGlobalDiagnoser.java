@@ -34,6 +34,7 @@ import java.util.stream.DoubleStream;
 import static org.eclipse.jifa.gclog.TestUtil.stringToBufferedReader;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.ALLOCATION_STALL;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.HEAP_MEMORY_FULL_GC;
+import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.LONG_YOUNG_GC_PAUSE;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.METASPACE_FULL_GC;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.OUT_OF_MEMORY;
 import static org.eclipse.jifa.gclog.diagnoser.AbnormalType.SYSTEM_GC;
@@ -197,6 +198,56 @@ public class TestGlobalDiagnoser {
         Assertions.assertArrayEquals(actual, new double[]{0, 7889}, DELTA);
     }
 
+    @Test
+    public void testDiagnoseManyEventsAndCache() throws Exception {
+        // enough events for the shared pass to be split into several chunks
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            double time = 1 + i * 10;
+            if (i % 1000 == 999) {
+                sb.append(String.format("%.3f: [Full GC (Metadata GC Threshold) %.3f: [CMS: 92159K->92159K(92160K), 0.1150376 secs] 99203K->99169K(101376K), [Metaspace: 3805K->3805K(1056768K)], 0.1150614 secs] [Times: user=0.11 sys=0.00, real=0.12 secs]\n", time, time));
+            } else {
+                sb.append(String.format("%.3f: [GC (Allocation Failure) %.3f: [ParNew: 7575411K->562327K(7689600K), %s secs] 8149808K->1188439K(20272512K), %s secs] [Times: user=1.33 sys=0.07, real=%s secs]\n",
+                        time, time, i % 100 == 0 ? "0.4413861" : "0.0113861", i % 100 == 0 ? "0.4422627" : "0.0122627", i % 100 == 0 ? "0.44" : "0.01"));
+            }
+        }
+        String log = sb.toString();
+        GCLogParser parser = new GCLogParserFactory().getParser(stringToBufferedReader(log));
+        GCModel model = parser.parse(stringToBufferedReader(log));
+        model.calculateDerivedInfo(new DefaultProgressListener());
+        Assertions.assertEquals(model.getGcEvents().size(), 20000);
+
+        AnalysisConfig config = defaultConfig(model);
+        GlobalAbnormalInfo diagnose = model.getGlobalAbnormalInfo(config);
+        Map<String, List<Double>> seriousProblems = diagnose.getSeriousProblems();
+        double[] fullGCs = seriousProblems.get(METASPACE_FULL_GC.getName()).stream().mapToDouble(d -> d).toArray();
+        Assertions.assertEquals(fullGCs.length, 20);
+        for (int i = 0; i < fullGCs.length; i++) {
+            Assertions.assertEquals(fullGCs[i], 1000 * (1 + (i * 1000 + 999) * 10), DELTA);
+        }
+        double[] longPauses = seriousProblems.get(LONG_YOUNG_GC_PAUSE.getName()).stream().mapToDouble(d -> d).toArray();
+        Assertions.assertEquals(longPauses.length, 200);
+        for (int i = 1; i < longPauses.length; i++) {
+            Assertions.assertTrue(longPauses[i - 1] < longPauses[i]);
+        }
+        Assertions.assertEquals(diagnose.getMostSeriousProblem().getProblem(), new I18nStringView("jifa.gclog.diagnose.abnormal.metaspaceFullGC"));
+
+        // same config and time range share the result, and a different time range is diagnosed again
+        Assertions.assertSame(model.getGlobalAbnormalInfo(defaultConfig(model)), diagnose);
+        config = defaultConfig(model);
+        config.setTimeRange(new TimeRange(0, 50000000));
+        GlobalAbnormalInfo part = model.getGlobalAbnormalInfo(config);
+        Assertions.assertNotSame(part, diagnose);
+        Assertions.assertEquals(part.getSeriousProblems().get(METASPACE_FULL_GC.getName()).size(), 5);
+        Assertions.assertEquals(part.getSeriousProblems().get(LONG_YOUNG_GC_PAUSE.getName()).size(), 50);
+
+        // changing the config after asking does not change what is cached for it
+        config.setLongPauseThreshold(1000);
+        AnalysisConfig same = defaultConfig(model);
+        same.setTimeRange(new TimeRange(0, 50000000));
+        Assertions.assertSame(model.getGlobalAbnormalInfo(same), part);
+    }
+
     private double[] sitesToArray(List<TimeRange> sites) {
         return sites.stream().flatMapToDouble(site -> DoubleStream.of(site.getStart(), site.getEnd())).toArray();
     }
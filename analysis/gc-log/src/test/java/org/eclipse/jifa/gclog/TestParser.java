@@ -20,10 +20,13 @@ import org.eclipse.jifa.gclog.event.ThreadEvent;
 import org.eclipse.jifa.gclog.event.eventInfo.GCMemoryItem;
 import org.eclipse.jifa.gclog.model.CMSGCModel;
 import org.eclipse.jifa.gclog.model.G1GCModel;
+import org.eclipse.jifa.gclog.model.GenerationalShenandoahGCModel;
+import org.eclipse.jifa.gclog.model.GenerationalZGCModel;
 import org.eclipse.jifa.gclog.model.GCEventType;
 import org.eclipse.jifa.gclog.model.GCModel;
 import org.eclipse.jifa.gclog.model.ParallelGCModel;
 import org.eclipse.jifa.gclog.model.SerialGCModel;
+import org.eclipse.jifa.gclog.model.ShenandoahGCModel;
 import org.eclipse.jifa.gclog.model.ZGCModel;
 import org.eclipse.jifa.gclog.model.modeInfo.GCCollectorType;
 import org.eclipse.jifa.gclog.model.modeInfo.GCLogMetadata;
@@ -35,24 +38,34 @@ import org.eclipse.jifa.gclog.parser.PreUnifiedG1GCLogParser;
 import org.eclipse.jifa.gclog.parser.PreUnifiedGenerationalGCLogParser;
 import org.eclipse.jifa.gclog.parser.UnifiedG1GCLogParser;
 import org.eclipse.jifa.gclog.parser.UnifiedGenerationalGCLogParser;
+import org.eclipse.jifa.gclog.parser.UnifiedGenerationalZGCLogParser;
+import org.eclipse.jifa.gclog.parser.UnifiedShenandoahGCLogParser;
 import org.eclipse.jifa.gclog.parser.UnifiedZGCLogParser;
 import org.eclipse.jifa.gclog.vo.PauseStatistics;
 import org.eclipse.jifa.gclog.vo.TimeRange;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.eclipse.jifa.gclog.TestUtil.stringToBufferedReader;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.ALLOCATION_FAILURE;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.CMS_FINAL_REMARK;
+import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.ALLOC_RATE;
+import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.ALLOC_STALL;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.ERGONOMICS;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.G1_COMPACTION;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.G1_EVACUATION_PAUSE;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.HEAP_DUMP;
+import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.HIGH_USAGE;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.METADATA_GENERATION_THRESHOLD;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.PROACTIVE;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.PROMOTION_FAILED;
+import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.TIMER;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCCause.WARMUP;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCEventBooleanType.TO_SPACE_EXHAUSTED;
 import static org.eclipse.jifa.gclog.event.eventInfo.GCEventBooleanType.YOUNG_GC_BECOME_FULL_GC;
@@ -1150,4 +1163,176 @@ public class TestParser {
             }
         }
     }
+
+    @Test
+    public void testJDK21GenerationalZGCParser() throws Exception {
+        GCLogParser parser = new GCLogParserFactory().getParser(TestUtil.getGCLog("21GenZGCParser.log"));
+        Assertions.assertTrue(parser instanceof UnifiedGenerationalZGCLogParser);
+        GenerationalZGCModel model = (GenerationalZGCModel) parser.parse(TestUtil.getGCLog("21GenZGCParser.log"));
+        model.calculateDerivedInfo(new DefaultProgressListener());
+
+        Assertions.assertEquals(model.getCollectorType(), GCCollectorType.GENZ);
+        Assertions.assertEquals(model.getGcEvents().size(), 3);
+        GCEvent major = model.getGcEvents().get(0);
+        Assertions.assertEquals(major.getGcid(), 0);
+        Assertions.assertEquals(major.getEventType(), GCEventType.GENZ_MAJOR_COLLECTION);
+        Assertions.assertTrue(major.isFullGC());
+        Assertions.assertEquals(major.getCause(), WARMUP);
+        Assertions.assertEquals(major.getStartTime(), 246, DELTA);
+        Assertions.assertEquals(major.getDuration(), 15, DELTA);
+        Assertions.assertEquals(major.getPhases().size(), 17);
+        Assertions.assertEquals(major.getLastPhaseOfType(GCEventType.GENZ_YOUNG_PAUSE_MARK_START).getDuration(), 0.011, DELTA);
+        Assertions.assertEquals(major.getLastPhaseOfType(GCEventType.GENZ_OLD_CONCURRENT_REMAP_ROOTS).getDuration(), 0.540, DELTA);
+        Assertions.assertEquals(major.getLastPhaseOfType(GCEventType.GENZ_OLD_PAUSE_MARK_END).getEndTime(), 257, DELTA);
+        Assertions.assertEquals(major.getPause(), 0.011 + 0.013 + 0.007 + 0.009 + 0.006, DELTA);
+        Assertions.assertEquals(major.getMemoryItem(HEAP), new GCMemoryItem(HEAP, 42L * 1024 * 1024, 256L * 1024 * 1024, 14L * 1024 * 1024, 256L * 1024 * 1024));
+        Assertions.assertEquals(major.getMemoryItem(YOUNG).getPreUsed(), 42L * 1024 * 1024);
+        Assertions.assertEquals(major.getMemoryItem(YOUNG).getPostUsed(), 14L * 1024 * 1024);
+        Assertions.assertEquals(major.getMemoryItem(OLD).getPreUsed(), 0);
+        Assertions.assertEquals(major.getMemoryItem(OLD).getPostUsed(), 2L * 1024 * 1024);
+        Assertions.assertEquals(major.getMemoryItem(METASPACE).getPostUsed(), 1024 * 1024);
+        Assertions.assertEquals(major.getReclamation(), 38L * 1024 * 1024);
+        Assertions.assertEquals(major.getPromotion(), 2L * 1024 * 1024);
+
+        GCEvent minor = model.getGcEvents().get(1);
+        Assertions.assertEquals(minor.getEventType(), GCEventType.GENZ_MINOR_COLLECTION);
+        Assertions.assertTrue(minor.isYoungGC());
+        Assertions.assertEquals(minor.getCause(), ALLOC_RATE);
+        Assertions.assertEquals(minor.getDuration(), 8, DELTA);
+        Assertions.assertEquals(minor.getPhases().size(), 8);
+        Assertions.assertEquals(minor.getMemoryItem(HEAP), new GCMemoryItem(HEAP, 226L * 1024 * 1024, 512L * 1024 * 1024, 56L * 1024 * 1024, 512L * 1024 * 1024));
+        Assertions.assertEquals(minor.getMemoryItem(YOUNG).getPostUsed(), 40L * 1024 * 1024);
+        Assertions.assertEquals(minor.getReclamation(), 188L * 1024 * 1024);
+        Assertions.assertEquals(model.getGcEvents().get(2).getCause(), ALLOC_STALL);
+        Assertions.assertEquals(model.getGcEvents().get(2).getPromotion(), 6L * 1024 * 1024);
+
+        List<GCEvent> allocationStalls = model.getAllocationStalls();
+        Assertions.assertEquals(allocationStalls.size(), 2);
+        Assertions.assertEquals(allocationStalls.get(0).getDuration(), 12.345, DELTA);
+        Assertions.assertEquals(((ThreadEvent) (allocationStalls.get(1))).getThreadName(), "worker-1");
+        Assertions.assertEquals(model.getOoms().size(), 1);
+        Assertions.assertEquals(model.getOoms().get(0).getThreadName(), "thread 9");
+    }
+
+    @Test
+    public void testJDK17ShenandoahParser() throws Exception {
+        GCLogParser parser = new GCLogParserFactory().getParser(TestUtil.getGCLog("17ShenandoahParser.log"));
+        Assertions.assertTrue(parser instanceof UnifiedShenandoahGCLogParser);
+        ShenandoahGCModel model = (ShenandoahGCModel) parser.parse(TestUtil.getGCLog("17ShenandoahParser.log"));
+        model.calculateDerivedInfo(new DefaultProgressListener());
+
+        Assertions.assertEquals(model.getCollectorType(), GCCollectorType.SHENANDOAH);
+        Assertions.assertFalse(model.isGenerational());
+        Assertions.assertTrue(model.isPauseless());
+        Assertions.assertEquals(model.getGcEvents().size(), 5);
+        GCEvent cycle = model.getGcEvents().get(0);
+        Assertions.assertEquals(cycle.getEventType(), GCEventType.SHENANDOAH_CONCURRENT_CYCLE);
+        Assertions.assertEquals(cycle.getCause(), HIGH_USAGE);
+        Assertions.assertEquals(cycle.getStartTime(), 1201, DELTA);
+        Assertions.assertEquals(cycle.getEndTime(), 1223, DELTA);
+        Assertions.assertEquals(cycle.getPhases().size(), 17);
+        Assertions.assertEquals(cycle.getLastPhaseOfType(GCEventType.SHENANDOAH_CONCURRENT_MARKING_ROOTS).getDuration(), 0.334, DELTA);
+        Assertions.assertEquals(cycle.getLastPhaseOfType(GCEventType.SHENANDOAH_CONCURRENT_MARKING).getDuration(), 7.012, DELTA);
+        Assertions.assertEquals(cycle.getLastPhaseOfType(GCEventType.SHENANDOAH_PAUSE_FINAL_MARK).getEndTime(), 1211, DELTA);
+        Assertions.assertEquals(cycle.getPause(), 0.152 + 0.421 + 0.021 + 0.101, DELTA);
+        Assertions.assertEquals(cycle.getMemoryItem(HEAP), new GCMemoryItem(HEAP, 52L * 1024 * 1024, UNKNOWN_INT, 22L * 1024 * 1024, 256L * 1024 * 1024));
+        Assertions.assertEquals(cycle.getMemoryItem(METASPACE).getPostUsed(), 5L * 1024 * 1024);
+
+        cycle = model.getGcEvents().get(1);
+        Assertions.assertEquals(cycle.getCause(), TIMER);
+        Assertions.assertEquals(cycle.getPhases().size(), 10);
+        Assertions.assertNotNull(cycle.getLastPhaseOfType(GCEventType.SHENANDOAH_PAUSE_FINAL_ROOTS));
+        cycle = model.getGcEvents().get(2);
+        Assertions.assertEquals(cycle.getPhases().size(), 4);
+        Assertions.assertNull(cycle.getMemoryItem(HEAP));
+
+        GCEvent degenerated = model.getGcEvents().get(3);
+        Assertions.assertEquals(degenerated.getEventType(), GCEventType.SHENANDOAH_DEGENERATED_GC);
+        Assertions.assertEquals(degenerated.getCause(), ALLOCATION_FAILURE);
+        Assertions.assertEquals(degenerated.getStartTime(), 3015 - 9.123, DELTA);
+        Assertions.assertEquals(degenerated.getPause(), 9.123, DELTA);
+        Assertions.assertEquals(degenerated.getMemoryItem(HEAP), new GCMemoryItem(HEAP, 240L * 1024 * 1024, UNKNOWN_INT, 120L * 1024 * 1024, 256L * 1024 * 1024));
+        GCEvent fullGC = model.getGcEvents().get(4);
+        Assertions.assertTrue(fullGC.isFullGC());
+        Assertions.assertEquals(fullGC.getCause(), ALLOCATION_FAILURE);
+        Assertions.assertEquals(fullGC.getDuration(), 30.123, DELTA);
+        Assertions.assertEquals(fullGC.getMemoryItem(HEAP).getPostUsed(), 30L * 1024 * 1024);
+    }
+
+    @Test
+    public void testGenerationalShenandoahParser() throws Exception {
+        GCLogParser parser = new GCLogParserFactory().getParser(TestUtil.getGCLog("24GenShenParser.log"));
+        Assertions.assertTrue(parser instanceof UnifiedShenandoahGCLogParser);
+        GenerationalShenandoahGCModel model = (GenerationalShenandoahGCModel) parser.parse(TestUtil.getGCLog("24GenShenParser.log"));
+        model.calculateDerivedInfo(new DefaultProgressListener());
+
+        Assertions.assertEquals(model.getCollectorType(), GCCollectorType.GENSHEN);
+        Assertions.assertTrue(model.isGenerational());
+        Assertions.assertEquals(model.getGcEvents().size(), 4);
+        GCEvent young = model.getGcEvents().get(0);
+        Assertions.assertEquals(young.getEventType(), GCEventType.GENSHEN_YOUNG_CYCLE);
+        Assertions.assertTrue(young.isYoungGC());
+        Assertions.assertEquals(young.getCause(), WARMUP);
+        Assertions.assertEquals(young.getPhases().size(), 16);
+        Assertions.assertNotNull(young.getLastPhaseOfType(GCEventType.SHENANDOAH_CONCURRENT_REMEMBERED_SET_SCANNING));
+        Assertions.assertEquals(young.getMemoryItem(HEAP), new GCMemoryItem(HEAP, 110L * 1024 * 1024, 256L * 1024 * 1024, 60L * 1024 * 1024, 256L * 1024 * 1024));
+        Assertions.assertEquals(young.getMemoryItem(YOUNG), new GCMemoryItem(YOUNG, 90L * 1024 * 1024, 100L * 1024 * 1024, 39L * 1024 * 1024, 100L * 1024 * 1024));
+        Assertions.assertEquals(young.getMemoryItem(OLD).getPreUsed(), 20L * 1024 * 1024);
+        Assertions.assertEquals(young.getMemoryItem(OLD).getPostUsed(), 21L * 1024 * 1024);
+
+        GCEvent old = model.getGcEvents().get(1);
+        Assertions.assertEquals(old.getEventType(), GCEventType.GENSHEN_OLD_CYCLE);
+        Assertions.assertTrue(old.isOldGC());
+        Assertions.assertEquals(old.getPhases().size(), 7);
+        Assertions.assertNotNull(old.getLastPhaseOfType(GCEventType.SHENANDOAH_CONCURRENT_COALESCING_AND_FILLING));
+        Assertions.assertEquals(old.getMemoryItem(OLD).getPostUsed(), 30L * 1024 * 1024);
+
+        GCEvent global = model.getGcEvents().get(2);
+        Assertions.assertEquals(global.getEventType(), GCEventType.GENSHEN_GLOBAL_CYCLE);
+        Assertions.assertTrue(global.isFullGC());
+        Assertions.assertEquals(global.getCause(), TIMER);
+        Assertions.assertEquals(global.getPhases().size(), 10);
+        Assertions.assertEquals(global.getMemoryItem(HEAP).getPostUsed(), 70L * 1024 * 1024);
+
+        GCEvent degenerated = model.getGcEvents().get(3);
+        Assertions.assertEquals(degenerated.getEventType(), GCEventType.SHENANDOAH_DEGENERATED_GC);
+        Assertions.assertEquals(degenerated.getCause(), ALLOCATION_FAILURE);
+        Assertions.assertEquals(degenerated.getDuration(), 7, DELTA);
+    }
+
+    /*
+     * Not a strict performance test. Logs are replicated with new gcids and the throughput of the parsers of
+     * concurrent collectors is printed next to that of g1 for comparison.
+     */
+    @Test
+    public void testParserThroughput() throws Exception {
+        for (String file : List.of("17G1Parser.log", "21GenZGCParser.log", "17ShenandoahParser.log", "24GenShenParser.log")) {
+            String log = replicateGCLog(file, 200);
+            int lines = log.split("\n").length;
+            GCLogParser parser = new GCLogParserFactory().getParser(new BufferedReader(new StringReader(log)));
+            long beginTime = System.currentTimeMillis();
+            GCModel model = parser.parse(new BufferedReader(new StringReader(log)));
+            double spendTime = Math.max(System.currentTimeMillis() - beginTime, 1) / 1000.;
+            Assertions.assertFalse(model.isEmpty());
+            System.out.printf("file %s parsed, %d lines in total, %d events produced, duration %fs, %f lines processed per second\n",
+                    file, lines, model.getGcEvents().size(), spendTime, lines / spendTime);
+        }
+    }
+
+    private static String replicateGCLog(String name, int copies) throws Exception {
+        StringBuilder original = new StringBuilder();
+        BufferedReader br = TestUtil.getGCLog(name);
+        String line;
+        while ((line = br.readLine()) != null) {
+            original.append(line).append('\n');
+        }
+        Pattern gcid = Pattern.compile("GC\\((\\d+)\\)");
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < copies; i++) {
+            Matcher matcher = gcid.matcher(original);
+            int offset = i * 10000;
+            result.append(matcher.replaceAll(m -> "GC(" + (Integer.parseInt(m.group(1)) + offset) + ")"));
+        }
+        return result.toString();
+    }
 }
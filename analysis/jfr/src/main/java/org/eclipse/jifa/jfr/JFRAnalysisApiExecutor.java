@@ -17,7 +17,9 @@ import org.eclipse.jifa.analysis.AbstractApiExecutor;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
 import org.eclipse.jifa.analysis.support.MethodNameConverter;
 import org.eclipse.jifa.jfr.api.JFRAnalyzer;
+import org.eclipse.jifa.jfr.util.AnalysisResultSerDes;
 
+import java.io.File;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.function.Predicate;
@@ -50,6 +52,12 @@ public class JFRAnalysisApiExecutor extends AbstractApiExecutor<JFRAnalyzer> {
     @Override
     public void clean(Path target) {
         super.clean(target);
+        File kryo = AnalysisResultSerDes.resolveSerializedDataPath(target).toFile();
+        if (kryo.exists()) {
+            if (!kryo.delete()) {
+                log.warn("Failed to delete kryo file: {}", kryo.getAbsolutePath());
+            }
+        }
     }
 
     @Override
@@ -59,6 +67,6 @@ public class JFRAnalysisApiExecutor extends AbstractApiExecutor<JFRAnalyzer> {
 
     @Override
     protected JFRAnalyzer buildAnalyzer(Path target, Map<String, String> options, ProgressListener listener) {
-        return new JFRAnalyzerImpl(target, options, listener);
+        return JFRAnalyzerImpl.build(target, options, listener);
     }
 }
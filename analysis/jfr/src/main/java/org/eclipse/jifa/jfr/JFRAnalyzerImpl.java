@@ -12,9 +12,16 @@
  ********************************************************************************/
 package org.eclipse.jifa.jfr;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.common.util.ExecutorFactory;
+import org.eclipse.jifa.common.util.PageViewBuilder;
 import org.eclipse.jifa.jfr.api.JFRAnalyzer;
 import org.eclipse.jifa.jfr.exception.ProfileAnalysisException;
 import org.eclipse.jifa.jfr.extractor.*;
@@ -26,45 +33,135 @@ import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
 import org.eclipse.jifa.jfr.request.AnalysisRequest;
 import org.eclipse.jifa.jfr.request.DimensionBuilder;
 import org.eclipse.jifa.jfr.model.*;
+import org.eclipse.jifa.jfr.vo.Butterfly;
+import org.eclipse.jifa.jfr.vo.HotMethod;
+import org.eclipse.jifa.jfr.vo.LeakCandidate;
 import org.eclipse.jifa.jfr.vo.Metadata;
+import org.eclipse.jifa.jfr.vo.Problems;
+import org.eclipse.jifa.jfr.vo.CompactFlameGraph;
+import org.eclipse.jifa.jfr.vo.DiffFlameGraph;
 import org.eclipse.jifa.jfr.vo.FlameGraph;
+import org.eclipse.jifa.jfr.util.AnalysisResultSerDes;
+import org.eclipse.jifa.jfr.util.ChunkReader;
+import org.eclipse.jifa.jfr.util.MethodProfile;
+import org.eclipse.jifa.jfr.util.StackTrie;
+import org.eclipse.jifa.jfr.util.TimelineDownsampler;
+import org.openjdk.jmc.common.io.IOToolkit;
 import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IItemCollection;
-import org.openjdk.jmc.common.item.IItemIterable;
-import org.openjdk.jmc.common.util.IPreferenceValueProvider;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
 import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
-import org.openjdk.jmc.flightrecorder.rules.IResult;
-import org.openjdk.jmc.flightrecorder.rules.IRule;
-import org.openjdk.jmc.flightrecorder.rules.RuleRegistry;
-import org.openjdk.jmc.flightrecorder.rules.Severity;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unchecked")
 @Slf4j
 public class JFRAnalyzerImpl implements JFRAnalyzer {
 
+    /**
+     * Option of the number of workers loading chunks and running sharded extractors, the number of available
+     * processors by default. It is the number of chunks read ahead and of extractor shards, but workers of all
+     * analyses run in a pool shared by them whose size is the number of available processors, see workerExecutor.
+     * So the tasks of an analysis running at the same time are capped at the core count whatever the option is.
+     */
+    public static final String OPTION_PARALLEL_WORKERS = "parallel_workers";
+
+    // "true" to also build thread timelines, which are not in DimensionBuilder.ALL
+    public static final String OPTION_THREAD_TIMELINE = "thread_timeline";
+
+    // "true" to also build allocation pressure and leak candidates, which are not in DimensionBuilder.ALL
+    public static final String OPTION_ALLOCATION_PRESSURE = "allocation_pressure";
+
+    private static final int WORKER_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static volatile Executor WORKER_EXECUTOR;
+
+    // analyzers of baseline recordings, shared by analyzers so that a baseline is only loaded once and its trees
+    // are cached by its own analyzer
+    private static final Cache<FileKey, JFRAnalyzerImpl> BASELINES = Caffeine.newBuilder()
+                                                                             .maximumSize(8)
+                                                                             .softValues()
+                                                                             .build();
+
+    private static final Cache<FileKey, RuleEvaluation> RULE_EVALUATIONS = Caffeine.newBuilder()
+                                                                           .maximumSize(32)
+                                                                           .softValues()
+                                                                           .build();
+
     private final ProgressListener listener;
     private final JFRAnalysisContext context;
 
+    private final Cache<ProfileDimension, DimensionStacks> dimensionStacks = Caffeine.newBuilder()
+                                                                             .maximumSize(32)
+                                                                             .softValues()
+                                                                             .build();
+
+    private final Cache<StackTreeKey, StackTree> stackTrees = Caffeine.newBuilder()
+                                                                      .maximumSize(32)
+                                                                      .softValues()
+                                                                      .build();
+
+    private final Cache<StackTreeKey, MethodProfile> methodProfiles = Caffeine.newBuilder()
+                                                                              .maximumSize(32)
+                                                                              .softValues()
+                                                                              .build();
+
     @Getter
     private final AnalysisResult result;
 
     public JFRAnalyzerImpl(Path path, Map<String, String> options, ProgressListener listener) {
-        this(path, DimensionBuilder.ALL, options, listener);
+        this(path, dimensions(options), options, listener);
     }
 
     public JFRAnalyzerImpl(Path path, int dimension, Map<String, String> options, ProgressListener listener) {
-        AnalysisRequest request = new AnalysisRequest(path, dimension);
+        this(new AnalysisRequest(parallelWorkers(options), path, dimension), listener);
+    }
+
+    private static int dimensions(Map<String, String> options) {
+        int dimensions = DimensionBuilder.ALL;
+        if (options != null && Boolean.parseBoolean(options.get(OPTION_THREAD_TIMELINE))) {
+            dimensions |= DimensionBuilder.THREAD_TIMELINE;
+        }
+        if (options != null && Boolean.parseBoolean(options.get(OPTION_ALLOCATION_PRESSURE))) {
+            dimensions |= DimensionBuilder.ALLOCATION_PRESSURE;
+        }
+        return dimensions;
+    }
+
+    private static int parallelWorkers(Map<String, String> options) {
+        String value = options != null ? options.get(OPTION_PARALLEL_WORKERS) : null;
+        if (value == null || value.isBlank()) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        int workers = Integer.parseInt(value.trim());
+        Validate.isTrue(workers > 0, "Illegal " + OPTION_PARALLEL_WORKERS + ": " + value);
+        return workers;
+    }
+
+    public JFRAnalyzerImpl(AnalysisRequest request, ProgressListener listener) {
+        this(request, null, listener);
+    }
+
+    private JFRAnalyzerImpl(AnalysisRequest request, AnalysisResult persisted, ProgressListener listener) {
         this.listener = listener;
         this.context = new JFRAnalysisContext(request);
+        if (persisted != null) {
+            this.result = persisted;
+            return;
+        }
         try {
             this.result = this.execute(request);
         } catch (RuntimeException t) {
@@ -74,59 +171,334 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
         }
     }
 
+    /**
+     * Build an analyzer of all dimensions, reusing the result persisted next to the recording by an earlier
+     * analysis if it is still valid, and persisting the result otherwise.
+     */
+    public static JFRAnalyzerImpl build(Path path, Map<String, String> options, ProgressListener listener) {
+        AnalysisRequest request = new AnalysisRequest(parallelWorkers(options), path, dimensions(options));
+        listener.beginTask("Deserializing analysis result", 1);
+        AnalysisResult persisted = AnalysisResultSerDes.load(path, request.getDimensions());
+        listener.worked(1);
+        if (persisted != null) {
+            return new JFRAnalyzerImpl(request, persisted, listener);
+        }
+
+        listener.reset();
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(request, null, listener);
+        AnalysisResultSerDes.save(path, request.getDimensions(), analyzer.result);
+        return analyzer;
+    }
+
     @Override
     public FlameGraph getFlameGraph(String dimension, boolean include, List<String> taskSet) {
-        return createFlameGraph(ProfileDimension.of(dimension), result, include, taskSet);
+        return createFlameGraph(ProfileDimension.of(dimension), include, taskSet, null).toFlameGraph();
+    }
+
+    @Override
+    public CompactFlameGraph getCompactFlameGraph(String dimension, boolean include, List<String> taskSet) {
+        return createFlameGraph(ProfileDimension.of(dimension), include, taskSet, null);
+    }
+
+    /*
+     * Served from the samples of time buckets indexed during analysis. Events are selected by start time, and
+     * buckets at both ends of the range are clipped to the samples in it.
+     */
+    @Override
+    public FlameGraph getTimeRangeFlameGraph(String dimension, long startTime, long endTime, boolean include,
+                                             List<String> taskSet) {
+        return createFlameGraph(timeIndexedDimension(dimension), include, taskSet,
+                                task -> task.samplesBetween(startTime, endTime)).toFlameGraph();
+    }
+
+    @Override
+    public DiffFlameGraph getDiffFlameGraph(Path baseline, String dimension, boolean include, List<String> taskSet) {
+        ProfileDimension profileDimension = ProfileDimension.of(dimension);
+        StackTree target = stackTree(profileDimension, include, taskSet);
+        JFRAnalyzerImpl baselineAnalyzer;
+        try {
+            // loaded from the persisted result if the baseline has been analyzed before
+            baselineAnalyzer = BASELINES.get(FileKey.of(baseline), key -> build(
+                    baseline, Map.of(OPTION_PARALLEL_WORKERS, String.valueOf(context.getRequest().getParallelWorkers())),
+                    ProgressListener.NoOpProgressListener));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StackTree base = baselineAnalyzer.stackTree(profileDimension, include, taskSet);
+        return diff(base, target);
+    }
+
+    @Override
+    public DiffFlameGraph getTimeRangeDiffFlameGraph(String dimension, long baselineStartTime, long baselineEndTime,
+                                                     long startTime, long endTime, boolean include,
+                                                     List<String> taskSet) {
+        ProfileDimension profileDimension = timeIndexedDimension(dimension);
+        StackTree base = stackTrees.get(
+                new StackTreeKey(profileDimension, baselineStartTime, baselineEndTime, include, taskSet),
+                key -> collectSamples(profileDimension, include, taskSet,
+                                      task -> task.samplesBetween(baselineStartTime, baselineEndTime)).buildTree());
+        StackTree target = stackTrees.get(
+                new StackTreeKey(profileDimension, startTime, endTime, include, taskSet),
+                key -> collectSamples(profileDimension, include, taskSet,
+                                      task -> task.samplesBetween(startTime, endTime)).buildTree());
+        return diff(base, target);
+    }
+
+    // only samples of cpu are indexed by time, see CPUTimeExtractor and CPUSampleExtractor
+    private static ProfileDimension timeIndexedDimension(String dimension) {
+        ProfileDimension profileDimension = ProfileDimension.of(dimension);
+        Validate.isTrue(profileDimension == ProfileDimension.CPU || profileDimension == ProfileDimension.CPU_SAMPLE,
+                        "No time range flame graph of %s", dimension);
+        return profileDimension;
+    }
+
+    @Override
+    public PageView<HotMethod> getHotMethods(String dimension, boolean bySelf, boolean include, List<String> taskSet,
+                                             PagingRequest paging) {
+        return methodProfile(ProfileDimension.of(dimension), include, taskSet).hotMethods(bySelf, paging);
+    }
+
+    @Override
+    public Butterfly getButterfly(String dimension, String method, boolean include, List<String> taskSet,
+                                  PagingRequest paging) {
+        return methodProfile(ProfileDimension.of(dimension), include, taskSet).butterfly(method, paging);
+    }
+
+    /*
+     * Times of the range are in epoch milliseconds, and each timeline returned has at most one interval per
+     * pixel of the range.
+     */
+    @Override
+    public PageView<ThreadTimeline> getThreadTimelines(long startTime, long endTime, int pixels,
+                                                       PagingRequest paging) {
+        List<ThreadTimeline> timelines = result.getThreadTimelines();
+        if (timelines == null) {
+            return PageView.empty();
+        }
+        long from = startTime * 1000 * 1000;
+        long to = endTime * 1000 * 1000;
+        return PageViewBuilder.build(timelines, paging,
+                                     timeline -> TimelineDownsampler.downsample(timeline, from, to, pixels));
+    }
+
+    /*
+     * Series of classes and threads are limited to the top ones by allocated bytes.
+     */
+    @Override
+    public AllocationPressure getAllocationPressure(int top) {
+        AllocationPressure pressure = result.getAllocationPressure();
+        if (pressure == null) {
+            return null;
+        }
+        AllocationPressure view = new AllocationPressure();
+        view.setStartTime(pressure.getStartTime());
+        view.setBucketMillis(pressure.getBucketMillis());
+        view.setInNewTLAB(pressure.getInNewTLAB());
+        view.setOutsideTLAB(pressure.getOutsideTLAB());
+        view.setClasses(pressure.getClasses().subList(0, Math.min(top, pressure.getClasses().size())));
+        view.setThreads(pressure.getThreads().subList(0, Math.min(top, pressure.getThreads().size())));
+        view.setGcPauses(pressure.getGcPauses());
+        view.setOldObjects(pressure.getOldObjects());
+        return view;
+    }
+
+    @Override
+    public List<LeakCandidate> getLeakCandidates() {
+        AllocationPressure pressure = result.getAllocationPressure();
+        if (pressure == null) {
+            return Collections.emptyList();
+        }
+        Map<String, LeakCandidate> candidates = new HashMap<>();
+        for (OldObject object : pressure.getOldObjects()) {
+            LeakCandidate candidate = candidates.computeIfAbsent(object.getClassName(), name -> {
+                LeakCandidate c = new LeakCandidate();
+                c.setClassName(name);
+                return c;
+            });
+            // the sum of ages until averaged below
+            candidate.setAverageAge(candidate.getAverageAge() + object.getAge());
+            candidate.setMaxAge(Math.max(candidate.getMaxAge(), object.getAge()));
+            candidate.setCount(candidate.getCount() + 1);
+        }
+        List<LeakCandidate> list = new ArrayList<>(candidates.values());
+        list.forEach(c -> c.setAverageAge(c.getAverageAge() / c.getCount()));
+        list.sort(Comparator.comparingInt(LeakCandidate::getCount).thenComparingLong(LeakCandidate::getMaxAge)
+                            .reversed());
+        return list;
+    }
+
+    private StackTree stackTree(ProfileDimension dimension, boolean include, List<String> taskSet) {
+        return stackTrees.get(new StackTreeKey(dimension, -1, -1, include, taskSet),
+                              key -> collectSamples(dimension, include, taskSet, null).buildTree());
+    }
+
+    private MethodProfile methodProfile(ProfileDimension dimension, boolean include, List<String> taskSet) {
+        return methodProfiles.get(new StackTreeKey(dimension, -1, -1, include, taskSet), key -> {
+            StackTree tree = stackTree(dimension, include, taskSet);
+            return new MethodProfile(tree.trie, tree.values, tree.frameMethods, tree.methods);
+        });
+    }
+
+    /*
+     * Align the trees by frames from the root, a node of either tree being mapped to the node of the merged tree
+     * with the same frames, and compare values normalized by totals.
+     */
+    private static DiffFlameGraph diff(StackTree baseline, StackTree target) {
+        StackTrie merged = new StackTrie();
+        int[] baselineNodes = align(baseline, merged);
+        int[] targetNodes = align(target, merged);
+
+        int nodeCount = merged.nodeCount();
+        long[] baselineValues = new long[nodeCount];
+        long[] targetValues = new long[nodeCount];
+        for (int node = 0; node < baselineNodes.length; node++) {
+            baselineValues[baselineNodes[node]] += baseline.values[node];
+        }
+        for (int node = 0; node < targetNodes.length; node++) {
+            targetValues[targetNodes[node]] += target.values[node];
+        }
+
+        int[] parents = new int[nodeCount];
+        int[] frames = new int[nodeCount];
+        double[] deltas = new double[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            parents[node] = merged.parent(node);
+            frames[node] = merged.frameOf(node);
+            deltas[node] = ratio(targetValues[node], target.total) - ratio(baselineValues[node], baseline.total);
+        }
+
+        DiffFlameGraph fg = new DiffFlameGraph();
+        fg.setSymbols(merged.frames());
+        fg.setBaselineTotal(baseline.total);
+        fg.setTargetTotal(target.total);
+        fg.setParents(parents);
+        fg.setFrames(frames);
+        fg.setBaselineValues(baselineValues);
+        fg.setTargetValues(targetValues);
+        fg.setDeltas(deltas);
+        return fg;
+    }
+
+    private static int[] align(StackTree tree, StackTrie merged) {
+        int[] nodes = new int[tree.trie.nodeCount()];
+        nodes[StackTrie.ROOT] = StackTrie.ROOT;
+        // parents are always created before their children
+        for (int node = 1; node < nodes.length; node++) {
+            String frame = tree.trie.frame(tree.trie.frameOf(node));
+            nodes[node] = merged.child(nodes[tree.trie.parent(node)], merged.frameId(frame));
+        }
+        return nodes;
+    }
+
+    private static double ratio(long value, long total) {
+        return total == 0 ? 0 : (double) value / total;
+    }
+
+    /*
+     * Rules are only evaluated when their findings are first asked for, on events loaded again from the
+     * recording, so that other apis are not delayed by them. Findings are returned as they are available, and
+     * the evaluation is shared by analyzers of the same file.
+     */
+    @Override
+    public Problems getProblems() {
+        if (result.getProblems() != null) {
+            Problems problems = new Problems();
+            problems.setProblems(result.getProblems());
+            problems.setFinished(true);
+            return problems;
+        }
+        Path input = context.getRequest().getInput();
+        if (input == null) {
+            throw new IllegalStateException("Rules can only be evaluated on a recording file");
+        }
+        try {
+            return RULE_EVALUATIONS.get(FileKey.of(input), key -> new RuleEvaluation(() -> {
+                try (InputStream in = IOToolkit.openUncompressedStream(input.toFile())) {
+                    return JfrLoaderToolkit.loadEvents(in);
+                }
+            })).start().snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
     public Metadata metadata() {
         Metadata basic = new Metadata();
         basic.setPerfDimensions(PerfDimensionFactory.PERF_DIMENSIONS);
+        basic.setStartTime(result.getStartTime());
+        basic.setEndTime(result.getEndTime());
         return basic;
     }
 
-    private FlameGraph createFlameGraph(ProfileDimension dimension, AnalysisResult result, boolean include,
-                                        List<String> taskSet) {
-        List<Object[]> os = new ArrayList<>();
-        Map<String, Long> names = new HashMap<>();
-        SymbolMap symbolTable = new SymbolMap();
+    /*
+     * Samples of a task are selected by samplesOf if it is not null, otherwise all samples are used.
+     */
+    private CompactFlameGraph createFlameGraph(ProfileDimension dimension, boolean include, List<String> taskSet,
+                                               Function<TaskResultBase, Map<StackTrace, Long>> samplesOf) {
+        return collectSamples(dimension, include, taskSet, samplesOf).build();
+    }
+
+    private FlameGraphBuilder collectSamples(ProfileDimension dimension, boolean include, List<String> taskSet,
+                                             Function<TaskResultBase, Map<StackTrace, Long>> samplesOf) {
+        FlameGraphBuilder builder = new FlameGraphBuilder(dimensionStacks.get(dimension, this::internStacks));
         if (dimension == ProfileDimension.CPU) {
             DimensionResult<TaskCPUTime> cpuTime = result.getCpuTime();
-            generateCpuTime(cpuTime, os, names, symbolTable, include, taskSet);
+            generateCpuTime(cpuTime, builder, include, taskSet, samplesOf);
         } else {
-            DimensionResult<? extends TaskResultBase> DimensionResult = switch (dimension) {
-                case CPU_SAMPLE -> result.getCpuSample();
-                case WALL_CLOCK -> result.getWallClock();
-                case NATIVE_EXECUTION_SAMPLES -> result.getNativeExecutionSamples();
-                case ALLOC -> result.getAllocations();
-                case MEM -> result.getAllocatedMemory();
-                case FILE_IO_TIME -> result.getFileIOTime();
-                case FILE_READ_SIZE -> result.getFileReadSize();
-                case FILE_WRITE_SIZE -> result.getFileWriteSize();
-                case SOCKET_READ_TIME -> result.getSocketReadTime();
-                case SOCKET_READ_SIZE -> result.getSocketReadSize();
-                case SOCKET_WRITE_TIME -> result.getSocketWriteTime();
-                case SOCKET_WRITE_SIZE -> result.getSocketWriteSize();
-                case SYNCHRONIZATION -> result.getSynchronization();
-                case THREAD_PARK -> result.getThreadPark();
-                case CLASS_LOAD_COUNT -> result.getClassLoadCount();
-                case CLASS_LOAD_WALL_TIME -> result.getClassLoadWallTime();
-                case THREAD_SLEEP -> result.getThreadSleepTime();
-                default -> throw new RuntimeException("should not reach here");
-            };
-            generate(DimensionResult, os, names, symbolTable, include, taskSet);
-        }
-
-        FlameGraph fg = new FlameGraph();
-        fg.setData(os.toArray(new Object[0][]));
-        fg.setThreadSplit(names);
-        fg.setSymbolTable(symbolTable.getReverseMap());
-        return fg;
+            generate(dimensionResult(dimension), builder, include, taskSet, samplesOf);
+        }
+        return builder;
     }
 
-    private void generate(DimensionResult<? extends TaskResultBase> result, List<Object[]> os, Map<String, Long> names,
-                          SymbolMap map, boolean include, List<String> taskSet) {
+    private DimensionResult<? extends TaskResultBase> dimensionResult(ProfileDimension dimension) {
+        return switch (dimension) {
+            case CPU -> result.getCpuTime();
+            case CPU_SAMPLE -> result.getCpuSample();
+            case WALL_CLOCK -> result.getWallClock();
+            case NATIVE_EXECUTION_SAMPLES -> result.getNativeExecutionSamples();
+            case ALLOC -> result.getAllocations();
+            case MEM -> result.getAllocatedMemory();
+            case FILE_IO_TIME -> result.getFileIOTime();
+            case FILE_READ_SIZE -> result.getFileReadSize();
+            case FILE_WRITE_SIZE -> result.getFileWriteSize();
+            case SOCKET_READ_TIME -> result.getSocketReadTime();
+            case SOCKET_READ_SIZE -> result.getSocketReadSize();
+            case SOCKET_WRITE_TIME -> result.getSocketWriteTime();
+            case SOCKET_WRITE_SIZE -> result.getSocketWriteSize();
+            case SYNCHRONIZATION -> result.getSynchronization();
+            case THREAD_PARK -> result.getThreadPark();
+            case CLASS_LOAD_COUNT -> result.getClassLoadCount();
+            case CLASS_LOAD_WALL_TIME -> result.getClassLoadWallTime();
+            case THREAD_SLEEP -> result.getThreadSleepTime();
+            default -> throw new RuntimeException("should not reach here");
+        };
+    }
+
+    /*
+     * Stacks of all tasks of the dimension, including those only indexed by time buckets, are interned once,
+     * so that flame graphs of the dimension never intern frames again.
+     */
+    private DimensionStacks internStacks(ProfileDimension dimension) {
+        DimensionStacks stacks = new DimensionStacks();
+        DimensionResult<? extends TaskResultBase> dimensionResult = dimensionResult(dimension);
+        if (dimensionResult != null) {
+            for (TaskResultBase task : dimensionResult.getList()) {
+                if (task.getSamples() != null) {
+                    task.getSamples().keySet().forEach(stacks::intern);
+                }
+                if (task.getTimeBuckets() != null) {
+                    Arrays.stream(task.getTimeBuckets().getStackTraces()).forEach(stacks::intern);
+                }
+            }
+        }
+        stacks.ranks = stacks.trie.dfsRanks();
+        return stacks;
+    }
+
+    private void generate(DimensionResult<? extends TaskResultBase> result, FlameGraphBuilder builder,
+                          boolean include, List<String> taskSet,
+                          Function<TaskResultBase, Map<StackTrace, Long>> samplesOf) {
         List<? extends TaskResultBase> list = result.getList();
         Set<String> set = null;
         if (taskSet != null) {
@@ -140,27 +512,23 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
                     continue;
                 }
             }
-            this.doTaskResult(ts, os, names, map);
+            this.doTaskResult(ts, builder, samplesOf);
         }
     }
 
-    private void doTaskResult(TaskResultBase taskResult, List<Object[]> os, Map<String, Long> names, SymbolMap map) {
-        Map<StackTrace, Long> samples = taskResult.getSamples();
+    private void doTaskResult(TaskResultBase taskResult, FlameGraphBuilder builder,
+                              Function<TaskResultBase, Map<StackTrace, Long>> samplesOf) {
+        Map<StackTrace, Long> samples = samplesOf != null ? samplesOf.apply(taskResult) : taskResult.getSamples();
+        if (samplesOf != null && samples.isEmpty()) {
+            return;
+        }
+        int task = builder.task(taskResult.getTask().getName());
         long total = 0;
-        for (StackTrace s : samples.keySet()) {
-            Frame[] frames = s.getFrames();
-            String[] fs = new String[frames.length];
-            for (int i = frames.length - 1, j = 0; i >= 0; i--, j++) {
-                fs[j] = frames[i].toString();
-            }
-            Object[] o = new Object[3];
-            o[0] = map.processSymbols(fs);
-            o[1] = samples.get(s);
-            o[2] = taskResult.getTask().getName();
-            os.add(o);
-            total += samples.get(s);
+        for (Map.Entry<StackTrace, Long> sample : samples.entrySet()) {
+            builder.add(task, sample.getKey(), sample.getValue());
+            total += sample.getValue();
         }
-        names.put(taskResult.getTask().getName(), total);
+        builder.threadSplit.put(taskResult.getTask().getName(), total);
     }
 
     private static boolean isTaskNameIn(String taskName, List<String> taskList) {
@@ -172,8 +540,8 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
         return false;
     }
 
-    private void generateCpuTime(DimensionResult<TaskCPUTime> result, List<Object[]> os,
-                                 Map<String, Long> names, SymbolMap map, boolean include, List<String> taskSet) {
+    private void generateCpuTime(DimensionResult<TaskCPUTime> result, FlameGraphBuilder builder, boolean include,
+                                 List<String> taskSet, Function<TaskResultBase, Map<StackTrace, Long>> samplesOf) {
         List<TaskCPUTime> list = result.getList();
         for (TaskCPUTime ct : list) {
             if (taskSet != null && !taskSet.isEmpty()) {
@@ -195,55 +563,198 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
                 samples.values().forEach(sampleCount::addAndGet);
                 long perSampleTime = taskTotalTime / sampleCount.get();
 
-                for (StackTrace s : samples.keySet()) {
-                    Frame[] frames = s.getFrames();
-                    String[] fs = new String[frames.length];
-                    for (int i = frames.length - 1, j = 0; i >= 0; i--, j++) {
-                        fs[j] = frames[i].toString();
+                if (samplesOf != null) {
+                    // cpu time of the range is estimated by samples in the range
+                    samples = samplesOf.apply(ct);
+                    if (samples.isEmpty()) {
+                        continue;
                     }
-                    Object[] o = new Object[3];
-                    o[0] = map.processSymbols(fs);
-                    o[1] = samples.get(s) * perSampleTime;
-                    o[2] = ct.getTask().getName();
-                    os.add(o);
+                    taskTotalTime = 0;
+                    for (long count : samples.values()) {
+                        taskTotalTime += count * perSampleTime;
+                    }
+                }
+
+                int task = builder.task(ct.getTask().getName());
+                for (Map.Entry<StackTrace, Long> sample : samples.entrySet()) {
+                    builder.add(task, sample.getKey(), sample.getValue() * perSampleTime);
                 }
 
-                names.put(ct.getTask().getName(), taskTotalTime);
+                builder.threadSplit.put(ct.getTask().getName(), taskTotalTime);
             }
         }
     }
 
-    private static class SymbolMap {
-        private final Map<String, Integer> map = new HashMap<>();
+    /*
+     * Aggregated samples of all selected tasks, values of a node including values of its callees. Frames of the
+     * tree are mapped to methods of the dimension, see DimensionStacks.
+     */
+    private record StackTree(StackTrie trie, long[] values, long total, int[] frameMethods,
+                             List<String> methods) {
+    }
+
+    private record StackTreeKey(ProfileDimension dimension, long startTime, long endTime, boolean include,
+                                List<String> taskSet) {
+    }
+
+    private record FileKey(Path path, long lastModified, long size) {
+        static FileKey of(Path path) throws IOException {
+            return new FileKey(path.toAbsolutePath(), Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+        }
+    }
 
-        String[] processSymbols(String[] fs) {
-            if (fs == null || fs.length == 0) {
-                return fs;
+    /*
+     * Stacks of a dimension interned in a prefix tree, which is never changed once built and may be read
+     * concurrently. Nodes are ordered as in a depth-first traversal by their ranks.
+     */
+    private static class DimensionStacks {
+        private final StackTrie trie = new StackTrie();
+        private final Map<StackTrace, Integer> nodes = new HashMap<>();
+        private int[] ranks;
+
+        // method of each frame of the trie, frames of different lines of a method having the same method
+        private final Map<String, Integer> methodIds = new HashMap<>();
+        private final List<String> methods = new ArrayList<>();
+        private int[] frameMethods = new int[64];
+
+        void intern(StackTrace stackTrace) {
+            nodes.computeIfAbsent(stackTrace, st -> {
+                Frame[] frames = st.getFrames();
+                int node = StackTrie.ROOT;
+                for (int i = frames.length - 1; i >= 0; i--) {
+                    node = trie.child(node, frameId(frames[i]));
+                }
+                return node;
+            });
+        }
+
+        private int frameId(Frame frame) {
+            int frameCount = trie.frameCount();
+            int id = trie.frameId(frame.toString());
+            if (id == frameCount) {
+                if (id == frameMethods.length) {
+                    frameMethods = Arrays.copyOf(frameMethods, id * 2);
+                }
+                frameMethods[id] = methodIds.computeIfAbsent(frame.getMethod().toString(), method -> {
+                    methods.add(method);
+                    return methods.size() - 1;
+                });
             }
+            return id;
+        }
+    }
 
-            String[] result = new String[fs.length];
+    /*
+     * A row only holds the node of its stack in the interned stacks of the dimension until the graph is
+     * encoded.
+     */
+    private static class FlameGraphBuilder {
+        private final DimensionStacks stacks;
+        private final StackTrie trie;
+        private final List<String> tasks = new ArrayList<>();
+        private final Map<String, Long> threadSplit = new HashMap<>();
+        private final List<Row> rows = new ArrayList<>();
+
+        private record Row(int task, int node, long value) {
+        }
 
-            synchronized (map) {
-                for (int i = 0; i < fs.length; i++) {
-                    String symbol = fs[i];
-                    int id;
-                    if (map.containsKey(symbol)) {
-                        id = map.get(symbol);
-                    } else {
-                        id = map.size() + 1;
-                        map.put(symbol, id);
-                    }
-                    result[i] = String.valueOf(id);
+        FlameGraphBuilder(DimensionStacks stacks) {
+            this.stacks = stacks;
+            this.trie = stacks.trie;
+        }
+
+        int task(String name) {
+            tasks.add(name);
+            return tasks.size() - 1;
+        }
+
+        void add(int task, StackTrace stackTrace, long value) {
+            rows.add(new Row(task, stacks.nodes.get(stackTrace), value));
+        }
+
+        /*
+         * Only nodes of the selected samples are copied to the tree.
+         */
+        StackTree buildTree() {
+            int nodeCount = trie.nodeCount();
+            long[] values = new long[nodeCount];
+            boolean[] selected = new boolean[nodeCount];
+            for (Row row : rows) {
+                values[row.node] += row.value;
+                selected[row.node] = true;
+            }
+            // children are always created after their parents
+            for (int node = nodeCount - 1; node > StackTrie.ROOT; node--) {
+                if (selected[node]) {
+                    values[trie.parent(node)] += values[node];
+                    selected[trie.parent(node)] = true;
                 }
             }
 
-            return result;
+            StackTrie tree = new StackTrie();
+            int[] nodes = new int[nodeCount];
+            nodes[StackTrie.ROOT] = StackTrie.ROOT;
+            for (int node = 1; node < nodeCount; node++) {
+                if (selected[node]) {
+                    String frame = trie.frame(trie.frameOf(node));
+                    nodes[node] = tree.child(nodes[trie.parent(node)], tree.frameId(frame));
+                }
+            }
+            long[] treeValues = new long[tree.nodeCount()];
+            int[] frameMethods = new int[tree.frameCount()];
+            for (int node = 0; node < nodeCount; node++) {
+                if (selected[node]) {
+                    treeValues[nodes[node]] = values[node];
+                    if (node != StackTrie.ROOT) {
+                        frameMethods[tree.frameOf(nodes[node])] = stacks.frameMethods[trie.frameOf(node)];
+                    }
+                }
+            }
+            return new StackTree(tree, treeValues, values[StackTrie.ROOT], frameMethods, stacks.methods);
         }
 
-        Map<Integer, String> getReverseMap() {
-            Map<Integer, String> reverseMap = new HashMap<>();
-            map.forEach((key, value) -> reverseMap.put(value, key));
-            return reverseMap;
+        /*
+         * Symbols are the frames of the selected samples only, numbered in the order they first show up.
+         */
+        CompactFlameGraph build() {
+            int[] ranks = stacks.ranks;
+            rows.sort((r1, r2) -> r1.task != r2.task ? Integer.compare(r1.task, r2.task)
+                                                     : Integer.compare(ranks[r1.node], ranks[r2.node]));
+            int[] taskIndexes = new int[rows.size()];
+            int[] prefixLengths = new int[rows.size()];
+            int[][] suffixes = new int[rows.size()][];
+            long[] values = new long[rows.size()];
+            int[] symbolIds = new int[trie.frameCount()];
+            Arrays.fill(symbolIds, -1);
+            List<String> symbols = new ArrayList<>();
+            int previous = StackTrie.ROOT;
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                taskIndexes[i] = row.task;
+                prefixLengths[i] = trie.commonDepth(previous, row.node);
+                int[] suffix = trie.path(row.node, prefixLengths[i]);
+                for (int j = 0; j < suffix.length; j++) {
+                    int frame = suffix[j];
+                    if (symbolIds[frame] < 0) {
+                        symbolIds[frame] = symbols.size();
+                        symbols.add(trie.frame(frame));
+                    }
+                    suffix[j] = symbolIds[frame];
+                }
+                suffixes[i] = suffix;
+                values[i] = row.value;
+                previous = row.node;
+            }
+
+            CompactFlameGraph fg = new CompactFlameGraph();
+            fg.setSymbols(symbols.toArray(new String[0]));
+            fg.setTasks(tasks.toArray(new String[0]));
+            fg.setThreadSplit(threadSplit);
+            fg.setTaskIndexes(taskIndexes);
+            fg.setPrefixLengths(prefixLengths);
+            fg.setSuffixes(suffixes);
+            fg.setValues(values);
+            return fg;
         }
     }
 
@@ -263,15 +774,9 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
         long startTime = System.currentTimeMillis();
         AnalysisResult r = new AnalysisResult();
 
-        IItemCollection collection = this.loadEvents(request);
+        List<IItemCollection> collections = this.processChunks(request, r);
 
-        this.analyzeProblemsIfNeeded(request, collection, r);
-
-        this.transformEvents(request, collection);
-
-        this.sortEvents();
-
-        this.processEvents(request, r);
+        this.analyzeProblemsIfNeeded(request, collections, r);
 
         r.setProcessingTimeMillis(System.currentTimeMillis() - startTime);
         log.info(String.format("Analysis took %d milliseconds", r.getProcessingTimeMillis()));
@@ -279,158 +784,180 @@ public class JFRAnalyzerImpl implements JFRAnalyzer {
         return r;
     }
 
-    private void processEvents(AnalysisRequest request, AnalysisResult r) throws Exception {
-        listener.subTask("Do Extractors");
-        List<RecordedEvent> events = this.context.getEvents();
-        final List<Extractor> extractors = getExtractors(request);
-
-        if (request.getParallelWorkers() > 1) {
-            CountDownLatch countDownLatch = new CountDownLatch(extractors.size());
-            ExecutorService es = Executors.newFixedThreadPool(request.getParallelWorkers());
-            extractors.forEach(item -> es.submit(() -> {
-                try {
-                    doExtractorWork(events, item, r);
-                } catch (Exception e) {
-                    log.error(e.getMessage(), e);
-                } finally {
-                    countDownLatch.countDown();
+    /*
+     * Chunks of the recording are loaded and transformed independently, by parallel workers if requested, and
+     * events of each chunk are fed to extractors in order of chunks as soon as the chunk is ready. At most one
+     * chunk per worker is read ahead, so events of the whole recording are never held in memory at the same
+     * time. Only interned symbols and aggregates of extractors are kept.
+     *
+     * Item collections of chunks are returned if problems are to be analyzed, since JMC rules need them all.
+     */
+    private List<IItemCollection> processChunks(AnalysisRequest request, AnalysisResult r) throws Exception {
+        listener.subTask("Load and Transform Events");
+        boolean keepCollections = (request.getDimensions() & ProfileDimension.PROBLEMS.getValue()) != 0;
+        List<IItemCollection> collections = new ArrayList<>();
+        int workers = Math.max(1, request.getParallelWorkers());
+        Executor executor = workers > 1 ? workerExecutor() : null;
+        Deque<Future<ChunkEvents>> loading = new ArrayDeque<>();
+        EventDispatcher dispatcher = null;
+        try (ChunkReader reader = new ChunkReader(openInput(request))) {
+            byte[] chunk = reader.next();
+            while (chunk != null || !loading.isEmpty()) {
+                while (chunk != null && loading.size() < workers) {
+                    byte[] bytes = chunk;
+                    FutureTask<ChunkEvents> future = new FutureTask<>(() -> loadChunk(bytes));
+                    if (executor != null) {
+                        executor.execute(future);
+                    } else {
+                        future.run();
+                    }
+                    loading.add(future);
+                    chunk = reader.next();
                 }
-            }));
-            countDownLatch.await();
-            es.shutdown();
-        } else {
-            extractors.forEach(item -> {
-                doExtractorWork(events, item, r);
-            });
+                ChunkEvents events = getChunkEvents(loading.poll());
+                if (keepCollections) {
+                    collections.add(events.collection);
+                }
+                if (dispatcher == null) {
+                    // extractors look up event settings when created, which are written at the beginning of
+                    // every chunk, so the first chunk must have been transformed
+                    dispatcher = new EventDispatcher(getExtractors(request), workers, executor);
+                }
+                dispatcher.dispatch(events.events);
+                updateTimeRange(events.events, r);
+            }
+
+            listener.worked(3);
+            listener.subTask("Do Extractors");
+            if (dispatcher == null) {
+                dispatcher = new EventDispatcher(getExtractors(request), 1, null);
+            }
+            dispatcher.fillResult(r);
+            listener.worked(1);
+        } finally {
+            // the pool is shared, so only tasks of this analysis are cancelled
+            for (Future<ChunkEvents> future : loading) {
+                future.cancel(true);
+            }
+            if (dispatcher != null) {
+                dispatcher.close();
+            }
         }
-        listener.worked(1);
+        return collections;
     }
 
-    private void doExtractorWork(List<RecordedEvent> events, Extractor extractor, AnalysisResult r) {
-        events.forEach(extractor::process);
-        extractor.fillResult(r);
+    /*
+     * Loading chunks and running sharded extractors are cpu bound, so the workers of all analyses share a pool of
+     * the size of available processors rather than each analysis having its own threads.
+     */
+    private static Executor workerExecutor() {
+        if (WORKER_EXECUTOR == null) {
+            synchronized (JFRAnalyzerImpl.class) {
+                if (WORKER_EXECUTOR == null) {
+                    WORKER_EXECUTOR = ExecutorFactory.newExecutor("JFR Analysis Worker", WORKER_POOL_SIZE, Integer.MAX_VALUE);
+                }
+            }
+        }
+        return WORKER_EXECUTOR;
     }
 
-    private List<Extractor> getExtractors(AnalysisRequest request) {
-        return getExtractors(request.getDimensions());
+    private static ChunkEvents getChunkEvents(Future<ChunkEvents> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
     }
 
-    private void sortEvents() {
-        listener.subTask("Sort Events");
-        this.context.getEvents().sort(Comparator.comparing(RecordedEvent::getStartTime));
-        listener.worked(1);
+    private static void updateTimeRange(List<RecordedEvent> events, AnalysisResult r) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // events are sorted by start time
+        long start = events.get(0).getStartTimeNanos() / 1000 / 1000;
+        long end = events.get(events.size() - 1).getStartTimeNanos() / 1000 / 1000;
+        r.setStartTime(r.getStartTime() < 0 ? start : Math.min(r.getStartTime(), start));
+        r.setEndTime(Math.max(r.getEndTime(), end));
     }
 
-    private void transformEvents(AnalysisRequest request, IItemCollection collection) throws Exception {
-        listener.subTask("Transform Events");
-        List<IItem> list = collection.stream().flatMap(IItemIterable::stream).collect(Collectors.toList());
+    private ChunkEvents loadChunk(byte[] chunk) throws Exception {
+        IItemCollection collection = JfrLoaderToolkit.loadEvents(new ByteArrayInputStream(chunk));
+        List<RecordedEvent> events = new ArrayList<>();
+        collection.forEach(iterable -> iterable.forEach(item -> events.add(this.parseEventItem(item))));
+        events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+        return new ChunkEvents(collection, events);
+    }
 
-        if (request.getParallelWorkers() > 1) {
-            parseEventsParallel(list, request.getParallelWorkers());
-        } else {
-            list.forEach(this::parseEventItem);
-        }
+    private record ChunkEvents(IItemCollection collection, List<RecordedEvent> events) {
+    }
 
-        listener.worked(1);
+    private List<Supplier<Extractor>> getExtractors(AnalysisRequest request) {
+        return getExtractors(request.getDimensions());
     }
 
-    private IItemCollection loadEvents(AnalysisRequest request) throws Exception {
-        try {
-            listener.subTask("Load Events");
-            if (request.getInput() != null) {
-                return JfrLoaderToolkit.loadEvents(request.getInput().toFile());
-            } else {
-                return JfrLoaderToolkit.loadEvents(request.getInputStream());
-            }
-        } finally {
-            listener.worked(1);
+    private InputStream openInput(AnalysisRequest request) throws IOException {
+        if (request.getInput() != null) {
+            return IOToolkit.openUncompressedStream(request.getInput().toFile());
+        } else {
+            return IOToolkit.openUncompressedStream(request.getInputStream());
         }
     }
 
-    private void analyzeProblemsIfNeeded(AnalysisRequest request, IItemCollection collection, AnalysisResult r) {
+    private void analyzeProblemsIfNeeded(AnalysisRequest request, List<IItemCollection> collections, AnalysisResult r) {
         listener.subTask("Analyze Problems");
         if ((request.getDimensions() & ProfileDimension.PROBLEMS.getValue()) != 0) {
-            this.analyzeProblems(collection, r);
+            this.analyzeProblems(ItemCollectionToolkit.merge(collections::stream), r);
         }
         listener.worked(1);
     }
 
-    private void parseEventsParallel(List<IItem> list, int workers) throws Exception {
-        listener.subTask("Transform Events");
-        CountDownLatch countDownLatch = new CountDownLatch(list.size());
-        ExecutorService es = Executors.newFixedThreadPool(workers);
-        list.forEach(item -> es.submit(() -> {
-            try {
-                this.parseEventItem(item);
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-            } finally {
-                countDownLatch.countDown();
-            }
-        }));
-        countDownLatch.await();
-        es.shutdown();
-        listener.worked(workers);
-    }
-
     private void analyzeProblems(IItemCollection collection, AnalysisResult r) {
-        r.setProblems(new ArrayList<>());
-        for (IRule rule : RuleRegistry.getRules()) {
-            RunnableFuture<IResult> future;
-            try {
-                future = rule.createEvaluation(collection, IPreferenceValueProvider.DEFAULT_VALUES, null);
-                future.run();
-                IResult result = future.get();
-                Severity severity = result.getSeverity();
-                if (severity == Severity.WARNING) {
-                    r.getProblems().add(new Problem(result.getSummary(), result.getSolution()));
-                }
-            } catch (Throwable t) {
-                log.error("Failed to run jmc rule {}", rule.getName());
-            }
-        }
+        r.setProblems(new RuleEvaluation(() -> collection).await());
     }
 
-    private void parseEventItem(IItem item) {
+    private RecordedEvent parseEventItem(IItem item) {
         RecordedEvent event = RecordedEvent.newInstance(item, this.context.getSymbols());
-
-        synchronized (this.context.getEvents()) {
-            this.context.addEvent(event);
-            if (event.getActiveSetting() != null) {
-                RecordedEvent.ActiveSetting activeSetting = event.getActiveSetting();
-                this.context.putEventTypeId(activeSetting.eventType(), activeSetting.eventId());
-                this.context.putActiveSetting(activeSetting, event);
-            }
+        if (event.getActiveSetting() != null) {
+            RecordedEvent.ActiveSetting activeSetting = event.getActiveSetting();
+            this.context.putEventTypeId(activeSetting.eventType(), activeSetting.eventId());
+            this.context.putActiveSetting(activeSetting, event);
         }
+        return event;
     }
 
-    private List<Extractor> getExtractors(int dimensions) {
-        List<Extractor> extractors = new ArrayList<>();
-        Map<Integer, Extractor> extractorMap = new HashMap<>() {
+    private List<Supplier<Extractor>> getExtractors(int dimensions) {
+        List<Supplier<Extractor>> extractors = new ArrayList<>();
+        Map<Integer, Supplier<Extractor>> extractorMap = new HashMap<>() {
             {
-                put(DimensionBuilder.CPU, new CPUTimeExtractor(context));
-                put(DimensionBuilder.CPU_SAMPLE, new CPUSampleExtractor(context));
-                put(DimensionBuilder.WALL_CLOCK, new WallClockExtractor(context));
-                put(DimensionBuilder.NATIVE_EXECUTION_SAMPLES, new NativeExecutionExtractor(context));
-                put(DimensionBuilder.ALLOC, new AllocationsExtractor(context));
-                put(DimensionBuilder.MEM, new AllocatedMemoryExtractor(context));
+                put(DimensionBuilder.CPU, () -> new CPUTimeExtractor(context));
+                put(DimensionBuilder.CPU_SAMPLE, () -> new CPUSampleExtractor(context));
+                put(DimensionBuilder.WALL_CLOCK, () -> new WallClockExtractor(context));
+                put(DimensionBuilder.NATIVE_EXECUTION_SAMPLES, () -> new NativeExecutionExtractor(context));
+                put(DimensionBuilder.ALLOC, () -> new AllocationsExtractor(context));
+                put(DimensionBuilder.MEM, () -> new AllocatedMemoryExtractor(context));
+
+                put(DimensionBuilder.FILE_IO_TIME, () -> new FileIOTimeExtractor(context));
+                put(DimensionBuilder.FILE_READ_SIZE, () -> new FileReadExtractor(context));
+                put(DimensionBuilder.FILE_WRITE_SIZE, () -> new FileWriteExtractor(context));
 
-                put(DimensionBuilder.FILE_IO_TIME, new FileIOTimeExtractor(context));
-                put(DimensionBuilder.FILE_READ_SIZE, new FileReadExtractor(context));
-                put(DimensionBuilder.FILE_WRITE_SIZE, new FileWriteExtractor(context));
+                put(DimensionBuilder.SOCKET_READ_TIME, () -> new SocketReadTimeExtractor(context));
+                put(DimensionBuilder.SOCKET_READ_SIZE, () -> new SocketReadSizeExtractor(context));
+                put(DimensionBuilder.SOCKET_WRITE_TIME, () -> new SocketWriteTimeExtractor(context));
+                put(DimensionBuilder.SOCKET_WRITE_SIZE, () -> new SocketWriteSizeExtractor(context));
 
-                put(DimensionBuilder.SOCKET_READ_TIME, new SocketReadTimeExtractor(context));
-                put(DimensionBuilder.SOCKET_READ_SIZE, new SocketReadSizeExtractor(context));
-                put(DimensionBuilder.SOCKET_WRITE_TIME, new SocketWriteTimeExtractor(context));
-                put(DimensionBuilder.SOCKET_WRITE_SIZE, new SocketWriteSizeExtractor(context));
+                put(DimensionBuilder.SYNCHRONIZATION, () -> new SynchronizationExtractor(context));
+                put(DimensionBuilder.THREAD_PARK, () -> new ThreadParkExtractor(context));
 
-                put(DimensionBuilder.SYNCHRONIZATION, new SynchronizationExtractor(context));
-                put(DimensionBuilder.THREAD_PARK, new ThreadParkExtractor(context));
+                put(DimensionBuilder.CLASS_LOAD_COUNT, () -> new ClassLoadCountExtractor(context));
+                put(DimensionBuilder.CLASS_LOAD_WALL_TIME, () -> new ClassLoadWallTimeExtractor(context));
 
-                put(DimensionBuilder.CLASS_LOAD_COUNT, new ClassLoadCountExtractor(context));
-                put(DimensionBuilder.CLASS_LOAD_WALL_TIME, new ClassLoadWallTimeExtractor(context));
+                put(DimensionBuilder.THREAD_SLEEP, () -> new ThreadSleepTimeExtractor(context));
 
-                put(DimensionBuilder.THREAD_SLEEP, new ThreadSleepTimeExtractor(context));
+                put(DimensionBuilder.THREAD_TIMELINE, () -> new ThreadTimelineExtractor(context));
+                put(DimensionBuilder.ALLOCATION_PRESSURE, () -> new AllocationPressureExtractor(context));
             }
         };
 
@@ -0,0 +1,155 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.common.util.ExecutorFactory;
+import org.eclipse.jifa.jfr.model.Problem;
+import org.eclipse.jifa.jfr.vo.Problems;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.util.IPreferenceValueProvider;
+import org.openjdk.jmc.flightrecorder.rules.IResult;
+import org.openjdk.jmc.flightrecorder.rules.IRule;
+import org.openjdk.jmc.flightrecorder.rules.RuleRegistry;
+import org.openjdk.jmc.flightrecorder.rules.Severity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluate JMC rules on a recording. Rules are evaluated concurrently by a pool shared by all recordings, and
+ * findings can be read while the evaluation is still in progress.
+ */
+@Slf4j
+class RuleEvaluation {
+    private static final int POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static volatile Executor EXECUTOR;
+
+    private final Callable<IItemCollection> loader;
+
+    private final List<IRule> rules = new ArrayList<>(RuleRegistry.getRules());
+
+    // indexed by rule, so that findings are in the order of rules whatever the order of completion is
+    private final Problem[] problems = new Problem[rules.size()];
+
+    private final AtomicInteger evaluated = new AtomicInteger();
+
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+    private volatile String error;
+
+    private boolean started;
+
+    RuleEvaluation(Callable<IItemCollection> loader) {
+        this.loader = loader;
+    }
+
+    private static Executor executor() {
+        if (EXECUTOR == null) {
+            synchronized (RuleEvaluation.class) {
+                if (EXECUTOR == null) {
+                    EXECUTOR = ExecutorFactory.newExecutor("JFR Rule Evaluation", POOL_SIZE, Integer.MAX_VALUE);
+                }
+            }
+        }
+        return EXECUTOR;
+    }
+
+    /**
+     * Start the evaluation if it is not started yet
+     */
+    synchronized RuleEvaluation start() {
+        if (!started) {
+            started = true;
+            executor().execute(this::load);
+        }
+        return this;
+    }
+
+    private void load() {
+        IItemCollection collection;
+        try {
+            collection = loader.call();
+        } catch (Throwable t) {
+            log.error("Failed to load events for jmc rules", t);
+            error = t.getMessage() != null ? t.getMessage() : t.getClass().getName();
+            finished.complete(null);
+            return;
+        }
+        if (rules.isEmpty()) {
+            finished.complete(null);
+            return;
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            int index = i;
+            executor().execute(() -> evaluate(collection, index));
+        }
+    }
+
+    private void evaluate(IItemCollection collection, int index) {
+        IRule rule = rules.get(index);
+        try {
+            RunnableFuture<IResult> future = rule.createEvaluation(collection, IPreferenceValueProvider.DEFAULT_VALUES, null);
+            future.run();
+            IResult result = future.get();
+            if (result.getSeverity() == Severity.WARNING) {
+                synchronized (problems) {
+                    problems[index] = new Problem(result.getSummary(), result.getSolution());
+                }
+            }
+        } catch (Throwable t) {
+            log.error("Failed to run jmc rule {}", rule.getName());
+        } finally {
+            if (evaluated.incrementAndGet() == rules.size()) {
+                finished.complete(null);
+            }
+        }
+    }
+
+    /**
+     * @return findings so far
+     */
+    Problems snapshot() {
+        Problems result = new Problems();
+        List<Problem> list = new ArrayList<>();
+        synchronized (problems) {
+            for (Problem problem : problems) {
+                if (problem != null) {
+                    list.add(problem);
+                }
+            }
+        }
+        result.setProblems(list);
+        result.setEvaluatedRules(evaluated.get());
+        result.setTotalRules(rules.size());
+        result.setFinished(finished.isDone());
+        result.setError(error);
+        return result;
+    }
+
+    /**
+     * @return all findings, waiting for the evaluation to finish
+     */
+    List<Problem> await() {
+        start();
+        finished.join();
+        return snapshot().getProblems();
+    }
+}
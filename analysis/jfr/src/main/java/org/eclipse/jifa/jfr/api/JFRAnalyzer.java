@@ -13,12 +13,39 @@
 
 package org.eclipse.jifa.jfr.api;
 
+import org.eclipse.jifa.analysis.annotation.ApiParameterMeta;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.jfr.model.AllocationPressure;
+import org.eclipse.jifa.jfr.model.ThreadTimeline;
+import org.eclipse.jifa.jfr.vo.Butterfly;
+import org.eclipse.jifa.jfr.vo.HotMethod;
+import org.eclipse.jifa.jfr.vo.LeakCandidate;
 import org.eclipse.jifa.jfr.vo.Metadata;
+import org.eclipse.jifa.jfr.vo.Problems;
+import org.eclipse.jifa.jfr.vo.CompactFlameGraph;
+import org.eclipse.jifa.jfr.vo.DiffFlameGraph;
 import org.eclipse.jifa.jfr.vo.FlameGraph;
 
+import java.nio.file.Path;
 import java.util.List;
 
 public interface JFRAnalyzer {
     Metadata metadata();
+    Problems getProblems();
     FlameGraph getFlameGraph(String dimension, boolean include, List<String> taskSet);
+    CompactFlameGraph getCompactFlameGraph(String dimension, boolean include, List<String> taskSet);
+    FlameGraph getTimeRangeFlameGraph(String dimension, long startTime, long endTime, boolean include,
+                                      List<String> taskSet);
+    DiffFlameGraph getDiffFlameGraph(@ApiParameterMeta(comparisonTargetPath = true) Path baseline, String dimension,
+                                     boolean include, List<String> taskSet);
+    DiffFlameGraph getTimeRangeDiffFlameGraph(String dimension, long baselineStartTime, long baselineEndTime,
+                                              long startTime, long endTime, boolean include, List<String> taskSet);
+    PageView<HotMethod> getHotMethods(String dimension, boolean bySelf, boolean include, List<String> taskSet,
+                                      PagingRequest paging);
+    Butterfly getButterfly(String dimension, String method, boolean include, List<String> taskSet,
+                           PagingRequest paging);
+    PageView<ThreadTimeline> getThreadTimelines(long startTime, long endTime, int pixels, PagingRequest paging);
+    AllocationPressure getAllocationPressure(int top);
+    List<LeakCandidate> getLeakCandidates();
 }
@@ -50,6 +50,8 @@ public abstract class EventConstant {
 
     public static String THREAD_SLEEP = "jdk.ThreadSleep";
 
+    public static String OLD_OBJECT_SAMPLE = "jdk.OldObjectSample";
+
     public static String PERIOD = "period";
 
     public static String INTERVAL = "interval";
@@ -39,6 +39,10 @@ public enum ProfileDimension {
 
     THREAD_SLEEP(1 << 17, "Thread Sleep Time"),
 
+    THREAD_TIMELINE(1 << 18, "Thread Timeline"),
+
+    ALLOCATION_PRESSURE(1 << 19, "Allocation Pressure"),
+
     PROBLEMS(1 << 20, "Problem");
 
     @Getter
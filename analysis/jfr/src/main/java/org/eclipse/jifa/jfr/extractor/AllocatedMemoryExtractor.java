@@ -21,10 +21,7 @@ import org.eclipse.jifa.jfr.model.Task;
 import org.eclipse.jifa.jfr.model.TaskAllocatedMemory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class AllocatedMemoryExtractor extends AllocationsExtractor {
     public AllocatedMemoryExtractor(JFRAnalysisContext context) {
@@ -59,13 +56,10 @@ public class AllocatedMemoryExtractor extends AllocationsExtractor {
         }
 
         AllocationsExtractor.AllocTaskData allocThreadData = getThreadData(event.getThread());
-        if (allocThreadData.getSamples() == null) {
-            allocThreadData.setSamples(new HashMap<>());
-        }
 
         long eventTotal = event.getLong(fieldName);
 
-        allocThreadData.getSamples().compute(stackTrace, (k, temp) -> temp == null ? eventTotal : temp + eventTotal);
+        allocThreadData.addSample(stackTrace, eventTotal);
         allocThreadData.allocatedMemory += eventTotal;
     }
 
@@ -85,12 +79,7 @@ public class AllocatedMemoryExtractor extends AllocationsExtractor {
 
             if (data.getSamples() != null) {
                 taskAllocatedMemory.setAllocatedMemory(data.allocatedMemory);
-                taskAllocatedMemory.setSamples(data.getSamples().entrySet().stream().collect(
-                        Collectors.toMap(
-                                e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                                Map.Entry::getValue,
-                                Long::sum)
-                ));
+                fillSamples(data, taskAllocatedMemory);
             }
 
             taskAllocatedMemoryList.add(taskAllocatedMemory);
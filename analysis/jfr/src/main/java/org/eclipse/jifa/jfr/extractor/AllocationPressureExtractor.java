@@ -0,0 +1,260 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.extractor;
+
+import org.eclipse.jifa.jfr.common.EventConstant;
+import org.eclipse.jifa.jfr.model.AllocationPressure;
+import org.eclipse.jifa.jfr.model.AllocationSeries;
+import org.eclipse.jifa.jfr.model.AnalysisResult;
+import org.eclipse.jifa.jfr.model.GCPause;
+import org.eclipse.jifa.jfr.model.OldObject;
+import org.eclipse.jifa.jfr.model.TaskResultBase;
+import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
+import org.eclipse.jifa.jfr.model.jfr.RecordedThread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.jifa.jfr.common.EventConstant.OBJECT_ALLOCATION_SAMPLE;
+
+/**
+ * Allocated bytes over time per class and per thread, and the split of allocations in new TLABs and outside TLABs,
+ * collected with GC pauses and old object samples in the same pass as the other dimensions. Like
+ * AllocatedMemoryExtractor, rates are taken from allocation samples if they are enabled, while the TLAB split is
+ * always taken from TLAB events.
+ */
+public class AllocationPressureExtractor extends ThreadShardedExtractor {
+    protected static final List<String> INTERESTED = Collections.unmodifiableList(new ArrayList<>() {
+        {
+            add(EventConstant.OBJECT_ALLOCATION_IN_NEW_TLAB);
+            add(EventConstant.OBJECT_ALLOCATION_OUTSIDE_TLAB);
+            add(OBJECT_ALLOCATION_SAMPLE);
+            add(EventConstant.GARBAGE_COLLECTION);
+            add(EventConstant.OLD_OBJECT_SAMPLE);
+        }
+    });
+
+    private static final String UNKNOWN_CLASS = "<unknown>";
+
+    private boolean useObjectAllocationSample;
+
+    private final Map<String, SeriesData> classes = new HashMap<>();
+    private final Map<Long, SeriesData> threads = new HashMap<>();
+    private final List<GCPause> gcPauses = new ArrayList<>();
+    private final List<OldObject> oldObjects = new ArrayList<>();
+    private long inNewTLAB;
+    private long outsideTLAB;
+
+    public AllocationPressureExtractor(JFRAnalysisContext context) {
+        super(context, INTERESTED);
+        try {
+            this.useObjectAllocationSample = this.context.getActiveSettingBool(OBJECT_ALLOCATION_SAMPLE, "enabled");
+        } catch (Exception e) {
+            this.useObjectAllocationSample = false;
+        }
+    }
+
+    /*
+     * Buckets are kept in ascending order. Events of a thread arrive in order of time, so a value is almost
+     * always added to the last bucket or appended.
+     */
+    private static class SeriesData {
+        private final String name;
+        private long total;
+        private long inNewTLAB;
+        private long outsideTLAB;
+        private long[] buckets = new long[8];
+        private long[] values = new long[8];
+        private int size;
+
+        SeriesData(String name) {
+            this.name = name;
+        }
+
+        void add(long bucket, long value) {
+            total += value;
+            if (size > 0 && buckets[size - 1] == bucket) {
+                values[size - 1] += value;
+                return;
+            }
+            int index = size == 0 || buckets[size - 1] < bucket ? size : Arrays.binarySearch(buckets, 0, size, bucket);
+            if (index >= 0 && index < size) {
+                values[index] += value;
+                return;
+            }
+            index = index < 0 ? -index - 1 : index;
+            if (size == buckets.length) {
+                buckets = Arrays.copyOf(buckets, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(buckets, index, buckets, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            buckets[index] = bucket;
+            values[index] = value;
+            size++;
+        }
+
+        void merge(SeriesData other) {
+            // the total is counted by add
+            for (int i = 0; i < other.size; i++) {
+                add(other.buckets[i], other.values[i]);
+            }
+            inNewTLAB += other.inNewTLAB;
+            outsideTLAB += other.outsideTLAB;
+        }
+
+        AllocationSeries build(long startBucket) {
+            AllocationSeries series = new AllocationSeries();
+            series.setName(name);
+            series.setTotal(total);
+            series.setInNewTLAB(inNewTLAB);
+            series.setOutsideTLAB(outsideTLAB);
+            int[] offsets = new int[size];
+            for (int i = 0; i < size; i++) {
+                offsets[i] = (int) ((buckets[i] - startBucket) / TaskResultBase.BUCKET_MILLIS);
+            }
+            series.setBuckets(offsets);
+            series.setValues(Arrays.copyOf(values, size));
+            return series;
+        }
+    }
+
+    // threads are only in one of the instances, while classes are allocated by several threads
+    @Override
+    void merge(ThreadShardedExtractor other) {
+        AllocationPressureExtractor o = (AllocationPressureExtractor) other;
+        o.classes.forEach((name, series) -> {
+            SeriesData mine = classes.putIfAbsent(name, series);
+            if (mine != null) {
+                mine.merge(series);
+            }
+        });
+        threads.putAll(o.threads);
+        gcPauses.addAll(o.gcPauses);
+        oldObjects.addAll(o.oldObjects);
+        inNewTLAB += o.inNewTLAB;
+        outsideTLAB += o.outsideTLAB;
+    }
+
+    @Override
+    void visitObjectAllocationInNewTLAB(RecordedEvent event) {
+        long size = event.getLong("tlabSize");
+        inNewTLAB += size;
+        visitAllocation(event, size, !useObjectAllocationSample).forEach(series -> series.inNewTLAB += size);
+    }
+
+    @Override
+    void visitObjectAllocationOutsideTLAB(RecordedEvent event) {
+        long size = event.getLong("allocationSize");
+        outsideTLAB += size;
+        visitAllocation(event, size, !useObjectAllocationSample).forEach(series -> series.outsideTLAB += size);
+    }
+
+    @Override
+    void visitObjectAllocationSample(RecordedEvent event) {
+        visitAllocation(event, event.getLong("weight"), true);
+    }
+
+    private List<SeriesData> visitAllocation(RecordedEvent event, long size, boolean countRate) {
+        String className = event.getClassName("objectClass");
+        SeriesData clazz = classes.computeIfAbsent(className != null ? className : UNKNOWN_CLASS, SeriesData::new);
+        RecordedThread thread = event.getThread();
+        SeriesData task = thread == null ? null : threads.computeIfAbsent(
+                thread.getJavaThreadId(), id -> new SeriesData(context.getThread(thread).getName()));
+        if (countRate) {
+            long bucket = TaskResultBase.bucketOf(event.getStartTimeNanos() / 1000 / 1000);
+            clazz.add(bucket, size);
+            if (task != null) {
+                task.add(bucket, size);
+            }
+        }
+        return task == null ? List.of(clazz) : List.of(clazz, task);
+    }
+
+    @Override
+    void visitGarbageCollection(RecordedEvent event) {
+        GCPause pause = new GCPause();
+        pause.setName(event.getString("name"));
+        pause.setCause(event.getString("cause"));
+        pause.setStartTime(event.getStartTimeNanos() / 1000 / 1000);
+        pause.setDuration(event.getDurationNano());
+        long sumOfPauses = event.getNanos("sumOfPauses");
+        pause.setSumOfPauses(sumOfPauses < 0 ? pause.getDuration() : sumOfPauses);
+        gcPauses.add(pause);
+    }
+
+    @Override
+    void visitOldObjectSample(RecordedEvent event) {
+        long allocationTime = event.getEpochNanos("allocationTime");
+        if (allocationTime < 0) {
+            return;
+        }
+        OldObject object = new OldObject();
+        String className = event.getClassName("object");
+        object.setClassName(className != null ? className : UNKNOWN_CLASS);
+        RecordedThread thread = event.getThread();
+        if (thread != null) {
+            object.setThread(context.getThread(thread).getName());
+        }
+        object.setAllocationTime(allocationTime / 1000 / 1000);
+        object.setAge((event.getStartTimeNanos() - allocationTime) / 1000 / 1000);
+        object.setLastKnownHeapUsage(event.getLong("lastKnownHeapUsage"));
+        Number arrayElements = event.getValue("arrayElements");
+        if (arrayElements != null) {
+            object.setArrayElements(arrayElements.intValue());
+        }
+        oldObjects.add(object);
+    }
+
+    private List<AllocationSeries> buildSeries(Collection<SeriesData> data, long startBucket) {
+        List<AllocationSeries> series = new ArrayList<>();
+        for (SeriesData d : data) {
+            series.add(d.build(startBucket));
+        }
+        series.sort(Comparator.comparingLong(AllocationSeries::getTotal).reversed());
+        return series;
+    }
+
+    @Override
+    public void fillResult(AnalysisResult result) {
+        long startBucket = Long.MAX_VALUE;
+        for (SeriesData d : classes.values()) {
+            if (d.size > 0) {
+                startBucket = Math.min(startBucket, d.buckets[0]);
+            }
+        }
+        if (startBucket == Long.MAX_VALUE) {
+            startBucket = TaskResultBase.bucketOf(Math.max(result.getStartTime(), 0));
+        }
+
+        AllocationPressure pressure = new AllocationPressure();
+        pressure.setStartTime(startBucket);
+        pressure.setBucketMillis(TaskResultBase.BUCKET_MILLIS);
+        pressure.setInNewTLAB(inNewTLAB);
+        pressure.setOutsideTLAB(outsideTLAB);
+        pressure.setClasses(buildSeries(classes.values(), startBucket));
+        pressure.setThreads(buildSeries(threads.values(), startBucket));
+        gcPauses.sort(Comparator.comparingLong(GCPause::getStartTime));
+        pressure.setGcPauses(gcPauses);
+        oldObjects.sort(Comparator.comparingLong(OldObject::getAge).reversed());
+        pressure.setOldObjects(oldObjects);
+        result.setAllocationPressure(pressure);
+    }
+}
@@ -24,11 +24,10 @@ import org.eclipse.jifa.jfr.model.Task;
 import org.eclipse.jifa.jfr.model.TaskAllocations;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.eclipse.jifa.jfr.common.EventConstant.OBJECT_ALLOCATION_SAMPLE;
 
-public class AllocationsExtractor extends Extractor {
+public class AllocationsExtractor extends ThreadShardedExtractor {
     protected boolean useObjectAllocationSample;
 
     protected static final List<String> INTERESTED = Collections.unmodifiableList(new ArrayList<>() {
@@ -60,6 +59,12 @@ public class AllocationsExtractor extends Extractor {
         }
     }
 
+    // data of a thread is only in one of the instances
+    @Override
+    void merge(ThreadShardedExtractor other) {
+        this.data.putAll(((AllocationsExtractor) other).data);
+    }
+
     AllocTaskData getThreadData(RecordedThread thread) {
         return data.computeIfAbsent(thread.getJavaThreadId(), i -> new AllocTaskData(thread));
     }
@@ -92,11 +97,8 @@ public class AllocationsExtractor extends Extractor {
         }
 
         AllocTaskData allocThreadData = getThreadData(event.getThread());
-        if (allocThreadData.getSamples() == null) {
-            allocThreadData.setSamples(new HashMap<>());
-        }
 
-        allocThreadData.getSamples().compute(stackTrace, (k, count) -> count == null ? 1 : count + 1);
+        allocThreadData.addSample(stackTrace, 1);
         allocThreadData.allocations += 1;
     }
 
@@ -115,12 +117,7 @@ public class AllocationsExtractor extends Extractor {
 
             if (data.getSamples() != null) {
                 threadAllocation.setAllocations(data.allocations);
-                threadAllocation.setSamples(data.getSamples().entrySet().stream().collect(
-                        Collectors.toMap(
-                                e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                                Map.Entry::getValue,
-                                Long::sum)
-                ));
+                fillSamples(data, threadAllocation);
             }
 
             taskAllocations.add(threadAllocation);
@@ -35,6 +35,11 @@ public class CPUSampleExtractor extends CountExtractor {
         super(context, INTERESTED);
     }
 
+    @Override
+    boolean indexByTime() {
+        return true;
+    }
+
     @Override
     void visitExecutionSample(RecordedEvent event) {
         visitEvent(event);
@@ -52,6 +57,12 @@ public class CPUSampleExtractor extends CountExtractor {
         }
     }
 
+    @Override
+    void merge(ThreadShardedExtractor other) {
+        super.merge(other);
+        this.isWallClockEvents |= ((CPUSampleExtractor) other).isWallClockEvents;
+    }
+
     public List<TaskCount> buildTaskCounts() {
         if (this.isWallClockEvents) {
             return new ArrayList<>();
@@ -25,7 +25,6 @@ import org.eclipse.jifa.jfr.model.JavaThreadCPUTime;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class CPUTimeExtractor extends Extractor {
@@ -210,11 +209,7 @@ public class CPUTimeExtractor extends Extractor {
         }
         CpuTaskData cpuTaskData = getThreadData(thread);
 
-        if (cpuTaskData.getSamples() == null) {
-            cpuTaskData.setSamples(new HashMap<>());
-        }
-
-        cpuTaskData.getSamples().compute(stackTrace, (k, count) -> count == null ? 1 : count + 1);
+        cpuTaskData.addSample(stackTrace, event.getStartTimeNanos(), 1);
         cpuTaskData.sampleCount++;
     }
 
@@ -251,12 +246,7 @@ public class CPUTimeExtractor extends Extractor {
                     threadCPUTime.setSystem(0);
                 }
 
-                threadCPUTime.setSamples(data.getSamples().entrySet().stream().collect(
-                        Collectors.toMap(
-                                e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                                Map.Entry::getValue,
-                                Long::sum)
-                ));
+                fillSamples(data, threadCPUTime);
             }
 
             threadCPUTimes.add(threadCPUTime);
@@ -12,7 +12,6 @@
  ********************************************************************************/
 package org.eclipse.jifa.jfr.extractor;
 
-import org.eclipse.jifa.jfr.util.StackTraceUtil;
 import org.eclipse.jifa.jfr.model.TaskData;
 import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
 import org.eclipse.jifa.jfr.model.jfr.RecordedStackTrace;
@@ -24,9 +23,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-public abstract class CountExtractor extends Extractor {
+public abstract class CountExtractor extends ThreadShardedExtractor {
     CountExtractor(JFRAnalysisContext context, List<String> interested) {
         super(context, interested);
     }
@@ -41,6 +39,19 @@ public abstract class CountExtractor extends Extractor {
 
     protected final Map<Long, TaskCountData> data = new HashMap<>();
 
+    // data of a thread is only in one of the instances
+    @Override
+    void merge(ThreadShardedExtractor other) {
+        this.data.putAll(((CountExtractor) other).data);
+    }
+
+    /**
+     * @return true if samples are indexed by time for time range flame graphs
+     */
+    boolean indexByTime() {
+        return false;
+    }
+
     TaskCountData getTaskCountData(RecordedThread thread) {
         return data.computeIfAbsent(thread.getJavaThreadId(), i -> new TaskCountData(thread));
     }
@@ -52,11 +63,12 @@ public abstract class CountExtractor extends Extractor {
         }
 
         TaskCountData data = getTaskCountData(event.getThread());
-        if (data.getSamples() == null) {
-            data.setSamples(new HashMap<>());
-        }
 
-        data.getSamples().compute(stackTrace, (k, tmp) -> tmp == null ? 1 : tmp + 1);
+        if (indexByTime()) {
+            data.addSample(stackTrace, event.getStartTimeNanos(), 1);
+        } else {
+            data.addSample(stackTrace, 1);
+        }
         data.count += 1;
     }
 
@@ -75,12 +87,7 @@ public abstract class CountExtractor extends Extractor {
 
             if (data.getSamples() != null) {
                 ts.setCount(data.count);
-                ts.setSamples(data.getSamples().entrySet().stream().collect(
-                        Collectors.toMap(
-                                e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                                Map.Entry::getValue,
-                                Long::sum)
-                ));
+                fillSamples(data, ts);
             }
 
             counts.add(ts);
@@ -0,0 +1,206 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.extractor;
+
+import org.eclipse.jifa.jfr.model.AnalysisResult;
+import org.eclipse.jifa.jfr.model.jfr.EventType;
+import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
+import org.eclipse.jifa.jfr.model.jfr.RecordedThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Feed events to extractors in a single pass. Each event is routed by the id of its type to the extractors
+ * interested in it, rather than offered to every extractor.
+ * <p>
+ * Extractors sharded by thread have an instance per shard, and shards are processed by tasks of the given
+ * executor. A shard has at most one task at a time, so that events of a thread are always visited by the same
+ * instance in order. Other extractors are run by the caller of dispatch. Events without thread go to shard 0.
+ */
+public class EventDispatcher implements AutoCloseable {
+    private record Route(Extractor extractor, BiConsumer<Extractor, RecordedEvent> visitor) {
+    }
+
+    private static final Route[] NO_ROUTE = new Route[0];
+
+    private final List<Extractor> extractors = new ArrayList<>();
+    private final List<List<ThreadShardedExtractor>> shardExtractors = new ArrayList<>();
+
+    // indexed by id of event type
+    private final Route[][] routes;
+    // indexed by shard and then id of event type
+    private final Route[][][] shardRoutes;
+
+    private final int shards;
+    // null if there is only one shard, which is then run by the caller of dispatch
+    private final Executor executor;
+    private final List<Future<?>> running = new ArrayList<>();
+
+    public EventDispatcher(List<Supplier<Extractor>> factories, int shards, Executor executor) {
+        shards = executor != null ? Math.max(1, shards) : 1;
+        this.shards = shards;
+        this.executor = shards > 1 ? executor : null;
+        List<Extractor> unsharded = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            shardExtractors.add(new ArrayList<>());
+        }
+        for (Supplier<Extractor> factory : factories) {
+            Extractor extractor = factory.get();
+            extractors.add(extractor);
+            if (extractor instanceof ThreadShardedExtractor sharded) {
+                shardExtractors.get(0).add(sharded);
+                for (int shard = 1; shard < shards; shard++) {
+                    shardExtractors.get(shard).add((ThreadShardedExtractor) factory.get());
+                }
+            } else {
+                unsharded.add(extractor);
+            }
+        }
+        routes = buildRoutes(unsharded);
+        shardRoutes = new Route[shards][][];
+        for (int shard = 0; shard < shards; shard++) {
+            shardRoutes[shard] = buildRoutes(shardExtractors.get(shard));
+        }
+    }
+
+    private static Route[][] buildRoutes(List<? extends Extractor> extractors) {
+        List<List<Route>> byType = new ArrayList<>();
+        for (Extractor extractor : extractors) {
+            for (String type : extractor.getInterested()) {
+                BiConsumer<Extractor, RecordedEvent> visitor = Extractor.visitorOf(type);
+                if (visitor == null) {
+                    continue;
+                }
+                int id = EventType.of(type).id();
+                while (byType.size() <= id) {
+                    byType.add(new ArrayList<>());
+                }
+                byType.get(id).add(new Route(extractor, visitor));
+            }
+        }
+        Route[][] result = new Route[byType.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = byType.get(i).toArray(NO_ROUTE);
+        }
+        return result;
+    }
+
+    private static void visit(Route[][] routes, RecordedEvent event) {
+        int id = event.getEventType().id();
+        if (id < routes.length) {
+            for (Route route : routes[id]) {
+                route.visitor.accept(route.extractor, event);
+            }
+        }
+    }
+
+    private static boolean hasRoute(Route[][] routes, RecordedEvent event) {
+        int id = event.getEventType().id();
+        return id < routes.length && routes[id].length > 0;
+    }
+
+    /**
+     * Dispatch events, which must be in order. Sharded extractors may still be visiting the events when this
+     * method returns, but not those of earlier calls.
+     */
+    public void dispatch(List<RecordedEvent> events) throws Exception {
+        if (executor == null) {
+            for (RecordedEvent event : events) {
+                visit(routes, event);
+                visit(shardRoutes[0], event);
+            }
+            return;
+        }
+
+        List<List<RecordedEvent>> shardEvents = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            shardEvents.add(new ArrayList<>());
+        }
+        for (RecordedEvent event : events) {
+            visit(routes, event);
+            // all shards have the same routes
+            if (hasRoute(shardRoutes[0], event)) {
+                shardEvents.get(shardOf(event.getThread())).add(event);
+            }
+        }
+        // only events of one call are held by shards besides those being split
+        awaitShards();
+        for (int shard = 0; shard < shards; shard++) {
+            Route[][] routesOfShard = shardRoutes[shard];
+            List<RecordedEvent> eventsOfShard = shardEvents.get(shard);
+            if (!eventsOfShard.isEmpty()) {
+                FutureTask<?> task = new FutureTask<>(() -> eventsOfShard.forEach(event -> visit(routesOfShard, event)), null);
+                running.add(task);
+                executor.execute(task);
+            }
+        }
+    }
+
+    private int shardOf(RecordedThread thread) {
+        if (thread == null) {
+            return 0;
+        }
+        return (int) Math.floorMod(thread.getJavaThreadId(), (long) shards);
+    }
+
+    private void awaitShards() throws Exception {
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } finally {
+            running.clear();
+        }
+    }
+
+    /**
+     * Wait for all events to be visited, merge instances of sharded extractors and fill results of all extractors.
+     */
+    public void fillResult(AnalysisResult result) throws Exception {
+        awaitShards();
+        List<ThreadShardedExtractor> merged = shardExtractors.get(0);
+        for (int shard = 1; shard < shardExtractors.size(); shard++) {
+            List<ThreadShardedExtractor> extractorsOfShard = shardExtractors.get(shard);
+            for (int i = 0; i < merged.size(); i++) {
+                merged.get(i).merge(extractorsOfShard.get(i));
+            }
+        }
+        for (Extractor extractor : extractors) {
+            extractor.fillResult(result);
+        }
+    }
+
+    /**
+     * Cancel tasks of shards still running, the executor is not shut down since it may be shared
+     */
+    @Override
+    public void close() {
+        for (Future<?> future : running) {
+            future.cancel(true);
+        }
+        running.clear();
+    }
+}
@@ -110,4 +110,8 @@ public abstract class EventVisitor {
     void visitThreadSleep(RecordedEvent event) {
         throw new UnsupportedOperationException();
     }
+
+    void visitOldObjectSample(RecordedEvent event) {
+        throw new UnsupportedOperationException();
+    }
 }
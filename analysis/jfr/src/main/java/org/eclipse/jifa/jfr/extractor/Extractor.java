@@ -15,6 +15,11 @@ package org.eclipse.jifa.jfr.extractor;
 import org.eclipse.jifa.jfr.common.EventConstant;
 import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
 import org.eclipse.jifa.jfr.model.AnalysisResult;
+import org.eclipse.jifa.jfr.model.StackTrace;
+import org.eclipse.jifa.jfr.model.TaskData;
+import org.eclipse.jifa.jfr.model.TaskResultBase;
+import org.eclipse.jifa.jfr.model.jfr.RecordedStackTrace;
+import org.eclipse.jifa.jfr.util.StackTraceUtil;
 
 import java.util.HashMap;
 import java.util.List;
@@ -53,6 +58,8 @@ public abstract class Extractor extends EventVisitor {
             put(EventConstant.CLASS_LOAD, EventVisitor::visitClassLoad);
 
             put(EventConstant.THREAD_SLEEP, EventVisitor::visitThreadSleep);
+
+            put(EventConstant.OLD_OBJECT_SAMPLE, EventVisitor::visitOldObjectSample);
         }
     };
 
@@ -75,5 +82,36 @@ public abstract class Extractor extends EventVisitor {
         }
     }
 
+    List<String> getInterested() {
+        return interested;
+    }
+
+    static BiConsumer<Extractor, RecordedEvent> visitorOf(String eventType) {
+        return DISPATCHER.get(eventType);
+    }
+
+    /**
+     * Set samples, and samples of each time bucket, of the task to the result. A stack trace is only built
+     * once for all buckets.
+     */
+    void fillSamples(TaskData data, TaskResultBase result) {
+        Map<RecordedStackTrace, StackTrace> stackTraces = new HashMap<>();
+        result.setSamples(buildSamples(data.getSamples(), stackTraces));
+        if (data.getTimeBuckets() != null) {
+            result.setTimeBuckets(data.getTimeBuckets().build(st -> buildStackTrace(st, stackTraces)));
+        }
+    }
+
+    private Map<StackTrace, Long> buildSamples(Map<RecordedStackTrace, Long> samples,
+                                               Map<RecordedStackTrace, StackTrace> stackTraces) {
+        Map<StackTrace, Long> result = new HashMap<>();
+        samples.forEach((st, value) -> result.merge(buildStackTrace(st, stackTraces), value, Long::sum));
+        return result;
+    }
+
+    private StackTrace buildStackTrace(RecordedStackTrace st, Map<RecordedStackTrace, StackTrace> stackTraces) {
+        return stackTraces.computeIfAbsent(st, k -> StackTraceUtil.build(k, context.getSymbols()));
+    }
+
     public abstract void fillResult(AnalysisResult result);
 }
@@ -21,44 +21,54 @@ import org.eclipse.jifa.jfr.request.AnalysisRequest;
 import org.eclipse.jifa.jfr.model.symbol.SymbolBase;
 import org.eclipse.jifa.jfr.model.symbol.SymbolTable;
 
-import java.util.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.eclipse.jifa.jfr.common.EventConstant.OBJECT_ALLOCATION_SAMPLE;
 
+/**
+ * Shared by the workers transforming chunks and by extractors, so lookups are backed by concurrent maps
+ * rather than guarded by the monitor of the context.
+ */
 public class JFRAnalysisContext {
-    private final Map<String, Long> eventTypeIds = new HashMap<>();
-    private final Map<RecordedEvent.ActiveSetting, String> activeSettings = new HashMap<>();
-    private final Map<Long, JavaThread> threads = new HashMap<>();
-    private final Map<String, Long> threadNameMap = new HashMap<>();
-    @Getter
-    private final List<RecordedEvent> events = new ArrayList<>();
+    private final Map<String, Long> eventTypeIds = new ConcurrentHashMap<>();
+    private final Map<RecordedEvent.ActiveSetting, String> activeSettings = new ConcurrentHashMap<>();
+    private final Map<Long, JavaThread> threads = new ConcurrentHashMap<>();
+    private final Map<String, Long> threadNameMap = new ConcurrentHashMap<>();
     @Getter
     private final SymbolTable<SymbolBase> symbols = new SymbolTable<>();
     @Getter
     private final AnalysisRequest request;
     @Getter
-    private final Set<Long> executionSampleEventTypeIds = new HashSet<>();
+    private final Set<Long> executionSampleEventTypeIds = ConcurrentHashMap.newKeySet();
 
     public JFRAnalysisContext(AnalysisRequest request) {
         this.request = request;
     }
 
-    public synchronized Long getEventTypeId(String event) {
+    public Long getEventTypeId(String event) {
         return eventTypeIds.get(event);
     }
 
-    public synchronized void putEventTypeId(String key, Long id) {
+    public void putEventTypeId(String key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
         eventTypeIds.put(key, id);
         if (EventConstant.EXECUTION_SAMPLE.equals(key)) {
             executionSampleEventTypeIds.add(id);
         }
     }
 
-    public synchronized void putActiveSetting(RecordedEvent.ActiveSetting activeSetting, RecordedEvent event) {
-        this.activeSettings.put(activeSetting, event.getString("value"));
+    public void putActiveSetting(RecordedEvent.ActiveSetting activeSetting, RecordedEvent event) {
+        String value = event.getString("value");
+        if (value != null) {
+            this.activeSettings.put(activeSetting, value);
+        }
     }
 
-    public synchronized boolean getActiveSettingBool(String eventName, String settingName) {
+    public boolean getActiveSettingBool(String eventName, String settingName) {
         Long eventId = this.getEventTypeId(OBJECT_ALLOCATION_SAMPLE);
         RecordedEvent.ActiveSetting setting = new RecordedEvent.ActiveSetting(eventName, eventId, settingName);
         String v = this.activeSettings.get(setting);
@@ -68,11 +78,25 @@ public class JFRAnalysisContext {
         throw new RuntimeException("should not reach here");
     }
 
-    public synchronized boolean isExecutionSampleEventTypeId(long id) {
+    /**
+     * @return the value of the setting of the event type, or null if it is not recorded
+     */
+    public String getActiveSetting(long eventId, String settingName) {
+        for (Map.Entry<RecordedEvent.ActiveSetting, String> entry : activeSettings.entrySet()) {
+            RecordedEvent.ActiveSetting setting = entry.getKey();
+            if (setting.eventId() != null && setting.eventId() == eventId
+                && settingName.equals(setting.settingName())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public boolean isExecutionSampleEventTypeId(long id) {
         return executionSampleEventTypeIds.contains(id);
     }
 
-    public synchronized JavaThread getThread(RecordedThread thread) {
+    public JavaThread getThread(RecordedThread thread) {
         return threads.computeIfAbsent(thread.getJavaThreadId(), id -> {
             JavaThread javaThread = new JavaThread();
             javaThread.setId(id);
@@ -90,8 +114,4 @@ public class JFRAnalysisContext {
             return javaThread;
         });
     }
-
-    public synchronized void addEvent(RecordedEvent event) {
-        this.events.add(event);
-    }
 }
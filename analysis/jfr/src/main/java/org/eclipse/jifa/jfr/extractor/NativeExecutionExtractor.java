@@ -14,7 +14,6 @@ package org.eclipse.jifa.jfr.extractor;
 
 import org.eclipse.jifa.jfr.common.EventConstant;
 import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
-import org.eclipse.jifa.jfr.util.StackTraceUtil;
 import org.eclipse.jifa.jfr.model.AnalysisResult;
 import org.eclipse.jifa.jfr.model.DimensionResult;
 import org.eclipse.jifa.jfr.model.Task;
@@ -23,8 +22,6 @@ import org.eclipse.jifa.jfr.model.TaskCount;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class NativeExecutionExtractor extends CountExtractor {
 
@@ -59,13 +56,7 @@ public class NativeExecutionExtractor extends CountExtractor {
 
             if (data.getSamples() != null) {
                 threadSamples.setCount(data.count);
-                threadSamples.setSamples(data.getSamples().entrySet().stream().collect(
-                        Collectors.toMap(
-                                e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                                Map.Entry::getValue,
-                                Long::sum
-                        )
-                ));
+                fillSamples(data, threadSamples);
             }
 
             nativeSamples.add(threadSamples);
@@ -0,0 +1,33 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.extractor;
+
+import java.util.List;
+
+/**
+ * An extractor that only aggregates events per thread without depending on the order of events of different
+ * threads. Events may be split by thread among several instances of the extractor, which are merged into one by
+ * merge before fillResult, see EventDispatcher.
+ */
+public abstract class ThreadShardedExtractor extends Extractor {
+
+    ThreadShardedExtractor(JFRAnalysisContext context, List<String> interested) {
+        super(context, interested);
+    }
+
+    /**
+     * Merge an instance of the same class, which has visited events of other threads, into this one
+     */
+    abstract void merge(ThreadShardedExtractor other);
+}
@@ -0,0 +1,146 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.extractor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.jfr.common.EventConstant;
+import org.eclipse.jifa.jfr.model.AnalysisResult;
+import org.eclipse.jifa.jfr.model.Task;
+import org.eclipse.jifa.jfr.model.ThreadState;
+import org.eclipse.jifa.jfr.model.ThreadTimeline;
+import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
+import org.eclipse.jifa.jfr.model.jfr.RecordedThread;
+import org.eclipse.jifa.jfr.util.TimeUtil;
+import org.eclipse.jifa.jfr.util.TimelineBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Build the intervals of threads in states from execution samples, and from park, monitor enter and sleep
+ * events. A sample is taken as running for a sampling period. Intervals are merged as events are visited, see
+ * TimelineBuilder, so only the merged intervals of a thread are kept.
+ */
+@Slf4j
+public class ThreadTimelineExtractor extends ThreadShardedExtractor {
+    protected static final List<String> INTERESTED = Collections.unmodifiableList(new ArrayList<>() {
+        {
+            add(EventConstant.EXECUTION_SAMPLE);
+            add(EventConstant.THREAD_PARK);
+            add(EventConstant.JAVA_MONITOR_ENTER);
+            add(EventConstant.THREAD_SLEEP);
+        }
+    });
+
+    // the period of the default settings of JFR
+    private static final long DEFAULT_SAMPLE_PERIOD = 20 * 1000 * 1000;
+
+    private final Map<Long, TimelineData> data = new HashMap<>();
+
+    private long samplePeriod;
+
+    public ThreadTimelineExtractor(JFRAnalysisContext context) {
+        super(context, INTERESTED);
+    }
+
+    private static class TimelineData {
+        private final RecordedThread thread;
+        private final TimelineBuilder timeline = new TimelineBuilder();
+
+        TimelineData(RecordedThread thread) {
+            this.thread = thread;
+        }
+    }
+
+    // data of a thread is only in one of the instances
+    @Override
+    void merge(ThreadShardedExtractor other) {
+        this.data.putAll(((ThreadTimelineExtractor) other).data);
+    }
+
+    @Override
+    void visitExecutionSample(RecordedEvent event) {
+        // settings are known once the first chunk is loaded, which is before any event is visited
+        if (samplePeriod == 0) {
+            samplePeriod = samplePeriod();
+        }
+        visitEvent(event, event.getStartTimeNanos() + samplePeriod, ThreadState.RUNNING);
+    }
+
+    @Override
+    void visitThreadPark(RecordedEvent event) {
+        visitEvent(event, event.getStartTimeNanos() + event.getDurationNano(), ThreadState.PARKED);
+    }
+
+    @Override
+    void visitMonitorEnter(RecordedEvent event) {
+        visitEvent(event, event.getStartTimeNanos() + event.getDurationNano(), ThreadState.BLOCKED);
+    }
+
+    @Override
+    void visitThreadSleep(RecordedEvent event) {
+        visitEvent(event, event.getStartTimeNanos() + event.getDurationNano(), ThreadState.SLEEPING);
+    }
+
+    private void visitEvent(RecordedEvent event, long end, ThreadState state) {
+        RecordedThread thread = event.getThread();
+        if (thread == null) {
+            return;
+        }
+        data.computeIfAbsent(thread.getJavaThreadId(), i -> new TimelineData(thread)).timeline
+            .add(event.getStartTimeNanos(), end, state);
+    }
+
+    private long samplePeriod() {
+        long period = Long.MAX_VALUE;
+        for (long eventId : context.getExecutionSampleEventTypeIds()) {
+            String value = context.getActiveSetting(eventId, EventConstant.PERIOD);
+            if (value == null) {
+                continue;
+            }
+            try {
+                period = Math.min(period, TimeUtil.parseTimespan(value));
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return period == Long.MAX_VALUE || period <= 0 ? DEFAULT_SAMPLE_PERIOD : period;
+    }
+
+    private ThreadTimeline buildTimeline(TimelineData data) {
+        Task task = new Task();
+        task.setId(data.thread.getJavaThreadId());
+        task.setName(context.getThread(data.thread).getName());
+
+        ThreadTimeline timeline = data.timeline.build();
+        timeline.setTask(task);
+        return timeline;
+    }
+
+    @Override
+    public void fillResult(AnalysisResult result) {
+        List<ThreadTimeline> timelines = new ArrayList<>();
+        for (TimelineData data : this.data.values()) {
+            timelines.add(buildTimeline(data));
+        }
+        timelines.sort(Comparator.comparing((ThreadTimeline t) -> t.getTask().getName(),
+                                            Comparator.nullsLast(Comparator.naturalOrder()))
+                                 .thenComparingLong(t -> t.getTask().getId()));
+        result.setThreadTimelines(timelines);
+    }
+}
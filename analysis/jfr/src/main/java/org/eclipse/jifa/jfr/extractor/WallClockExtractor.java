@@ -18,13 +18,11 @@ import org.eclipse.jifa.jfr.model.AnalysisResult;
 import org.eclipse.jifa.jfr.model.jfr.RecordedEvent;
 import org.eclipse.jifa.jfr.model.jfr.RecordedStackTrace;
 import org.eclipse.jifa.jfr.model.jfr.RecordedThread;
-import org.eclipse.jifa.jfr.util.StackTraceUtil;
 import org.eclipse.jifa.jfr.model.DimensionResult;
 import org.eclipse.jifa.jfr.model.TaskData;
 import org.eclipse.jifa.jfr.model.TaskSum;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class WallClockExtractor extends Extractor {
@@ -112,11 +110,8 @@ public class WallClockExtractor extends Extractor {
         }
         TaskWallClockData taskWallClockData = getThreadData(thread);
 
-        if (taskWallClockData.getSamples() == null) {
-            taskWallClockData.setSamples(new HashMap<>());
-        }
         taskWallClockData.updateTime(event.getStartTimeNanos());
-        taskWallClockData.getSamples().compute(stackTrace, (k, count) -> count == null ? 1 : count + 1);
+        taskWallClockData.addSample(stackTrace, 1);
         taskWallClockData.sampleCount++;
     }
 
@@ -138,13 +133,8 @@ public class WallClockExtractor extends Extractor {
             TaskSum taskSum = new TaskSum();
             taskSum.setTask(context.getThread(data.getThread()));
             taskSum.setSum(data.sampleCount > 1 ? data.getDuration() : this.interval);
-            data.getSamples().replaceAll((k, v) -> v * (taskSum.getSum() / data.sampleCount));
-            taskSum.setSamples(data.getSamples().entrySet().stream().collect(
-                    Collectors.toMap(
-                            e -> StackTraceUtil.build(e.getKey(), context.getSymbols()),
-                            Map.Entry::getValue,
-                            Long::sum)
-            ));
+            data.scaleSamples(taskSum.getSum() / data.sampleCount);
+            fillSamples(data, taskSum);
             map.put(data.getThread().getJavaThreadId(), taskSum);
         }
 
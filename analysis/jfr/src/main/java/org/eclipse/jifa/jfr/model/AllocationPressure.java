@@ -0,0 +1,47 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Allocation rates over time per class and per thread, with the GC pauses of the recording so that bursts can
+ * be correlated with them, and the ages of sampled old objects.
+ */
+@Setter
+@Getter
+public class AllocationPressure {
+    // epoch milliseconds of the first time bucket of the series, see TaskResultBase.BUCKET_MILLIS
+    private long startTime;
+
+    private long bucketMillis;
+
+    // unit: byte
+    private long inNewTLAB;
+
+    private long outsideTLAB;
+
+    // ordered by total allocated bytes, descending
+    private List<AllocationSeries> classes;
+
+    private List<AllocationSeries> threads;
+
+    private List<GCPause> gcPauses;
+
+    // ordered by age, descending
+    private List<OldObject> oldObjects;
+}
@@ -0,0 +1,38 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Bytes allocated by a class or a thread. The series is sparse, a value being the bytes of the time bucket at the
+ * same index of buckets, which is an offset from the start of the pressure.
+ */
+@Setter
+@Getter
+public class AllocationSeries {
+    private String name;
+
+    // unit: byte
+    private long total;
+
+    private long inNewTLAB;
+
+    private long outsideTLAB;
+
+    private int[] buckets;
+
+    private long[] values;
+}
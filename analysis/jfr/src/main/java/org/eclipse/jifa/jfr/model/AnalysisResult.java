@@ -23,6 +23,11 @@ import java.util.List;
 public class AnalysisResult {
     private long processingTimeMillis;
 
+    // start times of the first and the last events, in epoch milliseconds
+    private long startTime = -1;
+
+    private long endTime = -1;
+
     private DimensionResult<TaskCPUTime> cpuTime;
 
     private DimensionResult<TaskCount> cpuSample;
@@ -59,5 +64,9 @@ public class AnalysisResult {
 
     private DimensionResult<TaskSum> threadSleepTime;
 
+    private List<ThreadTimeline> threadTimelines;
+
+    private AllocationPressure allocationPressure;
+
     private List<Problem> problems;
 }
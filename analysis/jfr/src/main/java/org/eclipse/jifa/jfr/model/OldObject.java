@@ -0,0 +1,39 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An object sampled at allocation that was still alive when the sample was emitted
+ */
+@Setter
+@Getter
+public class OldObject {
+    private String className;
+
+    private String thread;
+
+    // unit: ms
+    private long allocationTime;
+
+    private long age;
+
+    // unit: byte
+    private long lastKnownHeapUsage;
+
+    // -1 if the object is not an array
+    private int arrayElements = -1;
+}
@@ -17,6 +17,7 @@ import lombok.Setter;
 import org.eclipse.jifa.jfr.model.jfr.RecordedStackTrace;
 import org.eclipse.jifa.jfr.model.jfr.RecordedThread;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Setter
@@ -29,4 +30,34 @@ public class TaskData {
     private RecordedThread thread;
 
     private Map<RecordedStackTrace, Long> samples;
-}
\ No newline at end of file
+
+    // samples by time bucket of the event, only of dimensions serving time range flame graphs
+    private TimeBuckets.Builder<RecordedStackTrace> timeBuckets;
+
+    public void addSample(RecordedStackTrace stackTrace, long value) {
+        if (samples == null) {
+            samples = new HashMap<>();
+        }
+        samples.merge(stackTrace, value, Long::sum);
+    }
+
+    /**
+     * Add a sample that is also indexed by the start time of the event
+     */
+    public void addSample(RecordedStackTrace stackTrace, long startTimeNanos, long value) {
+        addSample(stackTrace, value);
+        if (timeBuckets == null) {
+            timeBuckets = new TimeBuckets.Builder<>();
+        }
+        timeBuckets.add(stackTrace, startTimeNanos / 1000 / 1000, value);
+    }
+
+    public void scaleSamples(long factor) {
+        if (samples != null) {
+            samples.replaceAll((k, v) -> v * factor);
+        }
+        if (timeBuckets != null) {
+            timeBuckets.scale(factor);
+        }
+    }
+}
@@ -21,8 +21,15 @@ import java.util.Map;
 @Setter
 @Getter
 public class TaskResultBase {
+    /**
+     * Width of the time buckets samples are indexed by
+     */
+    public static final long BUCKET_MILLIS = 1000;
+
     private Task task;
     private Map<StackTrace, Long> samples;
+    // samples by time bucket, null if the task has none or its dimension serves no time range flame graphs
+    private TimeBuckets timeBuckets;
 
     public TaskResultBase(Task task) {
         this.task = task;
@@ -41,4 +48,18 @@ public class TaskResultBase {
         }
         samples.put(st, samples.containsKey(st) ? samples.get(st) + value : value);
     }
+
+    public static long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS) * BUCKET_MILLIS;
+    }
+
+    /**
+     * @return samples of events started in [startTime, endTime), in epoch milliseconds
+     */
+    public Map<StackTrace, Long> samplesBetween(long startTime, long endTime) {
+        if (timeBuckets == null) {
+            return new HashMap<>();
+        }
+        return timeBuckets.samplesBetween(startTime, endTime);
+    }
 }
@@ -0,0 +1,33 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Intervals of a thread in known states, ordered by start time and not overlapping. Times are in epoch
+ * nanoseconds, and the thread state is unknown between intervals.
+ */
+@Setter
+@Getter
+public class ThreadTimeline {
+    private Task task;
+
+    private long[] starts;
+
+    private long[] ends;
+
+    private ThreadState[] states;
+}
@@ -0,0 +1,230 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Samples of a task by time bucket, kept as entries of (bucket, stack, value) in primitive arrays rather than a
+ * map per bucket, so that the index costs a few words per distinct stack in a bucket. Entries are sorted by
+ * bucket, and a stack has at most one entry per bucket.
+ * <p>
+ * The time of each sample within its bucket is also kept, so that buckets only partly covered by a range are
+ * clipped to the samples in it rather than rounded to bucket boundaries.
+ */
+@Setter
+@Getter
+public class TimeBuckets {
+    private StackTrace[] stackTraces;
+    // start of each bucket having samples in epoch milliseconds, ascending
+    private long[] starts;
+    // entries of the i-th bucket are [offsets[i], offsets[i + 1])
+    private int[] offsets;
+    // index in stackTraces of each entry
+    private int[] stacks;
+    private long[] values;
+    // samples of the i-th entry are [sampleOffsets[i], sampleOffsets[i + 1])
+    private int[] sampleOffsets;
+    // milliseconds of each sample since the start of its bucket
+    private char[] sampleMillis;
+    private long[] sampleValues;
+
+    public TimeBuckets() {
+    }
+
+    /**
+     * @param stackTraces stacks referred to by the samples
+     * @param times       time of each sample in epoch milliseconds, in any order
+     * @param stacks      index of the stack of each sample
+     * @param values      value of each sample
+     * @param size        number of samples
+     */
+    public static TimeBuckets of(StackTrace[] stackTraces, long[] times, int[] stacks, long[] values, int size) {
+        // order samples by bucket, keeping the order of samples of a bucket
+        long minBucket = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minBucket = Math.min(minBucket, TaskResultBase.bucketOf(times[i]));
+        }
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((TaskResultBase.bucketOf(times[i]) - minBucket) / TaskResultBase.BUCKET_MILLIS) << 32 | i;
+        }
+        Arrays.sort(order);
+
+        long[] starts = new long[size];
+        int[] offsets = new int[size + 1];
+        int[] entryStacks = new int[size];
+        long[] entryValues = new long[size];
+        int[] sampleOffsets = new int[size + 1];
+        char[] sampleMillis = new char[size];
+        long[] sampleValues = new long[size];
+        // entry of each stack in the current bucket, valid if not before the first entry of the bucket
+        int[] entryOfStack = new int[stackTraces.length];
+        Arrays.fill(entryOfStack, -1);
+        // next sample of each entry of the current bucket
+        int[] cursors = new int[size];
+        int bucketCount = 0;
+        int entryCount = 0;
+        for (int from = 0, to; from < size; from = to) {
+            long bucket = TaskResultBase.bucketOf(times[(int) order[from]]);
+            int firstEntry = entryCount;
+            starts[bucketCount] = bucket;
+            offsets[bucketCount++] = firstEntry;
+            // samples of the bucket are grouped by entry, so count them first
+            for (to = from; to < size && TaskResultBase.bucketOf(times[(int) order[to]]) == bucket; to++) {
+                int sample = (int) order[to];
+                int stack = stacks[sample];
+                if (entryOfStack[stack] < firstEntry) {
+                    entryOfStack[stack] = entryCount;
+                    entryStacks[entryCount] = stack;
+                    entryValues[entryCount] = 0;
+                    cursors[entryCount++] = 0;
+                }
+                entryValues[entryOfStack[stack]] += values[sample];
+                cursors[entryOfStack[stack]]++;
+            }
+            for (int entry = firstEntry; entry < entryCount; entry++) {
+                int count = cursors[entry];
+                cursors[entry] = sampleOffsets[entry];
+                sampleOffsets[entry + 1] = sampleOffsets[entry] + count;
+            }
+            for (int i = from; i < to; i++) {
+                int sample = (int) order[i];
+                int position = cursors[entryOfStack[stacks[sample]]]++;
+                sampleMillis[position] = (char) (times[sample] - bucket);
+                sampleValues[position] = values[sample];
+            }
+        }
+        offsets[bucketCount] = entryCount;
+
+        TimeBuckets timeBuckets = new TimeBuckets();
+        timeBuckets.stackTraces = stackTraces;
+        timeBuckets.starts = Arrays.copyOf(starts, bucketCount);
+        timeBuckets.offsets = Arrays.copyOf(offsets, bucketCount + 1);
+        timeBuckets.stacks = Arrays.copyOf(entryStacks, entryCount);
+        timeBuckets.values = Arrays.copyOf(entryValues, entryCount);
+        timeBuckets.sampleOffsets = Arrays.copyOf(sampleOffsets, entryCount + 1);
+        timeBuckets.sampleMillis = sampleMillis;
+        timeBuckets.sampleValues = sampleValues;
+        return timeBuckets;
+    }
+
+    /**
+     * @return samples in [startTime, endTime), in epoch milliseconds. Buckets fully covered are merged by
+     * entry, and those at both ends by sample.
+     */
+    public Map<StackTrace, Long> samplesBetween(long startTime, long endTime) {
+        Map<StackTrace, Long> result = new HashMap<>();
+        if (startTime >= endTime) {
+            return result;
+        }
+        long startBucket = TaskResultBase.bucketOf(startTime);
+        long endBucket = TaskResultBase.bucketOf(endTime);
+        clip(result, startBucket, startTime, endTime);
+        if (startBucket == endBucket) {
+            return result;
+        }
+        int from = lowerBound(startBucket + TaskResultBase.BUCKET_MILLIS);
+        int to = lowerBound(endBucket);
+        for (int entry = offsets[from]; entry < offsets[to]; entry++) {
+            result.merge(stackTraces[stacks[entry]], values[entry], Long::sum);
+        }
+        clip(result, endBucket, endBucket, endTime);
+        return result;
+    }
+
+    // merge samples of the bucket in [startTime, endTime)
+    private void clip(Map<StackTrace, Long> result, long bucket, long startTime, long endTime) {
+        int index = Arrays.binarySearch(starts, bucket);
+        if (index < 0) {
+            return;
+        }
+        for (int entry = offsets[index]; entry < offsets[index + 1]; entry++) {
+            long value = 0;
+            for (int sample = sampleOffsets[entry]; sample < sampleOffsets[entry + 1]; sample++) {
+                long time = bucket + sampleMillis[sample];
+                if (time >= startTime && time < endTime) {
+                    value += sampleValues[sample];
+                }
+            }
+            if (value > 0) {
+                result.merge(stackTraces[stacks[entry]], value, Long::sum);
+            }
+        }
+    }
+
+    // index of the first bucket starting at or after time
+    private int lowerBound(long time) {
+        int index = Arrays.binarySearch(starts, time);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Collect samples during analysis. Samples are only grouped into buckets by of, since events of a thread
+     * may come out of time order across chunks.
+     *
+     * @param <S> type of stacks
+     */
+    public static class Builder<S> {
+        private final Map<S, Integer> stackIds = new HashMap<>();
+        private final List<S> stackList = new ArrayList<>();
+        private long[] times = new long[16];
+        private int[] stacks = new int[16];
+        private long[] values = new long[16];
+        private int size;
+
+        /**
+         * @param time time of the sample in epoch milliseconds
+         */
+        public void add(S stackTrace, long time, long value) {
+            int stack = stackIds.computeIfAbsent(stackTrace, st -> {
+                stackList.add(st);
+                return stackList.size() - 1;
+            });
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                stacks = Arrays.copyOf(stacks, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            stacks[size] = stack;
+            values[size++] = value;
+        }
+
+        public void scale(long factor) {
+            for (int i = 0; i < size; i++) {
+                values[i] *= factor;
+            }
+        }
+
+        /**
+         * @param stackTraces built stack trace of each stack
+         */
+        public TimeBuckets build(Function<S, StackTrace> stackTraces) {
+            StackTrace[] built = new StackTrace[stackList.size()];
+            for (int i = 0; i < built.length; i++) {
+                built[i] = stackTraces.apply(stackList.get(i));
+            }
+            return of(built, times, stacks, values, size);
+        }
+    }
+}
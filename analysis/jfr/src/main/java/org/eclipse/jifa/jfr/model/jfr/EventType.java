@@ -12,5 +12,18 @@
  ********************************************************************************/
 package org.eclipse.jifa.jfr.model.jfr;
 
-public record EventType(String name) {
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @param id small number assigned to the name when it is first seen, so that events can be routed by array index
+ */
+public record EventType(String name, int id) {
+    private static final Map<String, EventType> TYPES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    public static EventType of(String name) {
+        return TYPES.computeIfAbsent(name, n -> new EventType(n, NEXT_ID.getAndIncrement()));
+    }
 }
@@ -91,7 +91,7 @@ public class RecordedEvent {
             itemTypeId = EventConstant.OBJECT_ALLOCATION_IN_NEW_TLAB;
         }
 
-        this.eventType = new EventType(itemTypeId);
+        this.eventType = EventType.of(itemTypeId);
 
         IMCStackTrace s = getValue("stackTrace");
         if (s != null) {
@@ -221,6 +221,33 @@ public class RecordedEvent {
         }
     }
 
+    /**
+     * @return the full name of the class of a class field, or of the type of an old object field
+     */
+    public String getClassName(String name) {
+        Object value = getValue(name);
+        if (value instanceof IMCOldObject object) {
+            value = object.getType();
+        }
+        return value instanceof IMCType type ? type.getFullName() : null;
+    }
+
+    /**
+     * @return the value of a timestamp field in epoch nanoseconds, or -1 if it is absent
+     */
+    public long getEpochNanos(String name) {
+        Object value = getValue(name);
+        return value instanceof IQuantity quantity ? toNanos(quantity, UnitLookup.EPOCH_NS) : -1;
+    }
+
+    /**
+     * @return the value of a timespan field in nanoseconds, or -1 if it is absent
+     */
+    public long getNanos(String name) {
+        Object value = getValue(name);
+        return value instanceof IQuantity quantity ? toNanos(quantity, UnitLookup.NANOSECOND) : -1;
+    }
+
     public RecordedThread getThread(String key) {
         IMCThread imcThread = getValue(key);
         return imcThread == null ? null : new RecordedThread(imcThread);
@@ -33,7 +33,10 @@ public class DimensionBuilder {
     public static final int CLASS_LOAD_COUNT = ProfileDimension.CLASS_LOAD_COUNT.getValue();
     public static final int CLASS_LOAD_WALL_TIME = ProfileDimension.CLASS_LOAD_WALL_TIME.getValue();
     public static final int THREAD_SLEEP = ProfileDimension.THREAD_SLEEP.getValue();
+    public static final int THREAD_TIMELINE = ProfileDimension.THREAD_TIMELINE.getValue();
+    public static final int ALLOCATION_PRESSURE = ProfileDimension.ALLOCATION_PRESSURE.getValue();
 
+    // thread timelines and allocation pressure are opt-in, like problems, since they keep series of every thread
     public static final int ALL = CPU | CPU_SAMPLE | WALL_CLOCK | NATIVE_EXECUTION_SAMPLES
             | ALLOC | MEM | FILE_IO_TIME | FILE_WRITE_SIZE | FILE_READ_SIZE | SOCKET_READ_SIZE | SOCKET_WRITE_SIZE
             | SOCKET_READ_TIME | SOCKET_WRITE_TIME | SYNCHRONIZATION | THREAD_PARK
@@ -135,6 +138,16 @@ public class DimensionBuilder {
         return this;
     }
 
+    public DimensionBuilder enableThreadTimeline() {
+        this.dimensions |= THREAD_TIMELINE;
+        return this;
+    }
+
+    public DimensionBuilder enableAllocationPressure() {
+        this.dimensions |= ALLOCATION_PRESSURE;
+        return this;
+    }
+
     public DimensionBuilder enableALL() {
         this.dimensions = ALL;
         return this;
@@ -0,0 +1,123 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jifa.jfr.model.AnalysisResult;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Persist the result of analysis in a sidecar file next to the recording, so that the recording can be reopened
+ * without being analyzed again. The sidecar starts with a header of the format version and of the size and the
+ * modification time of the recording, and is only used if they all match.
+ */
+@Slf4j
+public class AnalysisResultSerDes {
+    private static final int MAGIC = 0x4A465252; // JFRR
+
+    // increase when classes of the result change
+    private static final int VERSION = 5;
+
+    private static final ThreadLocal<Kryo> KRYO;
+
+    static {
+        KRYO = ThreadLocal.withInitial(() -> {
+            Kryo kryo = new Kryo();
+            kryo.setRegistrationRequired(false);
+            // stack traces are shared by samples of tasks and of time buckets
+            kryo.setReferences(true);
+            kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+            return kryo;
+        });
+    }
+
+    public static Path resolveSerializedDataPath(Path source) {
+        return Paths.get(source.toFile().getAbsoluteFile() + ".kryo");
+    }
+
+    /**
+     * @return the persisted result of the recording analyzed for the dimensions, or null if there is no valid one
+     */
+    public static AnalysisResult load(Path source, int dimensions) {
+        Path path = resolveSerializedDataPath(source);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        // streams given an inflater or a deflater never end it, and its native memory is otherwise only freed by
+        // the cleaner
+        Inflater inflater = new Inflater();
+        try (InputStream in = new InflaterInputStream(new FileInputStream(path.toFile()), inflater);
+             Input input = new Input(in)) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION
+                || input.readLong() != Files.size(source)
+                || input.readLong() != Files.getLastModifiedTime(source).toMillis()
+                || input.readInt() != dimensions) {
+                log.info("Ignore stale analysis result: {}", path);
+                return null;
+            }
+            return KRYO.get().readObject(input, AnalysisResult.class);
+        } catch (Throwable t) {
+            log.warn("Failed to deserialize analysis result: {}", t.getMessage());
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static void save(Path source, int dimensions, AnalysisResult result) {
+        Path path = resolveSerializedDataPath(source);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            try (OutputStream out = new DeflaterOutputStream(new FileOutputStream(tmp.toFile()), deflater);
+                 Output output = new Output(out)) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(Files.size(source));
+                output.writeLong(Files.getLastModifiedTime(source).toMillis());
+                output.writeInt(dimensions);
+                KRYO.get().writeObject(output, result);
+            }
+            // readers never see a partially written file
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Throwable t) {
+            log.warn("Failed to serialize analysis result: {}", t.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                log.warn("Failed to delete {}", tmp);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Split a JFR recording into chunks. Each chunk is self-contained, with its own metadata and constant pools,
+ * so it can be loaded as a recording by itself.
+ */
+public class ChunkReader implements AutoCloseable {
+    private static final byte[] MAGIC = {'F', 'L', 'R', '\0'};
+    // magic, major version, minor version and chunk size
+    private static final int HEADER_SIZE = 16;
+    private static final int CHUNK_SIZE_OFFSET = 8;
+
+    private final DataInputStream in;
+
+    public ChunkReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * @return bytes of the next chunk, or null if there is no more chunk. The last chunk may be truncated if
+     * the recording is still being written.
+     */
+    public byte[] next() throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int read = in.readNBytes(header, 0, HEADER_SIZE);
+        if (read == 0) {
+            return null;
+        }
+        if (read < MAGIC.length || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not a JFR chunk");
+        }
+        if (read < HEADER_SIZE) {
+            throw new EOFException("Truncated JFR chunk header");
+        }
+        long size = ByteBuffer.wrap(header, CHUNK_SIZE_OFFSET, Long.BYTES).getLong();
+        if (size <= HEADER_SIZE || size > Integer.MAX_VALUE - 8) {
+            // size is not written yet, take the rest as a chunk
+            byte[] rest = in.readAllBytes();
+            byte[] chunk = Arrays.copyOf(header, HEADER_SIZE + rest.length);
+            System.arraycopy(rest, 0, chunk, HEADER_SIZE, rest.length);
+            return chunk;
+        }
+        byte[] chunk = Arrays.copyOf(header, (int) size);
+        read = in.readNBytes(chunk, HEADER_SIZE, chunk.length - HEADER_SIZE);
+        return read == chunk.length - HEADER_SIZE ? chunk : Arrays.copyOf(chunk, HEADER_SIZE + read);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,213 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import org.apache.commons.lang3.Validate;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.jfr.vo.Butterfly;
+import org.eclipse.jifa.jfr.vo.HotMethod;
+import org.eclipse.jifa.jfr.vo.MethodValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Self and total values of methods, and values flowing between callers and callees, computed from a stack tree
+ * whose node values include the values of their callees. Frames of different lines of a method are counted as
+ * the method, and a method is only counted once in a stack where it is called recursively.
+ * <p>
+ * Pages are selected by a bounded heap, so a page only sorts the methods up to its end.
+ */
+public class MethodProfile {
+    private static final int NO_METHOD = -1;
+
+    private final StackTrie trie;
+    private final long[] values;
+
+    private final Map<String, Integer> methodIds = new HashMap<>();
+    private final List<String> methods = new ArrayList<>();
+    private final int[] nodeMethods;
+
+    private final long[] selfValues;
+    private final long[] totalValues;
+
+    /**
+     * @param frameMethods symbol id of the method of each frame of the trie
+     * @param symbols      method of each symbol id, of which only those of frames are kept
+     */
+    public MethodProfile(StackTrie trie, long[] values, int[] frameMethods, List<String> symbols) {
+        this.trie = trie;
+        this.values = values;
+
+        int[] symbolMethods = new int[symbols.size()];
+        Arrays.fill(symbolMethods, NO_METHOD);
+        int[] methodOfFrame = new int[trie.frameCount()];
+        for (int frame = 0; frame < methodOfFrame.length; frame++) {
+            int symbol = frameMethods[frame];
+            if (symbolMethods[symbol] == NO_METHOD) {
+                symbolMethods[symbol] = methods.size();
+                methodIds.put(symbols.get(symbol), methods.size());
+                methods.add(symbols.get(symbol));
+            }
+            methodOfFrame[frame] = symbolMethods[symbol];
+        }
+        nodeMethods = new int[trie.nodeCount()];
+        nodeMethods[StackTrie.ROOT] = NO_METHOD;
+        for (int node = 1; node < nodeMethods.length; node++) {
+            nodeMethods[node] = methodOfFrame[trie.frameOf(node)];
+        }
+
+        selfValues = new long[methods.size()];
+        totalValues = new long[methods.size()];
+        for (int node = 1; node < nodeMethods.length; node++) {
+            int parent = trie.parent(node);
+            selfValues[nodeMethods[node]] += values[node];
+            if (parent != StackTrie.ROOT) {
+                selfValues[nodeMethods[parent]] -= values[node];
+            }
+        }
+
+        // in a depth-first traversal, a call is the outermost one of its method if no call of the method is on
+        // the path from the root, which is tracked by counting calls of each method on the path
+        int[] ranks = trie.dfsRanks();
+        int[] preorder = new int[ranks.length];
+        for (int node = 0; node < ranks.length; node++) {
+            preorder[ranks[node]] = node;
+        }
+        int[] callsOnPath = new int[methods.size()];
+        int[] path = new int[nodeMethods.length];
+        int pathLength = 0;
+        for (int i = 1; i < preorder.length; i++) {
+            int node = preorder[i];
+            // leave the callees of the previous node until the caller of this node
+            while (pathLength >= trie.depth(node)) {
+                callsOnPath[nodeMethods[path[--pathLength]]]--;
+            }
+            int method = nodeMethods[node];
+            if (callsOnPath[method]++ == 0) {
+                totalValues[method] += values[node];
+            }
+            path[pathLength++] = node;
+        }
+    }
+
+    public PageView<HotMethod> hotMethods(boolean bySelf, PagingRequest paging) {
+        long[] keys = bySelf ? selfValues : totalValues;
+        int[] candidates = new int[methods.size()];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = i;
+        }
+        return page(candidates, keys, paging, method -> {
+            HotMethod hotMethod = new HotMethod();
+            hotMethod.setMethod(methods.get(method));
+            hotMethod.setSelfValue(selfValues[method]);
+            hotMethod.setTotalValue(totalValues[method]);
+            return hotMethod;
+        });
+    }
+
+    /*
+     * Only the outermost calls of the method in a stack are followed, so values of recursive calls are neither
+     * counted twice for callers nor for callees, and a recursive call shows as a callee of the method itself.
+     */
+    public Butterfly butterfly(String method, PagingRequest paging) {
+        Integer id = methodIds.get(method);
+        Validate.isTrue(id != null, "Unknown method: %s", method);
+
+        int nodeCount = nodeMethods.length;
+        boolean[] within = new boolean[nodeCount];
+        boolean[] outermost = new boolean[nodeCount];
+        long[] callerValues = new long[methods.size()];
+        long[] calleeValues = new long[methods.size()];
+        // parents are always created before their children
+        for (int node = 1; node < nodeCount; node++) {
+            int parent = trie.parent(node);
+            boolean self = nodeMethods[node] == id;
+            within[node] = self || within[parent];
+            outermost[node] = self && !within[parent];
+            if (outermost[node] && parent != StackTrie.ROOT) {
+                callerValues[nodeMethods[parent]] += values[node];
+            }
+            if (outermost[parent]) {
+                calleeValues[nodeMethods[node]] += values[node];
+            }
+        }
+
+        Butterfly butterfly = new Butterfly();
+        butterfly.setMethod(method);
+        butterfly.setSelfValue(selfValues[id]);
+        butterfly.setTotalValue(totalValues[id]);
+        butterfly.setCallers(methodValues(callerValues, paging));
+        butterfly.setCallees(methodValues(calleeValues, paging));
+        return butterfly;
+    }
+
+    private PageView<MethodValue> methodValues(long[] values, PagingRequest paging) {
+        int count = 0;
+        for (long value : values) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        int[] candidates = new int[count];
+        for (int method = 0, i = 0; method < values.length; method++) {
+            if (values[method] != 0) {
+                candidates[i++] = method;
+            }
+        }
+        return page(candidates, values, paging, method -> {
+            MethodValue methodValue = new MethodValue();
+            methodValue.setMethod(methods.get(method));
+            methodValue.setValue(values[method]);
+            return methodValue;
+        });
+    }
+
+    private <T> PageView<T> page(int[] candidates, long[] keys, PagingRequest paging, IntFunction<T> mapper) {
+        int from = paging.from();
+        int to = paging.to(candidates.length);
+        if (from >= to) {
+            return new PageView<>(paging, candidates.length, new ArrayList<>());
+        }
+
+        // the head is the least of the top entries, ties being broken by method id for stable pages
+        PriorityQueue<Integer> heap = new PriorityQueue<>(to, (a, b) -> keys[a] != keys[b]
+                                                                          ? Long.compare(keys[a], keys[b])
+                                                                          : Integer.compare(b, a));
+        for (int candidate : candidates) {
+            if (heap.size() < to) {
+                heap.add(candidate);
+            } else if (heap.comparator().compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
+        List<T> data = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            data.add(mapper.apply(top[i]));
+        }
+        return new PageView<>(paging, candidates.length, data);
+    }
+}
@@ -0,0 +1,240 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intern frames as int ids and stacks as nodes of a prefix tree, so that a stack is identified by the int id
+ * of its last frame node and stacks sharing callers share storage. Frame ids and node ids are dense and start
+ * from 0, node 0 being the root, which has no frame.
+ * <p>
+ * Not thread-safe.
+ */
+public class StackTrie {
+    public static final int ROOT = 0;
+
+    private static final int NO_NODE = -1;
+
+    private final Map<String, Integer> frameIds = new HashMap<>();
+    private final List<String> frames = new ArrayList<>();
+
+    private int nodeCount = 1;
+    private int[] parents = new int[64];
+    private int[] nodeFrames = new int[64];
+    private int[] depths = new int[64];
+
+    // open addressing table from (parent, frame) to child node
+    private long[] childKeys;
+    private int[] children;
+    private int childCount;
+
+    public StackTrie() {
+        parents[ROOT] = NO_NODE;
+        nodeFrames[ROOT] = NO_NODE;
+        resizeChildren(64);
+    }
+
+    public int frameId(String frame) {
+        Integer id = frameIds.get(frame);
+        if (id == null) {
+            id = frames.size();
+            frameIds.put(frame, id);
+            frames.add(frame);
+        }
+        return id;
+    }
+
+    public String frame(int frameId) {
+        return frames.get(frameId);
+    }
+
+    public int frameCount() {
+        return frames.size();
+    }
+
+    public String[] frames() {
+        return frames.toArray(new String[0]);
+    }
+
+    /**
+     * @param frames frames from the outermost caller to the innermost callee
+     * @return node of the stack
+     */
+    public int intern(String[] frames) {
+        int node = ROOT;
+        for (String frame : frames) {
+            node = child(node, frameId(frame));
+        }
+        return node;
+    }
+
+    /**
+     * @return child node of parent for the frame, created if absent
+     */
+    public int child(int parent, int frameId) {
+        long key = ((long) parent << 32) | (frameId & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (children[slot] != NO_NODE) {
+            if (childKeys[slot] == key) {
+                return children[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int node = nodeCount++;
+        if (node == parents.length) {
+            parents = Arrays.copyOf(parents, node * 2);
+            nodeFrames = Arrays.copyOf(nodeFrames, node * 2);
+            depths = Arrays.copyOf(depths, node * 2);
+        }
+        parents[node] = parent;
+        nodeFrames[node] = frameId;
+        depths[node] = depths[parent] + 1;
+
+        childKeys[slot] = key;
+        children[slot] = node;
+        if (++childCount * 2 > childKeys.length) {
+            resizeChildren(childKeys.length * 2);
+        }
+        return node;
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int frameOf(int node) {
+        return nodeFrames[node];
+    }
+
+    public int depth(int node) {
+        return depths[node];
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return rank of each node in a depth-first traversal, callers before callees and siblings by frame id,
+     * so that stacks are ordered by comparing the ranks of their nodes
+     */
+    public int[] dfsRanks() {
+        // children grouped by parent, each group sorted by frame id
+        int[] starts = new int[nodeCount + 1];
+        for (int node = 1; node < nodeCount; node++) {
+            starts[parents[node] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            starts[node + 1] += starts[node];
+        }
+        int[] cursors = Arrays.copyOf(starts, nodeCount);
+        long[] children = new long[nodeCount];
+        for (int node = 1; node < nodeCount; node++) {
+            children[cursors[parents[node]]++] = ((long) nodeFrames[node] << 32) | node;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (starts[node + 1] - starts[node] > 1) {
+                Arrays.sort(children, starts[node], starts[node + 1]);
+            }
+        }
+
+        int[] ranks = new int[nodeCount];
+        int[] stack = new int[nodeCount];
+        int top = 0;
+        int rank = 0;
+        stack[top++] = ROOT;
+        while (top > 0) {
+            int node = stack[--top];
+            ranks[node] = rank++;
+            // pushed in reverse, so that the child of the least frame is visited first
+            for (int i = starts[node + 1] - 1; i >= starts[node]; i--) {
+                stack[top++] = (int) children[i];
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * @return number of frames the stacks have in common from the outermost caller
+     */
+    public int commonDepth(int a, int b) {
+        int x = ancestorAt(a, depths[b]);
+        int y = ancestorAt(b, depths[a]);
+        while (x != y) {
+            x = parents[x];
+            y = parents[y];
+        }
+        return depths[x];
+    }
+
+    private int ancestorAt(int node, int depth) {
+        while (depths[node] > depth) {
+            node = parents[node];
+        }
+        return node;
+    }
+
+    /**
+     * @return frame ids of the stack from the outermost caller to the innermost callee
+     */
+    public int[] path(int node) {
+        return path(node, 0);
+    }
+
+    /**
+     * @return frame ids of the stack after the first fromDepth frames
+     */
+    public int[] path(int node, int fromDepth) {
+        int[] path = new int[depths[node] - fromDepth];
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = nodeFrames[node];
+            node = parents[node];
+        }
+        return path;
+    }
+
+    private void resizeChildren(int capacity) {
+        long[] oldKeys = childKeys;
+        int[] oldChildren = children;
+        childKeys = new long[capacity];
+        children = new int[capacity];
+        Arrays.fill(children, NO_NODE);
+        if (oldKeys == null) {
+            return;
+        }
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldChildren[i] != NO_NODE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (children[slot] != NO_NODE) {
+                    slot = (slot + 1) & mask;
+                }
+                childKeys[slot] = oldKeys[i];
+                children[slot] = oldChildren[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,163 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import org.eclipse.jifa.jfr.model.ThreadState;
+import org.eclipse.jifa.jfr.model.ThreadTimeline;
+
+import java.util.Arrays;
+
+/**
+ * Build the timeline of a thread from intervals of states as they come. Intervals of the same state are merged
+ * if they overlap or touch. Where intervals of different states overlap, the one of the later event wins, and
+ * an earlier interval covering a later one is split around it.
+ * <p>
+ * Intervals are kept disjoint and in order of time, each with the start of the event it is from, which decides
+ * the winner where a new interval overlaps it. Events of a thread mostly come in order of time, so a new
+ * interval usually only changes the last ones.
+ */
+public class TimelineBuilder {
+    private static final ThreadState[] STATES = ThreadState.values();
+
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private byte[] states = new byte[16];
+    private long[] origins = new long[16];
+    private int size;
+
+    // intervals replacing those changed by a new interval, created on the first overlap
+    private TimelineBuilder replacement;
+
+    /**
+     * Put the interval of an event over the intervals, keeping the parts of intervals of later events
+     */
+    public void add(long start, long end, ThreadState state) {
+        if (start >= end) {
+            return;
+        }
+        byte s = (byte) state.ordinal();
+        // intervals overlapping or touching [start, end), as touching ones may be merged
+        int from = firstEndingAtOrAfter(start);
+        int to = from;
+        while (to < size && starts[to] <= end) {
+            to++;
+        }
+        if (from == size) {
+            append(start, end, s, start);
+            return;
+        }
+
+        if (replacement == null) {
+            replacement = new TimelineBuilder();
+        }
+        replacement.size = 0;
+        long cursor = start;
+        // the interval of an earlier event going on after the new one
+        int rest = -1;
+        for (int i = from; i < to; i++) {
+            if (origins[i] > start) {
+                // the interval is of a later event
+                replacement.append(cursor, starts[i], s, start);
+                replacement.append(starts[i], ends[i], states[i], origins[i]);
+                cursor = Math.max(cursor, ends[i]);
+                continue;
+            }
+            if (starts[i] < start) {
+                replacement.append(starts[i], start, states[i], origins[i]);
+            }
+            if (ends[i] > end) {
+                rest = i;
+            }
+        }
+        replacement.append(cursor, end, s, start);
+        if (rest >= 0) {
+            replacement.append(Math.max(end, starts[rest]), ends[rest], states[rest], origins[rest]);
+        }
+        splice(from, to, replacement);
+    }
+
+    private int firstEndingAtOrAfter(long time) {
+        // events mostly come in order of time, so the new interval is usually after all others
+        if (size == 0 || ends[size - 1] < time) {
+            return size;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // append an interval, merged with the last one if they touch and are in the same state
+    private void append(long start, long end, byte state, long origin) {
+        if (start >= end) {
+            return;
+        }
+        if (size > 0 && ends[size - 1] == start && states[size - 1] == state) {
+            ends[size - 1] = end;
+            origins[size - 1] = Math.max(origins[size - 1], origin);
+            return;
+        }
+        ensureCapacity(size + 1);
+        starts[size] = start;
+        ends[size] = end;
+        states[size] = state;
+        origins[size] = origin;
+        size++;
+    }
+
+    // replace intervals [from, to) by those of the replacement
+    private void splice(int from, int to, TimelineBuilder replacement) {
+        int delta = replacement.size - (to - from);
+        ensureCapacity(size + delta);
+        int tail = size - to;
+        System.arraycopy(starts, to, starts, to + delta, tail);
+        System.arraycopy(ends, to, ends, to + delta, tail);
+        System.arraycopy(states, to, states, to + delta, tail);
+        System.arraycopy(origins, to, origins, to + delta, tail);
+        System.arraycopy(replacement.starts, 0, starts, from, replacement.size);
+        System.arraycopy(replacement.ends, 0, ends, from, replacement.size);
+        System.arraycopy(replacement.states, 0, states, from, replacement.size);
+        System.arraycopy(replacement.origins, 0, origins, from, replacement.size);
+        size += delta;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int newCapacity = Math.max(capacity, starts.length * 2);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            states = Arrays.copyOf(states, newCapacity);
+            origins = Arrays.copyOf(origins, newCapacity);
+        }
+    }
+
+    public ThreadTimeline build() {
+        ThreadState[] result = new ThreadState[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = STATES[states[i]];
+        }
+        ThreadTimeline timeline = new ThreadTimeline();
+        timeline.setStarts(Arrays.copyOf(starts, size));
+        timeline.setEnds(Arrays.copyOf(ends, size));
+        timeline.setStates(result);
+        return timeline;
+    }
+}
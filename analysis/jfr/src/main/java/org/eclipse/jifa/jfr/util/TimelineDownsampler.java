@@ -0,0 +1,147 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.util;
+
+import org.apache.commons.lang3.Validate;
+import org.eclipse.jifa.jfr.model.ThreadState;
+import org.eclipse.jifa.jfr.model.ThreadTimeline;
+
+import java.util.Arrays;
+
+/**
+ * Reduce a timeline to at most one interval per pixel of a time range. A pixel takes the state covering most
+ * of it, intervals shorter than a pixel being folded into it, and consecutive pixels of the same state are
+ * merged, so the size of the result is bounded by the number of pixels whatever the length of the recording.
+ */
+public class TimelineDownsampler {
+    private static final ThreadState[] STATES = ThreadState.values();
+
+    private final long from;
+    private final long span;
+    private final int pixels;
+
+    private final long[] cover = new long[STATES.length];
+    private int pixel = -1;
+
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private ThreadState[] states = new ThreadState[16];
+    private int lastPixel = -1;
+    private int size;
+
+    private TimelineDownsampler(long from, long to, int pixels) {
+        this.from = from;
+        this.span = to - from;
+        this.pixels = pixels;
+    }
+
+    /**
+     * @param from   start of the range in epoch nanoseconds, inclusive
+     * @param to     end of the range in epoch nanoseconds, exclusive
+     * @param pixels the number of pixels the range is rendered in
+     */
+    public static ThreadTimeline downsample(ThreadTimeline timeline, long from, long to, int pixels) {
+        Validate.isTrue(from < to && pixels > 0, "Invalid range or pixels");
+        TimelineDownsampler sampler = new TimelineDownsampler(from, to, pixels);
+        long[] starts = timeline.getStarts();
+        long[] ends = timeline.getEnds();
+        // skip intervals ending before the range
+        int index = Arrays.binarySearch(ends, from);
+        for (index = index < 0 ? -index - 1 : index + 1; index < starts.length && starts[index] < to; index++) {
+            sampler.add(Math.max(starts[index], from), Math.min(ends[index], to), timeline.getStates()[index]);
+        }
+        sampler.flush();
+
+        ThreadTimeline result = new ThreadTimeline();
+        result.setTask(timeline.getTask());
+        result.setStarts(Arrays.copyOf(sampler.starts, sampler.size));
+        result.setEnds(Arrays.copyOf(sampler.ends, sampler.size));
+        result.setStates(Arrays.copyOf(sampler.states, sampler.size));
+        return result;
+    }
+
+    private void add(long start, long end, ThreadState state) {
+        if (start >= end) {
+            return;
+        }
+        int first = pixelOf(start);
+        if (first != pixel) {
+            flush();
+            pixel = first;
+        }
+        int last = pixelOf(end - 1);
+        if (last == first) {
+            cover[state.ordinal()] += end - start;
+            return;
+        }
+        cover[state.ordinal()] += boundary(first + 1) - start;
+        flush();
+        if (last > first + 1) {
+            emit(state, first + 1, last);
+        }
+        pixel = last;
+        cover[state.ordinal()] += end - boundary(last);
+    }
+
+    private void flush() {
+        if (pixel < 0) {
+            return;
+        }
+        int dominant = -1;
+        for (int i = 0; i < cover.length; i++) {
+            if (cover[i] > 0 && (dominant < 0 || cover[i] > cover[dominant])) {
+                dominant = i;
+            }
+        }
+        if (dominant >= 0) {
+            emit(STATES[dominant], pixel, pixel + 1);
+        }
+        Arrays.fill(cover, 0);
+        pixel = -1;
+    }
+
+    private void emit(ThreadState state, int fromPixel, int toPixel) {
+        if (size > 0 && lastPixel == fromPixel && states[size - 1] == state) {
+            ends[size - 1] = boundary(toPixel);
+            lastPixel = toPixel;
+            return;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        starts[size] = boundary(fromPixel);
+        ends[size] = boundary(toPixel);
+        states[size] = state;
+        lastPixel = toPixel;
+        size++;
+    }
+
+    private int pixelOf(long time) {
+        int pixel = (int) Math.min(pixels - 1, (double) (time - from) * pixels / span);
+        while (pixel + 1 < pixels && boundary(pixel + 1) <= time) {
+            pixel++;
+        }
+        while (pixel > 0 && boundary(pixel) > time) {
+            pixel--;
+        }
+        return pixel;
+    }
+
+    // exact from + span * pixel / pixels without overflow
+    private long boundary(int pixel) {
+        return from + span / pixels * pixel + span % pixels * pixel / pixels;
+    }
+}
@@ -0,0 +1,31 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.eclipse.jifa.common.domain.vo.PageView;
+
+/**
+ * Callers and callees of a method, values being those flowing through the calls
+ */
+@Setter
+@Getter
+public class Butterfly {
+    private String method;
+    private long selfValue;
+    private long totalValue;
+    private PageView<MethodValue> callers;
+    private PageView<MethodValue> callees;
+}
@@ -0,0 +1,68 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Flame graph with frames as int ids and prefix-compressed stacks. Row i belongs to task tasks[taskIndexes[i]],
+ * and its stack, from the outermost caller, is the first prefixLengths[i] frames of the stack of row i - 1
+ * followed by suffixes[i]. Rows are sorted by task and then by stack, so most of a stack is usually shared
+ * with the previous row.
+ */
+@Setter
+@Getter
+public class CompactFlameGraph {
+    private String[] symbols = new String[0];
+    private String[] tasks = new String[0];
+    private Map<String, Long> threadSplit = new HashMap<>();
+
+    private int[] taskIndexes = new int[0];
+    private int[] prefixLengths = new int[0];
+    private int[][] suffixes = new int[0][];
+    private long[] values = new long[0];
+
+    /**
+     * @return the flame graph in the original shape, whose symbol ids are frame ids plus 1
+     */
+    public FlameGraph toFlameGraph() {
+        Map<Integer, String> symbolTable = new HashMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            symbolTable.put(i + 1, symbols[i]);
+        }
+
+        Object[][] data = new Object[values.length][];
+        String[] stack = new String[0];
+        for (int i = 0; i < values.length; i++) {
+            int[] suffix = suffixes[i];
+            String[] current = Arrays.copyOf(stack, prefixLengths[i] + suffix.length);
+            for (int j = 0; j < suffix.length; j++) {
+                current[prefixLengths[i] + j] = String.valueOf(suffix[j] + 1);
+            }
+            data[i] = new Object[]{current, values[i], tasks[taskIndexes[i]]};
+            stack = current;
+        }
+
+        FlameGraph fg = new FlameGraph();
+        fg.setData(data);
+        fg.setThreadSplit(threadSplit);
+        fg.setSymbolTable(symbolTable);
+        return fg;
+    }
+}
@@ -0,0 +1,37 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Stack trees of a baseline and a target aligned by frame. Node i has frame symbols[frames[i]] and parent
+ * parents[i], node 0 being the root, which has no frame and parent -1. Values of a node include values of its
+ * callees, and deltas[i] is targetValues[i] / targetTotal - baselineValues[i] / baselineTotal.
+ */
+@Setter
+@Getter
+public class DiffFlameGraph {
+    private String[] symbols = new String[0];
+
+    private long baselineTotal;
+    private long targetTotal;
+
+    private int[] parents = new int[0];
+    private int[] frames = new int[0];
+    private long[] baselineValues = new long[0];
+    private long[] targetValues = new long[0];
+    private double[] deltas = new double[0];
+}
@@ -0,0 +1,29 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Self and total values of a method, frames of all lines of the method being counted together
+ */
+@Setter
+@Getter
+public class HotMethod {
+    private String method;
+    private long selfValue;
+    // recursive calls are only counted once
+    private long totalValue;
+}
@@ -0,0 +1,33 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Old object samples of a class. Classes with many old samples surviving for long are likely to leak.
+ */
+@Setter
+@Getter
+public class LeakCandidate {
+    private String className;
+
+    private int count;
+
+    // unit: ms
+    private long maxAge;
+
+    private long averageAge;
+}
@@ -20,4 +20,7 @@ import org.eclipse.jifa.jfr.model.PerfDimension;
 @Getter
 public class Metadata {
     private PerfDimension[] perfDimensions;
+    // time range of the recording in epoch milliseconds
+    private long startTime;
+    private long endTime;
 }
@@ -0,0 +1,35 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.jfr.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.eclipse.jifa.jfr.model.Problem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Findings of JMC rules, which may be partial if the evaluation is not finished
+ */
+@Setter
+@Getter
+public class Problems {
+    private List<Problem> problems = new ArrayList<>();
+    private int evaluatedRules;
+    private int totalRules;
+    private boolean finished;
+    // set if events can not be loaded for the rules
+    private String error;
+}
@@ -15,14 +15,27 @@ package org.eclipse.jifa.jfr;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Triple;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
 import org.eclipse.jifa.jfr.api.JFRAnalyzer;
 import org.eclipse.jifa.jfr.common.ProfileDimension;
 import org.eclipse.jifa.jfr.model.AnalysisResult;
 import org.eclipse.jifa.jfr.model.JavaThreadCPUTime;
+import org.eclipse.jifa.jfr.request.AnalysisRequest;
 import org.eclipse.jifa.jfr.request.DimensionBuilder;
 import org.eclipse.jifa.jfr.helper.SimpleFlameGraph;
 import org.eclipse.jifa.jfr.model.*;
+import org.eclipse.jifa.jfr.vo.Butterfly;
+import org.eclipse.jifa.jfr.vo.HotMethod;
+import org.eclipse.jifa.jfr.vo.LeakCandidate;
 import org.eclipse.jifa.jfr.vo.Metadata;
+import org.eclipse.jifa.jfr.vo.MethodValue;
+import org.eclipse.jifa.jfr.vo.Problems;
+import org.eclipse.jifa.jfr.util.AnalysisResultSerDes;
+import org.eclipse.jifa.jfr.util.TimelineBuilder;
+import org.eclipse.jifa.jfr.util.TimelineDownsampler;
+import org.eclipse.jifa.jfr.vo.CompactFlameGraph;
+import org.eclipse.jifa.jfr.vo.DiffFlameGraph;
 import org.eclipse.jifa.jfr.vo.FlameGraph;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -32,6 +45,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
 
 public class TestJFRAnalyzer {
@@ -59,6 +74,431 @@ public class TestJFRAnalyzer {
         Assertions.assertNotNull(fg.getThreadSplit());
     }
 
+    @Test
+    public void testCompactFlameGraph() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+
+        // every stack of the result is a row of the flame graph decoded from the compact one
+        List<String> expected = new ArrayList<>();
+        for (TaskCount tc : analyzer.getResult().getCpuSample().getList()) {
+            tc.getSamples().forEach((st, value) -> {
+                List<String> frames = new ArrayList<>();
+                for (int i = st.getFrames().length - 1; i >= 0; i--) {
+                    frames.add(st.getFrames()[i].toString());
+                }
+                expected.add(tc.getTask().getName() + frames + value);
+            });
+        }
+        Collections.sort(expected);
+
+        CompactFlameGraph compact = analyzer.getCompactFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), false, null);
+        FlameGraph fg = analyzer.getFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), false, null);
+        List<String> actual = new ArrayList<>();
+        for (Object[] row : fg.getData()) {
+            List<String> frames = new ArrayList<>();
+            for (String id : (String[]) row[0]) {
+                frames.add(fg.getSymbolTable().get(Integer.parseInt(id)));
+            }
+            actual.add(row[2] + frames.toString() + row[1]);
+        }
+        Collections.sort(actual);
+        Assertions.assertEquals(actual, expected);
+        Assertions.assertEquals(fg.getThreadSplit(), compact.getThreadSplit());
+
+        // shared callers are not repeated
+        int frames = 0;
+        int encodedFrames = 0;
+        for (Object[] row : fg.getData()) {
+            frames += ((String[]) row[0]).length;
+        }
+        for (int[] suffix : compact.getSuffixes()) {
+            encodedFrames += suffix.length;
+        }
+        Assertions.assertTrue(encodedFrames < frames);
+
+        // stacks are interned once for all graphs of the dimension, but a graph only has symbols of its rows
+        TaskCount task = analyzer.getResult().getCpuSample().getList().get(0);
+        Set<String> taskFrames = new HashSet<>();
+        task.getSamples().keySet().forEach(st -> Arrays.stream(st.getFrames()).forEach(f -> taskFrames.add(f.toString())));
+        CompactFlameGraph ofTask = analyzer.getCompactFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), true,
+                                                                 List.of(task.getTask().getName()));
+        Assertions.assertEquals(Set.of(ofTask.getSymbols()), taskFrames);
+        Assertions.assertEquals(ofTask.getTasks().length, 1);
+    }
+
+    @Test
+    public void testTimeRangeFlameGraph() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.CPU | DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+        Metadata metadata = analyzer.metadata();
+        long start = metadata.getStartTime();
+        long end = metadata.getEndTime() + 1;
+        Assertions.assertTrue(start > 0 && start < end);
+
+        // cpu time of gc is not sampled, so it is not in any range
+        List<String> gc = List.of("GC Thread");
+        for (ProfileDimension dimension : new ProfileDimension[]{ProfileDimension.CPU, ProfileDimension.CPU_SAMPLE}) {
+            FlameGraph all = analyzer.getFlameGraph(dimension.getKey(), false, gc);
+            FlameGraph whole = analyzer.getTimeRangeFlameGraph(dimension.getKey(), start, end, false, gc);
+            Assertions.assertEquals(whole.getThreadSplit().keySet(), all.getThreadSplit().keySet());
+            Assertions.assertEquals(totalValue(whole), totalValue(all));
+
+            // samples of adjacent ranges split at a bucket boundary add up
+            long middle = TaskResultBase.bucketOf(start + (end - start) / 2);
+            FlameGraph first = analyzer.getTimeRangeFlameGraph(dimension.getKey(), start, middle, false, gc);
+            FlameGraph second = analyzer.getTimeRangeFlameGraph(dimension.getKey(), middle, end, false, gc);
+            Assertions.assertTrue(totalValue(first) > 0);
+            Assertions.assertTrue(totalValue(first) < totalValue(whole));
+            Assertions.assertEquals(totalValue(first) + totalValue(second), totalValue(whole));
+
+            // and so do those split within a bucket
+            FlameGraph head = analyzer.getTimeRangeFlameGraph(dimension.getKey(), start, middle + 123, false, gc);
+            FlameGraph tail = analyzer.getTimeRangeFlameGraph(dimension.getKey(), middle + 123, end, false, gc);
+            Assertions.assertEquals(totalValue(head) + totalValue(tail), totalValue(whole));
+
+            FlameGraph before = analyzer.getTimeRangeFlameGraph(dimension.getKey(), 0, start - 1000, false, null);
+            Assertions.assertEquals(before.getData().length, 0);
+        }
+
+        FlameGraph thread = analyzer.getTimeRangeFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), start, end, true,
+                List.of("Thread-6"));
+        Assertions.assertEquals(thread.getThreadSplit().keySet(), Set.of("Thread-6"));
+        Assertions.assertEquals(totalValue(thread), 952);
+
+        // time buckets of a task hold all of its samples
+        for (TaskCount task : analyzer.getResult().getCpuSample().getList()) {
+            Assertions.assertEquals(task.samplesBetween(0, Long.MAX_VALUE), task.getSamples());
+            TimeBuckets buckets = task.getTimeBuckets();
+            Assertions.assertEquals(buckets.getOffsets().length, buckets.getStarts().length + 1);
+            Assertions.assertEquals(buckets.getValues().length, buckets.getOffsets()[buckets.getStarts().length]);
+        }
+
+        // only dimensions serving time range flame graphs are indexed by time
+        analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.ALLOC, null, ProgressListener.NoOpProgressListener);
+        for (TaskAllocations task : analyzer.getResult().getAllocations().getList()) {
+            Assertions.assertNull(task.getTimeBuckets());
+        }
+        JFRAnalyzerImpl allocations = analyzer;
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> allocations.getTimeRangeFlameGraph(ProfileDimension.ALLOC.getKey(), start, end, false, null));
+    }
+
+    @Test
+    public void testTimeBucketsClipped() {
+        StackTrace a = new StackTrace();
+        StackTrace b = new StackTrace();
+        b.setTruncated(true);
+        long bucket = TaskResultBase.bucketOf(System.currentTimeMillis());
+        TimeBuckets.Builder<StackTrace> builder = new TimeBuckets.Builder<>();
+        builder.add(a, bucket + 100, 1);
+        builder.add(b, bucket + 200, 2);
+        builder.add(a, bucket + 300, 4);
+        builder.add(a, bucket + TaskResultBase.BUCKET_MILLIS + 100, 8);
+        builder.add(b, bucket - 1, 16);
+        TimeBuckets buckets = builder.build(st -> st);
+
+        // start and end within one bucket
+        Assertions.assertEquals(Map.of(b, 2L), buckets.samplesBetween(bucket + 150, bucket + 250));
+        Assertions.assertEquals(Map.of(a, 1L, b, 2L), buckets.samplesBetween(bucket + 100, bucket + 300));
+        Assertions.assertEquals(Map.of(), buckets.samplesBetween(bucket + 301, bucket + 999));
+        // partly covered buckets at both ends
+        Assertions.assertEquals(Map.of(a, 12L), buckets.samplesBetween(bucket + 250, bucket + 1101));
+        Assertions.assertEquals(Map.of(a, 13L, b, 18L), buckets.samplesBetween(bucket - 1, bucket + 2000));
+        Assertions.assertEquals(Map.of(a, 5L, b, 2L), buckets.samplesBetween(bucket, bucket + 1000));
+    }
+
+    @Test
+    public void testHotMethods() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+        String dimension = ProfileDimension.CPU_SAMPLE.getKey();
+        long total = totalValue(analyzer.getFlameGraph(dimension, false, null));
+
+        PageView<HotMethod> all = analyzer.getHotMethods(dimension, true, false, null,
+                new PagingRequest(1, Integer.MAX_VALUE));
+        Assertions.assertEquals(all.getData().size(), all.getTotalSize());
+        long selfSum = 0;
+        for (int i = 0; i < all.getData().size(); i++) {
+            HotMethod method = all.getData().get(i);
+            Assertions.assertTrue(method.getSelfValue() <= method.getTotalValue());
+            Assertions.assertTrue(method.getTotalValue() <= total);
+            if (i > 0) {
+                Assertions.assertTrue(all.getData().get(i - 1).getSelfValue() >= method.getSelfValue());
+            }
+            selfSum += method.getSelfValue();
+        }
+        Assertions.assertEquals(selfSum, total);
+
+        // a stack counts once for the total of each method in it, however many times the method is called
+        FlameGraph fg = analyzer.getFlameGraph(dimension, false, null);
+        Map<String, Long> totals = new HashMap<>();
+        for (Object[] row : fg.getData()) {
+            Set<String> methods = new HashSet<>();
+            for (String id : (String[]) row[0]) {
+                methods.add(fg.getSymbolTable().get(Integer.parseInt(id)).replaceFirst(":\\d+$", ""));
+            }
+            methods.forEach(method -> totals.merge(method, (Long) row[1], Long::sum));
+        }
+        for (HotMethod method : all.getData()) {
+            Assertions.assertEquals(method.getTotalValue(), totals.get(method.getMethod()));
+        }
+        Assertions.assertEquals(all.getData().size(), totals.size());
+
+        // pages are slices of the whole order
+        PageView<HotMethod> second = analyzer.getHotMethods(dimension, true, false, null, new PagingRequest(2, 5));
+        Assertions.assertEquals(second.getTotalSize(), all.getTotalSize());
+        for (int i = 0; i < second.getData().size(); i++) {
+            Assertions.assertEquals(second.getData().get(i).getMethod(), all.getData().get(5 + i).getMethod());
+        }
+
+        HotMethod top = analyzer.getHotMethods(dimension, false, false, null, new PagingRequest(1, 1))
+                                .getData().get(0);
+        Butterfly butterfly = analyzer.getButterfly(dimension, top.getMethod(), false, null,
+                new PagingRequest(1, Integer.MAX_VALUE));
+        Assertions.assertEquals(butterfly.getTotalValue(), top.getTotalValue());
+        long callers = butterfly.getCallers().getData().stream().mapToLong(MethodValue::getValue).sum();
+        long callees = butterfly.getCallees().getData().stream().mapToLong(MethodValue::getValue).sum();
+        Assertions.assertTrue(callers <= butterfly.getTotalValue());
+        Assertions.assertTrue(callees <= butterfly.getTotalValue());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> analyzer.getButterfly(dimension, "no.such.Method", false, null, new PagingRequest(1, 1)));
+    }
+
+    @Test
+    public void testThreadTimelines() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.THREAD_TIMELINE, null,
+                ProgressListener.NoOpProgressListener);
+        List<ThreadTimeline> timelines = analyzer.getResult().getThreadTimelines();
+        Assertions.assertFalse(timelines.isEmpty());
+        for (ThreadTimeline timeline : timelines) {
+            for (int i = 0; i < timeline.getStarts().length; i++) {
+                Assertions.assertTrue(timeline.getStarts()[i] < timeline.getEnds()[i]);
+                if (i > 0) {
+                    Assertions.assertTrue(timeline.getEnds()[i - 1] <= timeline.getStarts()[i]);
+                }
+            }
+        }
+
+        // timelines are only built if requested
+        Assertions.assertNull(new JFRAnalyzerImpl(path, null, ProgressListener.NoOpProgressListener)
+                                      .getResult().getThreadTimelines());
+        Assertions.assertEquals(new JFRAnalyzerImpl(path, Map.of(JFRAnalyzerImpl.OPTION_THREAD_TIMELINE, "true"),
+                                                    ProgressListener.NoOpProgressListener)
+                                        .getResult().getThreadTimelines().size(), timelines.size());
+
+        Metadata metadata = analyzer.metadata();
+        int pixels = 50;
+        PageView<ThreadTimeline> page = analyzer.getThreadTimelines(metadata.getStartTime(),
+                metadata.getEndTime() + 1, pixels, new PagingRequest(1, 10));
+        Assertions.assertEquals(page.getTotalSize(), timelines.size());
+        for (ThreadTimeline timeline : page.getData()) {
+            Assertions.assertTrue(timeline.getStarts().length <= pixels);
+            for (int i = 1; i < timeline.getStarts().length; i++) {
+                Assertions.assertTrue(timeline.getEnds()[i - 1] <= timeline.getStarts()[i]);
+            }
+        }
+
+        // short intervals are folded into the dominant state of their pixels
+        ThreadTimeline timeline = new ThreadTimeline();
+        timeline.setStarts(new long[]{0, 10, 12, 150});
+        timeline.setEnds(new long[]{10, 12, 100, 200});
+        timeline.setStates(new ThreadState[]{ThreadState.RUNNING, ThreadState.PARKED, ThreadState.RUNNING,
+                                             ThreadState.SLEEPING});
+        ThreadTimeline downsampled = TimelineDownsampler.downsample(timeline, 0, 200, 20);
+        Assertions.assertArrayEquals(downsampled.getStarts(), new long[]{0, 150});
+        Assertions.assertArrayEquals(downsampled.getEnds(), new long[]{100, 200});
+        Assertions.assertArrayEquals(downsampled.getStates(), new ThreadState[]{ThreadState.RUNNING,
+                                                                               ThreadState.SLEEPING});
+
+        // a later interval inside an earlier one splits it, and intervals of the same state are merged
+        TimelineBuilder builder = new TimelineBuilder();
+        builder.add(0, 100, ThreadState.PARKED);
+        builder.add(10, 20, ThreadState.RUNNING);
+        builder.add(15, 30, ThreadState.RUNNING);
+        builder.add(40, 50, ThreadState.BLOCKED);
+        builder.add(90, 120, ThreadState.PARKED);
+        builder.add(150, 160, ThreadState.SLEEPING);
+        // an event visited late only fills what later events leave
+        builder.add(140, 170, ThreadState.RUNNING);
+        ThreadTimeline built = builder.build();
+        Assertions.assertArrayEquals(built.getStarts(), new long[]{0, 10, 30, 40, 50, 140, 150, 160});
+        Assertions.assertArrayEquals(built.getEnds(), new long[]{10, 30, 40, 50, 120, 150, 160, 170});
+        Assertions.assertArrayEquals(built.getStates(), new ThreadState[]{
+                ThreadState.PARKED, ThreadState.RUNNING, ThreadState.PARKED, ThreadState.BLOCKED,
+                ThreadState.PARKED, ThreadState.RUNNING, ThreadState.SLEEPING, ThreadState.RUNNING});
+    }
+
+    @Test
+    public void testAllocationPressure() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.ALLOCATION_PRESSURE | DimensionBuilder.MEM,
+                null, ProgressListener.NoOpProgressListener);
+        AllocationPressure pressure = analyzer.getAllocationPressure(Integer.MAX_VALUE);
+        long allocatedMemory = analyzer.getResult().getAllocatedMemory().getList().stream()
+                                        .mapToLong(TaskAllocatedMemory::getAllocatedMemory).sum();
+        Assertions.assertEquals(pressure.getInNewTLAB() + pressure.getOutsideTLAB(), allocatedMemory);
+
+        // pressure is only built if requested
+        Assertions.assertNull(new JFRAnalyzerImpl(path, null, ProgressListener.NoOpProgressListener)
+                                      .getAllocationPressure(Integer.MAX_VALUE));
+        Assertions.assertEquals(new JFRAnalyzerImpl(path, Map.of(JFRAnalyzerImpl.OPTION_ALLOCATION_PRESSURE, "true"),
+                                                    ProgressListener.NoOpProgressListener)
+                                        .getAllocationPressure(Integer.MAX_VALUE).getInNewTLAB(),
+                                pressure.getInNewTLAB());
+
+        long classTotal = 0;
+        for (AllocationSeries series : pressure.getClasses()) {
+            Assertions.assertEquals(series.getInNewTLAB() + series.getOutsideTLAB(), series.getTotal());
+            Assertions.assertEquals(Arrays.stream(series.getValues()).sum(), series.getTotal());
+            for (int i = 1; i < series.getBuckets().length; i++) {
+                Assertions.assertTrue(series.getBuckets()[i - 1] < series.getBuckets()[i]);
+            }
+            classTotal += series.getTotal();
+        }
+        Assertions.assertEquals(classTotal, allocatedMemory);
+        Assertions.assertEquals(pressure.getThreads().stream().mapToLong(AllocationSeries::getTotal).sum(),
+                                allocatedMemory);
+        Assertions.assertEquals(analyzer.getAllocationPressure(1).getClasses().size(), 1);
+
+        Assertions.assertEquals(pressure.getGcPauses().size(), 55);
+        for (GCPause pause : pressure.getGcPauses()) {
+            Assertions.assertTrue(pause.getSumOfPauses() > 0);
+        }
+
+        Assertions.assertEquals(pressure.getOldObjects().size(), 3);
+        Assertions.assertTrue(pressure.getOldObjects().get(0).getAge() >= pressure.getOldObjects().get(2).getAge());
+        List<LeakCandidate> candidates = analyzer.getLeakCandidates();
+        Assertions.assertEquals(candidates.get(0).getClassName(), "java.lang.String");
+        Assertions.assertEquals(candidates.get(0).getCount(), 2);
+        Assertions.assertTrue(candidates.get(0).getAverageAge() <= candidates.get(0).getMaxAge());
+    }
+
+    @Test
+    public void testDiffFlameGraph() throws IOException {
+        Path single = createTmpFileForResource("jfr.jfr");
+        Path doubled = Files.createTempFile("temp", ".jfr");
+        doubled.toFile().deleteOnExit();
+        byte[] bytes = Files.readAllBytes(single);
+        Files.write(doubled, bytes);
+        Files.write(doubled, bytes, StandardOpenOption.APPEND);
+
+        // the same samples twice only differ in absolute values
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(doubled, DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+        String dimension = ProfileDimension.CPU_SAMPLE.getKey();
+        DiffFlameGraph diff = analyzer.getDiffFlameGraph(single, dimension, false, null);
+        Assertions.assertEquals(diff.getTargetTotal(), diff.getBaselineTotal() * 2);
+        Assertions.assertEquals(diff.getTargetValues()[0], diff.getTargetTotal());
+        for (int i = 0; i < diff.getDeltas().length; i++) {
+            Assertions.assertEquals(diff.getTargetValues()[i], diff.getBaselineValues()[i] * 2);
+            Assertions.assertEquals(diff.getDeltas()[i], 0, 1e-9);
+        }
+        // served from cached trees
+        Assertions.assertArrayEquals(analyzer.getDiffFlameGraph(single, dimension, false, null).getDeltas(),
+                                     diff.getDeltas());
+        // the baseline is analyzed once and persisted, so it is loaded from the sidecar when reopened
+        Path sidecar = AnalysisResultSerDes.resolveSerializedDataPath(single);
+        sidecar.toFile().deleteOnExit();
+        Assertions.assertTrue(Files.exists(sidecar));
+        Assertions.assertArrayEquals(analyzer.getDiffFlameGraph(single, dimension, true, List.of("main")).getDeltas(),
+                                     new JFRAnalyzerImpl(doubled, DimensionBuilder.CPU_SAMPLE, null,
+                                                         ProgressListener.NoOpProgressListener)
+                                             .getDiffFlameGraph(single, dimension, true, List.of("main")).getDeltas());
+
+        // two windows of one recording
+        Metadata metadata = analyzer.metadata();
+        long middle = TaskResultBase.bucketOf((metadata.getStartTime() + metadata.getEndTime()) / 2);
+        long end = metadata.getEndTime() + 1;
+        DiffFlameGraph windows = analyzer.getTimeRangeDiffFlameGraph(dimension, metadata.getStartTime(), middle,
+                middle, end, false, null);
+        Assertions.assertEquals(windows.getBaselineTotal() + windows.getTargetTotal(), diff.getTargetTotal());
+        double deltaSum = 0;
+        for (int i = 1; i < windows.getParents().length; i++) {
+            Assertions.assertTrue(windows.getParents()[i] < i);
+            if (windows.getParents()[i] == 0) {
+                deltaSum += windows.getDeltas()[i];
+            }
+        }
+        // callers at the root cover all samples of both sides
+        Assertions.assertEquals(deltaSum, 0, 1e-9);
+    }
+
+    private static long totalValue(FlameGraph fg) {
+        long total = 0;
+        for (Object[] row : fg.getData()) {
+            total += (Long) row[1];
+        }
+        return total;
+    }
+
+    @Test
+    public void testPersistedResult() throws IOException {
+        Path path = createTmpFileForResource("jfr.jfr");
+        Path sidecar = AnalysisResultSerDes.resolveSerializedDataPath(path);
+        sidecar.toFile().deleteOnExit();
+
+        JFRAnalyzerImpl analyzed = JFRAnalyzerImpl.build(path, null, ProgressListener.NoOpProgressListener);
+        Assertions.assertTrue(Files.exists(sidecar));
+
+        // the processing time of the persisted result is kept, which tells whether the recording was analyzed again
+        JFRAnalyzerImpl reopened = JFRAnalyzerImpl.build(path, null, ProgressListener.NoOpProgressListener);
+        Assertions.assertEquals(reopened.getResult().getProcessingTimeMillis(),
+                analyzed.getResult().getProcessingTimeMillis());
+        Assertions.assertEquals(reopened.metadata().getStartTime(), analyzed.metadata().getStartTime());
+        for (ProfileDimension dimension : new ProfileDimension[]{ProfileDimension.CPU, ProfileDimension.ALLOC,
+                ProfileDimension.THREAD_PARK}) {
+            FlameGraph expected = analyzed.getFlameGraph(dimension.getKey(), false, null);
+            FlameGraph actual = reopened.getFlameGraph(dimension.getKey(), false, null);
+            Assertions.assertEquals(actual.getThreadSplit(), expected.getThreadSplit());
+            Assertions.assertEquals(totalValue(actual), totalValue(expected));
+        }
+        long start = analyzed.metadata().getStartTime();
+        Assertions.assertEquals(
+                totalValue(reopened.getTimeRangeFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), start, start + 5000, false, null)),
+                totalValue(analyzed.getTimeRangeFlameGraph(ProfileDimension.CPU_SAMPLE.getKey(), start, start + 5000, false, null)));
+
+        // a modified recording is analyzed again
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() - 60000));
+        Assertions.assertNull(AnalysisResultSerDes.load(path, DimensionBuilder.ALL));
+    }
+
+    @Test
+    public void testProblems() throws Exception {
+        Path path = createTmpFileForResource("jfr.jfr");
+        JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+        Assertions.assertNull(analyzer.getResult().getProblems());
+
+        // rules are evaluated in background once asked for
+        Problems problems = analyzer.getProblems();
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (!problems.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            problems = analyzer.getProblems();
+        }
+        Assertions.assertTrue(problems.isFinished());
+        Assertions.assertNull(problems.getError());
+        Assertions.assertTrue(problems.getTotalRules() > 0);
+        Assertions.assertEquals(problems.getEvaluatedRules(), problems.getTotalRules());
+
+        // the same findings as rules evaluated during analysis
+        JFRAnalyzerImpl withProblems = new JFRAnalyzerImpl(path, ProfileDimension.PROBLEMS.getValue(), null,
+                ProgressListener.NoOpProgressListener);
+        List<String> expected = withProblems.getResult().getProblems().stream().map(Problem::getSummary).toList();
+        Assertions.assertEquals(problems.getProblems().stream().map(Problem::getSummary).toList(), expected);
+        Assertions.assertEquals(withProblems.getProblems().getProblems().size(), expected.size());
+
+        // the evaluation is shared by analyzers of the same file
+        JFRAnalyzerImpl another = new JFRAnalyzerImpl(path, DimensionBuilder.CPU_SAMPLE, null,
+                ProgressListener.NoOpProgressListener);
+        Assertions.assertTrue(another.getProblems().isFinished());
+    }
+
     @Test
     public void testCpu() throws IOException {
         Path path = createTmpFileForResource("jfr.jfr");
@@ -622,6 +1062,108 @@ public class TestJFRAnalyzer {
         Assertions.assertTrue(result.getCpuSample().getList().isEmpty());
     }
 
+    @Test
+    public void testMultipleChunks() throws IOException {
+        // a recording can be concatenated with another one, chunks of both are analyzed
+        Path single = createTmpFileForResource("jfr.jfr");
+        Path path = Files.createTempFile("temp", ".jfr");
+        path.toFile().deleteOnExit();
+        byte[] bytes = Files.readAllBytes(single);
+        Files.write(path, bytes);
+        Files.write(path, bytes, StandardOpenOption.APPEND);
+
+        int dimensions = DimensionBuilder.CPU_SAMPLE | DimensionBuilder.ALLOC;
+        for (int workers : new int[]{1, 4}) {
+            JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(new AnalysisRequest(workers, path, dimensions),
+                    ProgressListener.NoOpProgressListener);
+            AnalysisResult result = analyzer.getResult();
+
+            TaskCount cpu = result.getCpuSample().getList().stream()
+                    .filter(item -> item.getTask().getName().equals("Thread-6")).findAny().orElseThrow();
+            Assertions.assertEquals(952 * 2, SimpleFlameGraph.parse(cpu).totalSampleValue.longValue());
+
+            TaskAllocations alloc = result.getAllocations().getList().stream()
+                    .filter(item -> item.getTask().getName().equals("main")).findAny().orElseThrow();
+            Assertions.assertEquals(13674 * 2, SimpleFlameGraph.parse(alloc).totalSampleValue.intValue());
+        }
+    }
+
+    @Test
+    public void testShardedExtractors() throws IOException {
+        // extractors sharded by thread must give the same results as a single instance
+        Path single = createTmpFileForResource("jfr.jfr");
+        Path path = Files.createTempFile("temp", ".jfr");
+        path.toFile().deleteOnExit();
+        byte[] bytes = Files.readAllBytes(single);
+        Files.write(path, bytes);
+        Files.write(path, bytes, StandardOpenOption.APPEND);
+
+        List<Map<String, Long>> totals = new ArrayList<>();
+        for (int workers : new int[]{1, 4}) {
+            JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(new AnalysisRequest(workers, path, DimensionBuilder.ALL),
+                    ProgressListener.NoOpProgressListener);
+            AnalysisResult result = analyzer.getResult();
+
+            Map<String, Long> total = new TreeMap<>();
+            sumSamples(total, "cpuSample", result.getCpuSample());
+            sumSamples(total, "allocations", result.getAllocations());
+            sumSamples(total, "allocatedMemory", result.getAllocatedMemory());
+            sumSamples(total, "threadPark", result.getThreadPark());
+            sumSamples(total, "synchronization", result.getSynchronization());
+            sumSamples(total, "classLoadCount", result.getClassLoadCount());
+            sumSamples(total, "wallClock", result.getWallClock());
+            totals.add(total);
+        }
+        Assertions.assertFalse(totals.get(0).isEmpty());
+        Assertions.assertEquals(totals.get(1), totals.get(0));
+    }
+
+    @Test
+    public void testParallelWorkersScalability() throws IOException {
+        int copies = 8;
+        Path single = createTmpFileForResource("jfr.jfr");
+        Path path = Files.createTempFile("temp", ".jfr");
+        path.toFile().deleteOnExit();
+        byte[] bytes = Files.readAllBytes(single);
+        for (int i = 0; i < copies; i++) {
+            Files.write(path, bytes, StandardOpenOption.APPEND);
+        }
+
+        // workers running at the same time are capped at the number of available processors
+        int cores = Runtime.getRuntime().availableProcessors();
+        Map<String, Long> expected = null;
+        for (int workers = 1; workers <= 32; workers *= 2) {
+            long beginTime = System.currentTimeMillis();
+            JFRAnalyzerImpl analyzer = new JFRAnalyzerImpl(path, DimensionBuilder.CPU_SAMPLE | DimensionBuilder.ALLOC,
+                    Map.of(JFRAnalyzerImpl.OPTION_PARALLEL_WORKERS, String.valueOf(workers)),
+                    ProgressListener.NoOpProgressListener);
+            double spendTime = Math.max(System.currentTimeMillis() - beginTime, 1) / 1000.;
+
+            Map<String, Long> total = new TreeMap<>();
+            sumSamples(total, "cpuSample", analyzer.getResult().getCpuSample());
+            sumSamples(total, "allocations", analyzer.getResult().getAllocations());
+            if (expected == null) {
+                expected = total;
+            }
+            Assertions.assertEquals(expected, total);
+            System.out.printf("%d workers (%d concurrent), %d chunks analysed, duration %fs, %f chunks processed per second\n",
+                    workers, Math.min(workers, cores), copies, spendTime, copies / spendTime);
+        }
+    }
+
+    private static void sumSamples(Map<String, Long> total, String dimension,
+                                   DimensionResult<? extends TaskResultBase> result) {
+        if (result == null) {
+            return;
+        }
+        for (TaskResultBase task : result.getList()) {
+            if (task.getSamples() != null) {
+                long sum = task.getSamples().values().stream().mapToLong(Long::longValue).sum();
+                total.merge(dimension + "/" + task.getTask().getName(), sum, Long::sum);
+            }
+        }
+    }
+
     public static Path createTmpFileForResource(String resource) throws IOException {
         Path path = Files.createTempFile("temp", ".jfr");
         path.toFile().deleteOnExit();
@@ -39,10 +39,14 @@ import org.eclipse.jifa.tda.vo.VFrame;
 import org.eclipse.jifa.tda.vo.VMonitor;
 import org.eclipse.jifa.tda.vo.VThread;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.LineNumberReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -213,19 +217,14 @@ public class ThreadDumpAnalyzer {
         if (thread == null) {
             throw new IllegalArgumentException("Thread id is illegal: " + id);
         }
-        String path = snapshot.getPath();
 
         int start = thread.getLineStart();
         int end = thread.getLineEnd();
         List<String> content = new ArrayList<>();
 
-        try (LineNumberReader lnr = new LineNumberReader(new FileReader(path))) {
-            for (int i = 1; i < start; i++) {
-                lnr.readLine();
-            }
-
+        try (BufferedReader reader = openAt(start)) {
             for (int i = start; i <= end; i++) {
-                content.add(lnr.readLine());
+                content.add(reader.readLine());
             }
         }
 
@@ -239,34 +238,52 @@ public class ThreadDumpAnalyzer {
      * @throws IOException
      */
     public Content content(int lineNo, int lineLimit) throws IOException {
-        String path = snapshot.getPath();
-
         int end = lineNo + lineLimit - 1;
         List<String> content = new ArrayList<>();
         boolean reachEnd;
 
-        try (LineNumberReader lnr = new LineNumberReader(new FileReader(path))) {
-            for (int i = 1; i < lineNo; i++) {
-                String line = lnr.readLine();
-                if (line == null) {
-                    break;
-                }
-            }
-
+        try (BufferedReader reader = openAt(lineNo)) {
             for (int i = lineNo; i <= end; i++) {
-                String line = lnr.readLine();
+                String line = reader.readLine();
                 if (line == null) {
                     break;
                 }
                 content.add(line);
             }
 
-            String line = lnr.readLine();
+            String line = reader.readLine();
             reachEnd = line == null;
         }
         return new Content(content, reachEnd);
     }
 
+    /*
+     * Seek to the nearest indexed line before the line, and skip the lines in between. Dumps parsed before lines
+     * were indexed are read from the start.
+     */
+    private BufferedReader openAt(int lineNo) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(snapshot.getPath()), StandardOpenOption.READ);
+        int skip = Math.max(lineNo - 1, 0);
+        long[] offsets = snapshot.getLineOffsets();
+        if (offsets != null && offsets.length > 0) {
+            int index = Math.min(skip / Snapshot.LINE_INDEX_INTERVAL, offsets.length - 1);
+            channel.position(offsets[index]);
+            skip -= index * Snapshot.LINE_INDEX_INTERVAL;
+        }
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, Charset.defaultCharset()));
+        try {
+            for (int i = 0; i < skip; i++) {
+                if (reader.readLine() == null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
     /**
      * @param paging paging request
      * @return the monitors
@@ -0,0 +1,275 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.tda;
+
+import org.apache.commons.lang3.Validate;
+import org.eclipse.jifa.analysis.listener.ProgressListener;
+import org.eclipse.jifa.common.domain.request.PagingRequest;
+import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.common.util.PageViewBuilder;
+import org.eclipse.jifa.tda.enums.JavaThreadState;
+import org.eclipse.jifa.tda.enums.SourceType;
+import org.eclipse.jifa.tda.enums.ThreadMatch;
+import org.eclipse.jifa.tda.model.CallSiteTree;
+import org.eclipse.jifa.tda.model.Frame;
+import org.eclipse.jifa.tda.model.JavaThread;
+import org.eclipse.jifa.tda.model.SharedPools;
+import org.eclipse.jifa.tda.model.Snapshot;
+import org.eclipse.jifa.tda.model.Trace;
+import org.eclipse.jifa.tda.parser.JStackParser;
+import org.eclipse.jifa.tda.vo.VCallSiteDelta;
+import org.eclipse.jifa.tda.vo.VThreadEvolution;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analyzer of an ordered series of thread dumps, e.g. several jstack captures of a JVM taken a few seconds apart
+ * <p>
+ * The snapshots share symbols, and frames and traces without monitors. Frames holding monitors are those of their own
+ * snapshot, so stack traces of different dumps are compared by the locations of their frames, and the monitors are
+ * ignored.
+ */
+public class ThreadDumpSeriesAnalyzer {
+
+    private static final JStackParser PARSER = new JStackParser();
+
+    private final List<Snapshot> snapshots;
+
+    ThreadDumpSeriesAnalyzer(List<Path> paths, ProgressListener listener) {
+        Validate.isTrue(!paths.isEmpty(), "No thread dump");
+        SharedPools pools = new SharedPools();
+        snapshots = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            snapshots.add(PARSER.parse(path, listener, pools));
+        }
+    }
+
+    /**
+     * build an analyzer for a series of thread dumps
+     *
+     * @param paths    the paths of thread dumps in order of capture
+     * @param listener progress listener
+     * @return analyzer
+     */
+    public static ThreadDumpSeriesAnalyzer build(List<Path> paths, ProgressListener listener) {
+        return new ThreadDumpSeriesAnalyzer(paths, listener);
+    }
+
+    /**
+     * @return the number of thread dumps
+     */
+    public int dumpCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * @param match        how java threads of the dumps are matched
+     * @param minUnchanged the min number of consecutive dumps with the same stack trace
+     * @param paging       paging request
+     * @return evolutions of java threads, threads unchanged across more dumps first
+     */
+    public PageView<VThreadEvolution> threadEvolutions(ThreadMatch match, int minUnchanged, PagingRequest paging) {
+        Map<ThreadKey, JavaThread[]> threads = new LinkedHashMap<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            Map<String, Integer> occurrences = new HashMap<>();
+            for (JavaThread thread : snapshots.get(i).getJavaThreads()) {
+                String key = keyOf(thread, match);
+                // threads with the same key are matched in order
+                ThreadKey threadKey = new ThreadKey(key, occurrences.merge(key, 1, Integer::sum));
+                threads.computeIfAbsent(threadKey, k -> new JavaThread[snapshots.size()])[i] = thread;
+            }
+        }
+
+        List<Evolution> evolutions = new ArrayList<>();
+        for (Map.Entry<ThreadKey, JavaThread[]> entry : threads.entrySet()) {
+            Evolution evolution = new Evolution(entry.getKey(), entry.getValue());
+            if (evolution.unchangedCaptures >= minUnchanged) {
+                evolutions.add(evolution);
+            }
+        }
+        evolutions.sort(Comparator.comparingInt((Evolution e) -> e.unchangedCaptures).reversed()
+                                  .thenComparing(Comparator.comparingInt((Evolution e) -> e.transitions).reversed()));
+        return PageViewBuilder.build(evolutions, paging, Evolution::toVO);
+    }
+
+    /**
+     * @param from   index of the base dump
+     * @param to     index of the dump compared with the base
+     * @param paging paging request
+     * @return call sites whose weight changed, larger changes first
+     */
+    public PageView<VCallSiteDelta> callSiteTreeDelta(int from, int to, PagingRequest paging) {
+        if (from < 0 || from >= snapshots.size() || to < 0 || to >= snapshots.size()) {
+            throw new IllegalArgumentException("Illegal dump index: " + from + ", " + to);
+        }
+        List<VCallSiteDelta> deltas = new ArrayList<>();
+        diff(snapshots.get(from).getCallSiteTree().getRoot(), snapshots.get(to).getCallSiteTree().getRoot(),
+             new ArrayList<>(), deltas);
+        deltas.sort(Comparator.comparingInt((VCallSiteDelta d) -> Math.abs(d.getToWeight() - d.getFromWeight()))
+                              .thenComparingInt(d -> d.getFrames().size())
+                              .reversed());
+        return PageViewBuilder.build(deltas, paging);
+    }
+
+    private static String keyOf(JavaThread thread, ThreadMatch match) {
+        return match == ThreadMatch.TID ? "0x" + Long.toHexString(thread.getTid()) : thread.getName();
+    }
+
+    private static boolean sameStack(Trace a, Trace b) {
+        if (a == b) {
+            return true;
+        }
+        Frame[] framesOfA = a.getFrames();
+        Frame[] framesOfB = b.getFrames();
+        if (framesOfA.length != framesOfB.length) {
+            return false;
+        }
+        for (int i = 0; i < framesOfA.length; i++) {
+            if (!Location.of(framesOfA[i]).equals(Location.of(framesOfB[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void diff(CallSiteTree.Node from, CallSiteTree.Node to, List<String> path,
+                             List<VCallSiteDelta> deltas) {
+        // a call site may hold different monitors in the two dumps
+        Map<Location, CallSiteTree.Node[]> children = new LinkedHashMap<>();
+        for (CallSiteTree.Node child : childrenOf(from)) {
+            children.computeIfAbsent(Location.of(child.getFrame()), l -> new CallSiteTree.Node[2])[0] = child;
+        }
+        for (CallSiteTree.Node child : childrenOf(to)) {
+            children.computeIfAbsent(Location.of(child.getFrame()), l -> new CallSiteTree.Node[2])[1] = child;
+        }
+        for (Map.Entry<Location, CallSiteTree.Node[]> entry : children.entrySet()) {
+            CallSiteTree.Node[] pair = entry.getValue();
+            path.add(describe((pair[0] != null ? pair[0] : pair[1]).getFrame()));
+            int fromWeight = pair[0] != null ? pair[0].getWeight() : 0;
+            int toWeight = pair[1] != null ? pair[1].getWeight() : 0;
+            if (fromWeight != toWeight) {
+                deltas.add(new VCallSiteDelta(new ArrayList<>(path), fromWeight, toWeight));
+            }
+            diff(pair[0], pair[1], path, deltas);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static List<CallSiteTree.Node> childrenOf(CallSiteTree.Node node) {
+        return node != null && node.getChildren() != null ? node.getChildren() : Collections.emptyList();
+    }
+
+    private static String describe(Frame frame) {
+        String source = switch (frame.getSourceType()) {
+            case REDEFINED -> "Redefined";
+            case NATIVE_METHOD -> "Native Method";
+            case SOURCE_FILE -> frame.getSource();
+            case SOURCE_FILE_WITH_LINE_NUMBER -> frame.getSource() + ":" + frame.getLine();
+            case UNKNOWN_SOURCE -> "Unknown Source";
+        };
+        return frame.getClazz() + "." + frame.getMethod() + "(" + source + ")";
+    }
+
+    private record ThreadKey(String key, int occurrence) {
+    }
+
+    /**
+     * The frame without its monitors
+     */
+    private record Location(String clazz, String method, String module, SourceType sourceType, String source,
+                            int line) {
+
+        static Location of(Frame frame) {
+            return new Location(frame.getClazz(), frame.getMethod(), frame.getModule(), frame.getSourceType(),
+                                frame.getSource(), frame.getLine());
+        }
+    }
+
+    private static class Evolution {
+
+        private final ThreadKey key;
+
+        private final JavaThread[] threads;
+
+        private int transitions;
+
+        private int unchangedCaptures;
+
+        private int unchangedFrom = -1;
+
+        Evolution(ThreadKey key, JavaThread[] threads) {
+            this.key = key;
+            this.threads = threads;
+
+            JavaThreadState lastState = null;
+            int run = 0;
+            for (int i = 0; i < threads.length; i++) {
+                JavaThread thread = threads[i];
+                if (thread == null) {
+                    // the state before the thread is absent is not compared with the state after
+                    lastState = null;
+                    run = 0;
+                    continue;
+                }
+                if (lastState != null && lastState != thread.getJavaThreadState()) {
+                    transitions++;
+                }
+                lastState = thread.getJavaThreadState();
+
+                Trace trace = thread.getTrace();
+                if (trace == null || trace.getFrames().length == 0) {
+                    run = 0;
+                    continue;
+                }
+                run = run > 0 && sameStack(threads[i - 1].getTrace(), trace) ? run + 1 : 1;
+                if (run > unchangedCaptures) {
+                    unchangedCaptures = run;
+                    unchangedFrom = i - run + 1;
+                }
+            }
+        }
+
+        VThreadEvolution toVO() {
+            VThreadEvolution vo = new VThreadEvolution();
+            vo.setKey(key.key());
+            vo.setOccurrence(key.occurrence());
+            List<JavaThreadState> states = new ArrayList<>(threads.length);
+            for (JavaThread thread : threads) {
+                if (thread != null && vo.getName() == null) {
+                    vo.setName(thread.getName());
+                }
+                states.add(thread != null ? thread.getJavaThreadState() : null);
+            }
+            vo.setStates(states);
+            vo.setTransitions(transitions);
+            vo.setUnchangedCaptures(unchangedCaptures);
+            vo.setUnchangedFrom(unchangedFrom);
+            if (unchangedFrom >= 0) {
+                List<String> frames = new ArrayList<>();
+                for (Frame frame : threads[unchangedFrom].getTrace().getFrames()) {
+                    frames.add(describe(frame));
+                }
+                vo.setUnchangedFrames(frames);
+            }
+            return vo;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.tda.model;
+
+import lombok.Getter;
+
+/**
+ * Constant pools shared by the snapshots of a series of dumps, so that symbols, frames and traces repeated across
+ * the dumps are stored once.
+ * <p>
+ * Only frames and traces without monitors are shared, since raw monitors are identified per snapshot. Those holding
+ * monitors are kept in the pools of their snapshot.
+ */
+@Getter
+public class SharedPools {
+
+    private final Pool<String> symbols = new Pool<>();
+
+    private final Pool<Frame> frames = new Pool<>();
+
+    private final Pool<Trace> traces = new Pool<>();
+}
@@ -18,6 +18,7 @@ import org.eclipse.jifa.tda.enums.MonitorState;
 import org.eclipse.jifa.tda.util.CollectionUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -29,6 +30,8 @@ import java.util.regex.Pattern;
 @Data
 public class Snapshot {
 
+    public static final int LINE_INDEX_INTERVAL = 1024;
+
     // constant pools
     private Pool<String> symbols = new Pool<>();
 
@@ -44,6 +47,9 @@ public class Snapshot {
 
     private String path;
 
+    // byte offsets of every LINE_INDEX_INTERVAL-th line from line 1, null if the dump is not indexed
+    private long[] lineOffsets;
+
     // -1 means unknown
     private long timestamp = -1L;
 
@@ -124,7 +130,7 @@ public class Snapshot {
                && Objects.equals(traces, snapshot.traces) && Objects.equals(rawMonitors, snapshot.rawMonitors)
                && Objects.equals(monitors, snapshot.monitors)
                && Objects.equals(concurrentLocks, snapshot.concurrentLocks)
-               && Objects.equals(path, snapshot.path)
+               && Objects.equals(path, snapshot.path) && Arrays.equals(lineOffsets, snapshot.lineOffsets)
                && Objects.equals(vmInfo, snapshot.vmInfo) && Objects.equals(javaThreads, snapshot.javaThreads)
                && Objects.equals(nonJavaThreads, snapshot.nonJavaThreads) && Objects.equals(threadMap, snapshot.threadMap)
                && Objects.equals(callSiteTree, snapshot.callSiteTree) && Objects.equals(threadGroup, snapshot.threadGroup)
@@ -0,0 +1,225 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.tda.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The first pass over a dump. Memory-mapped chunks of the file are scanned in parallel for the lines whose first
+ * non-blank character is a double quote, which start the blocks of threads, and for the offsets of indexed lines.
+ * Lines are terminated as LineNumberReader does.
+ * <p>
+ * Line numbers of a chunk depend on the lines of the chunks before it, so the lines of each chunk are counted
+ * first, also in parallel.
+ */
+class BlockScanner {
+
+    static final int CHUNK_SIZE = 4 << 20;
+
+    // a header line is read beyond its chunk
+    private static final int LOOKAHEAD = 64 << 10;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final int chunkCount;
+
+    private final int lineIndexInterval;
+
+    // offsets, line numbers and whether the line ends with ']' of block headers, in order of offset
+    long[] headerOffsets;
+
+    int[] headerLines;
+
+    boolean[] headerEndsWithBracket;
+
+    long[] lineOffsets;
+
+    private BlockScanner(FileChannel channel, int lineIndexInterval) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.chunkCount = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        this.lineIndexInterval = lineIndexInterval;
+    }
+
+    static BlockScanner scan(FileChannel channel, int lineIndexInterval, Executor executor, int parallelism)
+        throws IOException, InterruptedException {
+        BlockScanner scanner = new BlockScanner(channel, lineIndexInterval);
+        scanner.scan(executor, parallelism);
+        return scanner;
+    }
+
+    int headerIndexOf(long offset) {
+        return Arrays.binarySearch(headerOffsets, offset);
+    }
+
+    long size() {
+        return size;
+    }
+
+    private void scan(Executor executor, int parallelism) throws InterruptedException {
+        long[] terminators = new long[chunkCount];
+        ParserWorkers<Integer> counting = new ParserWorkers<>(executor, parallelism, chunkCount + 1,
+                                                              chunk -> terminators[chunk] = countTerminators(chunk));
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            counting.submit(chunk);
+        }
+        counting.await();
+
+        ChunkResult[] results = new ChunkResult[chunkCount];
+        long[] bases = new long[chunkCount];
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            bases[chunk] = bases[chunk - 1] + terminators[chunk - 1];
+        }
+        ParserWorkers<Integer> scanning = new ParserWorkers<>(executor, parallelism, chunkCount + 1,
+                                                              chunk -> results[chunk] = scanChunk(chunk, bases[chunk]));
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            scanning.submit(chunk);
+        }
+        scanning.await();
+
+        int headers = 0;
+        int indexed = 0;
+        for (ChunkResult result : results) {
+            headers += result.headerOffsets.size();
+            indexed += result.lineOffsets.size();
+        }
+        headerOffsets = new long[headers];
+        headerLines = new int[headers];
+        headerEndsWithBracket = new boolean[headers];
+        lineOffsets = new long[indexed];
+        int h = 0;
+        int l = 0;
+        for (ChunkResult result : results) {
+            for (int i = 0; i < result.headerOffsets.size(); i++, h++) {
+                headerOffsets[h] = result.headerOffsets.get(i);
+                headerLines[h] = result.headerLines.get(i);
+                headerEndsWithBracket[h] = result.headerEndsWithBracket.get(i);
+            }
+            for (long offset : result.lineOffsets) {
+                lineOffsets[l++] = offset;
+            }
+        }
+    }
+
+    private static class ChunkResult {
+        final List<Long> headerOffsets = new ArrayList<>();
+        final List<Integer> headerLines = new ArrayList<>();
+        final List<Boolean> headerEndsWithBracket = new ArrayList<>();
+        final List<Long> lineOffsets = new ArrayList<>();
+    }
+
+    /*
+     * A terminator is '\n', or '\r' not followed by '\n', and belongs to the chunk of its last byte.
+     */
+    private long countTerminators(int chunk) {
+        long start = (long) chunk * CHUNK_SIZE;
+        long end = Math.min(size, start + CHUNK_SIZE);
+        MappedByteBuffer buffer = map(start, Math.min(size, end + 1));
+        int length = (int) (end - start);
+        long count = 0;
+        for (int i = 0; i < length; i++) {
+            if (isTerminator(buffer, i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private ChunkResult scanChunk(int chunk, long base) {
+        long start = (long) chunk * CHUNK_SIZE;
+        long end = Math.min(size, start + CHUNK_SIZE);
+        // one byte before for the terminator of the previous line
+        long mapStart = Math.max(0, start - 1);
+        MappedByteBuffer buffer = map(mapStart, Math.min(size, end + LOOKAHEAD));
+        int shift = (int) (start - mapStart);
+        int length = (int) (end - start);
+
+        ChunkResult result = new ChunkResult();
+        // lines terminated before the current position
+        long lines = base;
+        boolean lineStart = start == 0 || isTerminator(buffer, shift - 1);
+        for (int i = 0; i < length; i++) {
+            if (lineStart) {
+                long lineNumber = lines + 1;
+                long offset = start + i;
+                if ((lineNumber - 1) % lineIndexInterval == 0) {
+                    result.lineOffsets.add(offset);
+                }
+                int first = skipBlanks(buffer, shift + i);
+                if (first < buffer.limit() && buffer.get(first) == '"') {
+                    result.headerOffsets.add(offset);
+                    result.headerLines.add(Math.toIntExact(lineNumber));
+                    result.headerEndsWithBracket.add(endsWithBracket(buffer, mapStart, first, offset));
+                }
+            }
+            lineStart = isTerminator(buffer, shift + i);
+            if (lineStart) {
+                lines++;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isTerminator(MappedByteBuffer buffer, int index) {
+        byte b = buffer.get(index);
+        return b == '\n' || b == '\r' && (index + 1 >= buffer.limit() || buffer.get(index + 1) != '\n');
+    }
+
+    private static int skipBlanks(MappedByteBuffer buffer, int index) {
+        while (index < buffer.limit() && isBlank(buffer.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private boolean endsWithBracket(MappedByteBuffer buffer, long bufferOffset, int index, long lineOffset) {
+        byte last = 0;
+        for (; index < buffer.limit(); index++) {
+            byte b = buffer.get(index);
+            if (b == '\n' || b == '\r') {
+                return last == ']';
+            }
+            if (!isBlank(b)) {
+                last = b;
+            }
+        }
+        if (bufferOffset + buffer.limit() == size || bufferOffset == lineOffset) {
+            return last == ']';
+        }
+        // a header longer than the lookahead
+        return endsWithBracket(map(lineOffset, Math.min(size, lineOffset + Integer.MAX_VALUE)), lineOffset, 0,
+                               lineOffset);
+    }
+
+    private MappedByteBuffer map(long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
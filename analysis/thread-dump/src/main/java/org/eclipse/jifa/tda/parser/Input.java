@@ -14,38 +14,63 @@
 package org.eclipse.jifa.tda.parser;
 
 import java.io.Closeable;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.LineNumberReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
+/**
+ * Read lines of a thread dump as LineNumberReader does. Blocks scanned in advance can be skipped by
+ * {@link #skipTo(long, int)}.
+ */
 public class Input implements Closeable {
 
-    private final LineNumberReader lnr;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final Charset charset = Charset.defaultCharset();
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    // offset of buffer[position] in the file
+    private long offset;
+
+    // offset of the current line in the file
+    private long lineOffset;
+
+    private int lineNumber;
+
+    private byte[] line = new byte[256];
 
     private String current;
 
     public Input(Path dumpPath) throws IOException {
-        lnr = new LineNumberReader(new FileReader(dumpPath.toFile()));
+        this(FileChannel.open(dumpPath, StandardOpenOption.READ));
     }
 
-    public void mark() throws IOException {
-        lnr.mark(1024);
+    public Input(FileChannel channel) {
+        this.channel = channel;
     }
 
-    public void reset() throws IOException {
-        lnr.reset();
+    public int lineNumber() {
+        return lineNumber;
     }
 
-    public int lineNumber() {
-        return lnr.getLineNumber();
+    public long lineOffset() {
+        return lineOffset;
     }
 
     public String readLine() throws IOException {
-        current = lnr.readLine();
-        if (current != null) {
-            current = current.trim();
-        }
+        int length = nextLine();
+        current = length < 0 ? null : new String(line, 0, length, charset).trim();
         return current;
     }
 
@@ -53,8 +78,62 @@ public class Input implements Closeable {
         return current;
     }
 
+    /**
+     * Continue reading from the line at the given offset
+     *
+     * @param offset     offset of a line
+     * @param lineNumber number of the line before it
+     */
+    public void skipTo(long offset, int lineNumber) throws IOException {
+        channel.position(offset);
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        position = limit = 0;
+        current = null;
+    }
+
+    /*
+     * Lines are terminated by '\n', '\r' or "\r\n", which are never part of multibyte characters of the
+     * default charsets of dumps.
+     */
+    private int nextLine() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        lineOffset = offset;
+
+        int length = 0;
+        while (position < limit || fill()) {
+            byte b = buffer[position++];
+            offset++;
+            if (b == '\n') {
+                break;
+            }
+            if (b == '\r') {
+                if ((position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                    offset++;
+                }
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        lineNumber++;
+        return length;
+    }
+
+    private boolean fill() throws IOException {
+        int n = channel.read(ByteBuffer.wrap(buffer));
+        position = 0;
+        limit = Math.max(n, 0);
+        return limit > 0;
+    }
+
     @Override
     public void close() throws IOException {
-        lnr.close();
+        channel.close();
     }
 }
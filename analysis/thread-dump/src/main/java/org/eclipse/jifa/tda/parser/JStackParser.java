@@ -15,6 +15,7 @@ package org.eclipse.jifa.tda.parser;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.eclipse.jifa.analysis.listener.ProgressListener;
 import org.eclipse.jifa.tda.enums.JavaThreadState;
 import org.eclipse.jifa.tda.enums.MonitorState;
@@ -22,29 +23,36 @@ import org.eclipse.jifa.tda.enums.OSTreadState;
 import org.eclipse.jifa.tda.enums.SourceType;
 import org.eclipse.jifa.tda.enums.ThreadType;
 import org.eclipse.jifa.tda.model.ConcurrentLock;
+import org.eclipse.jifa.tda.model.Error;
 import org.eclipse.jifa.tda.model.Frame;
 import org.eclipse.jifa.tda.model.JavaThread;
 import org.eclipse.jifa.tda.model.Monitor;
 import org.eclipse.jifa.tda.model.Pool;
 import org.eclipse.jifa.tda.model.RawMonitor;
+import org.eclipse.jifa.tda.model.SharedPools;
 import org.eclipse.jifa.tda.model.Snapshot;
 import org.eclipse.jifa.tda.model.Thread;
 import org.eclipse.jifa.tda.model.Trace;
 import org.eclipse.jifa.tda.util.Converter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,35 +60,59 @@ import java.util.regex.Pattern;
 @Slf4j
 public class JStackParser implements Parser {
 
-    private static final BlockingDeque<ParserImpl.RawJavaThread> QUEUE;
+    private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
 
-    private static final ExecutorService ES;
+    // regions of java threads queued per parse
+    private static final int QUEUE_CAPACITY = 128;
+
+    // java threads of a region, which is parsed by one worker
+    private static final int REGION_THREADS = 32;
+
+    // shared by all parses, threads are released when idle
+    private static final ThreadPoolExecutor EXECUTOR;
 
     static {
-        QUEUE = new LinkedBlockingDeque<>(128);
-
-        int count = Math.max(2, Runtime.getRuntime().availableProcessors());
-        ES = Executors.newFixedThreadPool(count);
-        assert count >= 2;
-
-        for (int i = 0; i < count; i++) {
-            ES.submit(() -> {
-                //noinspection InfiniteLoopStatement
-                while (true) {
-                    try {
-                        QUEUE.take().parse();
-                    } catch (Throwable t) {
-                        log.error("Parse one thread error", t);
-                    }
-                }
-            });
-        }
+        AtomicInteger counter = new AtomicInteger(1);
+        EXECUTOR = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                          r -> {
+                                              java.lang.Thread thread = new java.lang.Thread(
+                                                  r, "Thread Dump Parser - " + counter.getAndIncrement());
+                                              thread.setDaemon(true);
+                                              return thread;
+                                          });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final int parallelism;
+
+    public JStackParser() {
+        this(POOL_SIZE);
+    }
+
+    /**
+     * @param parallelism the max number of threads scanning the dump and parsing java threads of one dump
+     */
+    public JStackParser(int parallelism) {
+        Validate.isTrue(parallelism > 0, "Parallelism must be positive");
+        this.parallelism = parallelism;
     }
 
     @Override
     public Snapshot parse(Path path, ProgressListener listener) {
+        return parse(path, listener, null);
+    }
+
+    /**
+     * Parse a dump of a series whose snapshots share constant pools
+     *
+     * @param path     the path of thread dump
+     * @param listener progress listener for parsing
+     * @param pools    the shared pools, or null for pools of the snapshot
+     * @return the snapshot of thread dump
+     */
+    public Snapshot parse(Path path, ProgressListener listener, SharedPools pools) {
         try {
-            Snapshot snapshot = new ParserImpl(path, listener).parse();
+            Snapshot snapshot = new ParserImpl(path, listener, parallelism, pools).parse();
             snapshot.post();
             return snapshot;
         } catch (Throwable t) {
@@ -175,29 +207,52 @@ public class JStackParser implements Parser {
 
     private static class ParserImpl {
 
+        private final FileChannel channel;
+
         private final Input input;
 
-        private final AtomicInteger processing;
+        private final int parallelism;
 
-        private final List<Throwable> errors;
+        private final ParserWorkers<Region> workers;
 
         private final Snapshot snapshot;
 
+        // pools shared with the other dumps of a series, or null
+        private final SharedPools pools;
+
         private final ProgressListener listener;
 
-        ParserImpl(Path path, ProgressListener listener) throws IOException {
-            this.input = new Input(path);
+        private BlockScanner scanner;
+
+        ParserImpl(Path path, ProgressListener listener, int parallelism, SharedPools pools) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.input = new Input(channel);
             this.listener = listener;
+            this.parallelism = parallelism;
             snapshot = new Snapshot();
             snapshot.setPath(path.toAbsolutePath().toString());
-            processing = new AtomicInteger(0);
-            errors = new ArrayList<>();
-
-            step();
+            this.pools = pools;
+            if (pools != null) {
+                snapshot.setSymbols(pools.getSymbols());
+            }
+            workers = new ParserWorkers<>(EXECUTOR, parallelism, QUEUE_CAPACITY, this::parse);
         }
 
         Snapshot parse() throws Exception {
+            try {
+                return doParse();
+            } finally {
+                input.close();
+            }
+        }
+
+        private Snapshot doParse() throws Exception {
             listener.beginTask("Parsing thread dump", 100);
+            listener.subTask("Scanning blocks");
+            scanner = BlockScanner.scan(channel, Snapshot.LINE_INDEX_INTERVAL, EXECUTOR, parallelism);
+            snapshot.setLineOffsets(scanner.lineOffsets);
+
+            step();
             listener.subTask("Parsing timestamp and version");
             parseTimeStamp();
             parseVersion();
@@ -217,11 +272,7 @@ public class JStackParser implements Parser {
             listener.worked(8);
 
             // Wait for all Java threads to complete
-            synchronized (this) {
-                while (processing.get() != 0) {
-                    this.wait();
-                }
-            }
+            workers.await();
             listener.worked(90);
 
             return snapshot;
@@ -354,7 +405,7 @@ public class JStackParser implements Parser {
                             stackTraces.add(line);
                         } else {
                             Trace trace = parseStackTrace(threads.get(i), true, stackTraces);
-                            threads.get(i).setTrace(snapshot.getTraces().add(trace));
+                            threads.get(i).setTrace(internTrace(trace));
                             break;
                         }
                     }
@@ -375,15 +426,6 @@ public class JStackParser implements Parser {
             }
         }
 
-        void enroll(RawJavaThread tp) {
-            processing.incrementAndGet();
-            try {
-                QUEUE.put(tp);
-            } catch (Throwable t) {
-                processing.decrementAndGet();
-            }
-        }
-
         ThreadType typeOf(String name, boolean javaThread) {
             if (javaThread) {
                 if (name.startsWith("C1 CompilerThread") || name.startsWith("C2 CompilerThread")) {
@@ -415,49 +457,16 @@ public class JStackParser implements Parser {
 
         void parseThreads() throws Exception {
             String line = input.currentLine();
-            do {
-                while (StringUtils.isBlank(line)) {
-                    line = input.readLine();
-                    if (line == null) {
-                        return;
-                    }
+            while (StringUtils.isBlank(line)) {
+                line = input.readLine();
+                if (line == null) {
+                    return;
                 }
+            }
 
-                if (line.startsWith("\"")) {
-                    if (!line.endsWith("]")) {
-                        // not a java thread
-                        break;
-                    }
-                    RawJavaThread rjt = new RawJavaThread();
-                    rjt.contents.add(line);
-                    rjt.lineStart = input.lineNumber();
-
-                    while ((line = input.readLine()) != null) {
-                        if (StringUtils.isBlank(line)) {
-                            continue;
-                        }
-
-                        if (line.startsWith("\"")) {
-                            break;
-                        }
-
-                        if (line.startsWith(MonitorState.ELIMINATED_SCALAR_REPLACED.prefix())) {
-                            // this problem is fixed by JDK-8268780(JDK 18)
-                            int index = line.indexOf(")");
-                            if (index > 0 && line.length() > index + 1) {
-                                rjt.contents.add(line.substring(0, index + 1));
-                                rjt.contents.add(line.substring(index + 1).trim());
-                                continue;
-                            }
-                        }
-                        rjt.contents.add(line);
-                        rjt.lineEnd = input.lineNumber();
-                    }
-                    enroll(rjt);
-                } else {
-                    break;
-                }
-            } while (true);
+            if (line.startsWith("\"") && line.endsWith("]")) {
+                line = enrollJavaThreads();
+            }
 
             // other threads
             do {
@@ -483,30 +492,106 @@ public class JStackParser implements Parser {
             } while ((line = input.currentLine()) != null);
         }
 
-        void done() {
-            int remain = processing.decrementAndGet();
-            if (remain == 0) {
-                synchronized (this) {
-                    this.notify();
-                }
+        /*
+         * Java threads from the current line to the first thread which is not a java thread are split into regions
+         * at the headers found by the scanner, and the input skips to that thread.
+         */
+        String enrollJavaThreads() throws Exception {
+            int first = scanner.headerIndexOf(input.lineOffset());
+            if (first < 0) {
+                throw new ParserException("Unexpected java thread at line " + input.lineNumber());
+            }
+            int end = first;
+            while (end < scanner.headerOffsets.length && scanner.headerEndsWithBracket[end]) {
+                end++;
+            }
+
+            for (int i = first; i < end; i += REGION_THREADS) {
+                int next = Math.min(end, i + REGION_THREADS);
+                long regionEnd = next < scanner.headerOffsets.length ? scanner.headerOffsets[next] : scanner.size();
+                workers.submit(new Region(scanner.headerOffsets[i], regionEnd, scanner.headerLines[i]));
             }
+
+            if (end == scanner.headerOffsets.length) {
+                input.skipTo(scanner.size(), input.lineNumber());
+            } else {
+                input.skipTo(scanner.headerOffsets[end], scanner.headerLines[end] - 1);
+            }
+            return input.readLine();
         }
 
-        void recordError(Throwable t) {
-            synchronized (this) {
-                errors.add(t);
-                t.printStackTrace();
+        void parse(Region region) {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, region.start, region.end - region.start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Charset charset = Charset.defaultCharset();
+            byte[] bytes = new byte[256];
+            int lineNumber = region.lineStart;
+            RawJavaThread rjt = null;
+            while (buffer.hasRemaining()) {
+                int length = 0;
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (b == '\r') {
+                        if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                            buffer.get();
+                        }
+                        break;
+                    }
+                    if (length == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, length * 2);
+                    }
+                    bytes[length++] = b;
+                }
+                String line = new String(bytes, 0, length, charset).trim();
+
+                if (line.startsWith("\"")) {
+                    if (rjt != null) {
+                        parse(rjt);
+                    }
+                    rjt = new RawJavaThread();
+                    rjt.contents.add(line);
+                    rjt.lineStart = lineNumber;
+                } else if (StringUtils.isNotBlank(line)) {
+                    addContent(rjt, line, lineNumber);
+                }
+                lineNumber++;
+            }
+            if (rjt != null) {
+                parse(rjt);
             }
         }
 
-        void onParseRawThreadError(Throwable t) {
-            recordError(t);
-            int remain = processing.decrementAndGet();
-            if (remain == 0) {
-                synchronized (this) {
-                    this.notify();
+        void addContent(RawJavaThread rjt, String line, int lineNumber) {
+            if (line.startsWith(MonitorState.ELIMINATED_SCALAR_REPLACED.prefix())) {
+                // this problem is fixed by JDK-8268780(JDK 18)
+                int index = line.indexOf(")");
+                if (index > 0 && line.length() > index + 1) {
+                    rjt.contents.add(line.substring(0, index + 1));
+                    rjt.contents.add(line.substring(index + 1).trim());
+                    return;
                 }
             }
+            rjt.contents.add(line);
+            rjt.lineEnd = lineNumber;
+        }
+
+        void onParseRawThreadError(RawJavaThread rjt, Exception e) {
+            log.warn("Parse java thread failed: {}", e.getMessage());
+            Error error = new Error();
+            error.setDetail(e.getMessage() != null ? e.getMessage() : e.toString());
+            error.setLineStart(rjt.lineStart);
+            error.setLineEnd(Math.max(rjt.lineStart, rjt.lineEnd));
+            synchronized (this) {
+                snapshot.getErrors().add(error);
+            }
         }
 
         void checkLastFrameNotNull(Frame last, String line) {
@@ -551,9 +636,27 @@ public class JStackParser implements Parser {
             return monitor;
         }
 
+        /*
+         * Frames and traces without monitors are interned across the dumps of a series, so a stack repeated in the
+         * dumps is stored once. Those holding monitors refer to raw monitors of this snapshot, so they are interned
+         * in the snapshot, and frames of them without monitors are still shared.
+         */
+        Frame internFrame(Frame frame) {
+            Pool<Frame> pool = pools != null && frame.getMonitors() == null ? pools.getFrames() : snapshot.getFrames();
+            return pool.add(frame);
+        }
+
+        Trace internTrace(Trace trace) {
+            boolean shared = pools != null &&
+                             (trace.getConcurrentLocks() == null || trace.getConcurrentLocks().length == 0);
+            for (int i = 0; shared && i < trace.getFrames().length; i++) {
+                shared = trace.getFrames()[i].getMonitors() == null;
+            }
+            return (shared ? pools.getTraces() : snapshot.getTraces()).add(trace);
+        }
+
         Trace parseStackTrace(Thread thread, boolean deadLockThread, List<String> stackTraces) {
             Pool<String> symbolPool = snapshot.getSymbols();
-            Pool<Frame> framePool = snapshot.getFrames();
             Pool<Monitor> monitorPool = snapshot.getMonitors();
 
             Trace trace = new Trace();
@@ -576,7 +679,7 @@ public class JStackParser implements Parser {
 
                     if (last != null) {
                         // add frame here since all related information has been processed
-                        frames.add(framePool.add(last));
+                        frames.add(internFrame(last));
                     }
 
                     last = new Frame();
@@ -732,7 +835,7 @@ public class JStackParser implements Parser {
                 if (!monitors.isEmpty()) {
                     last.setMonitors(monitors.toArray(new Monitor[0]));
                 }
-                frames.add(framePool.add(last));
+                frames.add(internFrame(last));
             }
 
             trace.setFrames(frames.toArray(new Frame[0]));
@@ -770,14 +873,14 @@ public class JStackParser implements Parser {
                     // trace
                     Trace trace = parseStackTrace(thread, false, contents.subList(2, contents.size()));
                     snapshot.getCallSiteTree().add(trace);
-                    thread.setTrace(snapshot.getTraces().add(trace));
+                    thread.setTrace(internTrace(trace));
                 }
                 synchronized (this) {
                     snapshot.getJavaThreads().add(thread);
                 }
-                done();
-            } catch (Throwable t) {
-                onParseRawThreadError(t);
+            } catch (Exception e) {
+                // errors of the vm fail the parse
+                onParseRawThreadError(rjt, e);
             }
         }
 
@@ -802,6 +905,9 @@ public class JStackParser implements Parser {
             void onMatched(Matcher matcher) throws Exception;
         }
 
+        record Region(long start, long end, int lineStart) {
+        }
+
         class RawJavaThread {
 
             private final List<String> contents;
@@ -813,10 +919,6 @@ public class JStackParser implements Parser {
             public RawJavaThread() {
                 contents = new ArrayList<>();
             }
-
-            void parse() {
-                ParserImpl.this.parse(this);
-            }
         }
     }
 }
@@ -0,0 +1,139 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.tda.parser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Workers of one parse on an executor shared by all parses. Items are queued per parse with a bounded capacity,
+ * so that a producer faster than its workers is blocked, and a parse runs at most parallelism workers at a time.
+ * A worker gives up its executor thread after a batch of items and is scheduled again behind the workers of other
+ * parses, so that concurrent parses are served in turn, and no worker is left once the queue is empty.
+ * <p>
+ * A failure of an action fails the parse: it is thrown to the producer by submit and by await.
+ */
+class ParserWorkers<T> {
+
+    private static final int BATCH_SIZE = 32;
+
+    private final Executor executor;
+
+    private final int parallelism;
+
+    private final Consumer<T> action;
+
+    private final BlockingQueue<T> queue;
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    // queued or being processed
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Throwable failure;
+
+    ParserWorkers(Executor executor, int parallelism, int capacity, Consumer<T> action) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.action = action;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void submit(T item) throws InterruptedException {
+        checkFailure();
+        pending.incrementAndGet();
+        queue.put(item);
+        tryStartWorker();
+    }
+
+    void await() throws InterruptedException {
+        synchronized (this) {
+            while (pending.get() != 0 && failure == null) {
+                this.wait();
+            }
+        }
+        checkFailure();
+    }
+
+    /*
+     * The producer checks workers after queueing an item, and a worker checks the queue after leaving, so an item
+     * is never left without a worker.
+     */
+    private void tryStartWorker() {
+        while (!queue.isEmpty()) {
+            int count = workers.get();
+            if (count >= parallelism) {
+                return;
+            }
+            if (workers.compareAndSet(count, count + 1)) {
+                try {
+                    executor.execute(this::work);
+                } catch (RejectedExecutionException e) {
+                    workers.decrementAndGet();
+                    fail(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            for (int i = 0; i < BATCH_SIZE && failure == null; i++) {
+                T item = queue.poll();
+                if (item == null) {
+                    break;
+                }
+                try {
+                    action.accept(item);
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        synchronized (this) {
+                            this.notifyAll();
+                        }
+                    }
+                }
+            }
+        } finally {
+            workers.decrementAndGet();
+        }
+        if (failure == null) {
+            tryStartWorker();
+        } else {
+            queue.clear();
+        }
+    }
+
+    private void fail(Throwable t) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+            this.notifyAll();
+        }
+    }
+
+    private void checkFailure() {
+        Throwable t = failure;
+        if (t != null) {
+            throw t instanceof ParserException ? (ParserException) t : new ParserException(t);
+        }
+    }
+}
@@ -28,9 +28,20 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+/**
+ * Persist the parsed snapshot next to the thread dump. The serialized data starts with a header of the format
+ * version, and data of another version is ignored and replaced by parsing the thread dump again.
+ */
 @Slf4j
 public class SerDesParser implements Parser {
 
+    private static final int MAGIC = 0x54444B52; // TDKR
+
+    // increase when classes of the snapshot change
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
     private static final ThreadLocal<Kryo> KRYO;
 
     static {
@@ -56,7 +67,11 @@ public class SerDesParser implements Parser {
                 listener.beginTask("Deserializing thread dump", 100);
                 Snapshot snapshot = deserialize(serializedDataPath);
                 listener.worked(100);
-                return snapshot;
+                if (snapshot != null) {
+                    return snapshot;
+                }
+                log.info("Ignore serialized thread dump of another version: {}", serializedDataPath);
+                listener.reset();
             } catch (Throwable t) {
                 log.error("Failed to deserialize thread dump: {}", t.getMessage());
                 listener.sendUserMessage(ProgressListener.Level.WARNING, "Deserialize thread dump failed", t);
@@ -83,13 +98,25 @@ public class SerDesParser implements Parser {
     private void serialize(Snapshot snapshot, Path path) throws FileNotFoundException {
         Kryo kryo = KRYO.get();
         try (Output out = new Output(new FileOutputStream(path.toFile()))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
             kryo.writeObject(out, snapshot);
         }
     }
 
+    /**
+     * @return the snapshot, or null if the data is written by another version
+     */
     private Snapshot deserialize(Path path) throws IOException {
+        // data written without the header may be shorter than the header
+        if (Files.size(path) < HEADER_SIZE) {
+            return null;
+        }
         Kryo kryo = KRYO.get();
         try (Input input = new Input(new FileInputStream(path.toFile()))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return null;
+            }
             return kryo.readObject(input, Snapshot.class);
         }
     }
@@ -0,0 +1,45 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+
+package org.eclipse.jifa.tda.vo;
+
+import lombok.Data;
+import org.eclipse.jifa.tda.enums.JavaThreadState;
+
+import java.util.List;
+
+@Data
+public class VThreadEvolution {
+
+    // the name or tid the thread is matched by
+    private String key;
+
+    // threads with the same key in a dump are matched in order, starting from 1
+    private int occurrence;
+
+    private String name;
+
+    // state in each dump, null if the thread is absent
+    private List<JavaThreadState> states;
+
+    private int transitions;
+
+    // the longest run of consecutive dumps with the same stack trace
+    private int unchangedCaptures;
+
+    // index of the first dump of the run
+    private int unchangedFrom = -1;
+
+    // frames of the unchanged stack trace, from the top
+    private List<String> unchangedFrames;
+}
@@ -16,15 +16,30 @@ package org.eclipse.jifa.tda;
 import org.eclipse.jifa.analysis.listener.DefaultProgressListener;
 import org.eclipse.jifa.common.domain.request.PagingRequest;
 import org.eclipse.jifa.common.domain.vo.PageView;
+import org.eclipse.jifa.tda.enums.JavaThreadState;
+import org.eclipse.jifa.tda.enums.ThreadMatch;
 import org.eclipse.jifa.tda.enums.ThreadType;
+import org.eclipse.jifa.tda.model.JavaThread;
+import org.eclipse.jifa.tda.model.SharedPools;
+import org.eclipse.jifa.tda.model.Snapshot;
+import org.eclipse.jifa.tda.model.Trace;
+import org.eclipse.jifa.tda.parser.JStackParser;
 import org.eclipse.jifa.tda.vo.Content;
 import org.eclipse.jifa.tda.vo.Overview;
+import org.eclipse.jifa.tda.vo.VCallSiteDelta;
 import org.eclipse.jifa.tda.vo.VFrame;
 import org.eclipse.jifa.tda.vo.VMonitor;
 import org.eclipse.jifa.tda.vo.VThread;
+import org.eclipse.jifa.tda.vo.VThreadEvolution;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
 public class TestAnalyzer extends TestBase {
 
     @Test
@@ -50,4 +65,202 @@ public class TestAnalyzer extends TestBase {
         Assertions.assertEquals("Full thread dump OpenJDK 64-Bit Server VM (18-internal+0-adhoc.denghuiddh.my-jdk mixed " +
                             "mode, sharing):", line2.getContent().get(0));
     }
+
+    @Test
+    public void testLineIndex() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("2021-06-15 10:28:59\n");
+        sb.append("Full thread dump OpenJDK 64-Bit Server VM (11.0.2+9 mixed mode):\n\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("\"worker-").append(i).append("\" #").append(i + 100)
+              .append(" prio=5 os_prio=31 tid=0x00007fc1c281e000 nid=0x3a07 waiting on condition [0x0000000000000000]")
+              .append(i % 2 == 0 ? "\n" : "\r\n");
+            sb.append("   java.lang.Thread.State: RUNNABLE\n\n");
+        }
+        Path path = createTempFile(sb.toString());
+        List<String> lines = Files.readAllLines(path, Charset.defaultCharset());
+
+        ThreadDumpAnalyzer tda = new ThreadDumpAnalyzer(path, new DefaultProgressListener());
+        for (int lineNo : new int[]{1, 1024, 1025, 4000, lines.size() - 2}) {
+            Content content = tda.content(lineNo, 3);
+            Assertions.assertEquals(lines.subList(lineNo - 1, Math.min(lineNo + 2, lines.size())),
+                                    content.getContent());
+            Assertions.assertEquals(lineNo + 2 >= lines.size(), content.isEnd());
+        }
+
+        PageView<VThread> threads = tda.threads("worker-2999", ThreadType.JAVA, new PagingRequest(1, 1));
+        List<String> raw = tda.rawContentOfThread(threads.getData().get(0).getId());
+        Assertions.assertEquals(lines.get(lines.size() - 3), raw.get(0));
+    }
+
+    private static String seriesDump(String moverFrame, String moverState) {
+        return "2021-06-15 10:28:59\n" +
+               "Full thread dump OpenJDK 64-Bit Server VM (11.0.2+9 mixed mode):\n\n" +
+               "\"stuck\" #10 prio=5 os_prio=31 tid=0x00007fc1c281e000 nid=0x3a07 waiting on condition [0x0]\n" +
+               "   java.lang.Thread.State: TIMED_WAITING (sleeping)\n" +
+               "\tat java.lang.Thread.sleep(java.base@11.0.2/Native Method)\n" +
+               "\tat Stuck.run(Stuck.java:10)\n\n" +
+               "\"mover\" #11 prio=5 os_prio=31 tid=0x00007fc1c281f000 nid=0x3b07 runnable [0x0]\n" +
+               "   java.lang.Thread.State: " + moverState + "\n" +
+               "\tat " + moverFrame + "\n" +
+               "\tat Mover.run(Mover.java:20)\n\n";
+    }
+
+    @Test
+    public void testSeries() throws Exception {
+        List<Path> paths = List.of(createTempFile(seriesDump("Mover.a(Mover.java:1)", "RUNNABLE")),
+                                   createTempFile(seriesDump("Mover.b(Mover.java:2)", "RUNNABLE")),
+                                   createTempFile(seriesDump("Mover.b(Mover.java:2)", "TIMED_WAITING (sleeping)")));
+        ThreadDumpSeriesAnalyzer analyzer = new ThreadDumpSeriesAnalyzer(paths, new DefaultProgressListener());
+        Assertions.assertEquals(3, analyzer.dumpCount());
+
+        PageView<VThreadEvolution> evolutions =
+            analyzer.threadEvolutions(ThreadMatch.NAME, 2, new PagingRequest(1, 8));
+        Assertions.assertEquals(2, evolutions.getTotalSize());
+        VThreadEvolution stuck = evolutions.getData().get(0);
+        Assertions.assertEquals("stuck", stuck.getKey());
+        Assertions.assertEquals(3, stuck.getUnchangedCaptures());
+        Assertions.assertEquals(0, stuck.getUnchangedFrom());
+        Assertions.assertEquals(0, stuck.getTransitions());
+        Assertions.assertEquals("Stuck.run(Stuck.java:10)", stuck.getUnchangedFrames().get(1));
+
+        VThreadEvolution mover = evolutions.getData().get(1);
+        Assertions.assertEquals(2, mover.getUnchangedCaptures());
+        Assertions.assertEquals(1, mover.getUnchangedFrom());
+        Assertions.assertEquals(1, mover.getTransitions());
+        Assertions.assertEquals(List.of(JavaThreadState.RUNNABLE, JavaThreadState.RUNNABLE, JavaThreadState.SLEEPING),
+                                mover.getStates());
+
+        evolutions = analyzer.threadEvolutions(ThreadMatch.TID, 3, new PagingRequest(1, 8));
+        Assertions.assertEquals(1, evolutions.getTotalSize());
+        Assertions.assertEquals("0x7fc1c281e000", evolutions.getData().get(0).getKey());
+
+        Assertions.assertEquals(0, analyzer.callSiteTreeDelta(1, 2, new PagingRequest(1, 8)).getTotalSize());
+        PageView<VCallSiteDelta> deltas = analyzer.callSiteTreeDelta(0, 1, new PagingRequest(1, 8));
+        // the call site tree starts from top frames
+        Assertions.assertEquals(4, deltas.getTotalSize());
+        Assertions.assertEquals(2, deltas.getData().get(0).getFrames().size());
+        for (VCallSiteDelta delta : deltas.getData()) {
+            String frame = delta.getFrames().get(0);
+            if (frame.equals("Mover.a(Mover.java:1)")) {
+                Assertions.assertEquals(1, delta.getFromWeight());
+                Assertions.assertEquals(0, delta.getToWeight());
+            } else {
+                Assertions.assertEquals("Mover.b(Mover.java:2)", frame);
+                Assertions.assertEquals(0, delta.getFromWeight());
+                Assertions.assertEquals(1, delta.getToWeight());
+            }
+        }
+    }
+
+    private static String seriesThread(String name, long tid, String state, String... lines) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('"').append(name).append("\" #").append(tid).append(" prio=5 os_prio=31 tid=0x")
+          .append(Long.toHexString(tid)).append(" nid=0x3a07 waiting on condition [0x0]\n")
+          .append("   java.lang.Thread.State: ").append(state).append('\n');
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static String dumpOf(String... threads) {
+        return "2021-06-15 10:28:59\n" +
+               "Full thread dump OpenJDK 64-Bit Server VM (11.0.2+9 mixed mode):\n\n" +
+               String.join("", threads);
+    }
+
+    @Test
+    public void testSeriesMatching() throws Exception {
+        String sleeping = "TIMED_WAITING (sleeping)";
+        List<Path> paths = List.of(
+            createTempFile(dumpOf(
+                seriesThread("locker", 1, "RUNNABLE", "\tat Locker.run(Locker.java:5)",
+                             "\t- locked <0x0000000000000001> (a java.lang.Object)"),
+                seriesThread("dup", 2, "RUNNABLE", "\tat Dup.a(Dup.java:1)"),
+                seriesThread("dup", 3, sleeping, "\tat Dup.b(Dup.java:2)"),
+                seriesThread("dup#2", 4, "BLOCKED (on object monitor)", "\tat Dup.c(Dup.java:3)"),
+                seriesThread("comer", 5, "RUNNABLE", "\tat Comer.run(Comer.java:1)"))),
+            createTempFile(dumpOf(
+                seriesThread("locker", 1, "RUNNABLE", "\tat Locker.run(Locker.java:5)",
+                             "\t- locked <0x0000000000000002> (a java.lang.Object)"))),
+            createTempFile(dumpOf(
+                seriesThread("locker", 1, "RUNNABLE", "\tat Locker.run(Locker.java:5)",
+                             "\t- locked <0x0000000000000003> (a java.lang.Object)"),
+                seriesThread("comer", 5, sleeping, "\tat Comer.run(Comer.java:1)"))));
+        ThreadDumpSeriesAnalyzer analyzer = new ThreadDumpSeriesAnalyzer(paths, new DefaultProgressListener());
+
+        List<VThreadEvolution> evolutions =
+            analyzer.threadEvolutions(ThreadMatch.NAME, 0, new PagingRequest(1, 8)).getData();
+        Assertions.assertEquals(5, evolutions.size());
+
+        // the same stack holding another lock is unchanged
+        VThreadEvolution locker = evolutions.get(0);
+        Assertions.assertEquals("locker", locker.getKey());
+        Assertions.assertEquals(3, locker.getUnchangedCaptures());
+        Assertions.assertEquals("Locker.run(Locker.java:5)", locker.getUnchangedFrames().get(0));
+
+        for (VThreadEvolution evolution : evolutions) {
+            switch (evolution.getKey()) {
+                case "comer" -> {
+                    // no transition is counted across a dump the thread is absent from
+                    Assertions.assertEquals(0, evolution.getTransitions());
+                    Assertions.assertEquals(Arrays.asList(JavaThreadState.RUNNABLE, null, JavaThreadState.SLEEPING),
+                                            evolution.getStates());
+                }
+                case "dup" -> Assertions.assertEquals(evolution.getOccurrence() == 1 ? JavaThreadState.RUNNABLE
+                                                                                     : JavaThreadState.SLEEPING,
+                                                      evolution.getStates().get(0));
+                case "dup#2" -> {
+                    Assertions.assertEquals(1, evolution.getOccurrence());
+                    Assertions.assertEquals(JavaThreadState.BLOCKED_ON_MONITOR_ENTER, evolution.getStates().get(0));
+                }
+                default -> Assertions.assertEquals("locker", evolution.getKey());
+            }
+        }
+        Assertions.assertEquals(2, evolutions.stream().filter(e -> e.getKey().equals("dup")).count());
+
+        // the call site holding another lock is the same call site
+        Assertions.assertEquals(0, analyzer.callSiteTreeDelta(1, 2, new PagingRequest(1, 8)).getData().stream()
+                                           .filter(d -> d.getFrames().get(0).startsWith("Locker")).count());
+    }
+
+    private static Trace traceOf(Snapshot snapshot, String name) {
+        for (JavaThread thread : snapshot.getJavaThreads()) {
+            if (thread.getName().equals(name)) {
+                return thread.getTrace();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    public void testSeriesSharedStacks() throws Exception {
+        JStackParser parser = new JStackParser();
+        SharedPools pools = new SharedPools();
+        Snapshot[] snapshots = new Snapshot[2];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = parser.parse(createTempFile(dumpOf(
+                seriesThread("worker", 1, "RUNNABLE", "\tat Worker.poll(Worker.java:7)",
+                             "\tat Worker.run(Worker.java:3)"),
+                seriesThread("locker", 2, "RUNNABLE", "\tat Locker.run(Locker.java:5)",
+                             "\t- locked <0x000000000000000" + (i + 1) + "> (a java.lang.Object)",
+                             "\tat java.lang.Thread.run(Thread.java:829)"))),
+                                        new DefaultProgressListener(), pools);
+        }
+
+        // a repeated stack is stored once for the series
+        Assertions.assertSame(traceOf(snapshots[0], "worker"), traceOf(snapshots[1], "worker"));
+        Assertions.assertSame(traceOf(snapshots[0], "worker").getFrames()[0],
+                              traceOf(snapshots[1], "worker").getFrames()[0]);
+
+        // a stack holding monitors keeps the monitors of its snapshot, and shares the frames without monitors
+        Trace locker0 = traceOf(snapshots[0], "locker");
+        Trace locker1 = traceOf(snapshots[1], "locker");
+        Assertions.assertNotSame(locker0, locker1);
+        Assertions.assertEquals(0x1, locker0.getFrames()[0].getMonitors()[0].getRawMonitor().getAddress());
+        Assertions.assertEquals(0x2, locker1.getFrames()[0].getMonitors()[0].getRawMonitor().getAddress());
+        Assertions.assertSame(locker0.getFrames()[1], locker1.getFrames()[1]);
+        Assertions.assertEquals(1, pools.getTraces().size());
+    }
 }
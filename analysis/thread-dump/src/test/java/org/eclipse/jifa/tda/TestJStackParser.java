@@ -13,15 +13,26 @@
 
 package org.eclipse.jifa.tda;
 
+import org.eclipse.jifa.tda.model.JavaThread;
 import org.eclipse.jifa.tda.model.Snapshot;
+import org.eclipse.jifa.tda.parser.JStackParser;
 import org.eclipse.jifa.tda.parser.ParserException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.eclipse.jifa.analysis.listener.ProgressListener.NoOpProgressListener;
 
 public class TestJStackParser extends TestBase {
 
@@ -57,4 +68,84 @@ public class TestJStackParser extends TestBase {
         Snapshot snapshot = parseFile("jstack_11_with_deadlocks.log");
         Assertions.assertTrue(snapshot.getErrors().isEmpty());
     }
+
+    @Test
+    public void testErrorOfJavaThread() throws ParserException, IOException {
+        Snapshot snapshot = parseString("\"broken\" prio=5 ]\n   java.lang.Thread.State: RUNNABLE\n");
+        Assertions.assertEquals(1, snapshot.getErrors().size());
+        Assertions.assertEquals(1, snapshot.getErrors().get(0).getLineStart());
+        Assertions.assertTrue(snapshot.getJavaThreads().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentParses() throws Exception {
+        JStackParser parser = new JStackParser(1);
+        Path path = pathOfResource("jstack_11_with_deadlocks.log");
+        int expected = parser.parse(path, NoOpProgressListener).getJavaThreads().size();
+
+        ExecutorService es = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Snapshot>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(es.submit(() -> parser.parse(path, NoOpProgressListener)));
+            }
+            for (Future<Snapshot> future : futures) {
+                Snapshot snapshot = future.get();
+                Assertions.assertEquals(expected, snapshot.getJavaThreads().size());
+                Assertions.assertTrue(snapshot.getErrors().isEmpty());
+            }
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void testScanBlocksAcrossChunks() throws Exception {
+        String[] separators = {"\n", "\r\n", "\r"};
+        StringBuilder sb = new StringBuilder();
+        sb.append("2021-06-15 10:28:59\n");
+        sb.append("Full thread dump OpenJDK 64-Bit Server VM (11.0.2+9 mixed mode):\n\n");
+        int threads = 40000;
+        for (int i = 0; i < threads; i++) {
+            String separator = separators[i % separators.length];
+            sb.append("\"worker-").append(i).append("\" #").append(i + 100)
+              .append(" prio=5 os_prio=31 tid=0x00007fc1c281e000 nid=0x3a07 waiting on condition [0x0000000000000000]")
+              .append(separator);
+            sb.append("   java.lang.Thread.State: TIMED_WAITING (sleeping)").append(separator);
+            sb.append("\tat java.lang.Thread.sleep(java.base@11.0.2/Native Method)").append(separator);
+            sb.append("\tat Worker.run(Worker.java:").append(i).append(")").append(separator).append(separator);
+        }
+        sb.append("\"VM Thread\" os_prio=31 cpu=1.48ms elapsed=17.25s tid=0x00007fceff825000 nid=0x4d03 runnable\n\n");
+        sb.append("JNI global refs: 6, weak refs: 0\n");
+        Path path = createTempFile(sb.toString());
+        Assertions.assertTrue(Files.size(path) > 8 << 20);
+
+        Snapshot snapshot = new JStackParser(4).parse(path, NoOpProgressListener);
+        Assertions.assertTrue(snapshot.getErrors().isEmpty());
+        Assertions.assertEquals(threads, snapshot.getJavaThreads().size());
+        for (int i = 0; i < threads; i++) {
+            JavaThread thread = snapshot.getJavaThreads().get(i);
+            Assertions.assertEquals("worker-" + i, thread.getName());
+            Assertions.assertEquals(4 + i * 5, thread.getLineStart());
+            Assertions.assertEquals(4 + i * 5 + 3, thread.getLineEnd());
+            Assertions.assertEquals(i, thread.getTrace().getFrames()[1].getLine());
+        }
+        Assertions.assertEquals(1, snapshot.getNonJavaThreads().size());
+        Assertions.assertEquals(4 + threads * 5, snapshot.getNonJavaThreads().get(0).getLineStart());
+        Assertions.assertEquals(6, snapshot.getJniRefs());
+
+        String content = sb.toString();
+        List<Long> offsets = new ArrayList<>();
+        int lineNumber = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (i == 0 || content.charAt(i - 1) == '\n' ||
+                content.charAt(i - 1) == '\r' && content.charAt(i) != '\n') {
+                if (lineNumber++ % Snapshot.LINE_INDEX_INTERVAL == 0) {
+                    offsets.add((long) i);
+                }
+            }
+        }
+        Assertions.assertArrayEquals(offsets.stream().mapToLong(Long::longValue).toArray(),
+                                     snapshot.getLineOffsets());
+    }
 }
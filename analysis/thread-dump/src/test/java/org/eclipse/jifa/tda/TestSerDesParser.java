@@ -13,13 +13,23 @@
 
 package org.eclipse.jifa.tda;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import org.eclipse.jifa.tda.model.Snapshot;
 import org.eclipse.jifa.tda.parser.ParserException;
 import org.eclipse.jifa.tda.parser.SerDesParser;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 import static org.eclipse.jifa.analysis.listener.ProgressListener.NoOpProgressListener;
 
@@ -32,4 +42,30 @@ public class TestSerDesParser extends TestBase {
         Snapshot second = serDesAnalyzer.parse(pathOfResource("jstack_8.log"), NoOpProgressListener);
         Assertions.assertEquals(first, second);
     }
+
+    @Test
+    public void testStaleSerializedData() throws ParserException, URISyntaxException, IOException {
+        Path dump = Files.createTempFile("test", ".log");
+        dump.toFile().deleteOnExit();
+        Files.copy(pathOfResource("jstack_8.log"), dump, StandardCopyOption.REPLACE_EXISTING);
+        Path serialized = Paths.get(dump.toFile().getAbsoluteFile() + ".kryo");
+        serialized.toFile().deleteOnExit();
+
+        // data written without the version header
+        Snapshot expected = analyzer.parse(dump, NoOpProgressListener);
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        try (Output out = new Output(new FileOutputStream(serialized.toFile()))) {
+            kryo.writeObject(out, expected);
+        }
+
+        SerDesParser serDesAnalyzer = new SerDesParser(analyzer);
+        Assertions.assertEquals(serDesAnalyzer.parse(dump, NoOpProgressListener), expected);
+
+        // the stale data is replaced
+        try (Input in = new Input(new FileInputStream(serialized.toFile()))) {
+            Assertions.assertEquals(in.readInt(), 0x54444B52);
+        }
+        Assertions.assertEquals(serDesAnalyzer.parse(dump, NoOpProgressListener), expected);
+    }
 }